@@ -3,10 +3,13 @@ package brs;
 import brs.assetexchange.AssetExchange;
 import brs.assetexchange.AssetExchangeImpl;
 import brs.at.AT;
+import brs.at.AtSchedule;
+import brs.at.AtTransactionIndex;
 import brs.db.BlockDb;
 import brs.db.TransactionDb;
 import brs.db.cache.DBCacheManagerImpl;
 import brs.db.sql.Db;
+import brs.db.sql.DerivedTableTrimmer;
 import brs.db.store.BlockchainStore;
 import brs.db.store.Dbs;
 import brs.db.store.DerivedTableManager;
@@ -40,6 +43,7 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,6 +70,8 @@ public final class BPC {
 
   private static DBCacheManagerImpl dbCacheManager;
 
+  private static CpuPoCVerifier cpuPoCVerifier;
+
   private static API api;
   private static Server apiV2Server;
 
@@ -162,7 +168,7 @@ public final class BPC {
       final DerivedTableManager derivedTableManager = new DerivedTableManager();
 
       final StatisticsManagerImpl statisticsManager = new StatisticsManagerImpl(timeService);
-      dbCacheManager = new DBCacheManagerImpl(statisticsManager);
+      dbCacheManager = new DBCacheManagerImpl(propertyService, statisticsManager);
 
       threadPool = new ThreadPool(propertyService);
 
@@ -176,7 +182,7 @@ public final class BPC {
       final TransactionDb transactionDb = dbs.getTransactionDb();
       final BlockDb blockDb =  dbs.getBlockDb();
       final BlockchainStore blockchainStore = stores.getBlockchainStore();
-      blockchain = new BlockchainImpl(transactionDb, blockDb, blockchainStore);
+      blockchain = new BlockchainImpl(transactionDb, blockDb, blockchainStore, propertyService.getInt(Props.DB_BLOCK_CACHE_SIZE));
 
       final AliasService aliasService = new AliasServiceImpl(stores.getAliasStore());
       fluxCapacitor = new FluxCapacitorImpl(blockchain, propertyService);
@@ -209,7 +215,24 @@ public final class BPC {
           blockDb, transactionDb, economicClustering, blockchainStore, stores, escrowService, transactionService, downloadCache, generator, statisticsManager,
           dbCacheManager, accountService, indirectIncomingService);
 
-      final FeeSuggestionCalculator feeSuggestionCalculator = new FeeSuggestionCalculator(blockchainProcessor, blockchainStore, 10);
+      if (!blockchainProcessor.getOclVerify()) {
+        cpuPoCVerifier = new CpuPoCVerifier(propertyService, fluxCapacitor, downloadCache, blockService);
+        threadPool.scheduleThread("CpuPoCVerification", cpuPoCVerifier::verifyPending, 100, TimeUnit.MILLISECONDS);
+      }
+
+      if (propertyService.getInt(Props.DB_GROUP_COMMIT_BLOCKS) > 1) {
+        if (propertyService.getInt(Props.DB_BLOCK_CACHE_SIZE) < propertyService.getInt(Props.DB_GROUP_COMMIT_BLOCKS)) {
+          logger.warn("Peers can't get the blocks waiting for their commit, the block cache is smaller than a group of commits");
+        }
+        threadPool.scheduleThread("GroupCommit", () -> Db.commitPendingBlocks(false), propertyService.getInt(Props.DB_GROUP_COMMIT_DELAY), TimeUnit.MILLISECONDS);
+      }
+      if (propertyService.getBoolean(Props.DB_TRIM_DERIVED_TABLES)) {
+        final DerivedTableTrimmer derivedTableTrimmer = new DerivedTableTrimmer(blockchain, derivedTableManager, propertyService.getInt(Props.DB_TRIM_CHUNK_ROWS));
+        threadPool.scheduleThread("DerivedTableTrim", derivedTableTrimmer::trimNextChunk, propertyService.getInt(Props.DB_TRIM_DELAY), TimeUnit.MILLISECONDS);
+      }
+      threadPool.runAfterStart(transactionDb::loadTransactionIds);
+
+      final FeeSuggestionCalculator feeSuggestionCalculator = new FeeSuggestionCalculator(blockchainProcessor, blockchainStore, 10, propertyService.getInt(Props.BRS_ASYNC_LISTENER_QUEUE_SIZE));
 
       generator.generateForBlockchainProcessor(threadPool, blockchainProcessor);
 
@@ -278,6 +301,25 @@ public final class BPC {
 
     blockchainProcessor.addListener(handleATBlockTransactionListener, BlockchainProcessor.Event.AFTER_BLOCK_APPLY);
     blockchainProcessor.addListener(devNullListener, BlockchainProcessor.Event.AFTER_BLOCK_APPLY);
+    blockchainProcessor.addListener(block -> transactionProcessor.removeForgedTransactions(block.getTransactions()), BlockchainProcessor.Event.AFTER_BLOCK_APPLY);
+    // the block can still be rolled back after its listeners ran
+    Db.addRollbackListener(stores.getUnconfirmedTransactionStore()::restoreForgedTransactions);
+
+    // after the AT payments of the block got saved
+    final AtTransactionIndex atTransactionIndex = AtTransactionIndex.getInstance();
+    if (atTransactionIndex != null) {
+      blockchainProcessor.addListener(atTransactionIndex::blockApplied, BlockchainProcessor.Event.AFTER_BLOCK_APPLY);
+      blockchainProcessor.addListener(atTransactionIndex::blockPopped, BlockchainProcessor.Event.BLOCK_POPPED);
+      blockchainProcessor.addListener(block -> atTransactionIndex.clear(), BlockchainProcessor.Event.RESCAN_BEGIN);
+    }
+
+    final AtSchedule atSchedule = AtSchedule.getInstance();
+    if (atSchedule != null) {
+      accountService.addListener(atSchedule::balanceChanged, Account.Event.BALANCE);
+      blockchainProcessor.addListener(block -> atSchedule.invalidate(), BlockchainProcessor.Event.BLOCK_POPPED);
+      blockchainProcessor.addListener(block -> atSchedule.invalidate(), BlockchainProcessor.Event.RESCAN_BEGIN);
+      Db.addRollbackListener(atSchedule::invalidate);
+    }
   }
 
   private static void shutdown() {
@@ -317,6 +359,9 @@ public final class BPC {
       apiV2Server.shutdownNow();
     Peers.shutdown(threadPool);
     threadPool.shutdown();
+    if (cpuPoCVerifier != null) {
+      cpuPoCVerifier.shutdown();
+    }
     if(! ignoreDBShutdown) {
       Db.shutdown();
     }
@@ -8,11 +8,15 @@ import brs.util.Convert;
 import brs.util.JSON;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.*;
@@ -22,6 +26,8 @@ import java.util.concurrent.atomic.AtomicReference;
 public class Block {
 
   private static final Logger logger = LoggerFactory.getLogger(Block.class);
+
+  private static final String TRANSACTIONS = "transactions";
   private final int version;
   private final int timestamp;
   private final long previousBlockId;
@@ -248,6 +254,12 @@ public class Block {
   }
 
   public JsonObject getJsonObject() {
+    JsonArray transactionsData = new JsonArray();
+    getTransactions().forEach(transaction -> transactionsData.add(transaction.getJsonObject()));
+    return getJsonObject(transactionsData);
+  }
+
+  private JsonObject getJsonObject(JsonElement transactionsData) {
     JsonObject json = new JsonObject();
     json.addProperty("version", version);
     json.addProperty("timestamp", timestamp);
@@ -262,14 +274,32 @@ public class Block {
       json.addProperty("previousBlockHash", Convert.toHexString(previousBlockHash));
     }
     json.addProperty("blockSignature", Convert.toHexString(blockSignature));
-    JsonArray transactionsData = new JsonArray();
-    getTransactions().forEach(transaction -> transactionsData.add(transaction.getJsonObject()));
-    json.add("transactions", transactionsData);
+    json.add(TRANSACTIONS, transactionsData);
     json.addProperty("nonce", Convert.toUnsignedLong(nonce));
     json.addProperty("blockATs", Convert.toHexString(blockATs));
     return json;
   }
 
+  /**
+   * Writes the same JSON as {@link #getJsonObject()} one transaction at a time.
+   */
+  public void writeJsonTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    for (Map.Entry<String, JsonElement> field : getJsonObject(JsonNull.INSTANCE).entrySet()) {
+      writer.name(field.getKey());
+      if (field.getKey().equals(TRANSACTIONS)) {
+        writer.beginArray();
+        for (Transaction transaction : getTransactions()) {
+          JSON.writeTo(transaction.getJsonObject(), writer);
+        }
+        writer.endArray();
+      } else {
+        JSON.writeTo(field.getValue(), writer);
+      }
+    }
+    writer.endObject();
+  }
+
   static Block parseBlock(JsonObject blockData, int height) throws BurstException.ValidationException {
     try {
       int version = JSON.getAsInt(blockData.get("version"));
@@ -286,7 +316,7 @@ public class Block {
       long nonce = Convert.parseUnsignedLong(JSON.getAsString(blockData.get("nonce")));
 
       SortedMap<Long, Transaction> blockTransactions = new TreeMap<>();
-      JsonArray transactionsData = JSON.getAsJsonArray(blockData.get("transactions"));
+      JsonArray transactionsData = JSON.getAsJsonArray(blockData.get(TRANSACTIONS));
     
       for (JsonElement transactionData : transactionsData) {
         Transaction transaction = Transaction.parseTransaction(JSON.getAsJsonObject(transactionData), height);
@@ -307,6 +337,76 @@ public class Block {
     }
   }
 
+  /**
+   * Reverse of {@link #getBytes()}, which leaves out the transactions, so they have to be parsed separately
+   */
+  public static Block parseBlock(byte[] blockBytes, List<Transaction> transactions, int height) throws BurstException.ValidationException {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(blockBytes);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      int version = buffer.getInt();
+      int timestamp = buffer.getInt();
+      long previousBlock = buffer.getLong();
+      int transactionCount = buffer.getInt();
+      long totalAmountNQT;
+      long totalFeeNQT;
+      if (version < 3) {
+        totalAmountNQT = buffer.getInt() * Constants.ONE_BURST;
+        totalFeeNQT = buffer.getInt() * Constants.ONE_BURST;
+      } else {
+        totalAmountNQT = buffer.getLong();
+        totalFeeNQT = buffer.getLong();
+      }
+      int payloadLength = buffer.getInt();
+      byte[] payloadHash = new byte[32];
+      buffer.get(payloadHash);
+      byte[] generatorPublicKey = new byte[32];
+      buffer.get(generatorPublicKey);
+      byte[] generationSignature = new byte[32];
+      buffer.get(generationSignature);
+      byte[] previousBlockHash = null;
+      if (version > 1) {
+        previousBlockHash = new byte[32];
+        buffer.get(previousBlockHash);
+      }
+      long nonce = buffer.getLong();
+
+      // getBytes() always makes room for the previous block hash, version 1 blocks end in 32 unused bytes instead
+      int blockATsLength = buffer.remaining() - 64 - (version > 1 ? 0 : 32);
+      if (blockATsLength < 0) {
+        throw new BurstException.NotValidException("Block bytes too short: " + blockBytes.length);
+      }
+      byte[] blockATs = null;
+      if (blockATsLength > 0) {
+        blockATs = new byte[blockATsLength];
+        buffer.get(blockATs);
+      }
+      byte[] blockSignature = new byte[64];
+      buffer.get(blockSignature);
+
+      if (transactionCount != transactions.size()) {
+        throw new BurstException.NotValidException("Block announces " + transactionCount + " transactions but comes with " + transactions.size());
+      }
+      SortedMap<Long, Transaction> blockTransactions = new TreeMap<>();
+      for (Transaction transaction : transactions) {
+        if (transaction.getSignature() != null && blockTransactions.put(transaction.getId(), transaction) != null) {
+          throw new BurstException.NotValidException("Block contains duplicate transactions: " + transaction.getStringId());
+        }
+      }
+
+      return new Block(version, timestamp, previousBlock, totalAmountNQT, totalFeeNQT,
+          payloadLength, payloadHash, generatorPublicKey, generationSignature, blockSignature,
+          previousBlockHash, new ArrayList<>(blockTransactions.values()), nonce, blockATs, height);
+    } catch (BufferUnderflowException e) {
+      throw new BurstException.NotValidException("Block bytes too short: " + blockBytes.length);
+    } catch (BurstException.ValidationException | RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failed to parse block bytes: {}", Convert.toHexString(blockBytes));
+      }
+      throw e;
+    }
+  }
+
   public byte[] getBytes() {
     ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + 4 + (version < 3 ? (4 + 4) : (8 + 8)) + 4
         + 32 + 32 + (32 + 32) + 8 + (blockATs != null ? blockATs.length : 0) + 64);
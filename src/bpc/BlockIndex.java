@@ -0,0 +1,58 @@
+package brs;
+
+import brs.db.BlockDb;
+
+import java.util.Arrays;
+
+/**
+ * Ids and timestamps of the blocks on the main chain, indexed by height, so walking back from the last block doesn't
+ * have to load every block in between. Not thread safe, {@link BlockchainImpl} guards it with its lock.
+ */
+final class BlockIndex {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private int[] timestamps = new int[INITIAL_CAPACITY];
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  long getId(int height) {
+    return ids[height];
+  }
+
+  int getTimestamp(int height) {
+    return timestamps[height];
+  }
+
+  /**
+   * Makes the index end with the given block, reading the heights it doesn't know yet from the database. If the
+   * block isn't a successor of the indexed chain everything is dropped and read again.
+   */
+  void setLast(Block block, BlockDb blockDb) {
+    int height = block.getHeight();
+    size = Math.min(size, height);
+    if (size > 0 && ids[size - 1] != block.getPreviousBlockId()) {
+      size = 0;
+    }
+    ensureCapacity(height + 1);
+    if (size < height) {
+      blockDb.loadBlockIdsAndTimestamps(size, height - 1, ids, timestamps);
+      size = height;
+    }
+    ids[height] = block.getId();
+    timestamps[height] = block.getTimestamp();
+    size = height + 1;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > ids.length) {
+      int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+      ids = Arrays.copyOf(ids, newCapacity);
+      timestamps = Arrays.copyOf(timestamps, newCapacity);
+    }
+  }
+}
@@ -30,6 +30,8 @@ public interface Blockchain {
 
   long getBlockIdAtHeight(int height);
 
+  int getBlockTimestampAtHeight(int height);
+
   Transaction getTransaction(long transactionId);
 
   Collection<Transaction> getTransactionsByHeightAndRecipient(Integer height);
@@ -5,7 +5,12 @@ import brs.db.TransactionDb;
 import brs.db.store.BlockchainStore;
 import brs.util.StampedLockUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Supplier;
@@ -17,12 +22,24 @@ public class BlockchainImpl implements Blockchain {
   private final BlockchainStore blockchainStore;
   
   private final StampedLock bcsl;
+
+  // the last pushed blocks and their transactions, only changed while holding the write lock
+  private final int blockCacheSize;
+  private final ConcurrentSkipListMap<Integer, Block> blocksByHeight = new ConcurrentSkipListMap<>();
+  private final Map<Long, Block> blocksById = new ConcurrentHashMap<>();
+  private final Map<Long, Transaction> transactionsById = new ConcurrentHashMap<>();
+  private final BlockIndex blockIndex = new BlockIndex();
   
   BlockchainImpl(TransactionDb transactionDb, BlockDb blockDb, BlockchainStore blockchainStore) {
+    this(transactionDb, blockDb, blockchainStore, 0);
+  }
+
+  BlockchainImpl(TransactionDb transactionDb, BlockDb blockDb, BlockchainStore blockchainStore, int blockCacheSize) {
     this.transactionDb = transactionDb;
     this.blockDb = blockDb;
     this.blockchainStore = blockchainStore;
     this.bcsl = new StampedLock();
+    this.blockCacheSize = blockCacheSize;
   }
 
   private final AtomicReference<Block> lastBlock = new AtomicReference<>();
@@ -40,7 +57,13 @@ public class BlockchainImpl implements Blockchain {
   public void setLastBlock(Block block) {
     long stamp = bcsl.writeLock();
     try {
-      lastBlock.set(block);
+      Block previousBlock = lastBlock.getAndSet(block);
+      blockIndex.setLast(block, blockDb);
+      if (previousBlock != null && block.getPreviousBlockId() == previousBlock.getId()) {
+        cacheBlock(block);
+      } else {
+        uncacheBlocksAbove(block.getHeight());
+      }
     } finally {
       bcsl.unlockWrite(stamp);
     }
@@ -52,11 +75,46 @@ public class BlockchainImpl implements Blockchain {
       if (! lastBlock.compareAndSet(previousBlock, block)) {
         throw new IllegalStateException("Last block is no longer previous block");
       }
+      blockIndex.setLast(block, blockDb);
+      cacheBlock(block);
     } finally {
       bcsl.unlockWrite(stamp);
     }
   }
 
+  private void cacheBlock(Block block) {
+    if (blockCacheSize <= 0) {
+      return;
+    }
+    uncacheBlocksAbove(block.getHeight() - 1);
+    blocksByHeight.put(block.getHeight(), block);
+    blocksById.put(block.getId(), block);
+    for (Transaction transaction : block.getTransactions()) {
+      transactionsById.put(transaction.getId(), transaction);
+    }
+    while (blocksByHeight.size() > blockCacheSize) {
+      uncache(blocksByHeight.pollFirstEntry().getValue());
+    }
+  }
+
+  /**
+   * Drops the cached blocks that were popped off, or replaced after a reset, along with their transactions.
+   */
+  private void uncacheBlocksAbove(int height) {
+    Map.Entry<Integer, Block> entry;
+    while ((entry = blocksByHeight.lastEntry()) != null && entry.getKey() > height) {
+      blocksByHeight.remove(entry.getKey());
+      uncache(entry.getValue());
+    }
+  }
+
+  private void uncache(Block block) {
+    blocksById.remove(block.getId());
+    for (Transaction transaction : block.getTransactions()) {
+      transactionsById.remove(transaction.getId());
+    }
+  }
+
   @Override
   public int getHeight() {  
     Block last = getLastBlock();
@@ -78,17 +136,32 @@ public class BlockchainImpl implements Blockchain {
     if (block.getId() == blockId) {
       return block;
     }
-    return blockDb.findBlock(blockId);
+    Block cached = blocksById.get(blockId);
+    return cached != null ? cached : blockDb.findBlock(blockId);
   }
 
   @Override
   public boolean hasBlock(long blockId) {
-    return getLastBlock().getId() == blockId || blockDb.hasBlock(blockId);
+    return getLastBlock().getId() == blockId || blocksById.containsKey(blockId) || blockDb.hasBlock(blockId);
   }
 
   @Override
   public Collection<Block> getBlocks(int from, int to) {
-    return blockchainStore.getBlocks(from, to);
+    List<Block> blocks = new ArrayList<>(blockchainStore.getBlocks(from, to));
+    int height = getHeight();
+    int top = height - Math.max(from, 0);
+    int bottom = to > 0 ? height - to : 0;
+    int committed = blocks.isEmpty() ? bottom - 1 : blocks.get(0).getHeight();
+    if (committed >= top) {
+      return blocks;
+    }
+    // blocks applied in a group that is still waiting for its commit are only in memory
+    List<Block> pending = new ArrayList<>(blocksByHeight.subMap(committed, false, top, true).descendingMap().values());
+    if (pending.size() < top - committed) {
+      return blocks;
+    }
+    pending.addAll(blocks);
+    return pending;
   }
 
   @Override
@@ -103,12 +176,39 @@ public class BlockchainImpl implements Blockchain {
 
   @Override
   public Collection<Long> getBlockIdsAfter(long blockId, int limit) {
-    return blockchainStore.getBlockIdsAfter(blockId, limit);
+    List<Long> ids = new ArrayList<>(blockchainStore.getBlockIdsAfter(blockId, limit));
+    for (Block block : cachedBlocksAfter(ids.isEmpty() ? blockId : ids.get(ids.size() - 1), limit - ids.size())) {
+      ids.add(block.getId());
+    }
+    return ids;
   }
 
   @Override
   public Collection<Block> getBlocksAfter(long blockId, int limit) {
-    return blockchainStore.getBlocksAfter(blockId, limit);
+    List<Block> blocks = new ArrayList<>(blockchainStore.getBlocksAfter(blockId, limit));
+    blocks.addAll(cachedBlocksAfter(blocks.isEmpty() ? blockId : blocks.get(blocks.size() - 1).getId(), limit - blocks.size()));
+    return blocks;
+  }
+
+  /**
+   * The cached blocks following the given one on the main chain. Blocks applied in a group that is still waiting for
+   * its commit can't be read from the database by other threads, only from here.
+   */
+  private List<Block> cachedBlocksAfter(long blockId, int limit) {
+    List<Block> blocks = new ArrayList<>();
+    Block block = blocksById.get(blockId);
+    if (limit <= 0 || block == null) {
+      return blocks;
+    }
+    long previousId = blockId;
+    for (Block next : blocksByHeight.tailMap(block.getHeight(), false).values()) {
+      if (blocks.size() >= limit || next.getPreviousBlockId() != previousId) {
+        break;
+      }
+      blocks.add(next);
+      previousId = next.getId();
+    }
+    return blocks;
   }
 
   @Override
@@ -120,9 +220,34 @@ public class BlockchainImpl implements Blockchain {
     if (height == block.getHeight()) {
       return block.getId();
     }
+    long stamp = bcsl.readLock();
+    try {
+      if (height < blockIndex.size()) {
+        return blockIndex.getId(height);
+      }
+    } finally {
+      bcsl.unlockRead(stamp);
+    }
     return blockDb.findBlockIdAtHeight(height);
   }
 
+  @Override
+  public int getBlockTimestampAtHeight(int height) {
+    Block block = getLastBlock();
+    if (height > block.getHeight()) {
+      throw new IllegalArgumentException("Invalid height " + height + ", current blockchain is at " + block.getHeight());
+    }
+    long stamp = bcsl.readLock();
+    try {
+      if (height < blockIndex.size()) {
+        return blockIndex.getTimestamp(height);
+      }
+    } finally {
+      bcsl.unlockRead(stamp);
+    }
+    return getBlockAtHeight(height).getTimestamp();
+  }
+
   @Override
   public Block getBlockAtHeight(int height) {
     Block block = getLastBlock();
@@ -132,12 +257,14 @@ public class BlockchainImpl implements Blockchain {
     if (height == block.getHeight()) {
       return block;
     }
-    return blockDb.findBlockAtHeight(height);
+    Block cached = blocksByHeight.get(height);
+    return cached != null ? cached : blockDb.findBlockAtHeight(height);
   }
 
   @Override
   public Transaction getTransaction(long transactionId) {
-    return transactionDb.findTransaction(transactionId);
+    Transaction cached = transactionsById.get(transactionId);
+    return cached != null ? cached : transactionDb.findTransaction(transactionId);
   }
 
   @Override
@@ -152,7 +279,7 @@ public class BlockchainImpl implements Blockchain {
 
   @Override
   public boolean hasTransaction(long transactionId) {
-    return transactionDb.hasTransaction(transactionId);
+    return transactionsById.containsKey(transactionId) || transactionDb.hasTransaction(transactionId);
   }
 
   @Override
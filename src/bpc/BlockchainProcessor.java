@@ -26,6 +26,13 @@ public interface BlockchainProcessor extends Observable<Block, BlockchainProcess
 
   void processPeerBlock(JsonObject request, Peer peer) throws BurstException;
 
+  /**
+   * Processes a block a peer pushed in binary form. Implementations can override this to skip the JSON round trip.
+   */
+  default void processPeerBlock(Block block, Peer peer) throws BurstException {
+    processPeerBlock(block.getJsonObject(), peer);
+  }
+
   void fullReset();
 
   void generateBlock(String secretPhrase, byte[] publicKey, Long nonce)
@@ -0,0 +1,90 @@
+package brs;
+
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.peer.Peer;
+import brs.props.PropertyService;
+import brs.props.Props;
+import brs.services.BlockService;
+import brs.util.DownloadCacheImpl;
+import brs.util.MiningPlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Checks the proof of capacity of downloaded blocks on the CPU when there is no GPU to hand them to.
+ * Blocks are taken off the unverified queue of the download cache and spread over a work-stealing pool with one
+ * worker per core, each worker hashing its nonces in the same buffers. Blocks verified here don't need to be
+ * checked again when they get applied.
+ */
+final class CpuPoCVerifier {
+
+  private static final Logger logger = LoggerFactory.getLogger(CpuPoCVerifier.class);
+
+  private static final int BLOCKS_PER_WORKER = 8;
+
+  private final FluxCapacitor fluxCapacitor;
+  private final DownloadCacheImpl downloadCache;
+  private final BlockService blockService;
+
+  private final ForkJoinPool pool;
+  private final int blocksPerRound;
+
+  CpuPoCVerifier(PropertyService propertyService, FluxCapacitor fluxCapacitor, DownloadCacheImpl downloadCache, BlockService blockService) {
+    this.fluxCapacitor = fluxCapacitor;
+    this.downloadCache = downloadCache;
+    this.blockService = blockService;
+
+    int cores = propertyService.getInt(Props.CPU_NUM_CORES);
+    if (cores <= 0) {
+      cores = Runtime.getRuntime().availableProcessors();
+    }
+    this.pool = new ForkJoinPool(cores);
+    this.blocksPerRound = cores * BLOCKS_PER_WORKER;
+    logger.info("Verifying downloaded blocks on {} cores", cores);
+  }
+
+  void verifyPending() {
+    while (downloadCache.getUnverifiedSize() > 0 && !Thread.currentThread().isInterrupted()) {
+      final List<Block> blocks = downloadCache.pollUnverifiedBlocks(blocksPerRound);
+      if (blocks.isEmpty()) {
+        return;
+      }
+
+      final List<ForkJoinTask<?>> tasks = new ArrayList<>(blocks.size());
+      for (Block block : blocks) {
+        tasks.add(pool.submit(() -> verify(block)));
+      }
+      for (ForkJoinTask<?> task : tasks) {
+        task.join();
+      }
+    }
+  }
+
+  private void verify(Block block) {
+    if (block.isVerified()) {
+      return;
+    }
+    try {
+      final byte[] scoop = MiningPlot.generateScoop(block.getGeneratorId(), block.getNonce(), blockService.getScoopNum(block), block.getHeight(), fluxCapacitor);
+      blockService.preVerify(block, scoop);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+      logger.info("Block {} failed to prevalidate, dropping the download queue", block.getId(), e);
+      final Peer peer = block.getPeer();
+      if (peer != null) {
+        peer.blacklist(e, "found invalid pull/push data during prevalidation");
+      }
+      downloadCache.resetCache();
+    }
+  }
+
+  void shutdown() {
+    pool.shutdownNow();
+  }
+}
@@ -34,12 +34,22 @@ public final class EconomicClustering {
     if (timestamp < block.getTimestamp() - 15) {
       throw new IllegalArgumentException("Timestamp cannot be more than 15 s earlier than last block timestamp: " + block.getTimestamp());
     }
-    int distance = 0;
-    while (block.getTimestamp() > timestamp - Constants.EC_RULE_TERMINATOR && distance < Constants.EC_BLOCK_DISTANCE_LIMIT) {
-      block = blockchain.getBlock(block.getPreviousBlockId());
-      distance += 1;
+    if (block.getTimestamp() <= timestamp - Constants.EC_RULE_TERMINATOR) {
+      return block;
     }
-    return block;
+    // block timestamps grow with the height, find the highest block old enough within the distance limit
+    int oldest = Math.max(block.getHeight() - Constants.EC_BLOCK_DISTANCE_LIMIT, 0);
+    int low = oldest;
+    int high = block.getHeight() - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (blockchain.getBlockTimestampAtHeight(middle) > timestamp - Constants.EC_RULE_TERMINATOR) {
+        high = middle - 1;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return blockchain.getBlockAtHeight(Math.max(high, oldest));
   }
 
   public boolean verifyFork(Transaction transaction) {
@@ -53,8 +63,9 @@ public final class EconomicClustering {
       if (blockchain.getHeight() < Constants.EC_CHANGE_BLOCK_1 && blockchain.getHeight() - transaction.getECBlockHeight() > Constants.EC_BLOCK_DISTANCE_LIMIT) {
         return false;
       }
-      Block ecBlock = blockchain.getBlock(transaction.getECBlockId());
-      return ecBlock != null && ecBlock.getHeight() == transaction.getECBlockHeight();
+      int ecBlockHeight = transaction.getECBlockHeight();
+      return ecBlockHeight >= 0 && ecBlockHeight <= blockchain.getHeight()
+          && blockchain.getBlockIdAtHeight(ecBlockHeight) == transaction.getECBlockId();
     }
     catch ( NullPointerException e ) {
       if (logger.isDebugEnabled()) {
@@ -2,13 +2,13 @@ package brs;
 
 import brs.crypto.Crypto;
 import brs.fluxcapacitor.FluxCapacitor;
-import brs.fluxcapacitor.FluxValues;
 import brs.props.PropertyService;
 import brs.props.Props;
 import brs.services.TimeService;
 import brs.util.Convert;
 import brs.util.Listener;
 import brs.util.Listeners;
+import brs.util.MiningPlot;
 import brs.util.ThreadPool;
 import burst.kit.crypto.BurstCrypto;
 import org.slf4j.Logger;
@@ -119,13 +119,9 @@ public class GeneratorImpl implements Generator {
     return burstCrypto.calculateScoop(genSig, height);
   }
 
-  private int getPocVersion(int blockHeight) {
-    return fluxCapacitor.getValue(FluxValues.POC2, blockHeight) ? 2 : 1;
-  }
-
   @Override
   public BigInteger calculateHit(long accountId, long nonce, byte[] genSig, int scoop, int blockHeight) {
-    return burstCrypto.calculateHit(accountId, nonce, genSig, scoop, getPocVersion(blockHeight));
+    return burstCrypto.calculateHit(accountId, nonce, genSig, MiningPlot.generateScoop(accountId, nonce, scoop, blockHeight, fluxCapacitor));
   }
 
   @Override
@@ -135,7 +131,7 @@ public class GeneratorImpl implements Generator {
 
   @Override
   public BigInteger calculateDeadline(long accountId, long nonce, byte[] genSig, int scoop, long baseTarget, int blockHeight) {
-    return burstCrypto.calculateDeadline(accountId, nonce, genSig, scoop, baseTarget, getPocVersion(blockHeight));
+    return calculateHit(accountId, nonce, genSig, scoop, blockHeight).divide(BigInteger.valueOf(baseTarget));
   }
 
   public class GeneratorStateImpl implements GeneratorState {
@@ -470,6 +470,10 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   public static Transaction parseTransaction(byte[] bytes) throws BurstException.ValidationException {
+    return parseTransaction(bytes, Integer.MAX_VALUE);
+  }
+
+  public static Transaction parseTransaction(byte[] bytes, int height) throws BurstException.ValidationException {
     try {
       ByteBuffer buffer = ByteBuffer.wrap(bytes);
       buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -507,7 +511,8 @@ public class Transaction implements Comparable<Transaction> {
           .referencedTransactionFullHash(referencedTransactionFullHash)
           .signature(signature)
           .ecBlockHeight(ecBlockHeight)
-          .ecBlockId(ecBlockId);
+          .ecBlockId(ecBlockId)
+          .height(height);
       if (transactionType.hasRecipient()) {
         builder.recipientId(recipientId);
       }
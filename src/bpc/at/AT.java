@@ -138,6 +138,10 @@ public class AT extends AtMachineState {
     }
 
     public static List<Long> getOrderedATs() {
+        AtSchedule schedule = AtSchedule.getInstance();
+        if (schedule != null) {
+            return schedule.getOrderedATs();
+        }
         return BPC.getStores().getAtStore().getOrderedATs();
     }
 
@@ -195,6 +199,11 @@ public class AT extends AtMachineState {
                     getpBalance(), freezeOnSameBalance(), minActivationAmount());
         }
         atStateTable().insert(state);
+
+        AtSchedule schedule = AtSchedule.getInstance();
+        if (schedule != null) {
+            schedule.stateSaved(state);
+        }
     }
 
     public String getName() {
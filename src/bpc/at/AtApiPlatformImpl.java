@@ -28,10 +28,20 @@ public class AtApiPlatformImpl extends AtApiImpl {
     }
 
     private static Long findTransaction(int startHeight, int endHeight, Long atID, int numOfTx, long minAmount) {
+        AtTransactionIndex index = AtTransactionIndex.getInstance();
+        Long transactionId = index != null ? index.findTransaction(startHeight, endHeight, atID, numOfTx, minAmount) : null;
+        if (transactionId != null) {
+            return transactionId;
+        }
         return BPC.getStores().getAtStore().findTransaction(startHeight, endHeight, atID, numOfTx, minAmount);
     }
 
     private static int findTransactionHeight(Long transactionId, int height, Long atID, long minAmount) {
+        AtTransactionIndex index = AtTransactionIndex.getInstance();
+        Integer counter = index != null ? index.findTransactionHeight(transactionId, height, atID, minAmount) : null;
+        if (counter != null) {
+            return counter;
+        }
         return BPC.getStores().getAtStore().findTransactionHeight(transactionId, height, atID, minAmount);
     }
 
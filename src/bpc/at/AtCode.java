@@ -0,0 +1,435 @@
+package brs.at;
+
+import brs.BPC;
+import brs.props.Props;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The code of an AT decoded once, for all ATs running the same code: the jump targets found by disassembling it from
+ * the start and the operands of the instruction at every offset, read and checked the way {@link AtMachineProcessor}
+ * reads them. The interpreter can start from here instead of disassembling the code before every run.
+ */
+final class AtCode {
+
+    // operands read by the instruction at an offset, as in the getters of AtMachineProcessor
+    private static final byte NONE = 0;
+    private static final byte FUN = 1;
+    private static final byte ADDR_CODE = 2;
+    private static final byte ADDR_DATA = 3;
+    private static final byte ADDRS = 4;
+    private static final byte ADDR_OFF = 5;
+    private static final byte ADDRS_OFF = 6;
+    private static final byte FUN_ADDR = 7;
+    private static final byte FUN_ADDRS = 8;
+    private static final byte ADDRESS_VAL = 9;
+
+    // flags of an offset
+    private static final byte READ = 1;      // the operands fit into the code and were read
+    private static final byte EXT_READ = 2;  // the further address of SET_IDX, IDX_DAT and EXT_FUN_RET_DAT_2 was read
+    private static final byte EXT_FAULT = 4; // reading the further address runs past the code buffer
+
+    // cached for codes that can't be decoded, so they aren't tried again on every run
+    private static final AtCode UNDECODABLE = new AtCode(new byte[0], 0, 0);
+
+    private final int cSize;
+    private final int dSize;
+    private final long[] jumps;
+
+    private final byte[] kinds;
+    private final byte[] flags;
+    private final byte[] rcs;
+    private final byte[] extRcs;
+    private final short[] funs;
+    private final int[] addr1s;
+    private final int[] addr2s;
+    private final int[] addr3s;
+    private final long[] vals;
+    private final byte[] offs;
+    private final int[] extAddrs;
+
+    private AtCode(byte[] code, int cSize, int dSize) {
+        this.cSize = cSize;
+        this.dSize = dSize;
+        this.kinds = new byte[cSize];
+        this.flags = new byte[cSize];
+        this.rcs = new byte[cSize];
+        this.extRcs = new byte[cSize];
+        this.funs = new short[cSize];
+        this.addr1s = new int[cSize];
+        this.addr2s = new int[cSize];
+        this.addr3s = new int[cSize];
+        this.vals = new long[cSize];
+        this.offs = new byte[cSize];
+        this.extAddrs = new int[cSize];
+
+        ByteBuffer buffer = ByteBuffer.wrap(code);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int pc = 0; pc < cSize; pc++) {
+            decode(buffer, pc);
+        }
+        this.jumps = findJumps(code);
+    }
+
+    /**
+     * The decoded code of the given AT, shared with all others running the same code, or null if it has to be run
+     * from its code buffer.
+     */
+    static AtCode of(AtMachineState state) {
+        Map<Key, AtCode> cache = Cache.codes;
+        if (cache == null) {
+            return null;
+        }
+        byte[] code = state.getApCodeBytes();
+        Key key = new Key(code, state.getcSize(), state.getdSize());
+        AtCode atCode;
+        synchronized (cache) {
+            atCode = cache.get(key);
+        }
+        if (atCode == null) {
+            atCode = decode(code, state.getcSize(), state.getdSize());
+            synchronized (cache) {
+                cache.put(new Key(code.clone(), key.cSize, key.dSize), atCode != null ? atCode : UNDECODABLE);
+            }
+        }
+        return atCode != UNDECODABLE ? atCode : null;
+    }
+
+    /**
+     * Decodes the code, or returns null if it can't be decoded up front: when the buffer doesn't match the code size,
+     * or when disassembling it depends on more than the code, like a SET_IDX reading and writing data even while
+     * being disassembled.
+     */
+    static AtCode decode(byte[] code, int cSize, int dSize) {
+        if (code.length != cSize) {
+            return null;
+        }
+        AtCode atCode = new AtCode(code, cSize, dSize);
+        return atCode.jumps != null ? atCode : null;
+    }
+
+    boolean isJump(int addr) {
+        return addr >= 0 && addr < cSize && (jumps[addr >>> 6] & (1L << addr)) != 0;
+    }
+
+    /**
+     * Sets the operands the getter of the instruction at pc reads, returning its result.
+     */
+    int load(int pc, AtMachineProcessor.Fun fun) {
+        if ((flags[pc] & READ) == 0) {
+            return -1;
+        }
+        switch (kinds[pc]) {
+            case FUN:
+                fun.fun = funs[pc];
+                break;
+            case ADDR_CODE:
+            case ADDR_DATA:
+                fun.addr1 = addr1s[pc];
+                break;
+            case ADDRS:
+                fun.addr1 = addr1s[pc];
+                fun.addr2 = addr2s[pc];
+                break;
+            case ADDR_OFF:
+                fun.addr1 = addr1s[pc];
+                fun.off = offs[pc];
+                break;
+            case ADDRS_OFF:
+                fun.addr1 = addr1s[pc];
+                fun.addr2 = addr2s[pc];
+                fun.off = offs[pc];
+                break;
+            case FUN_ADDR:
+                fun.fun = funs[pc];
+                fun.addr1 = addr1s[pc];
+                break;
+            case FUN_ADDRS:
+                fun.fun = funs[pc];
+                fun.addr3 = addr3s[pc];
+                fun.addr2 = addr2s[pc];
+                break;
+            case ADDRESS_VAL:
+                fun.addr1 = addr1s[pc];
+                fun.val = vals[pc];
+                break;
+            default:
+                break;
+        }
+        return rcs[pc];
+    }
+
+    /**
+     * Sets the further address read after the operands of SET_IDX, IDX_DAT and EXT_FUN_RET_DAT_2, returning its
+     * result.
+     */
+    int loadExt(int pc, AtMachineProcessor.Fun fun) {
+        if ((flags[pc] & EXT_FAULT) != 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ((flags[pc] & EXT_READ) == 0) {
+            return -1;
+        }
+        fun.addr1 = extAddrs[pc];
+        return extRcs[pc];
+    }
+
+    private static byte kind(byte op) {
+        if (op == OpCode.E_OP_CODE_SET_VAL) {
+            return ADDRESS_VAL;
+        } else if (op == OpCode.E_OP_CODE_SET_DAT || op == OpCode.E_OP_CODE_ADD_DAT || op == OpCode.E_OP_CODE_SUB_DAT
+                || op == OpCode.E_OP_CODE_MUL_DAT || op == OpCode.E_OP_CODE_DIV_DAT || op == OpCode.E_OP_CODE_BOR_DAT
+                || op == OpCode.E_OP_CODE_AND_DAT || op == OpCode.E_OP_CODE_XOR_DAT || op == OpCode.E_OP_CODE_SET_IND
+                || op == OpCode.E_OP_CODE_SET_IDX || op == OpCode.E_OP_CODE_IND_DAT || op == OpCode.E_OP_CODE_IDX_DAT
+                || op == OpCode.E_OP_CODE_MOD_DAT || op == OpCode.E_OP_CODE_SHL_DAT || op == OpCode.E_OP_CODE_SHR_DAT) {
+            return ADDRS;
+        } else if (op == OpCode.E_OP_CODE_CLR_DAT || op == OpCode.E_OP_CODE_INC_DAT || op == OpCode.E_OP_CODE_DEC_DAT
+                || op == OpCode.E_OP_CODE_NOT_DAT || op == OpCode.E_OP_CODE_PSH_DAT || op == OpCode.E_OP_CODE_POP_DAT
+                || op == OpCode.E_OP_CODE_FIZ_DAT || op == OpCode.E_OP_CODE_STZ_DAT) {
+            return ADDR_DATA;
+        } else if (op == OpCode.E_OP_CODE_JMP_SUB || op == OpCode.E_OP_CODE_JMP_ADR || op == OpCode.E_OP_CODE_SLP_DAT
+                || op == OpCode.E_OP_CODE_ERR_ADR) {
+            return ADDR_CODE;
+        } else if (op == OpCode.E_OP_CODE_BZR_DAT || op == OpCode.E_OP_CODE_BNZ_DAT) {
+            return ADDR_OFF;
+        } else if (op == OpCode.E_OP_CODE_BGT_DAT || op == OpCode.E_OP_CODE_BLT_DAT || op == OpCode.E_OP_CODE_BGE_DAT
+                || op == OpCode.E_OP_CODE_BLE_DAT || op == OpCode.E_OP_CODE_BEQ_DAT || op == OpCode.E_OP_CODE_BNE_DAT) {
+            return ADDRS_OFF;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN) {
+            return FUN;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_DAT || op == OpCode.E_OP_CODE_EXT_FUN_RET) {
+            return FUN_ADDR;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_DAT_2 || op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT
+                || op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2) {
+            return FUN_ADDRS;
+        }
+        return NONE;
+    }
+
+    private static int extSize(byte op) {
+        if (op == OpCode.E_OP_CODE_SET_IDX || op == OpCode.E_OP_CODE_IDX_DAT) {
+            return 8;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2) {
+            return 10;
+        }
+        return 0;
+    }
+
+    private void decode(ByteBuffer code, int pc) {
+        byte op = code.get(pc);
+        byte kind = kind(op);
+        kinds[pc] = kind;
+        // disassembling reads the further address even when the first operands don't fit
+        decodeExt(code, pc, extSize(op));
+        boolean valid;
+        switch (kind) {
+            case FUN:
+                if (pc + 2 >= cSize) {
+                    return;
+                }
+                funs[pc] = code.getShort(pc + 1);
+                valid = true;
+                break;
+            case ADDR_CODE:
+            case ADDR_DATA:
+                if (pc + 4 >= cSize) {
+                    return;
+                }
+                addr1s[pc] = code.getInt(pc + 1);
+                valid = validAddr(addr1s[pc], kind == ADDR_CODE);
+                break;
+            case ADDRS:
+                if (pc + 4 + 4 >= cSize) {
+                    return;
+                }
+                addr1s[pc] = code.getInt(pc + 1);
+                addr2s[pc] = code.getInt(pc + 1 + 4);
+                valid = validAddr(addr1s[pc], false) && validAddr(addr2s[pc], false);
+                break;
+            case ADDR_OFF:
+                if (pc + 5 >= cSize) {
+                    return;
+                }
+                addr1s[pc] = code.getInt(pc + 1);
+                offs[pc] = code.get(pc + 5);
+                valid = validAddr(addr1s[pc], false) && validAddr(pc + offs[pc], true);
+                break;
+            case ADDRS_OFF:
+                if (pc + 9 >= cSize) {
+                    return;
+                }
+                addr1s[pc] = code.getInt(pc + 1);
+                addr2s[pc] = code.getInt(pc + 5);
+                offs[pc] = code.get(pc + 9);
+                valid = validAddr(addr1s[pc], false) && validAddr(addr2s[pc], false) && validAddr(pc + offs[pc], true);
+                break;
+            case FUN_ADDR:
+                if (pc + 4 + 4 >= cSize) {
+                    return;
+                }
+                funs[pc] = code.getShort(pc + 1);
+                addr1s[pc] = code.getInt(pc + 1 + 2);
+                valid = validAddr(addr1s[pc], false);
+                break;
+            case FUN_ADDRS:
+                if (pc + 4 + 4 + 2 >= cSize) {
+                    return;
+                }
+                funs[pc] = code.getShort(pc + 1);
+                addr3s[pc] = code.getInt(pc + 1 + 2);
+                addr2s[pc] = code.getInt(pc + 1 + 2 + 4);
+                valid = validAddr(addr3s[pc], false) && validAddr(addr2s[pc], false);
+                break;
+            case ADDRESS_VAL:
+                if (pc + 4 + 8 >= cSize) {
+                    return;
+                }
+                addr1s[pc] = code.getInt(pc + 1);
+                vals[pc] = code.getLong(pc + 1 + 4);
+                valid = validAddr(addr1s[pc], false);
+                break;
+            default:
+                valid = true;
+                break;
+        }
+        flags[pc] |= READ;
+        rcs[pc] = (byte) (valid ? 0 : -1);
+    }
+
+    private void decodeExt(ByteBuffer code, int pc, int size) {
+        if (size == 0 || pc + 4 >= cSize) {
+            return;
+        }
+        if (size + pc + 1 + 4 > code.capacity()) {
+            flags[pc] |= EXT_FAULT;
+            return;
+        }
+        extAddrs[pc] = code.getInt(size + pc + 1);
+        extRcs[pc] = (byte) (validAddr(extAddrs[pc], false) ? 0 : -1);
+        flags[pc] |= EXT_READ;
+    }
+
+    private boolean validAddr(int addr, boolean isCode) {
+        return AtMachineProcessor.validAddr(addr, isCode, cSize, dSize);
+    }
+
+    /**
+     * Walks the code like disassembling it to determine the jumps does, returning null where that walk depends on
+     * more than the code.
+     */
+    private long[] findJumps(byte[] code) {
+        long[] found = new long[(cSize + 63) >>> 6];
+        int pc = 0;
+        while (pc < cSize) {
+            found[pc >>> 6] |= 1L << pc;
+            byte op = code[pc];
+            int length = disassembledLength(op, pc);
+            if (length == Integer.MIN_VALUE) {
+                return null;
+            }
+            if (length <= 0) {
+                break;
+            }
+            pc += length;
+        }
+        return found;
+    }
+
+    private int disassembledLength(byte op, int pc) {
+        if (op == OpCode.E_OP_CODE_NOP || op == OpCode.E_OP_CODE_RET_SUB || op == OpCode.E_OP_CODE_FIN_IMD
+                || op == OpCode.E_OP_CODE_STP_IMD || op == OpCode.E_OP_CODE_SLP_IMD || op == OpCode.E_OP_CODE_SET_PCS) {
+            return 1;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN) {
+            return 3;
+        } else if (op == OpCode.E_OP_CODE_CLR_DAT || op == OpCode.E_OP_CODE_INC_DAT || op == OpCode.E_OP_CODE_DEC_DAT
+                || op == OpCode.E_OP_CODE_NOT_DAT || op == OpCode.E_OP_CODE_PSH_DAT || op == OpCode.E_OP_CODE_POP_DAT
+                || op == OpCode.E_OP_CODE_JMP_SUB || op == OpCode.E_OP_CODE_JMP_ADR || op == OpCode.E_OP_CODE_SLP_DAT
+                || op == OpCode.E_OP_CODE_FIZ_DAT || op == OpCode.E_OP_CODE_STZ_DAT || op == OpCode.E_OP_CODE_ERR_ADR) {
+            return 5;
+        } else if (op == OpCode.E_OP_CODE_BZR_DAT || op == OpCode.E_OP_CODE_BNZ_DAT) {
+            return 6;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_RET) {
+            return 7;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_DAT) {
+            return rc(pc) == 0 ? 7 : -1;
+        } else if (op == OpCode.E_OP_CODE_SET_DAT || op == OpCode.E_OP_CODE_ADD_DAT || op == OpCode.E_OP_CODE_SUB_DAT
+                || op == OpCode.E_OP_CODE_MUL_DAT || op == OpCode.E_OP_CODE_DIV_DAT || op == OpCode.E_OP_CODE_BOR_DAT
+                || op == OpCode.E_OP_CODE_AND_DAT || op == OpCode.E_OP_CODE_XOR_DAT || op == OpCode.E_OP_CODE_MOD_DAT
+                || op == OpCode.E_OP_CODE_SHL_DAT || op == OpCode.E_OP_CODE_SHR_DAT) {
+            return 9;
+        } else if (op == OpCode.E_OP_CODE_SET_IND || op == OpCode.E_OP_CODE_IND_DAT) {
+            return rc(pc) == 0 ? 9 : -1;
+        } else if (op == OpCode.E_OP_CODE_BGT_DAT || op == OpCode.E_OP_CODE_BLT_DAT || op == OpCode.E_OP_CODE_BGE_DAT
+                || op == OpCode.E_OP_CODE_BLE_DAT || op == OpCode.E_OP_CODE_BEQ_DAT || op == OpCode.E_OP_CODE_BNE_DAT) {
+            return 10;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_DAT_2) {
+            return 11;
+        } else if (op == OpCode.E_OP_CODE_SET_VAL) {
+            return 13;
+        } else if (op == OpCode.E_OP_CODE_IDX_DAT) {
+            return (flags[pc] & EXT_FAULT) != 0 ? Integer.MIN_VALUE : 13;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT) {
+            return rc(pc) == 0 ? 11 : -1;
+        } else if (op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2) {
+            if ((flags[pc] & EXT_FAULT) != 0) {
+                return Integer.MIN_VALUE;
+            }
+            return (flags[pc] & EXT_READ) != 0 && extRcs[pc] == 0 ? 15 : -1;
+        } else if (op == OpCode.E_OP_CODE_SET_IDX) {
+            return Integer.MIN_VALUE;
+        }
+        return 0;
+    }
+
+    private int rc(int pc) {
+        return (flags[pc] & READ) != 0 ? rcs[pc] : -1;
+    }
+
+    private static final class Cache {
+        private static final Map<Key, AtCode> codes = newCache(BPC.getPropertyService().getInt(Props.AT_CODE_CACHE_SIZE));
+
+        private static Map<Key, AtCode> newCache(int size) {
+            if (size <= 0) {
+                return null;
+            }
+            return new LinkedHashMap<Key, AtCode>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, AtCode> eldest) {
+                    return size() > size;
+                }
+            };
+        }
+    }
+
+    private static final class Key {
+        private final byte[] code;
+        private final int cSize;
+        private final int dSize;
+        private final int hash;
+
+        private Key(byte[] code, int cSize, int dSize) {
+            this.code = code;
+            this.cSize = cSize;
+            this.dSize = dSize;
+            this.hash = 31 * (31 * Arrays.hashCode(code) + cSize) + dSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && cSize == other.cSize && dSize == other.dSize && Arrays.equals(code, other.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
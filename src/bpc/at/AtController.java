@@ -3,6 +3,7 @@ package brs.at;
 import brs.Account;
 import brs.BPC;
 import brs.crypto.Crypto;
+import brs.fluxcapacitor.FluxSnapshot;
 import brs.fluxcapacitor.FluxValues;
 import brs.props.Props;
 import brs.util.Convert;
@@ -15,6 +16,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public abstract class AtController {
     private AtController() {
@@ -24,15 +27,29 @@ public abstract class AtController {
 
     private static final Logger debugLogger = BPC.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG) ? logger : NOPLogger.NOP_LOGGER;
 
-    private static int runSteps(AtMachineState state) {
+    private static final boolean useDecodedProcessor = BPC.getPropertyService().getBoolean(Props.AT_DECODED_PROCESSOR);
+
+    private static final ForkJoinPool parallelPool = newParallelPool(BPC.getPropertyService().getInt(Props.AT_PARALLEL_THREADS));
+
+    private static ForkJoinPool newParallelPool(int threads) {
+        if (threads < 2) {
+            return null;
+        }
+        if (BPC.getPropertyService().getInt(Props.DB_GROUP_COMMIT_BLOCKS) > 1) {
+            // the machines read past blocks on their own connections, which don't see the blocks waiting for their commit
+            logger.warn("ATs run one after the other, running them in parallel doesn't work with grouped block commits");
+            return null;
+        }
+        return new ForkJoinPool(threads);
+    }
+
+    static int runSteps(AtMachineState state, AtInterpreter processor) {
         state.getMachineState().running = true;
         state.getMachineState().stopped = false;
         state.getMachineState().finished = false;
         state.getMachineState().dead = false;
         state.getMachineState().steps = 0;
 
-        AtMachineProcessor processor = new AtMachineProcessor(state, BPC.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG));
-
         state.setFreeze(false);
 
         long stepFee = AtConstants.getInstance().stepFee(state.getCreationBlockHeight());
@@ -51,7 +68,7 @@ public abstract class AtController {
 
             state.setgBalance(state.getgBalance() - (stepFee * numSteps));
             state.getMachineState().steps += numSteps;
-            int rc = processor.processOp(false, false);
+            int rc = processor.step();
 
             if (rc >= 0) {
                 if (state.getMachineState().stopped) {
@@ -71,7 +88,7 @@ public abstract class AtController {
                 else
                     debugLogger.debug("unexpected error");
 
-                if (state.getMachineState().jumps.contains(state.getMachineState().err)) {
+                if (processor.isJump(state.getMachineState().err)) {
                     state.getMachineState().pc = state.getMachineState().err;
                 } else {
                     state.getMachineState().dead = true;
@@ -96,6 +113,22 @@ public abstract class AtController {
         listCode(state, true, true);
     }
 
+    /**
+     * Gets the machine ready to run, returning the interpreter to run it with. Its code is disassembled to determine
+     * the jumps unless it has been decoded.
+     */
+    private static AtInterpreter prepare(AtMachineState state) {
+        AtCode code = AtCode.of(state);
+        if (code == null) {
+            listCode(state, true, true);
+        }
+        AtInterpreter decodedProcessor = useDecodedProcessor ? AtDecodedProcessor.of(state, code) : null;
+        if (decodedProcessor != null) {
+            return decodedProcessor;
+        }
+        return new AtMachineProcessor(state, BPC.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG), code);
+    }
+
     private static void listCode(AtMachineState state, boolean disassembly, boolean determineJumps) {
 
         AtMachineProcessor machineProcessor = new AtMachineProcessor(state, BPC.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG));
@@ -214,6 +247,7 @@ public abstract class AtController {
     }
 
     public static AtBlock getCurrentBlockATs(int freePayload, int blockHeight) {
+        FluxSnapshot flux = BPC.getFluxCapacitor().getSnapshot(blockHeight);
         List<Long> orderedATs = AT.getOrderedATs();
         Iterator<Long> keys = orderedATs.iterator();
 
@@ -225,25 +259,40 @@ public abstract class AtController {
         long totalAmount = 0;
 
         while (payload <= freePayload - costOfOneAT && keys.hasNext()) {
-            Long id = keys.next();
-            AT at = AT.getAT(id);
-
-            long atAccountBalance = getATAccountBalance(id);
-            long atStateBalance = at.getgBalance();
+            // all of them would also be run one after the other, as long as each one leaves room for the next
+            int slots = parallelPool != null ? (freePayload - payload) / costOfOneAT : 1;
+            List<AtRun> runs = new ArrayList<>();
+            while (runs.size() < slots && keys.hasNext()) {
+                Long id = keys.next();
+                AT at = AT.getAT(id);
+
+                long atAccountBalance = getATAccountBalance(id);
+                long atStateBalance = at.getgBalance();
+
+                if (at.freezeOnSameBalance() && (atAccountBalance - atStateBalance < at.minActivationAmount())) {
+                    continue;
+                }
 
-            if (at.freezeOnSameBalance() && (atAccountBalance - atStateBalance < at.minActivationAmount())) {
-                continue;
+                if (atAccountBalance >= AtConstants.getInstance().stepFee(at.getCreationBlockHeight())
+                        * AtConstants.getInstance().apiStepMultiplier(at.getCreationBlockHeight())) {
+                    try {
+                        at.setgBalance(atAccountBalance);
+                        at.setHeight(blockHeight);
+                        at.clearTransactions();
+                        at.setWaitForNumberOfBlocks(at.getSleepBetween());
+                        runs.add(new AtRun(at, prepare(at), null));
+                    } catch (Exception e) {
+                        debugLogger.debug("Error handling AT", e);
+                    }
+                }
             }
 
-            if (atAccountBalance >= AtConstants.getInstance().stepFee(at.getCreationBlockHeight())
-                    * AtConstants.getInstance().apiStepMultiplier(at.getCreationBlockHeight())) {
+            runAll(runs);
+
+            for (AtRun run : runs) {
+                AT at = run.at;
                 try {
-                    at.setgBalance(atAccountBalance);
-                    at.setHeight(blockHeight);
-                    at.clearTransactions();
-                    at.setWaitForNumberOfBlocks(at.getSleepBetween());
-                    listCode(at, true, true);
-                    runSteps(at);
+                    run.join();
 
                     long fee = at.getMachineState().steps * AtConstants.getInstance().stepFee(at.getCreationBlockHeight());
                     if (at.getMachineState().dead) {
@@ -252,15 +301,15 @@ public abstract class AtController {
                     }
                     at.setpBalance(at.getgBalance());
 
-                    long amount = makeTransactions(at);
-                    if (!BPC.getFluxCapacitor().getValue(FluxValues.AT_FIX_BLOCK_4, blockHeight)) {
+                    long amount = makeTransactions(at, flux);
+                    if (!flux.getValue(FluxValues.AT_FIX_BLOCK_4)) {
                         totalAmount = amount;
                     } else {
                         totalAmount += amount;
                     }
 
                     totalFee += fee;
-                    AT.addPendingFee(id, fee);
+                    AT.addPendingFee(AtApiHelper.getLong(at.getId()), fee);
 
                     payload += costOfOneAT;
 
@@ -284,6 +333,7 @@ public abstract class AtController {
         }
 
         LinkedHashMap<ByteBuffer, byte[]> ats = getATsFromBlock(blockATs);
+        FluxSnapshot flux = BPC.getFluxCapacitor().getSnapshot(blockHeight);
 
         List<AT> processedATs = new ArrayList<>();
 
@@ -292,69 +342,137 @@ public abstract class AtController {
         byte[] md5;
         long totalAmount = 0;
 
-        for (Map.Entry<ByteBuffer, byte[]> entry : ats.entrySet()) {
-            ByteBuffer atIdBuffer = entry.getKey();
-            byte[] receivedMd5 = entry.getValue();
-            byte[] atId = atIdBuffer.array();
-            AT at = AT.getAT(atId);
-            try {
-                at.clearTransactions();
-                at.setHeight(blockHeight);
-                at.setWaitForNumberOfBlocks(at.getSleepBetween());
+        // all machines of the block are run at once in parallel, each one by itself otherwise
+        int batchSize = parallelPool != null ? ats.size() : 1;
+        List<AtRun> runs = new ArrayList<>(batchSize);
+        Iterator<Map.Entry<ByteBuffer, byte[]>> entries = ats.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<ByteBuffer, byte[]> entry = entries.next();
+            runs.add(prepareValidation(entry.getKey().array(), entry.getValue(), blockHeight));
+            if (runs.size() < batchSize && entries.hasNext()) {
+                continue;
+            }
 
-                long atAccountBalance = getATAccountBalance(AtApiHelper.getLong(atId));
-                if (atAccountBalance < AtConstants.getInstance().stepFee(at.getCreationBlockHeight())
-                        * AtConstants.getInstance().apiStepMultiplier(at.getCreationBlockHeight())) {
-                    throw new AtException("AT has insufficient balance to run");
-                }
+            runAll(runs);
 
-                if (at.freezeOnSameBalance() && (atAccountBalance - at.getgBalance() < at.minActivationAmount())) {
-                    throw new AtException("AT should be frozen due to unchanged balance");
-                }
+            for (AtRun run : runs) {
+                AT at = run.at;
+                try {
+                    run.join();
 
-                if (at.nextHeight() > blockHeight) {
-                    throw new AtException("AT not allowed to run again yet");
-                }
+                    long fee = at.getMachineState().steps * AtConstants.getInstance().stepFee(at.getCreationBlockHeight());
+                    if (at.getMachineState().dead) {
+                        fee += at.getgBalance();
+                        at.setgBalance(0L);
+                    }
+                    at.setpBalance(at.getgBalance());
 
-                at.setgBalance(atAccountBalance);
+                    if (!flux.getValue(FluxValues.AT_FIX_BLOCK_4)) {
+                        totalAmount = makeTransactions(at, flux);
+                    } else {
+                        totalAmount += makeTransactions(at, flux);
+                    }
 
-                listCode(at, true, true);
+                    totalFee += fee;
+                    AT.addPendingFee(at.getId(), fee);
 
-                runSteps(at);
+                    processedATs.add(at);
 
-                long fee = at.getMachineState().steps * AtConstants.getInstance().stepFee(at.getCreationBlockHeight());
-                if (at.getMachineState().dead) {
-                    fee += at.getgBalance();
-                    at.setgBalance(0L);
+                    md5 = digest.digest(at.getBytes());
+                    if (!Arrays.equals(md5, run.receivedMd5)) {
+                        throw new AtException("Calculated md5 and received md5 are not matching");
+                    }
+                } catch (Exception e) {
+                    debugLogger.debug("ATs error", e);
+                    throw new AtException("ATs error. Block rejected", e);
                 }
-                at.setpBalance(at.getgBalance());
+            }
+            runs.clear();
+        }
 
-                if (!BPC.getFluxCapacitor().getValue(FluxValues.AT_FIX_BLOCK_4, blockHeight)) {
-                    totalAmount = makeTransactions(at);
-                } else {
-                    totalAmount += makeTransactions(at);
-                }
+        for (AT at : processedATs) {
+            at.saveState();
+        }
 
-                totalFee += fee;
-                AT.addPendingFee(atId, fee);
+        return new AtBlock(totalFee, totalAmount, new byte[1]);
+    }
 
-                processedATs.add(at);
+    private static AtRun prepareValidation(byte[] atId, byte[] receivedMd5, int blockHeight) throws AtException {
+        AT at = AT.getAT(atId);
+        try {
+            at.clearTransactions();
+            at.setHeight(blockHeight);
+            at.setWaitForNumberOfBlocks(at.getSleepBetween());
 
-                md5 = digest.digest(at.getBytes());
-                if (!Arrays.equals(md5, receivedMd5)) {
-                    throw new AtException("Calculated md5 and received md5 are not matching");
-                }
-            } catch (Exception e) {
-                debugLogger.debug("ATs error", e);
-                throw new AtException("ATs error. Block rejected", e);
+            long atAccountBalance = getATAccountBalance(AtApiHelper.getLong(atId));
+            if (atAccountBalance < AtConstants.getInstance().stepFee(at.getCreationBlockHeight())
+                    * AtConstants.getInstance().apiStepMultiplier(at.getCreationBlockHeight())) {
+                throw new AtException("AT has insufficient balance to run");
+            }
+
+            if (at.freezeOnSameBalance() && (atAccountBalance - at.getgBalance() < at.minActivationAmount())) {
+                throw new AtException("AT should be frozen due to unchanged balance");
+            }
+
+            if (at.nextHeight() > blockHeight) {
+                throw new AtException("AT not allowed to run again yet");
             }
+
+            at.setgBalance(atAccountBalance);
+
+            return new AtRun(at, prepare(at), receivedMd5);
+        } catch (Exception e) {
+            debugLogger.debug("ATs error", e);
+            throw new AtException("ATs error. Block rejected", e);
         }
+    }
 
-        for (AT at : processedATs) {
-            at.saveState();
+    /**
+     * Runs the machines, in parallel if there is a pool for it. Each machine only works on its own state and reads
+     * past blocks, what they do to accounts is only applied afterwards, in the order of the runs.
+     */
+    private static void runAll(List<AtRun> runs) {
+        if (parallelPool == null || runs.size() < 2) {
+            runs.forEach(AtRun::run);
+            return;
         }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(runs.size());
+        for (AtRun run : runs) {
+            tasks.add(parallelPool.submit(run::run));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
 
-        return new AtBlock(totalFee, totalAmount, new byte[1]);
+    private static final class AtRun {
+        private final AT at;
+        private final AtInterpreter interpreter;
+        private final byte[] receivedMd5;
+        private RuntimeException error;
+
+        private AtRun(AT at, AtInterpreter interpreter, byte[] receivedMd5) {
+            this.at = at;
+            this.interpreter = interpreter;
+            this.receivedMd5 = receivedMd5;
+        }
+
+        private void run() {
+            try {
+                runSteps(at, interpreter);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        /**
+         * Throws what the run threw.
+         */
+        private void join() {
+            if (error != null) {
+                throw error;
+            }
+        }
     }
 
     private static LinkedHashMap<ByteBuffer, byte[]> getATsFromBlock(byte[] blockATs) throws AtException {
@@ -413,9 +531,9 @@ public abstract class AtController {
 
     //platform based implementations
     //platform based
-    private static long makeTransactions(AT at) throws AtException {
+    private static long makeTransactions(AT at, FluxSnapshot flux) throws AtException {
         long totalAmount = 0;
-        if (!BPC.getFluxCapacitor().getValue(FluxValues.AT_FIX_BLOCK_4, at.getHeight())) {
+        if (!flux.getValue(FluxValues.AT_FIX_BLOCK_4)) {
             for (AtTransaction tx : at.getTransactions()) {
                 if (AT.findPendingTransaction(tx.getRecipientId())) {
                     throw new AtException("Conflicting transaction found");
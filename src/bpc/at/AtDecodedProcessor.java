@@ -0,0 +1,535 @@
+package brs.at;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Runs a machine from its decoded code, dispatching on the opcode with one switch and accessing its data as longs.
+ * Gives exactly the results of {@link AtMachineProcessor}, including its quirks: operands read by an instruction stay
+ * around for the next one, and SET_IDX and IDX_DAT use the ones the previous instruction left.
+ */
+final class AtDecodedProcessor implements AtInterpreter {
+
+    private final AtMachineState machineData;
+    private final AtMachineState.MachineState state;
+    private final AtCode code;
+    private final byte[] ops;
+    private final LongBuffer data;
+    private final AtMachineProcessor.Fun fun = new AtMachineProcessor.Fun();
+
+    private final int cSize;
+    private final int callStackEnd;
+    private final int userStackEnd;
+    private final int callStackSize;
+    private final int userStackSize;
+
+    private AtDecodedProcessor(AtMachineState machineData, AtCode code) {
+        this.machineData = machineData;
+        this.state = machineData.getMachineState();
+        this.code = code;
+        this.ops = machineData.getApCodeBytes();
+        ByteBuffer apData = machineData.getApData().duplicate();
+        apData.clear();
+        apData.order(ByteOrder.LITTLE_ENDIAN);
+        this.data = apData.asLongBuffer();
+        this.cSize = machineData.getcSize();
+        this.callStackEnd = machineData.getdSize() + machineData.getcCallStackBytes();
+        this.userStackEnd = callStackEnd + machineData.getcUserStackBytes();
+        this.callStackSize = machineData.getcCallStackBytes() / 8;
+        this.userStackSize = machineData.getcUserStackBytes() / 8;
+    }
+
+    /**
+     * A processor for the machine, or null if its data isn't laid out in whole longs and it has to be run by
+     * {@link AtMachineProcessor}.
+     */
+    static AtDecodedProcessor of(AtMachineState machineData, AtCode code) {
+        if (code == null || machineData.getApData().capacity() % 8 != 0 || machineData.getdSize() % 8 != 0
+                || machineData.getcCallStackBytes() % 8 != 0 || machineData.getcUserStackBytes() % 8 != 0) {
+            return null;
+        }
+        return new AtDecodedProcessor(machineData, code);
+    }
+
+    @Override
+    public boolean isJump(int addr) {
+        return code.isJump(addr);
+    }
+
+    // byte offsets are computed as AtMachineProcessor computes them, overflow included, and are always whole longs
+    private long get(int offset) {
+        return data.get(offset >> 3);
+    }
+
+    private void put(int offset, long value) {
+        data.put(offset >> 3, value);
+    }
+
+    private boolean validAddr(int addr) {
+        return AtMachineProcessor.validAddr(addr, false, cSize, machineData.getdSize());
+    }
+
+    @Override
+    public int step() {
+        int pc = state.pc;
+        if (cSize < 1 || pc >= cSize) {
+            return 0;
+        }
+
+        int rc;
+        switch (ops[pc]) {
+            case OpCode.E_OP_CODE_NOP:
+                state.pc = pc + 1;
+                return 1;
+
+            case OpCode.E_OP_CODE_SET_VAL:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 13;
+                put(fun.addr1 * 8, fun.val);
+                return 13;
+
+            case OpCode.E_OP_CODE_SET_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 9;
+                put(fun.addr1 * 8, get(fun.addr2 * 8));
+                return 9;
+
+            case OpCode.E_OP_CODE_CLR_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 5;
+                put(fun.addr1 * 8, 0L);
+                return 5;
+
+            case OpCode.E_OP_CODE_INC_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 5;
+                put(fun.addr1 * 8, get(fun.addr1 * 8) + 1);
+                return 5;
+
+            case OpCode.E_OP_CODE_DEC_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 5;
+                put(fun.addr1 * 8, get(fun.addr1 * 8) - 1);
+                return 5;
+
+            case OpCode.E_OP_CODE_NOT_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 5;
+                put(fun.addr1 * 8, ~get(fun.addr1 * 8));
+                return 5;
+
+            case OpCode.E_OP_CODE_ADD_DAT:
+            case OpCode.E_OP_CODE_SUB_DAT:
+            case OpCode.E_OP_CODE_MUL_DAT:
+            case OpCode.E_OP_CODE_DIV_DAT:
+                return arithmetic(ops[pc], pc);
+
+            case OpCode.E_OP_CODE_BOR_DAT:
+            case OpCode.E_OP_CODE_AND_DAT:
+            case OpCode.E_OP_CODE_XOR_DAT:
+                return bitwise(ops[pc], pc);
+
+            case OpCode.E_OP_CODE_SET_IND: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                long addr = get(fun.addr2 * 8);
+                if (!validAddr((int) addr)) {
+                    return -1;
+                }
+                state.pc = pc + 9;
+                put(fun.addr1 * 8, get((int) addr * 8));
+                return 9;
+            }
+
+            case OpCode.E_OP_CODE_SET_IDX: {
+                int addr1 = fun.addr1;
+                int addr2 = fun.addr2;
+                if ((rc = code.load(pc, fun)) != 0 || (rc = loadExt(pc, 8)) != 0) {
+                    return rc;
+                }
+                long addr = get(addr2 * 8) + get(fun.addr1 * 8);
+                if (!validAddr((int) addr)) {
+                    return -1;
+                }
+                state.pc = pc + 13;
+                put(addr1 * 8, get((int) addr * 8));
+                return 13;
+            }
+
+            case OpCode.E_OP_CODE_PSH_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                if (state.us == userStackSize) {
+                    return -1;
+                }
+                state.pc = pc + 5;
+                long pushed = get(fun.addr1 * 8);
+                state.us++;
+                put(userStackEnd - state.us * 8, pushed);
+                return 5;
+
+            case OpCode.E_OP_CODE_POP_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                if (state.us == 0) {
+                    return -1;
+                }
+                state.pc = pc + 5;
+                long popped = get(userStackEnd - state.us * 8);
+                state.us--;
+                put(fun.addr1 * 8, popped);
+                return 5;
+
+            case OpCode.E_OP_CODE_JMP_SUB:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                if (state.cs == callStackSize) {
+                    return -1;
+                }
+                if (!code.isJump(fun.addr1)) {
+                    return -2;
+                }
+                state.cs++;
+                put(callStackEnd - state.cs * 8, (long) (pc + 5));
+                state.pc = fun.addr1;
+                return 5;
+
+            case OpCode.E_OP_CODE_RET_SUB: {
+                if (state.cs == 0) {
+                    return -1;
+                }
+                long val = get(callStackEnd - state.cs * 8);
+                state.cs--;
+                if (!code.isJump((int) val)) {
+                    return -2;
+                }
+                state.pc = (int) val;
+                return 1;
+            }
+
+            case OpCode.E_OP_CODE_IND_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                long addr = get(fun.addr1 * 8);
+                if (!validAddr((int) addr)) {
+                    return -1;
+                }
+                state.pc = pc + 9;
+                put((int) addr * 8, get(fun.addr2 * 8));
+                return 9;
+            }
+
+            case OpCode.E_OP_CODE_IDX_DAT: {
+                int addr1 = fun.addr1;
+                int addr2 = fun.addr2;
+                if ((rc = code.load(pc, fun)) != 0 || (rc = loadExt(pc, 8)) != 0) {
+                    return rc;
+                }
+                long addr = get(addr1 * 8) + get(addr2 * 8);
+                if (!validAddr((int) addr)) {
+                    return -1;
+                }
+                state.pc = pc + 13;
+                put((int) addr * 8, get(fun.addr1 * 8));
+                return 13;
+            }
+
+            case OpCode.E_OP_CODE_MOD_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                long val1 = get(fun.addr1 * 8);
+                long val2 = get(fun.addr2 * 8);
+                if (val2 == 0) {
+                    return -2;
+                }
+                state.pc = pc + 9;
+                put(fun.addr1 * 8, val1 % val2);
+                return 9;
+            }
+
+            case OpCode.E_OP_CODE_SHL_DAT:
+            case OpCode.E_OP_CODE_SHR_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 9;
+                long val = get(fun.addr1 * 8);
+                long shift = get(fun.addr2 * 8);
+                if (shift < 0) {
+                    shift = 0;
+                } else if (shift > 63) {
+                    shift = 63;
+                }
+                put(fun.addr1 * 8, ops[pc] == OpCode.E_OP_CODE_SHL_DAT ? val << shift : val >>> shift);
+                return 9;
+            }
+
+            case OpCode.E_OP_CODE_JMP_ADR:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                if (!code.isJump(fun.addr1)) {
+                    return -2;
+                }
+                state.pc = fun.addr1;
+                return 5;
+
+            case OpCode.E_OP_CODE_BZR_DAT:
+            case OpCode.E_OP_CODE_BNZ_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                long val = get(fun.addr1 * 8);
+                boolean branch = ops[pc] == OpCode.E_OP_CODE_BZR_DAT ? val == 0 : val != 0;
+                return branch(pc, branch, 6);
+            }
+
+            case OpCode.E_OP_CODE_BGT_DAT:
+            case OpCode.E_OP_CODE_BLT_DAT:
+            case OpCode.E_OP_CODE_BGE_DAT:
+            case OpCode.E_OP_CODE_BLE_DAT:
+            case OpCode.E_OP_CODE_BEQ_DAT:
+            case OpCode.E_OP_CODE_BNE_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                long val1 = get(fun.addr1 * 8);
+                long val2 = get(fun.addr2 * 8);
+                return branch(pc, compare(ops[pc], val1, val2), 10);
+            }
+
+            case OpCode.E_OP_CODE_SLP_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 5;
+                int numBlocks = (int) get(fun.addr1 * 8);
+                if (numBlocks < 0) {
+                    numBlocks = 0;
+                }
+                int maxNumBlocks = (int) AtConstants.getInstance().getMaxWaitForNumOfBlocks(machineData.getCreationBlockHeight());
+                if (numBlocks > maxNumBlocks) {
+                    numBlocks = maxNumBlocks;
+                }
+                machineData.setWaitForNumberOfBlocks(numBlocks);
+                state.stopped = true;
+                return 5;
+            }
+
+            case OpCode.E_OP_CODE_FIZ_DAT:
+            case OpCode.E_OP_CODE_STZ_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                if (get(fun.addr1 * 8) != 0) {
+                    state.pc = pc + 5;
+                } else if (ops[pc] == OpCode.E_OP_CODE_STZ_DAT) {
+                    stop(pc + 5);
+                } else {
+                    finish();
+                }
+                return 5;
+
+            case OpCode.E_OP_CODE_FIN_IMD:
+                finish();
+                return 1;
+
+            case OpCode.E_OP_CODE_STP_IMD:
+            case OpCode.E_OP_CODE_SLP_IMD:
+                stop(pc + 1);
+                return 1;
+
+            case OpCode.E_OP_CODE_SET_PCS:
+                state.pc = pc + 1;
+                state.pcs = pc + 1;
+                return 1;
+
+            case OpCode.E_OP_CODE_EXT_FUN:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 3;
+                AtApiController.func(fun.fun, machineData);
+                return 3;
+
+            case OpCode.E_OP_CODE_EXT_FUN_DAT:
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 7;
+                AtApiController.func1(fun.fun, get(fun.addr1 * 8), machineData);
+                return 7;
+
+            case OpCode.E_OP_CODE_EXT_FUN_DAT_2: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 11;
+                long val1 = get(fun.addr3 * 8);
+                long val2 = get(fun.addr2 * 8);
+                AtApiController.func2(fun.fun, val1, val2, machineData);
+                return 11;
+            }
+
+            case OpCode.E_OP_CODE_EXT_FUN_RET: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 7;
+                int offset = fun.addr1 * 8;
+                put(offset, AtApiController.func(fun.fun, machineData));
+                return 7;
+            }
+
+            case OpCode.E_OP_CODE_EXT_FUN_RET_DAT: {
+                if ((rc = code.load(pc, fun)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 11;
+                long val = get(fun.addr2 * 8);
+                int offset = fun.addr3 * 8;
+                put(offset, AtApiController.func1(fun.fun, val, machineData));
+                return 11;
+            }
+
+            case OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2: {
+                if ((rc = code.load(pc, fun)) != 0 || (rc = loadExt(pc, 10)) != 0) {
+                    return rc;
+                }
+                state.pc = pc + 15;
+                long val1 = get(fun.addr2 * 8);
+                long val2 = get(fun.addr1 * 8);
+                int offset = fun.addr3 * 8;
+                put(offset, AtApiController.func2(fun.fun, val1, val2, machineData));
+                return 15;
+            }
+
+            case OpCode.E_OP_CODE_ERR_ADR:
+                code.load(pc, fun);
+                if (fun.addr1 != -1 && !code.isJump(fun.addr1)) {
+                    return -2;
+                }
+                state.pc = pc + 5;
+                state.err = fun.addr1;
+                return 5;
+
+            default:
+                return -2;
+        }
+    }
+
+    private int loadExt(int pc, int size) {
+        // the code buffer is left moved if the read fails, as AtMachineProcessor leaves it
+        ByteBuffer apCode = machineData.getApCode();
+        apCode.position(size);
+        int rc = code.loadExt(pc, fun);
+        apCode.position(0);
+        return rc;
+    }
+
+    private int arithmetic(byte op, int pc) {
+        int rc = code.load(pc, fun);
+        if (rc != 0) {
+            return rc;
+        }
+        long val2 = get(fun.addr2 * 8);
+        if (op == OpCode.E_OP_CODE_DIV_DAT && val2 == 0) {
+            return -2;
+        }
+        state.pc = pc + 9;
+        long val1 = get(fun.addr1 * 8);
+        val2 = get(fun.addr2 * 8);
+        long result;
+        if (op == OpCode.E_OP_CODE_ADD_DAT) {
+            result = val1 + val2;
+        } else if (op == OpCode.E_OP_CODE_SUB_DAT) {
+            result = val1 - val2;
+        } else if (op == OpCode.E_OP_CODE_MUL_DAT) {
+            result = val1 * val2;
+        } else {
+            result = val1 / val2;
+        }
+        put(fun.addr1 * 8, result);
+        return 9;
+    }
+
+    private int bitwise(byte op, int pc) {
+        int rc = code.load(pc, fun);
+        if (rc != 0) {
+            return rc;
+        }
+        state.pc = pc + 9;
+        long val2 = get(fun.addr2 * 8);
+        long val1 = get(fun.addr1 * 8);
+        long result;
+        if (op == OpCode.E_OP_CODE_BOR_DAT) {
+            result = val1 | val2;
+        } else if (op == OpCode.E_OP_CODE_AND_DAT) {
+            result = val1 & val2;
+        } else {
+            result = val1 ^ val2;
+        }
+        put(fun.addr1 * 8, result);
+        return 9;
+    }
+
+    private static boolean compare(byte op, long val1, long val2) {
+        switch (op) {
+            case OpCode.E_OP_CODE_BGT_DAT:
+                return val1 > val2;
+            case OpCode.E_OP_CODE_BLT_DAT:
+                return val1 < val2;
+            case OpCode.E_OP_CODE_BGE_DAT:
+                return val1 >= val2;
+            case OpCode.E_OP_CODE_BLE_DAT:
+                return val1 <= val2;
+            case OpCode.E_OP_CODE_BEQ_DAT:
+                return val1 == val2;
+            default:
+                return val1 != val2;
+        }
+    }
+
+    private int branch(int pc, boolean taken, int length) {
+        if (!taken) {
+            state.pc = pc + length;
+            return length;
+        }
+        if (!code.isJump(pc + fun.off)) {
+            return -2;
+        }
+        state.pc = pc + fun.off;
+        return length;
+    }
+
+    private void stop(int pc) {
+        state.pc = pc;
+        state.stopped = true;
+        machineData.setFreeze(true);
+    }
+
+    private void finish() {
+        state.pc = state.pcs;
+        state.finished = true;
+        machineData.setFreeze(true);
+    }
+}
@@ -0,0 +1,15 @@
+package brs.at;
+
+/**
+ * Runs the instructions of a machine one at a time.
+ */
+interface AtInterpreter {
+
+    /**
+     * Runs the instruction at the program counter, returning its length or a negative error code the way
+     * {@link AtMachineProcessor#processOp} does when not disassembling.
+     */
+    int step();
+
+    boolean isJump(int addr);
+}
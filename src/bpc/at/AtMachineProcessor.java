@@ -11,19 +11,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.helpers.NOPLogger;
 
-class AtMachineProcessor {
+class AtMachineProcessor implements AtInterpreter {
 
     private final Logger logger;
 
     private final AtMachineState machineData;
+    private final AtCode code;
     private final Fun fun = new Fun();
 
     public AtMachineProcessor(AtMachineState machineData, boolean enableLogger) {
+        this(machineData, enableLogger, null);
+    }
+
+    /**
+     * @param code the decoded code of the machine to take operands and jumps from, null to read them from its code
+     *             buffer and the jumps found by disassembling it
+     */
+    AtMachineProcessor(AtMachineState machineData, boolean enableLogger, AtCode code) {
         this.machineData = machineData;
+        this.code = code;
         this.logger = enableLogger ? LoggerFactory.getLogger(AtMachineProcessor.class) : NOPLogger.NOP_LOGGER;
     }
 
+    @Override
+    public int step() {
+        return processOp(false, false);
+    }
+
+    @Override
+    public boolean isJump(int addr) {
+        return code != null ? code.isJump(addr) : machineData.getMachineState().jumps.contains(addr);
+    }
+
     private int getFun() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
 
         if (machineData.getMachineState().pc + 2 >= machineData.getcSize())
             return -1;
@@ -35,6 +58,9 @@ class AtMachineProcessor {
     }
 
     private int getAddr(boolean isCode) {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 4 >= machineData.getcSize()) {
             return -1;
         }
@@ -48,6 +74,9 @@ class AtMachineProcessor {
     }
 
     private int getAddrs() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 4 + 4 >= machineData.getcSize()) {
             return -1;
         }
@@ -62,6 +91,9 @@ class AtMachineProcessor {
     }
 
     private int getAddrOff() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 5 >= machineData.getcSize()) {
             return -1;
         }
@@ -77,6 +109,9 @@ class AtMachineProcessor {
     }
 
     private int getAddrsOff() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 9 >= machineData.getcSize()) {
             return -1;
         }
@@ -95,6 +130,9 @@ class AtMachineProcessor {
     }
 
     private int getFunAddr() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 4 + 4 >= machineData.getcSize()) {
             return -1;
         }
@@ -109,6 +147,9 @@ class AtMachineProcessor {
     }
 
     private int getFunAddrs() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 4 + 4 + 2 >= machineData.getcSize()) {
             return -1;
         }
@@ -126,6 +167,9 @@ class AtMachineProcessor {
     }
 
     private int getAddressVal() {
+        if (code != null) {
+            return code.load(machineData.getMachineState().pc, fun);
+        }
         if (machineData.getMachineState().pc + 4 + 8 >= machineData.getcSize()) {
             return -1;
         }
@@ -140,17 +184,32 @@ class AtMachineProcessor {
         return 0;
     }
 
+    /**
+     * Reads the address following the first size bytes of operands, for instructions with more operands than the
+     * getters read.
+     */
+    private int getAddrAfter(int size) {
+        (machineData.getApCode()).position(size);
+        int rc = code != null ? code.loadExt(machineData.getMachineState().pc, fun) : getAddr(false);
+        (machineData.getApCode()).position((machineData.getApCode()).position() - size);
+        return rc;
+    }
+
     private boolean validAddr(int addr, boolean isCode) {
+        return validAddr(addr, isCode, machineData.getcSize(), machineData.getdSize());
+    }
+
+    static boolean validAddr(int addr, boolean isCode, int cSize, int dSize) {
         if (addr < 0) {
             return false;
         }
 
         if (!isCode && (((long) addr) * 8 + 8 > ((long) Integer.MAX_VALUE) ||
-                addr * 8 + 8 > machineData.getdSize())) {
+                addr * 8 + 8 > dSize)) {
             return false;
         }
 
-        return !isCode || addr < machineData.getcSize();
+        return !isCode || addr < cSize;
     }
 
     int processOp(boolean disassemble, boolean determineJumps) {
@@ -381,9 +440,7 @@ class AtMachineProcessor {
             rc = getAddrs();
 
             if (rc == 0 || disassemble) {
-                (machineData.getApCode()).position(size);
-                rc = getAddr(false);
-                (machineData.getApCode()).position((machineData.getApCode()).position() - size);
+                rc = getAddrAfter(size);
 
                 if (rc == 0 || disassemble) {
                     rc = 13;
@@ -451,7 +508,7 @@ class AtMachineProcessor {
                 } else {
                     if (machineData.getMachineState().cs == (machineData.getcCallStackBytes() / 8))
                         rc = -1;
-                    else if (machineData.getMachineState().jumps.contains(fun.addr1)) {
+                    else if (isJump(fun.addr1)) {
                         machineData.getMachineState().cs++;
                         machineData.getApData().putLong(machineData.getdSize() +
                                         machineData.getcCallStackBytes() -
@@ -476,7 +533,7 @@ class AtMachineProcessor {
                     long val = machineData.getApData().getLong(machineData.getdSize() + machineData.getcCallStackBytes() - machineData.getMachineState().cs * 8);
                     machineData.getMachineState().cs--;
                     int addr = (int) val;
-                    if (machineData.getMachineState().jumps.contains(addr))
+                    if (isJump(addr))
                         machineData.getMachineState().pc = addr;
                     else
                         rc = -2;
@@ -510,9 +567,7 @@ class AtMachineProcessor {
             rc = getAddrs();
 
             if (rc == 0 || disassemble) {
-                (machineData.getApCode()).position(size);
-                rc = getAddr(false);
-                (machineData.getApCode()).position((machineData.getApCode()).position() - size);
+                rc = getAddrAfter(size);
 
                 if (rc == 0 || disassemble) {
                     rc = 13;
@@ -588,7 +643,7 @@ class AtMachineProcessor {
                 if (disassemble) {
                     if (!determineJumps && logger.isDebugEnabled())
                         logger.debug("JMP : {}", String.format("%8x", fun.addr1));
-                } else if (machineData.getMachineState().jumps.contains(fun.addr1))
+                } else if (isJump(fun.addr1))
                     machineData.getMachineState().pc = fun.addr1;
                 else
                     rc = -2;
@@ -613,7 +668,7 @@ class AtMachineProcessor {
                     long val = machineData.getApData().getLong(fun.addr1 * 8);
                     if ((op == OpCode.E_OP_CODE_BZR_DAT && val == 0) ||
                             (op == OpCode.E_OP_CODE_BNZ_DAT && val != 0)) {
-                        if (machineData.getMachineState().jumps.contains(machineData.getMachineState().pc + fun.off))
+                        if (isJump(machineData.getMachineState().pc + fun.off))
                             machineData.getMachineState().pc += fun.off;
                         else
                             rc = -2;
@@ -658,7 +713,7 @@ class AtMachineProcessor {
                             (op == OpCode.E_OP_CODE_BEQ_DAT && val1 == val2) ||
                             (op == OpCode.E_OP_CODE_BNE_DAT && val1 != val2)) {
 
-                        if (machineData.getMachineState().jumps.contains(machineData.getMachineState().pc + fun.off))
+                        if (isJump(machineData.getMachineState().pc + fun.off))
                             machineData.getMachineState().pc += fun.off;
                         else
                             rc = -2;
@@ -830,9 +885,7 @@ class AtMachineProcessor {
             int size = 10;
 
             if ((rc == 0 || disassemble) && op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2) {
-                (machineData.getApCode()).position(size);
-                rc = getAddr(false);
-                (machineData.getApCode()).position((machineData.getApCode()).position() - size);
+                rc = getAddrAfter(size);
             }
 
             if (rc == 0) {
@@ -867,7 +920,7 @@ class AtMachineProcessor {
                 if (!determineJumps && logger.isDebugEnabled())
                     logger.debug("ERR :{}", String.format("%8x", fun.addr1));
             } else {
-                if (fun.addr1 == -1 || machineData.getMachineState().jumps.contains(fun.addr1)) {
+                if (fun.addr1 == -1 || isJump(fun.addr1)) {
                     machineData.getMachineState().pc += rc;
                     machineData.getMachineState().err = fun.addr1;
                 } else
@@ -886,7 +939,7 @@ class AtMachineProcessor {
         return rc;
     }
 
-    private class Fun {
+    static final class Fun {
         short fun;
         int addr1;
         int addr2;
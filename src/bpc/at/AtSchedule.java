@@ -0,0 +1,155 @@
+package brs.at;
+
+import brs.Account;
+import brs.BPC;
+import brs.Blockchain;
+import brs.db.store.ATStore;
+import brs.props.Props;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The ATs in the order they get to run in, by the height they ran at last, the height they may run again and their id,
+ * with the balances of their accounts. Loaded once and kept up to date as AT states get saved and balances change, so
+ * forging a block doesn't have to join the AT, AT state and account tables. Dropped again when blocks get popped or
+ * a transaction is rolled back, the next block loads it again. Not kept with grouped block commits, which would
+ * load it from a connection that doesn't see the blocks waiting for their commit.
+ */
+public final class AtSchedule {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtSchedule.class);
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.prevHeight)
+            .thenComparingInt(entry -> entry.nextHeight)
+            .thenComparingLong(entry -> entry.atId);
+
+    private final ATStore atStore;
+    private final Blockchain blockchain;
+
+    // null until loaded
+    private Map<Long, Entry> entries;
+    private TreeSet<Entry> queue;
+
+    AtSchedule(ATStore atStore, Blockchain blockchain) {
+        this.atStore = atStore;
+        this.blockchain = blockchain;
+    }
+
+    /**
+     * The schedule of the node, or null if disabled.
+     */
+    public static AtSchedule getInstance() {
+        return Holder.instance;
+    }
+
+    /**
+     * Same as {@link ATStore#getOrderedATs()}: the ATs that may run in the next block and have the balance to, in the
+     * order they get to run in.
+     */
+    public synchronized List<Long> getOrderedATs() {
+        load();
+        int height = blockchain.getHeight();
+        long minBalance = AtConstants.getInstance().stepFee(height) * AtConstants.getInstance().apiStepMultiplier(height);
+        List<Long> orderedATs = new ArrayList<>();
+        for (Entry entry : queue) {
+            if (entry.nextHeight <= height + 1 && entry.balance >= minBalance
+                    && (!entry.freezeWhenSameBalance || entry.balance - entry.prevBalance >= entry.minActivationAmount)) {
+                orderedATs.add(entry.atId);
+            }
+        }
+        return orderedATs;
+    }
+
+    public synchronized void stateSaved(AT.ATState state) {
+        if (entries == null) {
+            return;
+        }
+        Entry entry = entries.get(state.getATId());
+        long balance;
+        if (entry != null) {
+            queue.remove(entry);
+            balance = entry.balance;
+        } else {
+            Account account = Account.getAccount(state.getATId());
+            balance = account != null ? account.getBalanceNQT() : 0;
+        }
+        entry = new Entry(state.getATId(), state.getPrevHeight(), state.getNextHeight(), state.getPrevBalance(),
+                state.getFreezeWhenSameBalance(), state.getMinActivationAmount(), balance);
+        entries.put(entry.atId, entry);
+        queue.add(entry);
+    }
+
+    public synchronized void balanceChanged(Account account) {
+        if (entries == null) {
+            return;
+        }
+        Entry entry = entries.get(account.getId());
+        if (entry != null) {
+            entry.balance = account.getBalanceNQT();
+        }
+    }
+
+    public synchronized void invalidate() {
+        entries = null;
+        queue = null;
+    }
+
+    private void load() {
+        if (entries != null) {
+            return;
+        }
+        entries = new HashMap<>();
+        queue = new TreeSet<>(ORDER);
+        for (Entry entry : atStore.getScheduleEntries()) {
+            entries.put(entry.atId, entry);
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * An AT with what decides whether and when it runs.
+     */
+    public static final class Entry {
+        private final long atId;
+        private final int prevHeight;
+        private final int nextHeight;
+        private final long prevBalance;
+        private final boolean freezeWhenSameBalance;
+        private final long minActivationAmount;
+        private long balance;
+
+        public Entry(long atId, int prevHeight, int nextHeight, long prevBalance, boolean freezeWhenSameBalance,
+                     long minActivationAmount, long balance) {
+            this.atId = atId;
+            this.prevHeight = prevHeight;
+            this.nextHeight = nextHeight;
+            this.prevBalance = prevBalance;
+            this.freezeWhenSameBalance = freezeWhenSameBalance;
+            this.minActivationAmount = minActivationAmount;
+            this.balance = balance;
+        }
+    }
+
+    private static final class Holder {
+        private static final AtSchedule instance = newSchedule();
+
+        private static AtSchedule newSchedule() {
+            if (!BPC.getPropertyService().getBoolean(Props.AT_SCHEDULE)) {
+                return null;
+            }
+            if (BPC.getPropertyService().getInt(Props.DB_GROUP_COMMIT_BLOCKS) > 1) {
+                // a reload on another thread than the one of the pending transaction misses the blocks waiting for their commit
+                logger.warn("The ATs are looked up for every block, keeping their schedule doesn't work with grouped block commits");
+                return null;
+            }
+            return new AtSchedule(BPC.getStores().getAtStore(), BPC.getBlockchain());
+        }
+    }
+}
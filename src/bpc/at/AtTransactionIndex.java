@@ -0,0 +1,199 @@
+package brs.at;
+
+import brs.BPC;
+import brs.Block;
+import brs.Blockchain;
+import brs.Constants;
+import brs.db.store.ATStore;
+import brs.props.Props;
+
+import java.util.Arrays;
+
+/**
+ * The incoming transactions of the last blocks, kept per height and sorted by recipient and id, so the transaction
+ * lookups of the AT API don't have to query the transaction table. Follows the blocks getting applied and popped and
+ * only answers for heights it holds, everything older is left to {@link ATStore}.
+ */
+public final class AtTransactionIndex {
+
+    private final ATStore atStore;
+    private final Blockchain blockchain;
+    private final IncomingTransactions[] heights;
+
+    // the heights held, none while lastHeight < firstHeight
+    private int firstHeight = 0;
+    private int lastHeight = -1;
+
+    AtTransactionIndex(ATStore atStore, Blockchain blockchain, int capacity) {
+        this.atStore = atStore;
+        this.blockchain = blockchain;
+        this.heights = new IncomingTransactions[Math.max(capacity, 1)];
+    }
+
+    /**
+     * The index of the node, or null if disabled.
+     */
+    public static AtTransactionIndex getInstance() {
+        return Holder.instance;
+    }
+
+    public synchronized void blockApplied(Block block) {
+        int height = block.getHeight();
+        if (height <= lastHeight) {
+            // applied again after a failed push or a scan
+            truncate(height - 1);
+        }
+        if (lastHeight < firstHeight || height != lastHeight + 1) {
+            firstHeight = height;
+        }
+        IncomingTransactions transactions = atStore.getIncomingTransactions(height);
+        if (transactions == null) {
+            clear();
+            return;
+        }
+        heights[slot(height)] = transactions;
+        lastHeight = height;
+        if (lastHeight - firstHeight >= heights.length) {
+            firstHeight = lastHeight - heights.length + 1;
+        }
+    }
+
+    public synchronized void blockPopped(Block block) {
+        truncate(block.getHeight() - 1);
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(heights, null);
+        firstHeight = 0;
+        lastHeight = -1;
+    }
+
+    /**
+     * Same as {@link ATStore#findTransaction}, or null if the heights aren't held and can't be loaded.
+     */
+    public synchronized Long findTransaction(int startHeight, int endHeight, long atId, int numOfTx, long minAmount) {
+        if (startHeight >= endHeight) {
+            return 0L;
+        }
+        if (!load(startHeight, endHeight - 1)) {
+            return null;
+        }
+        int skip = Math.max(numOfTx, 0);
+        for (int height = startHeight; height < endHeight; height++) {
+            IncomingTransactions transactions = heights[slot(height)];
+            for (int i = transactions.first(atId); i < transactions.ids.length && transactions.recipients[i] == atId; i++) {
+                if (transactions.amounts[i] >= minAmount && skip-- == 0) {
+                    return transactions.ids[i];
+                }
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Same as {@link ATStore#findTransactionHeight}, or null if the height isn't held and can't be loaded.
+     */
+    public synchronized Integer findTransactionHeight(long transactionId, int height, long atId, long minAmount) {
+        if (!load(height, height)) {
+            return null;
+        }
+        IncomingTransactions transactions = heights[slot(height)];
+        int counter = 0;
+        for (int i = transactions.first(atId); i < transactions.ids.length && transactions.recipients[i] == atId; i++) {
+            if (transactions.amounts[i] >= minAmount) {
+                counter++;
+                if (transactions.ids[i] == transactionId) {
+                    break;
+                }
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Makes sure the heights from start to end are held, loading the missing ones if they are among the last blocks.
+     */
+    private boolean load(int start, int end) {
+        int chainHeight = blockchain.getHeight();
+        if (start < 0 || end > chainHeight || start <= chainHeight - heights.length) {
+            return false;
+        }
+        if (lastHeight < firstHeight || end - lastHeight >= heights.length) {
+            clear();
+            firstHeight = end + 1;
+            lastHeight = end;
+        }
+        while (lastHeight < end) {
+            IncomingTransactions transactions = atStore.getIncomingTransactions(lastHeight + 1);
+            if (transactions == null) {
+                return false;
+            }
+            lastHeight++;
+            heights[slot(lastHeight)] = transactions;
+            if (lastHeight - firstHeight >= heights.length) {
+                firstHeight = lastHeight - heights.length + 1;
+            }
+        }
+        if (start <= lastHeight - heights.length) {
+            return false;
+        }
+        while (firstHeight > start) {
+            IncomingTransactions transactions = atStore.getIncomingTransactions(firstHeight - 1);
+            if (transactions == null) {
+                return false;
+            }
+            firstHeight--;
+            heights[slot(firstHeight)] = transactions;
+        }
+        return true;
+    }
+
+    private void truncate(int height) {
+        while (lastHeight > height && lastHeight >= firstHeight) {
+            heights[slot(lastHeight)] = null;
+            lastHeight--;
+        }
+        if (lastHeight < firstHeight) {
+            clear();
+        }
+    }
+
+    private int slot(int height) {
+        return height % heights.length;
+    }
+
+    /**
+     * The transactions of one height having a recipient, sorted by recipient and id.
+     */
+    public static final class IncomingTransactions {
+        private final long[] recipients;
+        private final long[] ids;
+        private final long[] amounts;
+
+        public IncomingTransactions(long[] recipients, long[] ids, long[] amounts) {
+            this.recipients = recipients;
+            this.ids = ids;
+            this.amounts = amounts;
+        }
+
+        // the first transaction to the recipient, or where it would be
+        private int first(long recipient) {
+            int low = 0;
+            int high = recipients.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (recipients[mid] < recipient) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Holder {
+        private static final AtTransactionIndex instance = BPC.getPropertyService().getBoolean(Props.AT_TRANSACTION_INDEX)
+                ? new AtTransactionIndex(BPC.getStores().getAtStore(), BPC.getBlockchain(), Constants.MAX_ROLLBACK) : null;
+    }
+}
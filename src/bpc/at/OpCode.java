@@ -11,52 +11,52 @@ final class OpCode {
     private OpCode() {
     }
 
-    static final byte E_OP_CODE_NOP = Byte.parseByte("7f", 16);
-    static final byte E_OP_CODE_SET_VAL = Byte.parseByte("01", 16);
-    static final byte E_OP_CODE_SET_DAT = Byte.parseByte("02", 16);
-    static final byte E_OP_CODE_CLR_DAT = Byte.parseByte("03", 16);
-    static final byte E_OP_CODE_INC_DAT = Byte.parseByte("04", 16);
-    static final byte E_OP_CODE_DEC_DAT = Byte.parseByte("05", 16);
-    static final byte E_OP_CODE_ADD_DAT = Byte.parseByte("06", 16);
-    static final byte E_OP_CODE_SUB_DAT = Byte.parseByte("07", 16);
-    static final byte E_OP_CODE_MUL_DAT = Byte.parseByte("08", 16);
-    static final byte E_OP_CODE_DIV_DAT = Byte.parseByte("09", 16);
-    static final byte E_OP_CODE_BOR_DAT = Byte.parseByte("0a", 16);
-    static final byte E_OP_CODE_AND_DAT = Byte.parseByte("0b", 16);
-    static final byte E_OP_CODE_XOR_DAT = Byte.parseByte("0c", 16);
-    static final byte E_OP_CODE_NOT_DAT = Byte.parseByte("0d", 16);
-    static final byte E_OP_CODE_SET_IND = Byte.parseByte("0e", 16);
-    static final byte E_OP_CODE_SET_IDX = Byte.parseByte("0f", 16);
-    static final byte E_OP_CODE_PSH_DAT = Byte.parseByte("10", 16);
-    static final byte E_OP_CODE_POP_DAT = Byte.parseByte("11", 16);
-    static final byte E_OP_CODE_JMP_SUB = Byte.parseByte("12", 16);
-    static final byte E_OP_CODE_RET_SUB = Byte.parseByte("13", 16);
-    static final byte E_OP_CODE_IND_DAT = Byte.parseByte("14", 16);
-    static final byte E_OP_CODE_IDX_DAT = Byte.parseByte("15", 16);
-    static final byte E_OP_CODE_MOD_DAT = Byte.parseByte("16", 16);
-    static final byte E_OP_CODE_SHL_DAT = Byte.parseByte("17", 16);
-    static final byte E_OP_CODE_SHR_DAT = Byte.parseByte("18", 16);
-    static final byte E_OP_CODE_JMP_ADR = Byte.parseByte("1a", 16);
-    static final byte E_OP_CODE_BZR_DAT = Byte.parseByte("1b", 16);
-    static final byte E_OP_CODE_BNZ_DAT = Byte.parseByte("1e", 16);
-    static final byte E_OP_CODE_BGT_DAT = Byte.parseByte("1f", 16);
-    static final byte E_OP_CODE_BLT_DAT = Byte.parseByte("20", 16);
-    static final byte E_OP_CODE_BGE_DAT = Byte.parseByte("21", 16);
-    static final byte E_OP_CODE_BLE_DAT = Byte.parseByte("22", 16);
-    static final byte E_OP_CODE_BEQ_DAT = Byte.parseByte("23", 16);
-    static final byte E_OP_CODE_BNE_DAT = Byte.parseByte("24", 16);
-    static final byte E_OP_CODE_SLP_DAT = Byte.parseByte("25", 16);
-    static final byte E_OP_CODE_FIZ_DAT = Byte.parseByte("26", 16);
-    static final byte E_OP_CODE_STZ_DAT = Byte.parseByte("27", 16);
-    static final byte E_OP_CODE_FIN_IMD = Byte.parseByte("28", 16);
-    static final byte E_OP_CODE_STP_IMD = Byte.parseByte("29", 16);
-    static final byte E_OP_CODE_SLP_IMD = Byte.parseByte("2a", 16);
-    static final byte E_OP_CODE_ERR_ADR = Byte.parseByte("2b", 16);
-    static final byte E_OP_CODE_SET_PCS = Byte.parseByte("30", 16);
-    static final byte E_OP_CODE_EXT_FUN = Byte.parseByte("32", 16);
-    static final byte E_OP_CODE_EXT_FUN_DAT = Byte.parseByte("33", 16);
-    static final byte E_OP_CODE_EXT_FUN_DAT_2 = Byte.parseByte("34", 16);
-    static final byte E_OP_CODE_EXT_FUN_RET = Byte.parseByte("35", 16);
-    static final byte E_OP_CODE_EXT_FUN_RET_DAT = Byte.parseByte("36", 16);
-    static final byte E_OP_CODE_EXT_FUN_RET_DAT_2 = Byte.parseByte("37", 16);
+    static final byte E_OP_CODE_NOP = 0x7f;
+    static final byte E_OP_CODE_SET_VAL = 0x01;
+    static final byte E_OP_CODE_SET_DAT = 0x02;
+    static final byte E_OP_CODE_CLR_DAT = 0x03;
+    static final byte E_OP_CODE_INC_DAT = 0x04;
+    static final byte E_OP_CODE_DEC_DAT = 0x05;
+    static final byte E_OP_CODE_ADD_DAT = 0x06;
+    static final byte E_OP_CODE_SUB_DAT = 0x07;
+    static final byte E_OP_CODE_MUL_DAT = 0x08;
+    static final byte E_OP_CODE_DIV_DAT = 0x09;
+    static final byte E_OP_CODE_BOR_DAT = 0x0a;
+    static final byte E_OP_CODE_AND_DAT = 0x0b;
+    static final byte E_OP_CODE_XOR_DAT = 0x0c;
+    static final byte E_OP_CODE_NOT_DAT = 0x0d;
+    static final byte E_OP_CODE_SET_IND = 0x0e;
+    static final byte E_OP_CODE_SET_IDX = 0x0f;
+    static final byte E_OP_CODE_PSH_DAT = 0x10;
+    static final byte E_OP_CODE_POP_DAT = 0x11;
+    static final byte E_OP_CODE_JMP_SUB = 0x12;
+    static final byte E_OP_CODE_RET_SUB = 0x13;
+    static final byte E_OP_CODE_IND_DAT = 0x14;
+    static final byte E_OP_CODE_IDX_DAT = 0x15;
+    static final byte E_OP_CODE_MOD_DAT = 0x16;
+    static final byte E_OP_CODE_SHL_DAT = 0x17;
+    static final byte E_OP_CODE_SHR_DAT = 0x18;
+    static final byte E_OP_CODE_JMP_ADR = 0x1a;
+    static final byte E_OP_CODE_BZR_DAT = 0x1b;
+    static final byte E_OP_CODE_BNZ_DAT = 0x1e;
+    static final byte E_OP_CODE_BGT_DAT = 0x1f;
+    static final byte E_OP_CODE_BLT_DAT = 0x20;
+    static final byte E_OP_CODE_BGE_DAT = 0x21;
+    static final byte E_OP_CODE_BLE_DAT = 0x22;
+    static final byte E_OP_CODE_BEQ_DAT = 0x23;
+    static final byte E_OP_CODE_BNE_DAT = 0x24;
+    static final byte E_OP_CODE_SLP_DAT = 0x25;
+    static final byte E_OP_CODE_FIZ_DAT = 0x26;
+    static final byte E_OP_CODE_STZ_DAT = 0x27;
+    static final byte E_OP_CODE_FIN_IMD = 0x28;
+    static final byte E_OP_CODE_STP_IMD = 0x29;
+    static final byte E_OP_CODE_SLP_IMD = 0x2a;
+    static final byte E_OP_CODE_ERR_ADR = 0x2b;
+    static final byte E_OP_CODE_SET_PCS = 0x30;
+    static final byte E_OP_CODE_EXT_FUN = 0x32;
+    static final byte E_OP_CODE_EXT_FUN_DAT = 0x33;
+    static final byte E_OP_CODE_EXT_FUN_DAT_2 = 0x34;
+    static final byte E_OP_CODE_EXT_FUN_RET = 0x35;
+    static final byte E_OP_CODE_EXT_FUN_RET_DAT = 0x36;
+    static final byte E_OP_CODE_EXT_FUN_RET_DAT_2 = 0x37;
 }
@@ -14,6 +14,12 @@ public interface BlockDb extends Table {
 
   Block findBlockAtHeight(int height);
 
+  /**
+   * Reads the ids and timestamps of the blocks from one height to another, inclusive, into the arrays at the index of
+   * their height.
+   */
+  void loadBlockIdsAndTimestamps(int fromHeight, int toHeight, long[] ids, int[] timestamps);
+
   Block findLastBlock();
 
   Block findLastBlock(int timestamp);
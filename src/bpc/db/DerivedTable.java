@@ -7,5 +7,15 @@ public interface DerivedTable extends Table {
 
   void trim(int height);
 
+  /**
+   * Trims the rows of up to about maxRows old versions, starting after the given key.
+   * @param after the key returned by the previous call, null to start with the first key
+   * @return the last key trimmed, or null once the whole table is trimmed
+   */
+  default long[] trim(int height, long[] after, int maxRows) {
+    trim(height);
+    return null;
+  }
+
   void finish();
 }
@@ -23,4 +23,10 @@ public interface TransactionDb extends Table {
   List<Transaction> findBlockTransactions(long blockId);
 
   void saveTransactions(List<Transaction> transactions);
+
+  /**
+   * Reads the ids of all confirmed transactions, after which {@link #hasTransaction(long)} only goes to the
+   * database for ids it has probably seen.
+   */
+  void loadTransactionIds();
 }
@@ -1,6 +1,6 @@
 package brs.db;
 
-import org.ehcache.Cache;
+import brs.db.cache.EntityCache;
 import org.jooq.*;
 
 import java.util.Collection;
@@ -66,7 +66,7 @@ public interface VersionedBatchEntityTable<T> extends DerivedTable, EntityTable<
 
   Map<BurstKey, T> getBatch();
 
-  Cache getCache();
+  EntityCache<T> getCache();
 
   void flushCache();
 }
@@ -1,18 +1,19 @@
 package brs.db.cache;
 
-import brs.Account;
 import brs.db.BurstKey;
+import brs.props.Prop;
+import brs.props.PropertyService;
+import brs.props.Props;
 import brs.statistics.StatisticsManagerImpl;
-import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.Status;
-import org.ehcache.config.CacheConfiguration;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class DBCacheManagerImpl {
 
@@ -20,43 +21,106 @@ public class DBCacheManagerImpl {
 
   private final StatisticsManagerImpl statisticsManager;
 
+  private final PropertyService propertyService;
+
   private final boolean statisticsEnabled;
 
-  private final HashMap<String, CacheConfiguration<BurstKey, ?>> caches = new HashMap<>();
+  private final boolean tableCachesEnabled;
+
+  private final HashMap<String, CacheSettings> settings = new HashMap<>();
+
+  private final HashMap<String, EntityCache<?>> caches = new HashMap<>();
+
+  private static class CacheSettings {
+    private final int entries;
+    private final boolean offHeap;
+    private final String file;
 
-  public DBCacheManagerImpl(StatisticsManagerImpl statisticsManager) {
+    CacheSettings(int entries, boolean offHeap, String file) {
+      this.entries = entries;
+      this.offHeap = offHeap;
+      this.file = file;
+    }
+  }
+
+  public DBCacheManagerImpl(PropertyService propertyService, StatisticsManagerImpl statisticsManager) {
     this.statisticsManager = statisticsManager;
+    this.propertyService = propertyService;
     statisticsEnabled = true;
+    tableCachesEnabled = propertyService.getBoolean(Props.DB_CACHE_ENABLED);
 
-    caches.put("account", CacheConfigurationBuilder.newCacheConfigurationBuilder(BurstKey.class, Account.class, ResourcePoolsBuilder.heap(8192)).build());
+    settings.put("account", new CacheSettings(propertyService.getInt(Props.DB_ACCOUNT_CACHE_ENTRIES),
+        propertyService.getBoolean(Props.DB_ACCOUNT_CACHE_OFF_HEAP), propertyService.getString(Props.DB_ACCOUNT_CACHE_FILE)));
 
-    CacheManagerBuilder cacheBuilder = CacheManagerBuilder.newCacheManagerBuilder();
-    for (Map.Entry<String, CacheConfiguration<BurstKey, ?>> cache : caches.entrySet()) {
-      cacheBuilder = cacheBuilder.withCache(cache.getKey(), cache.getValue());
-    }
-    cacheManager = cacheBuilder.build(true);
+    cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
   }
 
-  public void close() {
+  public synchronized void close() {
+    for (EntityCache<?> cache : caches.values()) {
+      cache.close();
+    }
     if ( cacheManager.getStatus().equals(Status.AVAILABLE) ) {
       cacheManager.close();
     }
   }
 
-  private <V> Cache<BurstKey, V> getEHCache(String name, Class<V> valueClass) {
-    return cacheManager.getCache(name, BurstKey.class, valueClass);
+  /**
+   * @param codec Used to keep the entities off heap when the table is configured that way, null if it can't be
+   * @return The cache of the table, null if caching is turned off for it
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <V> EntityCache<V> getCache(String name, EntityCodec<V> codec) {
+    EntityCache<V> cache = (EntityCache<V>) caches.get(name);
+    if (cache == null) {
+      CacheSettings cacheSettings = settings.get(name);
+      if (cacheSettings == null) {
+        final int entries = propertyService.getInt(new Prop<>("DB.cache." + name + ".entries", propertyService.getInt(Props.DB_CACHE_DEFAULT_ENTRIES)));
+        if (!tableCachesEnabled || entries <= 0) {
+          return null;
+        }
+        cacheSettings = new CacheSettings(entries, false, "");
+      }
+
+      if (cacheSettings.offHeap && codec != null) {
+        cache = new OffHeapEntityCache<>(codec, cacheSettings.entries, cacheSettings.file);
+      } else {
+        cache = new HeapEntityCache<>(cacheManager.createCache(name,
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(BurstKey.class, HeapEntityCache.Entry.class, ResourcePoolsBuilder.heap(cacheSettings.entries)).build()));
+      }
+
+      if (statisticsEnabled) {
+        cache = new StatisticsCache<>(cache, name, statisticsManager);
+      }
+      caches.put(name, cache);
+    }
+    return cache;
   }
 
-  public <V> Cache<BurstKey, V> getCache(String name, Class<V> valueClass) {
-    Cache<BurstKey, V> cache = getEHCache(name, valueClass);
-    return statisticsEnabled ? new StatisticsCache<>(cache, name, statisticsManager) : cache;
+  /**
+   * Drops what a committed transaction changed from the caches of the tables
+   * @param rollbackHeights Lowest height each table got rolled back to in the transaction
+   */
+  public synchronized void afterCommit(Map<String, Set<BurstKey>> changedKeys, Map<String, Integer> rollbackHeights) {
+    for (Map.Entry<String, Set<BurstKey>> changed : changedKeys.entrySet()) {
+      final EntityCache<?> cache = caches.get(changed.getKey());
+      if (cache != null) {
+        cache.invalidate(changed.getValue());
+      }
+    }
+    for (Map.Entry<String, Integer> rollback : rollbackHeights.entrySet()) {
+      final EntityCache<?> cache = caches.get(rollback.getKey());
+      if (cache != null) {
+        cache.rollback(rollback.getValue());
+      }
+    }
+    for (EntityCache<?> cache : caches.values()) {
+      cache.committed();
+    }
   }
 
-  public void flushCache() {
-    for (Map.Entry<String, CacheConfiguration<BurstKey, ?>> cacheEntry : caches.entrySet()) {
-      Cache<?,?> cache = getEHCache(cacheEntry.getKey(), cacheEntry.getValue().getValueType());
-      if ( cache != null )
-        cache.clear();
+  public synchronized void flushCache() {
+    for (EntityCache<?> cache : caches.values()) {
+      cache.clear();
     }
   }
 }
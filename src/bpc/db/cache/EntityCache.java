@@ -0,0 +1,51 @@
+package brs.db.cache;
+
+import brs.db.BurstKey;
+
+import java.util.Collection;
+
+/**
+ * Cache for the latest version of the entities of a versioned table.
+ * Every entry remembers the height it was written at, so a rollback only has to drop what is above the new height.
+ */
+public interface EntityCache<V> {
+
+  V get(BurstKey key);
+
+  void put(BurstKey key, V value, int height);
+
+  /**
+   * Caches a value read from the database, unless the cache changed since the read started or holds writes that
+   * aren't committed yet
+   * @param generation The {@link #generation()} from before the read
+   */
+  void putLoaded(BurstKey key, V value, int height, long generation);
+
+  /**
+   * @return Counter that moves on with every write to the cache
+   */
+  long generation();
+
+  void remove(BurstKey key);
+
+  /**
+   * Drops the given keys after their rows changed in the database
+   */
+  void invalidate(Collection<BurstKey> keys);
+
+  /**
+   * Called once the transaction that put entries got committed, loaded values are accepted again from then on
+   */
+  void committed();
+
+  /**
+   * Drops every entry written above the given height
+   */
+  void rollback(int height);
+
+  void clear();
+
+  int size();
+
+  void close();
+}
@@ -0,0 +1,21 @@
+package brs.db.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns entities into bytes and back for the caches that don't keep them on the heap.
+ */
+public interface EntityCodec<V> {
+
+  /**
+   * @return The number of bytes most entities fit into, bigger ones may be kept elsewhere
+   */
+  int recordSize();
+
+  /**
+   * Writes the entity at the position of the buffer, throws a {@link java.nio.BufferOverflowException} when it doesn't fit
+   */
+  void encode(V value, ByteBuffer buffer);
+
+  V decode(long id, ByteBuffer buffer);
+}
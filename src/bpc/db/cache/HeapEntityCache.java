@@ -0,0 +1,113 @@
+package brs.db.cache;
+
+import brs.db.BurstKey;
+import org.ehcache.Cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link EntityCache} on top of an on heap Ehcache, hands out the cached instances themselves.
+ * Reads go straight to the Ehcache, writes are serialized to keep the generation in step with the content.
+ */
+class HeapEntityCache<V> implements EntityCache<V> {
+
+  static final class Entry {
+    private final Object value;
+    private final int height;
+
+    Entry(Object value, int height) {
+      this.value = value;
+      this.height = height;
+    }
+  }
+
+  private final Cache<BurstKey, Entry> cache;
+
+  private volatile long generation;
+  private boolean uncommitted;
+
+  HeapEntityCache(Cache<BurstKey, Entry> cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(BurstKey key) {
+    final Entry entry = cache.get(key);
+    return entry == null ? null : (V) entry.value;
+  }
+
+  @Override
+  public synchronized void put(BurstKey key, V value, int height) {
+    generation++;
+    uncommitted = true;
+    cache.put(key, new Entry(value, height));
+  }
+
+  @Override
+  public synchronized void putLoaded(BurstKey key, V value, int height, long generation) {
+    if (!uncommitted && this.generation == generation) {
+      cache.put(key, new Entry(value, height));
+    }
+  }
+
+  @Override
+  public long generation() {
+    return generation;
+  }
+
+  @Override
+  public synchronized void remove(BurstKey key) {
+    generation++;
+    cache.remove(key);
+  }
+
+  @Override
+  public synchronized void invalidate(Collection<BurstKey> keys) {
+    generation++;
+    cache.removeAll(new HashSet<>(keys));
+  }
+
+  @Override
+  public synchronized void committed() {
+    if (uncommitted) {
+      uncommitted = false;
+      generation++;
+    }
+  }
+
+  @Override
+  public synchronized void rollback(int height) {
+    generation++;
+    final Set<BurstKey> stale = new HashSet<>();
+    for (Cache.Entry<BurstKey, Entry> entry : cache) {
+      if (entry.getValue().height > height) {
+        stale.add(entry.getKey());
+      }
+    }
+    cache.removeAll(stale);
+  }
+
+  @Override
+  public synchronized void clear() {
+    generation++;
+    uncommitted = false;
+    cache.clear();
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Cache.Entry<BurstKey, Entry> ignored : cache) {
+      size++;
+    }
+    return size;
+  }
+
+  @Override
+  public void close() {
+    // the cache manager owns the underlying cache
+  }
+}
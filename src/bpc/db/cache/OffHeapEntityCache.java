@@ -0,0 +1,370 @@
+package brs.db.cache;
+
+import brs.db.BurstKey;
+import brs.util.LongObjectMap;
+import brs.util.OpenAddressing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@link EntityCache} that keeps the encoded entities outside of the heap, in direct buffers or in a memory mapped
+ * file, so it can hold millions of entries without putting any load on the garbage collector.
+ * Entries are stored in an open addressing table keyed by the single long primary key of the entity. Every bucket
+ * carries the epoch it was written in, clearing the cache just starts a new epoch. Entities bigger than the record
+ * size of the codec are kept on the heap in encoded form.
+ * A mapped file is only used as backing memory, its content is dropped when the cache is opened again.
+ */
+public class OffHeapEntityCache<V> implements EntityCache<V> {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapEntityCache.class);
+
+  private static final int MAGIC = 0x42524543;
+  private static final int HEADER_SIZE = 64;
+  private static final int MAX_SEGMENT_SIZE = 1 << 30;
+  private static final int MAX_ENCODED_SIZE = 16 * 1024;
+
+  private static final int EPOCH_OFFSET = 0;
+  private static final int KEY_OFFSET = 4;
+  private static final int HEIGHT_OFFSET = 12;
+  private static final int LENGTH_OFFSET = 16;
+  private static final int PAYLOAD_OFFSET = 20;
+
+  private static final int OVERFLOW = -1;
+
+  private final EntityCodec<V> codec;
+  private final int maxEntries;
+  private final int recordSize;
+  private final int bucketSize;
+  private final int mask;
+  private final int bucketsPerSegment;
+  private final ByteBuffer[] segments;
+  private final MappedByteBuffer header;
+
+  private final LongObjectMap<byte[]> overflow = new LongObjectMap<>();
+  private final OpenAddressing.Buckets buckets = new OpenAddressing.Buckets() {
+    @Override
+    public boolean occupied(int bucket) {
+      return OffHeapEntityCache.this.occupied(bucket);
+    }
+
+    @Override
+    public long keyAt(int bucket) {
+      return OffHeapEntityCache.this.keyAt(bucket);
+    }
+
+    @Override
+    public void move(int from, int to) {
+      copyBucket(from, to);
+    }
+
+    @Override
+    public void free(int bucket) {
+      segment(bucket).putInt(offset(bucket) + EPOCH_OFFSET, 0);
+    }
+  };
+  private final ByteBuffer scratch = ByteBuffer.allocate(MAX_ENCODED_SIZE);
+
+  private int epoch;
+  private int size;
+  private int clockHand;
+  private long generation;
+  private boolean uncommitted;
+
+  /**
+   * @param backingFile Memory mapped file to keep the entries in, or an empty string to use direct memory
+   */
+  public OffHeapEntityCache(EntityCodec<V> codec, int maxEntries, String backingFile) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Cache needs room for at least one entry");
+    }
+    this.codec = codec;
+    this.maxEntries = maxEntries;
+    this.recordSize = codec.recordSize();
+    this.bucketSize = PAYLOAD_OFFSET + recordSize;
+
+    int capacity = 16;
+    while (capacity < maxEntries * 4L / 3 + 1 && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    this.mask = capacity - 1;
+    this.bucketsPerSegment = Math.min(capacity, MAX_SEGMENT_SIZE / bucketSize);
+    this.segments = new ByteBuffer[(capacity + bucketsPerSegment - 1) / bucketsPerSegment];
+
+    if (backingFile == null || backingFile.isEmpty()) {
+      for (int i = 0; i < segments.length; i++) {
+        segments[i] = ByteBuffer.allocateDirect(bucketsPerSegment * bucketSize);
+      }
+      this.header = null;
+      this.epoch = 1;
+    } else {
+      try (FileChannel channel = FileChannel.open(Paths.get(backingFile), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        for (int i = 0; i < segments.length; i++) {
+          segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) i * bucketsPerSegment * bucketSize, (long) bucketsPerSegment * bucketSize);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Could not map cache file " + backingFile + ": " + e.toString(), e);
+      }
+      openBackingFile(capacity);
+    }
+
+    logger.info("Off heap cache with {} buckets of {} bytes in {}", capacity, bucketSize, header == null ? "direct memory" : backingFile);
+  }
+
+  private void openBackingFile(int capacity) {
+    final int storedEpoch = header.getInt(4);
+    if (header.getInt(0) == MAGIC && header.getInt(8) == bucketSize && header.getInt(12) == capacity && storedEpoch > 0 && storedEpoch < Integer.MAX_VALUE) {
+      // whatever is still in the file belongs to an older epoch and gets ignored
+      epoch = storedEpoch + 1;
+    } else {
+      for (ByteBuffer segment : segments) {
+        zero(segment);
+      }
+      header.putInt(0, MAGIC);
+      header.putInt(8, bucketSize);
+      header.putInt(12, capacity);
+      epoch = 1;
+    }
+    header.putInt(4, epoch);
+  }
+
+  private static void zero(ByteBuffer segment) {
+    int i = 0;
+    for (; i + 8 <= segment.capacity(); i += 8) {
+      segment.putLong(i, 0L);
+    }
+    for (; i < segment.capacity(); i++) {
+      segment.put(i, (byte) 0);
+    }
+  }
+
+  private static long keyOf(BurstKey burstKey) {
+    final long[] pkValues = burstKey.getPKValues();
+    if (pkValues.length != 1) {
+      throw new IllegalArgumentException("Off heap cache only supports single column keys");
+    }
+    return pkValues[0];
+  }
+
+  private int home(long key) {
+    return OpenAddressing.home(key, mask);
+  }
+
+  private ByteBuffer segment(int bucket) {
+    return segments[bucket / bucketsPerSegment];
+  }
+
+  private int offset(int bucket) {
+    return (bucket % bucketsPerSegment) * bucketSize;
+  }
+
+  private boolean occupied(int bucket) {
+    return segment(bucket).getInt(offset(bucket) + EPOCH_OFFSET) == epoch;
+  }
+
+  private long keyAt(int bucket) {
+    return segment(bucket).getLong(offset(bucket) + KEY_OFFSET);
+  }
+
+  private int find(long key) {
+    for (int bucket = home(key); occupied(bucket); bucket = (bucket + 1) & mask) {
+      if (keyAt(bucket) == key) {
+        return bucket;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public synchronized V get(BurstKey burstKey) {
+    final long key = keyOf(burstKey);
+    final int bucket = find(key);
+    if (bucket < 0) {
+      return null;
+    }
+
+    final ByteBuffer segment = segment(bucket);
+    final int offset = offset(bucket);
+    final int length = segment.getInt(offset + LENGTH_OFFSET);
+
+    final ByteBuffer payload;
+    if (length == OVERFLOW) {
+      payload = ByteBuffer.wrap(overflow.get(key));
+    } else {
+      payload = segment.duplicate();
+      payload.position(offset + PAYLOAD_OFFSET);
+      payload.limit(offset + PAYLOAD_OFFSET + length);
+    }
+    return codec.decode(key, payload);
+  }
+
+  @Override
+  public synchronized void put(BurstKey burstKey, V value, int height) {
+    generation++;
+    uncommitted = true;
+    store(keyOf(burstKey), value, height);
+  }
+
+  @Override
+  public synchronized void putLoaded(BurstKey burstKey, V value, int height, long generation) {
+    if (!uncommitted && this.generation == generation) {
+      store(keyOf(burstKey), value, height);
+    }
+  }
+
+  @Override
+  public synchronized long generation() {
+    return generation;
+  }
+
+  private void store(long key, V value, int height) {
+
+    scratch.clear();
+    try {
+      codec.encode(value, scratch);
+    } catch (BufferOverflowException e) {
+      // too big to be worth caching, leave it to the database
+      remove(key);
+      return;
+    }
+    final int length = scratch.position();
+
+    int bucket = find(key);
+    if (bucket < 0) {
+      if (size >= maxEntries) {
+        evictOne();
+      }
+      bucket = home(key);
+      while (occupied(bucket)) {
+        bucket = (bucket + 1) & mask;
+      }
+      size++;
+    }
+
+    final ByteBuffer segment = segment(bucket);
+    final int offset = offset(bucket);
+    segment.putInt(offset + EPOCH_OFFSET, epoch);
+    segment.putLong(offset + KEY_OFFSET, key);
+    segment.putInt(offset + HEIGHT_OFFSET, height);
+
+    if (length <= recordSize) {
+      overflow.remove(key);
+      segment.putInt(offset + LENGTH_OFFSET, length);
+      final ByteBuffer target = segment.duplicate();
+      target.position(offset + PAYLOAD_OFFSET);
+      scratch.flip();
+      target.put(scratch);
+    } else {
+      segment.putInt(offset + LENGTH_OFFSET, OVERFLOW);
+      overflow.put(key, Arrays.copyOf(scratch.array(), length));
+    }
+  }
+
+  @Override
+  public synchronized void remove(BurstKey burstKey) {
+    generation++;
+    remove(keyOf(burstKey));
+  }
+
+  @Override
+  public synchronized void invalidate(Collection<BurstKey> keys) {
+    generation++;
+    for (BurstKey key : keys) {
+      remove(keyOf(key));
+    }
+  }
+
+  private void remove(long key) {
+    final int bucket = find(key);
+    if (bucket >= 0) {
+      overflow.remove(key);
+      OpenAddressing.closeGap(buckets, bucket, mask);
+      size--;
+    }
+  }
+
+  private void copyBucket(int from, int to) {
+    final ByteBuffer source = segment(from).duplicate();
+    source.position(offset(from));
+    source.limit(offset(from) + bucketSize);
+    final ByteBuffer target = segment(to).duplicate();
+    target.position(offset(to));
+    target.put(source);
+  }
+
+  private void evictOne() {
+    int bucket = clockHand;
+    while (!occupied(bucket)) {
+      bucket = (bucket + 1) & mask;
+    }
+    clockHand = (bucket + 1) & mask;
+    remove(keyAt(bucket));
+  }
+
+  @Override
+  public synchronized void committed() {
+    if (uncommitted) {
+      uncommitted = false;
+      generation++;
+    }
+  }
+
+  @Override
+  public synchronized void rollback(int height) {
+    generation++;
+    long[] stale = new long[16];
+    int count = 0;
+    for (int bucket = 0; bucket <= mask; bucket++) {
+      if (occupied(bucket) && segment(bucket).getInt(offset(bucket) + HEIGHT_OFFSET) > height) {
+        if (count == stale.length) {
+          stale = Arrays.copyOf(stale, count * 2);
+        }
+        stale[count++] = keyAt(bucket);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      remove(stale[i]);
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    generation++;
+    uncommitted = false;
+    if (epoch == Integer.MAX_VALUE) {
+      for (ByteBuffer segment : segments) {
+        zero(segment);
+      }
+      epoch = 0;
+    }
+    epoch++;
+    if (header != null) {
+      header.putInt(4, epoch);
+    }
+    overflow.clear();
+    size = 0;
+    clockHand = 0;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (header != null) {
+      header.force();
+    }
+  }
+}
@@ -1,40 +1,27 @@
 package brs.db.cache;
 
+import brs.db.BurstKey;
 import brs.statistics.StatisticsManagerImpl;
-import org.ehcache.Cache;
-import org.ehcache.config.CacheRuntimeConfiguration;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import java.util.Collection;
 
-class StatisticsCache<K, V> implements Cache<K, V> {
+class StatisticsCache<V> implements EntityCache<V> {
 
-  private final Cache<K, V> wrappedCache;
+  private final EntityCache<V> wrappedCache;
   private final StatisticsManagerImpl statisticsManager;
   private final String cacheName;
 
-  public StatisticsCache(Cache<K, V> wrappedCache, String cacheName, StatisticsManagerImpl statisticsManager) {
+  public StatisticsCache(EntityCache<V> wrappedCache, String cacheName, StatisticsManagerImpl statisticsManager) {
     this.wrappedCache = wrappedCache;
     this.statisticsManager = statisticsManager;
     this.cacheName = cacheName;
   }
 
   @Override
-  public V get(K k) {
-    return wrappedCache.get(k);
-  }
-
-  @Override
-  public void put(K k, V v) {
-    wrappedCache.put(k, v);
-  }
+  public V get(BurstKey key) {
+    final V result = wrappedCache.get(key);
 
-  @Override
-  public boolean containsKey(K k) {
-    final boolean result = wrappedCache.containsKey(k);
-
-    if(result) {
+    if(result != null) {
       statisticsManager.foundObjectInCache(cacheName);
     } else {
       statisticsManager.didNotFindObjectInCache(cacheName);
@@ -44,57 +31,52 @@ class StatisticsCache<K, V> implements Cache<K, V> {
   }
 
   @Override
-  public void remove(K k) {
-    wrappedCache.remove(k);
+  public void put(BurstKey key, V value, int height) {
+    wrappedCache.put(key, value, height);
   }
 
   @Override
-  public Map<K, V> getAll(Set<? extends K> set) {
-    return wrappedCache.getAll(set);
+  public void putLoaded(BurstKey key, V value, int height, long generation) {
+    wrappedCache.putLoaded(key, value, height, generation);
   }
 
   @Override
-  public void putAll(Map<? extends K, ? extends V> map) {
-    wrappedCache.putAll(map);
+  public long generation() {
+    return wrappedCache.generation();
   }
 
   @Override
-  public void removeAll(Set<? extends K> set) {
-    wrappedCache.removeAll(set);
+  public void remove(BurstKey key) {
+    wrappedCache.remove(key);
   }
 
   @Override
-  public void clear() {
-    wrappedCache.clear();
-  }
-
-  @Override
-  public V putIfAbsent(K k, V v) {
-    return wrappedCache.putIfAbsent(k, v);
+  public void invalidate(Collection<BurstKey> keys) {
+    wrappedCache.invalidate(keys);
   }
 
   @Override
-  public boolean remove(K k, V v) {
-    return wrappedCache.remove(k, v);
+  public void committed() {
+    wrappedCache.committed();
   }
 
   @Override
-  public V replace(K k, V v) {
-    return wrappedCache.replace(k, v);
+  public void rollback(int height) {
+    wrappedCache.rollback(height);
   }
 
   @Override
-  public boolean replace(K k, V v, V v1) {
-    return wrappedCache.replace(k, v, v1);
+  public void clear() {
+    wrappedCache.clear();
   }
 
   @Override
-  public CacheRuntimeConfiguration<K, V> getRuntimeConfiguration() {
-    return wrappedCache.getRuntimeConfiguration();
+  public int size() {
+    return wrappedCache.size();
   }
 
   @Override
-  public Iterator<Entry<K, V>> iterator() {
-    return wrappedCache.iterator();
+  public void close() {
+    wrappedCache.close();
   }
 }
@@ -0,0 +1,26 @@
+package brs.db.sql;
+
+import org.jooq.Field;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Columns of a table together with the values of a row for them. Tables that have one collect their inserts within a
+ * transaction and write them with multi-row statements once they get finished or read, instead of saving row by row.
+ */
+final class BulkWriter<T> {
+  final List<Field<?>> fields;
+  private final Function<T, Object[]> values;
+
+  BulkWriter(Function<T, Object[]> values, Field<?>... fields) {
+    this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    this.values = values;
+  }
+
+  Object[] values(T t) {
+    return values.apply(t);
+  }
+}
@@ -24,10 +24,19 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -40,11 +49,31 @@ public final class Db {
   private static final ThreadLocal<Connection> localConnection = new ThreadLocal<>();
   private static final ThreadLocal<Map<String, Map<BurstKey, Object>>> transactionCaches = new ThreadLocal<>();
   private static final ThreadLocal<Map<String, Map<BurstKey, Object>>> transactionBatches = new ThreadLocal<>();
+  private static final ThreadLocal<Map<String, Set<BurstKey>>> transactionChanges = new ThreadLocal<>();
+  private static final ThreadLocal<Map<String, Integer>> transactionRollbacks = new ThreadLocal<>();
+  private static final ThreadLocal<Map<String, Runnable>> transactionFlushes = new ThreadLocal<>();
+
+  private static final Settings settings = new Settings()
+          .withRenderSchema(Boolean.FALSE)
+          .withStatementType(StatementType.PREPARED_STATEMENT);
 
   private static DBCacheManagerImpl dbCacheManager;
 
+  private static final ThreadLocal<Integer> transactionBlockHeight = new ThreadLocal<>();
+  private static final ThreadLocal<PendingCommit> pendingCommit = new ThreadLocal<>();
+  private static final Set<PendingCommit> pendingCommits = ConcurrentHashMap.newKeySet();
+  private static int groupCommitBlocks;
+  // transactions open on any thread, background maintenance waits for them to end
+  private static final AtomicInteger openTransactions = new AtomicInteger();
+  // held shared by every transaction and exclusively by background maintenance, so the two never overlap
+  private static final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock();
+  private static long groupCommitDelay;
+  private static final List<Runnable> rollbackListeners = new CopyOnWriteArrayList<>();
+
   public static void init(PropertyService propertyService, DBCacheManagerImpl dbCacheManager) {
     Db.dbCacheManager = dbCacheManager;
+    groupCommitBlocks = propertyService.getInt(Props.DB_GROUP_COMMIT_BLOCKS);
+    groupCommitDelay = propertyService.getInt(Props.DB_GROUP_COMMIT_DELAY);
 
     String dbUrl;
     String dbUsername;
@@ -85,7 +114,7 @@ public final class Db {
           runFlyway = true;
           config.setAutoCommit(true);
           config.addDataSourceProperty("cachePrepStmts", "true");
-          config.addDataSourceProperty("prepStmtCacheSize", "512");
+          config.addDataSourceProperty("prepStmtCacheSize", Integer.toString(propertyService.getInt(Props.DB_STATEMENT_CACHE_SIZE)));
           config.addDataSourceProperty("prepStmtCacheSqlLimit", "4096");
           config.addDataSourceProperty("characterEncoding", "utf8mb4");
           config.addDataSourceProperty("cacheServerConfiguration", "true");
@@ -127,6 +156,7 @@ public final class Db {
           config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
           config.addDataSourceProperty("DATABASE_TO_UPPER", "false");
           config.addDataSourceProperty("CASE_INSENSITIVE_IDENTIFIERS", "true");
+          config.addDataSourceProperty("QUERY_CACHE_SIZE", Integer.toString(propertyService.getInt(Props.DB_STATEMENT_CACHE_SIZE)));
           break;
         default:
           break;
@@ -165,6 +195,7 @@ public final class Db {
   }
 
   public static void shutdown() {
+    commitPendingBlocks(true);
     if (dialect == SQLDialect.H2) {
       try ( Connection con = cp.getConnection(); Statement stmt = con.createStatement() ) {
         // COMPACT is not giving good result.
@@ -195,6 +226,7 @@ public final class Db {
     if (con != null) {
       return con;
     }
+    commitPendingBlocks();
 
     con = getPooledConnection();
     con.setAutoCommit(true);
@@ -214,18 +246,20 @@ public final class Db {
     }
   }
 
+  /**
+   * Queries bind their values instead of inlining them, also inside transactions. Queries of the same shape render
+   * the same SQL, which the statement cache of the connection then only has to parse once.
+   */
   private static DSLContext getDSLContext() {
     Connection con    = localConnection.get();
-    Settings settings = new Settings();
-    settings.setRenderSchema(Boolean.FALSE);
 
     if (con == null) {
+      commitPendingBlocks();
       try ( DSLContext ctx = DSL.using(cp, dialect, settings) ) {
         return ctx;
       }
     }
     else {
-      settings.setStatementType(StatementType.STATIC_STATEMENT);
       try ( DSLContext ctx = DSL.using(con, dialect, settings) ) {
         return ctx;
       }
@@ -248,25 +282,103 @@ public final class Db {
     return (Map<BurstKey, V>) transactionBatches.get().computeIfAbsent(tableName, k -> new HashMap<>());
   }
 
+  /**
+   * Remembers a changed row, so the read cache of the table drops it once the transaction is committed
+   */
+  static void invalidateOnCommit(String tableName, BurstKey dbKey) {
+    if (!isInTransaction()) {
+      throw new IllegalStateException("Not in transaction");
+    }
+    transactionChanges.get().computeIfAbsent(tableName, k -> new HashSet<>()).add(dbKey);
+  }
+
+  /**
+   * Rolls the read cache of the table back again once the transaction is committed, to drop rows other threads read
+   * before the rollback got committed
+   */
+  static void rollbackOnCommit(String tableName, int height) {
+    if (!isInTransaction()) {
+      throw new IllegalStateException("Not in transaction");
+    }
+    transactionRollbacks.get().merge(tableName, height, Math::min);
+  }
+
+  /**
+   * Marks the transaction of this thread as one that applies the block at the given height, its commit can then be
+   * grouped with the commits of the next blocks
+   */
+  static void blockSaved(int height) {
+    if (isInTransaction()) {
+      transactionBlockHeight.set(height);
+    }
+  }
+
+  /**
+   * Lets a table write what it collected during the transaction before the transaction gets committed
+   */
+  static void flushOnCommit(String tableName, Runnable flush) {
+    if (!isInTransaction()) {
+      throw new IllegalStateException("Not in transaction");
+    }
+    transactionFlushes.get().putIfAbsent(tableName, flush);
+  }
+
   public static boolean isInTransaction() {
     return localConnection.get() != null;
   }
 
+  /**
+   * Transactions open on any thread, counting block commits still waiting to be grouped.
+   */
+  public static int getOpenTransactionCount() {
+    return openTransactions.get() + pendingCommits.size();
+  }
+
+  /**
+   * Runs the task if no transaction is open on any thread and no block commit is pending. Transactions can't begin
+   * until the task returns.
+   *
+   * @return whether the task ran
+   */
+  public static boolean runExclusively(Runnable task) {
+    if (!transactionLock.writeLock().tryLock()) {
+      return false;
+    }
+    try {
+      if (getOpenTransactionCount() > 0) {
+        return false;
+      }
+      task.run();
+      return true;
+    } finally {
+      transactionLock.writeLock().unlock();
+    }
+  }
+
   public static Connection beginTransaction() {
     if (localConnection.get() != null) {
       throw new IllegalStateException("Transaction already in progress");
     }
+    transactionLock.readLock().lock();
     try {
-      Connection con = cp.getConnection();
-      con.setAutoCommit(false);
+      Connection con = resumePendingCommit();
+      if (con == null) {
+        con = cp.getConnection();
+        con.setAutoCommit(false);
+      }
 
       localConnection.set(con);
+      openTransactions.incrementAndGet();
       transactionCaches.set(new HashMap<>());
       transactionBatches.set(new HashMap<>());
+      transactionChanges.set(new HashMap<>());
+      transactionRollbacks.set(new HashMap<>());
+      transactionFlushes.set(new HashMap<>());
 
       return con;
     }
     catch (Exception e) {
+      transactionLock.readLock().unlock();
       throw new RuntimeException(e.toString(), e);
     }
   }
@@ -276,11 +388,55 @@ public final class Db {
     if (con == null) {
       throw new IllegalStateException("Not in transaction");
     }
+    Map<String, Runnable> flushes = transactionFlushes.get();
+    if (!flushes.isEmpty()) {
+      List<Runnable> pendingFlushes = new ArrayList<>(flushes.values());
+      flushes.clear();
+      pendingFlushes.forEach(Runnable::run);
+    }
+    Integer blockHeight = transactionBlockHeight.get();
+    transactionBlockHeight.remove();
+    PendingCommit pending = pendingCommit.get();
+    if (blockHeight != null && groupCommitBlocks > 1) {
+      if (pending == null) {
+        pending = new PendingCommit(con);
+        pendingCommit.set(pending);
+        pendingCommits.add(pending);
+      }
+      synchronized (pending) {
+        pending.add(blockHeight, transactionChanges.get(), transactionRollbacks.get());
+        transactionChanges.get().clear();
+        transactionRollbacks.get().clear();
+        if (pending.blocks < groupCommitBlocks) {
+          pending.setSavepoint();
+          return;
+        }
+        pending.commit();
+      }
+      return;
+    }
+
     try {
       con.commit();
     } catch (SQLException e) {
-        throw new RuntimeException(e.toString(), e);
+      if (pending != null) {
+        synchronized (pending) {
+          pending.stop(e);
+        }
+      }
+      throw new RuntimeException(e.toString(), e);
     }
+    if (pending != null) {
+      // the blocks still waiting for their commit just got committed with this transaction
+      synchronized (pending) {
+        pending.add(-1, transactionChanges.get(), transactionRollbacks.get());
+        pending.afterCommit();
+      }
+    } else {
+      dbCacheManager.afterCommit(transactionChanges.get(), transactionRollbacks.get());
+    }
+    transactionChanges.get().clear();
+    transactionRollbacks.get().clear();
   }
 
   public static void rollbackTransaction() {
@@ -289,14 +445,32 @@ public final class Db {
       throw new IllegalStateException("Not in transaction");
     }
     try {
-      con.rollback();
+      PendingCommit pending = pendingCommit.get();
+      if (pending != null && pending.savepoint != null) {
+        // keep the blocks applied before, they only wait for their commit
+        con.rollback(pending.savepoint);
+      } else {
+        con.rollback();
+      }
     }
     catch (SQLException e) {
       throw new RuntimeException(e.toString(), e);
     }
+    transactionBlockHeight.remove();
+    transactionFlushes.get().clear();
     transactionCaches.get().clear();
     transactionBatches.get().clear();
+    transactionChanges.get().clear();
+    transactionRollbacks.get().clear();
     dbCacheManager.flushCache();
+    rollbackListeners.forEach(Runnable::run);
+  }
+
+  /**
+   * Lets state kept in memory next to the database drop what a transaction changed, after it got rolled back
+   */
+  public static void addRollbackListener(Runnable listener) {
+    rollbackListeners.add(listener);
   }
 
   public static void endTransaction() {
@@ -305,13 +479,159 @@ public final class Db {
       throw new IllegalStateException("Not in transaction");
     }
     localConnection.set(null);
+    openTransactions.decrementAndGet();
+    transactionLock.readLock().unlock();
     transactionCaches.get().clear();
     transactionCaches.set(null);
     transactionBatches.get().clear();
     transactionBatches.set(null);
+    transactionChanges.set(null);
+    transactionRollbacks.set(null);
+    transactionFlushes.set(null);
+    transactionBlockHeight.remove();
+
+    PendingCommit pending = pendingCommit.get();
+    if (pending != null) {
+      synchronized (pending) {
+        pending.active = false;
+        pending.savepoint = null;
+        if (pending.blocks > 0) {
+          // committed once enough blocks came together, when the thread uses the database outside of a transaction
+          // or after the delay by commitPendingBlocks
+          return;
+        }
+        pendingCommit.remove();
+        pendingCommits.remove(pending);
+      }
+    }
     DbUtils.close(con);
   }
 
+  private static Connection resumePendingCommit() throws SQLException {
+    PendingCommit pending = pendingCommit.get();
+    if (pending == null) {
+      return null;
+    }
+    synchronized (pending) {
+      if (pending.blocks == 0) {
+        // committed in the meantime
+        pendingCommit.remove();
+        return null;
+      }
+      pending.active = true;
+      pending.setSavepoint();
+      return pending.con;
+    }
+  }
+
+  private static void commitPendingBlocks() {
+    PendingCommit pending = pendingCommit.get();
+    if (pending != null) {
+      synchronized (pending) {
+        pending.commitAndClose();
+      }
+      pendingCommit.remove();
+    }
+  }
+
+  /**
+   * Commits the blocks that have been waiting for longer than the group commit delay, or all of them, on threads that
+   * are not applying a block right now
+   */
+  public static void commitPendingBlocks(boolean all) {
+    long now = System.currentTimeMillis();
+    for (PendingCommit pending : pendingCommits) {
+      synchronized (pending) {
+        if (!pending.active && (all || now - pending.since >= groupCommitDelay)) {
+          pending.commitAndClose();
+        }
+      }
+    }
+  }
+
+  /**
+   * Blocks applied on one connection, which get committed together. The database itself only ever contains whole
+   * blocks up to the checkpoint height, applying continues from there after a crash.
+   */
+  private static final class PendingCommit {
+    private final Connection con;
+    private final Map<String, Set<BurstKey>> changes = new HashMap<>();
+    private final Map<String, Integer> rollbacks = new HashMap<>();
+    private Savepoint savepoint;
+    private boolean active = true;
+    private int blocks;
+    private int height = -1;
+    private long since;
+
+    private PendingCommit(Connection con) {
+      this.con = con;
+    }
+
+    private void add(int blockHeight, Map<String, Set<BurstKey>> tableChanges, Map<String, Integer> tableRollbacks) {
+      if (blockHeight >= 0) {
+        if (blocks++ == 0) {
+          since = System.currentTimeMillis();
+        }
+        height = blockHeight;
+      }
+      tableChanges.forEach((table, keys) -> changes.computeIfAbsent(table, k -> new HashSet<>()).addAll(keys));
+      tableRollbacks.forEach((table, rollbackHeight) -> rollbacks.merge(table, rollbackHeight, Math::min));
+    }
+
+    private void setSavepoint() {
+      try {
+        savepoint = con.setSavepoint();
+      } catch (SQLException e) {
+        throw new RuntimeException(e.toString(), e);
+      }
+    }
+
+    private void commit() {
+      try {
+        con.commit();
+      } catch (SQLException e) {
+        stop(e);
+        throw new RuntimeException(e.toString(), e);
+      }
+      logger.debug("Committed {} blocks, checkpoint at height {}", blocks, height);
+      afterCommit();
+    }
+
+    /**
+     * The blocks of the group are gone from the database, while the last block, the caches and the pool in memory
+     * still have them applied. The node stops, so that it starts again from the checkpoint before them instead of
+     * applying blocks on top of ones the database doesn't have.
+     */
+    private void stop(SQLException e) {
+      logger.error("Committing {} blocks up to height {} failed, stopping the node", blocks, height, e);
+      blocks = 0;
+      pendingCommits.remove(this);
+      DbUtils.close(con);
+      System.exit(1);
+    }
+
+    private void afterCommit() {
+      dbCacheManager.afterCommit(changes, rollbacks);
+      changes.clear();
+      rollbacks.clear();
+      savepoint = null;
+      blocks = 0;
+    }
+
+    private void commitAndClose() {
+      if (blocks == 0) {
+        return;
+      }
+      try {
+        commit();
+      } finally {
+        blocks = 0;
+        pendingCommits.remove(this);
+        DbUtils.close(con);
+      }
+    }
+  }
+
   public static void optimizeTable(String tableName) {
     useDSLContext(ctx -> {
       try {
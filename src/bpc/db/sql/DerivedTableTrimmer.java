@@ -0,0 +1,84 @@
+package brs.db.sql;
+
+import brs.Blockchain;
+import brs.Constants;
+import brs.db.DerivedTable;
+import brs.db.store.DerivedTableManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Trims the old versions of derived table rows from a background thread instead of while applying a block. Every
+ * call trims one chunk of one table in its own short transaction. A chunk only runs while no other transaction is
+ * open and keeps new ones from beginning until it is done, so it never overlaps with a block being applied and block
+ * processing waits for one chunk at most.
+ */
+public final class DerivedTableTrimmer {
+
+  private static final Logger logger = LoggerFactory.getLogger(DerivedTableTrimmer.class);
+
+  // blocks applied between passes over all tables
+  private static final int TRIM_INTERVAL = 1440;
+
+  private final Blockchain blockchain;
+  private final DerivedTableManager derivedTableManager;
+  private final int chunkRows;
+
+  private int trimmedHeight;
+  private int passHeight = -1;
+  private int tableIndex;
+  private long[] after;
+  private long passStart;
+
+  public DerivedTableTrimmer(Blockchain blockchain, DerivedTableManager derivedTableManager, int chunkRows) {
+    this.blockchain = blockchain;
+    this.derivedTableManager = derivedTableManager;
+    this.chunkRows = chunkRows;
+  }
+
+  public synchronized void trimNextChunk() {
+    Db.runExclusively(this::trimChunk);
+  }
+
+  private void trimChunk() {
+    if (passHeight < 0) {
+      int height = blockchain.getHeight() - Constants.MAX_ROLLBACK;
+      if (height <= 0 || height - trimmedHeight < TRIM_INTERVAL) {
+        return;
+      }
+      passHeight = height;
+      tableIndex = 0;
+      after = null;
+      passStart = System.currentTimeMillis();
+    }
+
+    List<DerivedTable> tables = derivedTableManager.getDerivedTables();
+    if (tableIndex >= tables.size()) {
+      logger.info("Trimmed derived tables to height {} in {} ms", passHeight, System.currentTimeMillis() - passStart);
+      trimmedHeight = passHeight;
+      passHeight = -1;
+      return;
+    }
+
+    DerivedTable table = tables.get(tableIndex);
+    Db.beginTransaction();
+    try {
+      after = table.trim(passHeight, after, chunkRows);
+      Db.commitTransaction();
+    } catch (RuntimeException e) {
+      logger.warn("Trimming {} failed, starting over with the next pass", table.getClass().getSimpleName(), e);
+      Db.rollbackTransaction();
+      after = null;
+      passHeight = -1;
+      return;
+    } finally {
+      Db.endTransaction();
+    }
+    if (after == null) {
+      logger.debug("Trimmed {} to height {}", table.getClass().getSimpleName(), passHeight);
+      tableIndex++;
+    }
+  }
+}
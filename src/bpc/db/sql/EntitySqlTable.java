@@ -3,6 +3,8 @@ package brs.db.sql;
 import brs.BPC;
 import brs.db.BurstKey;
 import brs.db.EntityTable;
+import brs.db.cache.DBCacheManagerImpl;
+import brs.db.cache.EntityCache;
 import brs.db.store.DerivedTableManager;
 import org.jooq.*;
 import org.jooq.impl.DSL;
@@ -10,10 +12,13 @@ import org.jooq.impl.TableImpl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 public abstract class EntitySqlTable<T> extends DerivedSqlTable implements EntityTable<T> {
+  private static final int BULK_INSERT_ROWS = 500;
+
   final DbKey.Factory<T> dbKeyFactory;
   private final boolean multiversion;
   private final List<SortField<?>> defaultSort;
@@ -21,14 +26,26 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
   final Field<Integer> heightField;
   final Field<Boolean> latestField;
 
+  // shared read cache of the latest versions, only used outside of transactions, null when the table isn't cached
+  final EntityCache<T> cache;
+
   EntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager) {
-    this(table, tableClass, dbKeyFactory, false, derivedTableManager);
+    this(table, tableClass, dbKeyFactory, false, derivedTableManager, null);
+  }
+
+  EntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    this(table, tableClass, dbKeyFactory, false, derivedTableManager, dbCacheManager.<T>getCache(table, null));
   }
 
   EntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, boolean multiversion, DerivedTableManager derivedTableManager) {
+    this(table, tableClass, dbKeyFactory, multiversion, derivedTableManager, null);
+  }
+
+  EntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, boolean multiversion, DerivedTableManager derivedTableManager, EntityCache<T> cache) {
     super(table, tableClass, derivedTableManager);
     this.dbKeyFactory = (DbKey.Factory<T>) dbKeyFactory;
     this.multiversion = multiversion;
+    this.cache = cache;
     this.defaultSort  = new ArrayList<>();
     this.heightField = tableClass.field("height", Integer.class);
     this.latestField = tableClass.field("latest", Boolean.class);
@@ -55,6 +72,90 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
     }
   }
 
+  /**
+   * Writer of the multi-row inserts of this table, null when it saves row by row
+   */
+  BulkWriter<T> bulkWriter() {
+    return null;
+  }
+
+  /**
+   * Writes the inserts collected so far, so that queries see them
+   */
+  final void flushInserts() {
+    if (bulkWriter() == null || !Db.isInTransaction()) {
+      return;
+    }
+    Map<BurstKey, T> pending = Db.getBatch(table);
+    if (pending.isEmpty()) {
+      return;
+    }
+    Db.useDSLContext(ctx -> {
+      bulkInsert(ctx, pending);
+    });
+    pending.clear();
+  }
+
+  /**
+   * Replaces the rows of the keys at the current height, like the merges of a save do, and writes the new versions as
+   * the latest ones
+   */
+  void bulkInsert(DSLContext ctx, Map<BurstKey, T> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    int height = BPC.getBlockchain().getHeight();
+
+    DeleteQuery deleteQuery = ctx.deleteQuery(tableClass);
+    for (String column : dbKeyFactory.getPKColumns()) {
+      deleteQuery.addConditions(tableClass.field(column, Long.class).eq((Long) null));
+    }
+    if (multiversion) {
+      deleteQuery.addConditions(heightField.eq((Integer) null));
+    }
+    BatchBindStep deleteBatch = ctx.batch(deleteQuery);
+    for (BurstKey dbKey : rows.keySet()) {
+      List<Object> bindArgs = new ArrayList<>();
+      for (long pkValue : dbKey.getPKValues()) {
+        bindArgs.add(pkValue);
+      }
+      if (multiversion) {
+        bindArgs.add(height);
+      }
+      deleteBatch.bind(bindArgs.toArray());
+    }
+    deleteBatch.execute();
+
+    if (multiversion) {
+      UpdateQuery updateQuery = ctx.updateQuery(tableClass);
+      updateQuery.addValue(latestField, false);
+      for (String column : dbKeyFactory.getPKColumns()) {
+        updateQuery.addConditions(tableClass.field(column, Long.class).eq((Long) null));
+      }
+      updateQuery.addConditions(latestField.isTrue());
+      BatchBindStep updateBatch = ctx.batch(updateQuery);
+      for (BurstKey dbKey : rows.keySet()) {
+        List<Object> bindArgs = new ArrayList<>();
+        bindArgs.add(false);
+        for (long pkValue : dbKey.getPKValues()) {
+          bindArgs.add(pkValue);
+        }
+        updateBatch.bind(bindArgs.toArray());
+      }
+      updateBatch.execute();
+    }
+
+    BulkWriter<T> writer = bulkWriter();
+    Iterator<T> values = rows.values().iterator();
+    while (values.hasNext()) {
+      InsertValuesStepN<?> insert = ctx.insertInto(tableClass, writer.fields);
+      for (int i = 0; i < BULK_INSERT_ROWS && values.hasNext(); i++) {
+        insert = insert.values(writer.values(values.next()));
+      }
+      insert.execute();
+    }
+  }
+
   List<SortField<?>> defaultSort() {
     return defaultSort;
   }
@@ -74,7 +175,19 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
       if (t != null) {
         return t;
       }
+    } else if (cache != null) {
+      T t = cache.get(dbKey);
+      if (t != null) {
+        return t;
+      }
     }
+    return getLatest(dbKey);
+  }
+
+  private T getLatest(DbKey dbKey) {
+    flushInserts();
+    final boolean shared = cache != null && !Db.isInTransaction();
+    final long generation = shared ? cache.generation() : 0;
     return Db.useDSLContext(ctx -> {
       SelectQuery<Record> query = ctx.selectQuery();
       query.addFrom(tableClass);
@@ -84,7 +197,17 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
       }
       query.addLimit(1);
 
-      return get(ctx, query, true);
+      if (!shared) {
+        return get(ctx, query, true);
+      }
+      Record record = query.fetchOne();
+      if (record == null) {
+        return null;
+      }
+      T t = load(ctx, record);
+      // remember the height of the row, so a rollback knows whether it has to drop it
+      cache.putLoaded(dbKey, t, record.get(heightField), generation);
+      return t;
     });
   }
 
@@ -92,6 +215,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
   public T get(BurstKey nxtKey, int height) {
     DbKey dbKey = (DbKey) nxtKey;
     checkAvailable(height);
+    flushInserts();
 
     return Db.useDSLContext(ctx -> {
       SelectQuery<Record> query = ctx.selectQuery();
@@ -118,6 +242,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
 
   @Override
   public T getBy(Condition condition) {
+    flushInserts();
     return Db.useDSLContext(ctx -> {
       SelectQuery<Record> query = ctx.selectQuery();
       query.addFrom(tableClass);
@@ -134,6 +259,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
   @Override
   public T getBy(Condition condition, int height) {
     checkAvailable(height);
+    flushInserts();
 
     return Db.useDSLContext(ctx -> {
       SelectQuery<Record> query = ctx.selectQuery();
@@ -242,6 +368,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
 
   @Override
   public Collection<T> getManyBy(DSLContext ctx, SelectQuery<? extends Record> query, boolean cache) {
+    flushInserts();
     final boolean doCache = cache && Db.isInTransaction();
     return query.fetch(record -> {
       T t = null;
@@ -322,6 +449,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
 
   @Override
   public int getCount() {
+    flushInserts();
     return Db.useDSLContext(ctx -> {
       SelectJoinStep<?> r = ctx.selectCount().from(tableClass);
       return (multiversion ? r.where(latestField.isTrue()) : r).fetchOne(0, int.class);
@@ -330,6 +458,7 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
 
   @Override
   public int getRowCount() {
+    flushInserts();
     return Db.useDSLContext(ctx -> {
       return ctx.selectCount().from(tableClass).fetchOne(0, int.class);
     });
@@ -348,30 +477,59 @@ public abstract class EntitySqlTable<T> extends DerivedSqlTable implements Entit
       throw new IllegalStateException("Different instance found in Db cache, perhaps trying to save an object "
                                       + "that was read outside the current transaction");
     }
-    Db.useDSLContext(ctx -> {
-      if (multiversion) {
-        UpdateQuery query = ctx.updateQuery(tableClass);
-        query.addValue(
-          latestField,
-          false
-        );
-        query.addConditions(dbKey.getPKConditions(tableClass));
-        query.addConditions(latestField.isTrue());
-        query.execute();
-      }
-      save(ctx, t);
-    });
+    if (bulkWriter() != null) {
+      Db.<T>getBatch(table).put(dbKey, t);
+      Db.flushOnCommit(table, this::flushInserts);
+    } else {
+      Db.useDSLContext(ctx -> {
+        if (multiversion) {
+          UpdateQuery query = ctx.updateQuery(tableClass);
+          query.addValue(
+            latestField,
+            false
+          );
+          query.addConditions(dbKey.getPKConditions(tableClass));
+          query.addConditions(latestField.isTrue());
+          query.execute();
+        }
+        save(ctx, t);
+      });
+    }
+    if (cache != null) {
+      Db.invalidateOnCommit(table, dbKey);
+    }
   }
 
   @Override
   public void rollback(int height) {
+    flushInserts();
     super.rollback(height);
     Db.getCache(table).clear();
+    rollbackCache(height);
+  }
+
+  void rollbackCache(int height) {
+    if (cache != null) {
+      cache.rollback(height);
+      Db.rollbackOnCommit(table, height);
+    }
+  }
+
+  @Override
+  public void finish() {
+    flushInserts();
   }
 
   @Override
   public void truncate() {
     super.truncate();
     Db.getCache(table).clear();
+    if (bulkWriter() != null) {
+      Db.getBatch(table).clear();
+    }
+    if (cache != null) {
+      cache.clear();
+      Db.rollbackOnCommit(table, -1);
+    }
   }
 }
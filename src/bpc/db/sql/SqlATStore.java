@@ -4,8 +4,11 @@ import brs.BPC;
 import brs.at.AT;
 import brs.at.AtApiHelper;
 import brs.at.AtConstants;
+import brs.at.AtSchedule;
+import brs.at.AtTransactionIndex;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.ATStore;
 import brs.db.store.DerivedTableManager;
 import brs.schema.tables.records.AtRecord;
@@ -39,8 +42,8 @@ public class SqlATStore implements ATStore {
 
   private final VersionedEntityTable<brs.at.AT.ATState> atStateTable;
 
-  public SqlATStore(DerivedTableManager derivedTableManager) {
-    atTable = new VersionedEntitySqlTable<brs.at.AT>("at", brs.schema.Tables.AT, atDbKeyFactory, derivedTableManager) {
+  public SqlATStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    atTable = new VersionedEntitySqlTable<brs.at.AT>("at", brs.schema.Tables.AT, atDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected brs.at.AT load(DSLContext ctx, Record rs) {
         throw new RuntimeException("AT attempted to be created with atTable.load");
@@ -59,7 +62,7 @@ public class SqlATStore implements ATStore {
       }
     };
 
-    atStateTable = new VersionedEntitySqlTable<brs.at.AT.ATState>("at_state", brs.schema.Tables.AT_STATE, atStateDbKeyFactory, derivedTableManager) {
+    atStateTable = new VersionedEntitySqlTable<brs.at.AT.ATState>("at_state", brs.schema.Tables.AT_STATE, atStateDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected brs.at.AT.ATState load(DSLContext ctx, Record rs) {
         return new SqlATState(rs);
@@ -138,6 +141,22 @@ public class SqlATStore implements ATStore {
     });
   }
 
+  @Override
+  public List<AtSchedule.Entry> getScheduleEntries() {
+    return Db.useDSLContext(ctx -> {
+      return ctx.select(AT_STATE.AT_ID, AT_STATE.PREV_HEIGHT, AT_STATE.NEXT_HEIGHT, AT_STATE.PREV_BALANCE,
+              AT_STATE.FREEZE_WHEN_SAME_BALANCE, AT_STATE.MIN_ACTIVATE_AMOUNT, ACCOUNT.BALANCE)
+      .from(
+              AT.join(AT_STATE).on(AT.ID.eq(AT_STATE.AT_ID)).leftJoin(ACCOUNT).on(AT.ID.eq(ACCOUNT.ID).and(ACCOUNT.LATEST.isTrue()))
+      ).where(
+              AT.LATEST.isTrue()
+      ).and(
+              AT_STATE.LATEST.isTrue()
+      ).fetch(record -> new AtSchedule.Entry(record.value1(), record.value2(), record.value3(), record.value4(),
+              record.value5(), record.value6(), record.value7() != null ? record.value7() : 0L));
+    });
+  }
+
   @Override
   public brs.at.AT getAT(Long id) {
     return Db.useDSLContext(ctx -> {
@@ -239,6 +258,28 @@ public class SqlATStore implements ATStore {
     });
   }
 
+  @Override
+  public AtTransactionIndex.IncomingTransactions getIncomingTransactions(int height) {
+    return Db.useDSLContext(ctx -> {
+      Result<Record3<Long, Long, Long>> result = ctx.select(TRANSACTION.RECIPIENT_ID, TRANSACTION.ID, TRANSACTION.AMOUNT)
+              .from(TRANSACTION)
+              .where(TRANSACTION.HEIGHT.eq(height))
+              .and(TRANSACTION.RECIPIENT_ID.isNotNull())
+              .orderBy(TRANSACTION.RECIPIENT_ID, TRANSACTION.ID)
+              .fetch();
+      long[] recipients = new long[result.size()];
+      long[] ids = new long[result.size()];
+      long[] amounts = new long[result.size()];
+      for (int i = 0; i < result.size(); i++) {
+        Record3<Long, Long, Long> record = result.get(i);
+        recipients[i] = record.value1();
+        ids[i] = record.value2();
+        amounts[i] = record.value3();
+      }
+      return new AtTransactionIndex.IncomingTransactions(recipients, ids, amounts);
+    });
+  }
+
   class SqlATState extends brs.at.AT.ATState {
     private SqlATState(Record record) {
       super(
@@ -5,12 +5,15 @@ import brs.BPC;
 import brs.db.VersionedBatchEntityTable;
 import brs.db.VersionedEntityTable;
 import brs.db.cache.DBCacheManagerImpl;
+import brs.db.cache.EntityCodec;
 import brs.db.store.AccountStore;
 import brs.db.store.DerivedTableManager;
 import brs.util.Convert;
 import org.jooq.*;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static brs.schema.Tables.*;
@@ -31,6 +34,12 @@ public class SqlAccountStore implements AccountStore {
         }
       };
   private static final org.slf4j.Logger logger = LoggerFactory.getLogger(SqlAccountStore.class);
+  private static final BulkWriter<Account.RewardRecipientAssignment> rewardRecipientAssignmentWriter = new BulkWriter<>(
+    assignment -> new Object[] { assignment.accountId, assignment.getPrevRecipientId(), assignment.getRecipientId(), assignment.getFromHeight(), BPC.getBlockchain().getHeight(), true },
+    REWARD_RECIP_ASSIGN.ACCOUNT_ID, REWARD_RECIP_ASSIGN.PREV_RECIP_ID, REWARD_RECIP_ASSIGN.RECIP_ID, REWARD_RECIP_ASSIGN.FROM_HEIGHT, REWARD_RECIP_ASSIGN.HEIGHT, REWARD_RECIP_ASSIGN.LATEST);
+  private static final BulkWriter<Account.AccountAsset> accountAssetWriter = new BulkWriter<>(
+    accountAsset -> new Object[] { accountAsset.accountId, accountAsset.assetId, accountAsset.getQuantityQNT(), accountAsset.getUnconfirmedQuantityQNT(), BPC.getBlockchain().getHeight(), true },
+    ACCOUNT_ASSET.ACCOUNT_ID, ACCOUNT_ASSET.ASSET_ID, ACCOUNT_ASSET.QUANTITY, ACCOUNT_ASSET.UNCONFIRMED_QUANTITY, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST);
   private static final DbKey.LinkKeyFactory<Account.AccountAsset> accountAssetDbKeyFactory
     = new DbKey.LinkKeyFactory<Account.AccountAsset>("account_id", "asset_id") {
         @Override
@@ -40,7 +49,7 @@ public class SqlAccountStore implements AccountStore {
     };
 
   public SqlAccountStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
-    rewardRecipientAssignmentTable = new VersionedEntitySqlTable<Account.RewardRecipientAssignment>("reward_recip_assign", brs.schema.Tables.REWARD_RECIP_ASSIGN, rewardRecipientAssignmentDbKeyFactory, derivedTableManager) {
+    rewardRecipientAssignmentTable = new VersionedEntitySqlTable<Account.RewardRecipientAssignment>("reward_recip_assign", brs.schema.Tables.REWARD_RECIP_ASSIGN, rewardRecipientAssignmentDbKeyFactory, derivedTableManager, dbCacheManager) {
 
       @Override
       protected Account.RewardRecipientAssignment load(DSLContext ctx, Record rs) {
@@ -54,9 +63,14 @@ public class SqlAccountStore implements AccountStore {
                 .values(assignment.accountId, assignment.getPrevRecipientId(), assignment.getRecipientId(), assignment.getFromHeight(), BPC.getBlockchain().getHeight(), true)
                 .execute();
       }
+
+      @Override
+      BulkWriter<Account.RewardRecipientAssignment> bulkWriter() {
+        return rewardRecipientAssignmentWriter;
+      }
     };
 
-    accountAssetTable = new VersionedEntitySqlTable<Account.AccountAsset>("account_asset", brs.schema.Tables.ACCOUNT_ASSET, accountAssetDbKeyFactory, derivedTableManager) {
+    accountAssetTable = new VersionedEntitySqlTable<Account.AccountAsset>("account_asset", brs.schema.Tables.ACCOUNT_ASSET, accountAssetDbKeyFactory, derivedTableManager, dbCacheManager) {
       private final List<SortField<?>> sort = initializeSort();
 
       private List<SortField<?>> initializeSort() {
@@ -80,13 +94,18 @@ public class SqlAccountStore implements AccountStore {
                 .execute();
       }
 
+      @Override
+      BulkWriter<Account.AccountAsset> bulkWriter() {
+        return accountAssetWriter;
+      }
+
       @Override
       protected List<SortField<?>> defaultSort() {
         return sort;
       }
     };
 
-    accountTable = new VersionedBatchEntitySqlTable<Account>("account", brs.schema.Tables.ACCOUNT, accountDbKeyFactory, derivedTableManager, dbCacheManager, Account.class) {
+    accountTable = new VersionedBatchEntitySqlTable<Account>("account", brs.schema.Tables.ACCOUNT, accountDbKeyFactory, derivedTableManager, dbCacheManager, new AccountCodec()) {
       @Override
       protected Account load(DSLContext ctx, Record rs) {
         return new SqlAccount(rs);
@@ -115,7 +134,7 @@ public class SqlAccountStore implements AccountStore {
     return REWARD_RECIP_ASSIGN.RECIP_ID.eq(id).and(REWARD_RECIP_ASSIGN.FROM_HEIGHT.le(height));
   }
 
-  private final VersionedEntityTable<Account.AccountAsset> accountAssetTable;
+  private final VersionedEntitySqlTable<Account.AccountAsset> accountAssetTable;
 
   private final VersionedEntityTable<Account.RewardRecipientAssignment> rewardRecipientAssignmentTable;
 
@@ -148,6 +167,7 @@ public class SqlAccountStore implements AccountStore {
 
   @Override
   public int getAssetAccountsCount(long assetId) {
+    accountAssetTable.flushInserts();
     return Db.useDSLContext(ctx -> {
       return ctx.selectCount().from(ACCOUNT_ASSET).where(ACCOUNT_ASSET.ASSET_ID.eq(assetId)).and(ACCOUNT_ASSET.LATEST.isTrue()).fetchOne(0, int.class);
     });
@@ -249,6 +269,79 @@ public class SqlAccountStore implements AccountStore {
     }
   }
 
+  static class CachedAccount extends Account {
+    CachedAccount(long id, int creationHeight) {
+      super(id, accountDbKeyFactory.newKey(id), creationHeight);
+    }
+  }
+
+  /**
+   * Lays an account out the way the account table stores it, the public key is only there once it is confirmed.
+   */
+  static class AccountCodec implements EntityCodec<Account> {
+    private static final int PUBLIC_KEY_LENGTH = 32;
+
+    @Override
+    public int recordSize() {
+      return 128;
+    }
+
+    @Override
+    public void encode(Account account, ByteBuffer buffer) {
+      buffer.putInt(account.getCreationHeight());
+      buffer.putInt(account.getKeyHeight());
+      final byte[] publicKey = account.getPublicKey();
+      if (publicKey != null && publicKey.length == PUBLIC_KEY_LENGTH) {
+        buffer.put((byte) 1);
+        buffer.put(publicKey);
+      } else {
+        buffer.put((byte) 0);
+      }
+      buffer.putLong(account.getBalanceNQT());
+      buffer.putLong(account.getUnconfirmedBalanceNQT());
+      buffer.putLong(account.getForgedBalanceNQT());
+      putString(buffer, account.getName());
+      putString(buffer, account.getDescription());
+    }
+
+    @Override
+    public Account decode(long id, ByteBuffer buffer) {
+      final Account account = new CachedAccount(id, buffer.getInt());
+      account.setKeyHeight(buffer.getInt());
+      if (buffer.get() == 1) {
+        final byte[] publicKey = new byte[PUBLIC_KEY_LENGTH];
+        buffer.get(publicKey);
+        account.setPublicKey(publicKey);
+      }
+      account.setBalanceNQT(buffer.getLong());
+      account.setUnconfirmedBalanceNQT(buffer.getLong());
+      account.setForgedBalanceNQT(buffer.getLong());
+      account.setName(getString(buffer));
+      account.setDescription(getString(buffer));
+      return account;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+      if (value == null) {
+        buffer.putInt(-1);
+      } else {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+      }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+      final int length = buffer.getInt();
+      if (length < 0) {
+        return null;
+      }
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
   class SqlRewardRecipientAssignment extends Account.RewardRecipientAssignment {
     SqlRewardRecipientAssignment(Record record) {
       super(
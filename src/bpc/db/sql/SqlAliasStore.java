@@ -4,6 +4,7 @@ import brs.Alias;
 import brs.BPC;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.AliasStore;
 import brs.db.store.DerivedTableManager;
 import brs.util.Convert;
@@ -28,8 +29,8 @@ public class SqlAliasStore implements AliasStore {
       }
     };
 
-  public SqlAliasStore(DerivedTableManager derivedTableManager) {
-    offerTable = new VersionedEntitySqlTable<Alias.Offer>("alias_offer", ALIAS_OFFER, offerDbKeyFactory, derivedTableManager) {
+  public SqlAliasStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    offerTable = new VersionedEntitySqlTable<Alias.Offer>("alias_offer", ALIAS_OFFER, offerDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Alias.Offer load(DSLContext ctx, Record record) {
         return new SqlOffer(record);
@@ -41,7 +42,7 @@ public class SqlAliasStore implements AliasStore {
       }
     };
 
-    aliasTable = new VersionedEntitySqlTable<Alias>("alias", brs.schema.Tables.ALIAS, aliasDbKeyFactory, derivedTableManager) {
+    aliasTable = new VersionedEntitySqlTable<Alias>("alias", brs.schema.Tables.ALIAS, aliasDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Alias load(DSLContext ctx, Record record) {
         return new SqlAlias(record);
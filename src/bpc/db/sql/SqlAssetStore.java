@@ -3,6 +3,7 @@ package brs.db.sql;
 import brs.Asset;
 import brs.BPC;
 import brs.db.BurstKey;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.AssetStore;
 import brs.db.store.DerivedTableManager;
 import org.jooq.DSLContext;
@@ -24,8 +25,8 @@ public class SqlAssetStore implements AssetStore {
     };
   private final EntitySqlTable<Asset> assetTable;
 
-  public SqlAssetStore(DerivedTableManager derivedTableManager) {
-    assetTable = new EntitySqlTable<Asset>("asset", brs.schema.Tables.ASSET, assetDbKeyFactory, derivedTableManager) {
+  public SqlAssetStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    assetTable = new EntitySqlTable<Asset>("asset", brs.schema.Tables.ASSET, assetDbKeyFactory, derivedTableManager, dbCacheManager) {
 
       @Override
       protected Asset load(DSLContext ctx, Record record) {
@@ -22,6 +22,14 @@ public class SqlAssetTransferStore implements AssetTransferStore {
         return assetTransfer.dbKey;
       }
     };
+  private static final BulkWriter<AssetTransfer> assetTransferWriter = new BulkWriter<>(
+    assetTransfer -> new Object[] {
+      assetTransfer.getId(), assetTransfer.getAssetId(), assetTransfer.getSenderId(), assetTransfer.getRecipientId(),
+      assetTransfer.getQuantityQNT(), assetTransfer.getTimestamp(), assetTransfer.getHeight()
+    },
+    ASSET_TRANSFER.ID, ASSET_TRANSFER.ASSET_ID, ASSET_TRANSFER.SENDER_ID, ASSET_TRANSFER.RECIPIENT_ID,
+    ASSET_TRANSFER.QUANTITY, ASSET_TRANSFER.TIMESTAMP, ASSET_TRANSFER.HEIGHT
+  );
   private final EntitySqlTable<AssetTransfer> assetTransferTable;
 
   public SqlAssetTransferStore(DerivedTableManager derivedTableManager) {
@@ -36,6 +44,11 @@ public class SqlAssetTransferStore implements AssetTransferStore {
       protected void save(DSLContext ctx, AssetTransfer assetTransfer) {
         saveAssetTransfer(assetTransfer);
       }
+
+      @Override
+      BulkWriter<AssetTransfer> bulkWriter() {
+        return assetTransferWriter;
+      }
     };
   }
 
@@ -110,6 +123,7 @@ public class SqlAssetTransferStore implements AssetTransferStore {
 
   @Override
   public int getTransferCount(long assetId) {
+    assetTransferTable.flushInserts();
     return Db.useDSLContext(ctx -> {
       return ctx.fetchCount(ctx.selectFrom(ASSET_TRANSFER).where(ASSET_TRANSFER.ASSET_ID.eq(assetId)));
     });
@@ -5,9 +5,11 @@ import brs.BPC;
 import brs.BurstException;
 import brs.db.BlockDb;
 import brs.schema.tables.records.BlockRecord;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.DeleteQuery;
 import org.jooq.Record;
+import org.jooq.Record3;
 import org.jooq.SelectQuery;
 import org.jooq.impl.TableImpl;
 import org.slf4j.Logger;
@@ -19,12 +21,21 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
 import static brs.schema.Tables.BLOCK;
 
 public class SqlBlockDb implements BlockDb {
 
   private static final Logger logger = LoggerFactory.getLogger(BlockDb.class);
 
+  private static final int LOAD_FETCH_SIZE = 10000;
+
+  private final boolean accountTransactions;
+
+  public SqlBlockDb(boolean accountTransactions) {
+    this.accountTransactions = accountTransactions;
+  }
+
   public Block findBlock(long blockId) {
     return Db.useDSLContext(ctx -> {
       try {
@@ -52,6 +63,23 @@ public class SqlBlockDb implements BlockDb {
     });
   }
 
+  public void loadBlockIdsAndTimestamps(int fromHeight, int toHeight, long[] ids, int[] timestamps) {
+    Db.useDSLContext(ctx -> {
+      int loaded = 0;
+      try (Cursor<Record3<Integer, Long, Integer>> cursor = ctx.select(BLOCK.HEIGHT, BLOCK.ID, BLOCK.TIMESTAMP).from(BLOCK)
+          .where(BLOCK.HEIGHT.between(fromHeight, toHeight)).orderBy(BLOCK.HEIGHT).fetchSize(LOAD_FETCH_SIZE).fetchLazy()) {
+        for (Record3<Integer, Long, Integer> record : cursor) {
+          ids[record.value1()] = record.value2();
+          timestamps[record.value1()] = record.value3();
+          loaded++;
+        }
+      }
+      if (loaded != toHeight - fromHeight + 1) {
+        throw new RuntimeException("Blocks from height " + fromHeight + " to " + toHeight + " not found in database!");
+      }
+    });
+  }
+
   public Block findBlockAtHeight(int height) {
     return Db.useDSLContext(ctx -> {
       try {
@@ -127,6 +155,7 @@ public class SqlBlockDb implements BlockDb {
               .execute();
 
     BPC.getDbs().getTransactionDb().saveTransactions(block.getTransactions());
+    Db.blockSaved(block.getHeight());
 
     if (block.getPreviousBlockId() != 0) {
       ctx.update(BLOCK)
@@ -160,6 +189,9 @@ public class SqlBlockDb implements BlockDb {
       Integer blockHeight = blockHeightQuery.fetchOne().get(BLOCK.HEIGHT);
 
       if (blockHeight != null) {
+        if (accountTransactions) {
+          ctx.deleteFrom(ACCOUNT_TRANSACTION).where(ACCOUNT_TRANSACTION.HEIGHT.ge(blockHeight)).execute();
+        }
         DeleteQuery deleteQuery = ctx.deleteQuery(BLOCK);
         deleteQuery.addConditions(BLOCK.HEIGHT.ge(blockHeight));
         deleteQuery.execute();
@@ -192,6 +224,9 @@ public class SqlBlockDb implements BlockDb {
               brs.schema.Tables.REWARD_RECIP_ASSIGN, brs.schema.Tables.SUBSCRIPTION,
               brs.schema.Tables.TRADE, brs.schema.Tables.TRANSACTION,
               brs.schema.Tables.UNCONFIRMED_TRANSACTION));
+      if (accountTransactions) {
+        tables.add(brs.schema.Tables.ACCOUNT_TRANSACTION);
+      }
       for (TableImpl<?> table : tables) {
         try {
           ctx.truncate(table).execute();
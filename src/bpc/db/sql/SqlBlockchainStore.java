@@ -14,6 +14,7 @@ import org.jooq.*;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
 import static brs.schema.Tables.BLOCK;
 import static brs.schema.Tables.TRANSACTION;
 
@@ -22,9 +23,11 @@ public class SqlBlockchainStore implements BlockchainStore {
   private final TransactionDb transactionDb = BPC.getDbs().getTransactionDb();
   private final BlockDb blockDb = BPC.getDbs().getBlockDb();
   private final IndirectIncomingStore indirectIncomingStore;
+  private final boolean accountTransactions;
 
-  public SqlBlockchainStore(IndirectIncomingStore indirectIncomingStore) {
+  public SqlBlockchainStore(IndirectIncomingStore indirectIncomingStore, boolean accountTransactions) {
     this.indirectIncomingStore = indirectIncomingStore;
+    this.accountTransactions = accountTransactions;
   }
 
   @Override
@@ -118,6 +121,9 @@ public class SqlBlockchainStore implements BlockchainStore {
     if (height < 0) {
       throw new IllegalArgumentException("Number of confirmations required " + numberOfConfirmations + " exceeds current blockchain height " + BPC.getBlockchain().getHeight());
     }
+    if (accountTransactions) {
+      return getAccountTransactions(account, height, type, subtype, blockTimestamp, from, to, includeIndirectIncoming);
+    }
     return Db.useDSLContext(ctx -> {
       ArrayList<Condition> conditions = new ArrayList<>();
       if (blockTimestamp > 0) {
@@ -159,6 +165,44 @@ public class SqlBlockchainStore implements BlockchainStore {
     });
   }
 
+  private Collection<Transaction> getAccountTransactions(Account account, int height, byte type, byte subtype, int blockTimestamp, int from, int to, boolean includeIndirectIncoming) {
+    return Db.useDSLContext(ctx -> {
+      return getTransactions(ctx, accountTransactionsQuery(ctx, account.getId(), height, type, subtype, blockTimestamp, from, to, includeIndirectIncoming).fetchInto(TRANSACTION));
+    });
+  }
+
+  static SelectQuery<Record> accountTransactionsQuery(DSLContext ctx, long accountId, int height, byte type, byte subtype, int blockTimestamp, int from, int to, boolean includeIndirectIncoming) {
+    // the history of an account is a range of the account_transaction index, newest first
+    ArrayList<Condition> conditions = new ArrayList<>();
+    conditions.add(ACCOUNT_TRANSACTION.ACCOUNT_ID.eq(accountId));
+    if (blockTimestamp > 0) {
+      conditions.add(ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP.ge(blockTimestamp));
+    }
+    if (height < Integer.MAX_VALUE) {
+      conditions.add(ACCOUNT_TRANSACTION.HEIGHT.le(height));
+    }
+    if (!includeIndirectIncoming) {
+      conditions.add(ACCOUNT_TRANSACTION.INDIRECT.isFalse());
+    }
+    if (type >= 0) {
+      conditions.add(TRANSACTION.TYPE.eq(type));
+      if (subtype >= 0) {
+        conditions.add(TRANSACTION.SUBTYPE.eq(subtype));
+      }
+    }
+
+    SelectQuery<Record> selectQuery = ctx.select(TRANSACTION.fields())
+            .from(ACCOUNT_TRANSACTION)
+            .join(TRANSACTION).on(TRANSACTION.ID.eq(ACCOUNT_TRANSACTION.TRANSACTION_ID))
+            .where(conditions)
+            .orderBy(ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP.desc(), ACCOUNT_TRANSACTION.TRANSACTION_ID.desc())
+            .getQuery();
+
+    DbUtils.applyLimits(selectQuery, from, to);
+
+    return selectQuery;
+  }
+
   @Override
   public Collection<Transaction> getTransactions(DSLContext ctx, Result<TransactionRecord> rs) {
     return rs.map(r -> {
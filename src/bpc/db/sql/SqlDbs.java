@@ -1,9 +1,11 @@
 package brs.db.sql;
 
+import brs.BPC;
 import brs.db.BlockDb;
 import brs.db.PeerDb;
 import brs.db.TransactionDb;
 import brs.db.store.Dbs;
+import brs.props.Props;
 
 public class SqlDbs implements Dbs {
 
@@ -12,8 +14,9 @@ public class SqlDbs implements Dbs {
   private final PeerDb peerDb;
 
   public SqlDbs() {
-    this.blockDb       = new SqlBlockDb();
-    this.transactionDb = new SqlTransactionDb();
+    boolean accountTransactions = BPC.getPropertyService().getBoolean(Props.DB_ACCOUNT_TRANSACTIONS);
+    this.blockDb       = new SqlBlockDb(accountTransactions);
+    this.transactionDb = new SqlTransactionDb(BPC.getPropertyService().getInt(Props.DB_TRANSACTION_FILTER_ENTRIES), accountTransactions);
     this.peerDb        = new SqlPeerDb();
   }
 
@@ -6,6 +6,7 @@ import brs.crypto.EncryptedData;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
 import brs.db.VersionedValuesTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.DigitalGoodsStoreStore;
 import org.jooq.DSLContext;
@@ -61,8 +62,8 @@ public class SqlDigitalGoodsStoreStore implements DigitalGoodsStoreStore {
 
   private final VersionedEntityTable<DigitalGoodsStore.Goods> goodsTable;
 
-  public SqlDigitalGoodsStoreStore(DerivedTableManager derivedTableManager) {
-    purchaseTable = new VersionedEntitySqlTable<DigitalGoodsStore.Purchase>("purchase", brs.schema.Tables.PURCHASE, purchaseDbKeyFactory, derivedTableManager) {
+  public SqlDigitalGoodsStoreStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    purchaseTable = new VersionedEntitySqlTable<DigitalGoodsStore.Purchase>("purchase", brs.schema.Tables.PURCHASE, purchaseDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected DigitalGoodsStore.Purchase load(DSLContext ctx, Record rs) {
         return new SQLPurchase(rs);
@@ -129,7 +130,7 @@ public class SqlDigitalGoodsStoreStore implements DigitalGoodsStoreStore {
       }
     };
 
-    goodsTable = new VersionedEntitySqlTable<DigitalGoodsStore.Goods>("goods", brs.schema.Tables.GOODS, goodsDbKeyFactory, derivedTableManager) {
+    goodsTable = new VersionedEntitySqlTable<DigitalGoodsStore.Goods>("goods", brs.schema.Tables.GOODS, goodsDbKeyFactory, derivedTableManager, dbCacheManager) {
 
       @Override
       protected DigitalGoodsStore.Goods load(DSLContext ctx, Record rs) {
@@ -5,6 +5,7 @@ import brs.Escrow;
 import brs.Transaction;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.EscrowStore;
 import org.jooq.DSLContext;
@@ -37,8 +38,8 @@ public class SqlEscrowStore implements EscrowStore {
   private final List<Transaction> resultTransactions = new ArrayList<>();
 
 
-  public SqlEscrowStore(DerivedTableManager derivedTableManager) {
-    escrowTable = new VersionedEntitySqlTable<Escrow>("escrow", brs.schema.Tables.ESCROW, escrowDbKeyFactory, derivedTableManager) {
+  public SqlEscrowStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    escrowTable = new VersionedEntitySqlTable<Escrow>("escrow", brs.schema.Tables.ESCROW, escrowDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Escrow load(DSLContext ctx, Record rs) {
         return new SqlEscrow(rs);
@@ -50,7 +51,7 @@ public class SqlEscrowStore implements EscrowStore {
       }
     };
 
-    decisionTable = new VersionedEntitySqlTable<Escrow.Decision>("escrow_decision", brs.schema.Tables.ESCROW_DECISION, decisionDbKeyFactory, derivedTableManager) {
+    decisionTable = new VersionedEntitySqlTable<Escrow.Decision>("escrow_decision", brs.schema.Tables.ESCROW_DECISION, decisionDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Escrow.Decision load(DSLContext ctx, Record record) {
         return new SqlDecision(record);
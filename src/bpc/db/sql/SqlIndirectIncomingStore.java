@@ -3,22 +3,35 @@ package brs.db.sql;
 import brs.db.BurstKey;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.IndirectIncomingStore;
+import org.jooq.BatchBindStep;
 import org.jooq.DSLContext;
+import org.jooq.Param;
 import org.jooq.Query;
 import org.jooq.Record;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
 import static brs.schema.Tables.INDIRECT_INCOMING;
+import static brs.schema.Tables.TRANSACTION;
 
 public class SqlIndirectIncomingStore implements IndirectIncomingStore {
 
+    private static final BulkWriter<IndirectIncoming> indirectIncomingWriter = new BulkWriter<>(
+            indirectIncoming -> new Object[] { indirectIncoming.getAccountId(), indirectIncoming.getTransactionId(), indirectIncoming.getHeight() },
+            INDIRECT_INCOMING.ACCOUNT_ID, INDIRECT_INCOMING.TRANSACTION_ID, INDIRECT_INCOMING.HEIGHT);
+
     private final EntitySqlTable<IndirectIncoming> indirectIncomingTable;
+    private final boolean accountTransactions;
 
-    public SqlIndirectIncomingStore(DerivedTableManager derivedTableManager) {
+    public SqlIndirectIncomingStore(DerivedTableManager derivedTableManager, boolean accountTransactions) {
+        this.accountTransactions = accountTransactions;
         BurstKey.LinkKeyFactory<IndirectIncoming> indirectIncomingDbKeyFactory = new DbKey.LinkKeyFactory<IndirectIncoming>("account_id", "transaction_id") {
             @Override
             public BurstKey newKey(IndirectIncoming indirectIncoming) {
@@ -45,11 +58,16 @@ public class SqlIndirectIncomingStore implements IndirectIncomingStore {
 
             @Override
             void save(DSLContext ctx, IndirectIncoming[] indirectIncomings) {
-                List<Query> queries = new ArrayList<>();
+                Map<BurstKey, IndirectIncoming> rows = new LinkedHashMap<>();
                 for (IndirectIncoming indirectIncoming: indirectIncomings) {
-                    queries.add(getQuery(ctx, indirectIncoming));
+                    rows.put(dbKeyFactory.newKey(indirectIncoming), indirectIncoming);
                 }
-                ctx.batch(queries).execute();
+                bulkInsert(ctx, rows);
+            }
+
+            @Override
+            BulkWriter<IndirectIncoming> bulkWriter() {
+                return indirectIncomingWriter;
             }
         };
     }
@@ -58,9 +76,38 @@ public class SqlIndirectIncomingStore implements IndirectIncomingStore {
     public void addIndirectIncomings(Collection<IndirectIncoming> indirectIncomings) {
         Db.useDSLContext(ctx -> {
             indirectIncomingTable.save(ctx, indirectIncomings.toArray(new IndirectIncoming[0]));
+            if (accountTransactions) {
+                saveAccountTransactions(ctx, indirectIncomings);
+            }
         });
     }
 
+    /**
+     * Adds the transactions to the history of the indirect recipients, unless they sent them and already have them
+     * in their history.
+     */
+    static void saveAccountTransactions(DSLContext ctx, Collection<IndirectIncoming> indirectIncomings) {
+        if (indirectIncomings.isEmpty()) {
+            return;
+        }
+        Param<Long> accountId = DSL.param("accountId", Long.class);
+        Param<Long> transactionId = DSL.param("transactionId", Long.class);
+        // the values are bound by position, the account goes in a second time for the sender check
+        Param<Long> senderCheckId = DSL.param("senderCheckId", Long.class);
+        BatchBindStep historyBatch = ctx.batch(
+                ctx.insertInto(ACCOUNT_TRANSACTION, ACCOUNT_TRANSACTION.ACCOUNT_ID, ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP,
+                        ACCOUNT_TRANSACTION.TRANSACTION_ID, ACCOUNT_TRANSACTION.HEIGHT, ACCOUNT_TRANSACTION.INDIRECT)
+                        // typed, H2 can't tell the type of a bare parameter in the select list
+                        .select(ctx.select(DSL.cast(accountId, SQLDataType.BIGINT), TRANSACTION.BLOCK_TIMESTAMP, TRANSACTION.ID, TRANSACTION.HEIGHT, DSL.inline(true))
+                                .from(TRANSACTION)
+                                .where(TRANSACTION.ID.eq(transactionId))
+                                .and(TRANSACTION.SENDER_ID.ne(senderCheckId))));
+        for (IndirectIncoming indirectIncoming : indirectIncomings) {
+            historyBatch.bind(indirectIncoming.getAccountId(), indirectIncoming.getTransactionId(), indirectIncoming.getAccountId());
+        }
+        historyBatch.execute();
+    }
+
     @Override
     public List<Long> getIndirectIncomings(long accountId, int from, int to) {
         return indirectIncomingTable.getManyBy(INDIRECT_INCOMING.ACCOUNT_ID.eq(accountId), from, to)
@@ -4,6 +4,7 @@ import brs.BPC;
 import brs.Order;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.OrderStore;
 import brs.schema.tables.records.AskOrderRecord;
@@ -30,6 +31,12 @@ public class SqlOrderStore implements OrderStore {
     }
 
   };
+  private static final BulkWriter<Order.Ask> askOrderWriter = new BulkWriter<>(
+    ask -> new Object[] { ask.getId(), ask.getAccountId(), ask.getAssetId(), ask.getPriceNQT(), ask.getQuantityQNT(), ask.getHeight(), BPC.getBlockchain().getHeight(), true },
+    ASK_ORDER.ID, ASK_ORDER.ACCOUNT_ID, ASK_ORDER.ASSET_ID, ASK_ORDER.PRICE, ASK_ORDER.QUANTITY, ASK_ORDER.CREATION_HEIGHT, ASK_ORDER.HEIGHT, ASK_ORDER.LATEST);
+  private static final BulkWriter<Order.Bid> bidOrderWriter = new BulkWriter<>(
+    bid -> new Object[] { bid.getId(), bid.getAccountId(), bid.getAssetId(), bid.getPriceNQT(), bid.getQuantityQNT(), bid.getHeight(), BPC.getBlockchain().getHeight(), true },
+    BID_ORDER.ID, BID_ORDER.ACCOUNT_ID, BID_ORDER.ASSET_ID, BID_ORDER.PRICE, BID_ORDER.QUANTITY, BID_ORDER.CREATION_HEIGHT, BID_ORDER.HEIGHT, BID_ORDER.LATEST);
   private final VersionedEntityTable<Order.Ask> askOrderTable;
   private final DbKey.LongKeyFactory<Order.Bid> bidOrderDbKeyFactory = new DbKey.LongKeyFactory<Order.Bid>(BID_ORDER.ID) {
 
@@ -40,8 +47,8 @@ public class SqlOrderStore implements OrderStore {
 
   };
 
-  public SqlOrderStore(DerivedTableManager derivedTableManager) {
-    askOrderTable = new VersionedEntitySqlTable<Order.Ask>("ask_order", ASK_ORDER, askOrderDbKeyFactory, derivedTableManager) {
+  public SqlOrderStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    askOrderTable = new VersionedEntitySqlTable<Order.Ask>("ask_order", ASK_ORDER, askOrderDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Order.Ask load(DSLContext ctx, Record record) {
         return new SqlAsk(record);
@@ -52,6 +59,11 @@ public class SqlOrderStore implements OrderStore {
         saveAsk(ctx, ask);
       }
 
+      @Override
+      BulkWriter<Order.Ask> bulkWriter() {
+        return askOrderWriter;
+      }
+
       @Override
       protected List<SortField<?>> defaultSort() {
         List<SortField<?>> sort = new ArrayList<>();
@@ -60,7 +72,7 @@ public class SqlOrderStore implements OrderStore {
       }
     };
 
-    bidOrderTable = new VersionedEntitySqlTable<Order.Bid>("bid_order", BID_ORDER, bidOrderDbKeyFactory, derivedTableManager) {
+    bidOrderTable = new VersionedEntitySqlTable<Order.Bid>("bid_order", BID_ORDER, bidOrderDbKeyFactory, derivedTableManager, dbCacheManager) {
 
       @Override
       protected Order.Bid load(DSLContext ctx, Record rs) {
@@ -72,6 +84,11 @@ public class SqlOrderStore implements OrderStore {
         saveBid(ctx, bid);
       }
 
+      @Override
+      BulkWriter<Order.Bid> bulkWriter() {
+        return bidOrderWriter;
+      }
+
       @Override
       protected List<SortField<?>> defaultSort() {
         List<SortField<?>> sort = new ArrayList<>();
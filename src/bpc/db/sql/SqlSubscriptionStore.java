@@ -4,6 +4,7 @@ import brs.BPC;
 import brs.Subscription;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.SubscriptionStore;
 import org.jooq.Condition;
@@ -28,8 +29,8 @@ public class SqlSubscriptionStore implements SubscriptionStore {
 
   private final VersionedEntityTable<Subscription> subscriptionTable;
 
-  public SqlSubscriptionStore(DerivedTableManager derivedTableManager) {
-    subscriptionTable = new VersionedEntitySqlTable<Subscription>("subscription", brs.schema.Tables.SUBSCRIPTION, subscriptionDbKeyFactory, derivedTableManager) {
+  public SqlSubscriptionStore(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    subscriptionTable = new VersionedEntitySqlTable<Subscription>("subscription", brs.schema.Tables.SUBSCRIPTION, subscriptionDbKeyFactory, derivedTableManager, dbCacheManager) {
       @Override
       protected Subscription load(DSLContext ctx, Record rs) {
         return new SqlSubscription(rs);
@@ -22,6 +22,16 @@ public class SqlTradeStore implements TradeStore {
       }
 
     };
+  private static final BulkWriter<Trade> tradeWriter = new BulkWriter<>(
+    trade -> new Object[] {
+      trade.getAssetId(), trade.getBlockId(), trade.getAskOrderId(), trade.getBidOrderId(), trade.getAskOrderHeight(),
+      trade.getBidOrderHeight(), trade.getSellerId(), trade.getBuyerId(), trade.getQuantityQNT(), trade.getPriceNQT(),
+      trade.getTimestamp(), trade.getHeight()
+    },
+    TRADE.ASSET_ID, TRADE.BLOCK_ID, TRADE.ASK_ORDER_ID, TRADE.BID_ORDER_ID, TRADE.ASK_ORDER_HEIGHT,
+    TRADE.BID_ORDER_HEIGHT, TRADE.SELLER_ID, TRADE.BUYER_ID, TRADE.QUANTITY, TRADE.PRICE,
+    TRADE.TIMESTAMP, TRADE.HEIGHT
+  );
 
   private final EntitySqlTable<Trade> tradeTable;
 
@@ -38,6 +48,11 @@ public class SqlTradeStore implements TradeStore {
         saveTrade(ctx, trade);
       }
 
+      @Override
+      BulkWriter<Trade> bulkWriter() {
+        return tradeWriter;
+      }
+
     };
   }
 
@@ -96,6 +111,7 @@ public class SqlTradeStore implements TradeStore {
 
   @Override
   public int getTradeCount(long assetId) {
+    tradeTable.flushInserts();
     return Db.useDSLContext(ctx -> {
       return ctx.fetchCount(ctx.selectFrom(TRADE).where(TRADE.ASSET_ID.eq(assetId)));
     });
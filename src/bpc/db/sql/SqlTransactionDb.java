@@ -7,17 +7,37 @@ import brs.TransactionType;
 import brs.db.TransactionDb;
 import brs.schema.tables.records.TransactionRecord;
 import brs.util.Convert;
+import brs.util.LongBloomFilter;
 import org.jooq.BatchBindStep;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.List;
 import java.util.Optional;
 
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
 import static brs.schema.Tables.TRANSACTION;
 
 public class SqlTransactionDb implements TransactionDb {
 
+  private static final Logger logger = LoggerFactory.getLogger(SqlTransactionDb.class);
+
+  private static final int LOAD_FETCH_SIZE = 10000;
+
+  private final LongBloomFilter transactionIds;
+  private volatile boolean transactionIdsLoaded;
+  private final boolean accountTransactions;
+
+  public SqlTransactionDb(int expectedTransactions, boolean accountTransactions) {
+    this.transactionIds = expectedTransactions > 0 ? new LongBloomFilter(expectedTransactions) : null;
+    this.accountTransactions = accountTransactions;
+  }
+
   @Override
   public Transaction findTransaction(long transactionId) {
     return Db.useDSLContext(ctx -> {
@@ -60,6 +80,9 @@ public class SqlTransactionDb implements TransactionDb {
 
   @Override
   public boolean hasTransaction(long transactionId) {
+    if (transactionIdsLoaded && !transactionIds.mightContain(transactionId)) {
+      return false;
+    }
     return Db.useDSLContext(ctx -> {
       return ctx.fetchExists(ctx.selectFrom(TRANSACTION).where(TRANSACTION.ID.eq(transactionId)));
     });
@@ -170,6 +193,9 @@ public class SqlTransactionDb implements TransactionDb {
                     null, null,
                     null, null, null, null, null, null, null, null, null, null, null));
         for (Transaction transaction : transactions) {
+          if (transactionIds != null) {
+            transactionIds.add(transaction.getId());
+          }
           insertBatch.bind(
               transaction.getId(),
               transaction.getDeadline(),
@@ -198,10 +224,50 @@ public class SqlTransactionDb implements TransactionDb {
           );
         }
         insertBatch.execute();
+        if (accountTransactions) {
+          saveAccountTransactions(ctx, transactions);
+        }
       });
     }
   }
 
+  /**
+   * Adds the transactions to the history of their sender and recipient, multi-out recipients are added along with the
+   * indirect incomings.
+   */
+  static void saveAccountTransactions(DSLContext ctx, List<Transaction> transactions) {
+    BatchBindStep historyBatch = ctx.batch(
+        ctx.insertInto(ACCOUNT_TRANSACTION, ACCOUNT_TRANSACTION.ACCOUNT_ID, ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP,
+            ACCOUNT_TRANSACTION.TRANSACTION_ID, ACCOUNT_TRANSACTION.HEIGHT, ACCOUNT_TRANSACTION.INDIRECT)
+            .values((Long) null, null, null, null, null));
+    for (Transaction transaction : transactions) {
+      historyBatch.bind(transaction.getSenderId(), transaction.getBlockTimestamp(), transaction.getId(), transaction.getHeight(), false);
+      if (transaction.getRecipientId() != 0 && transaction.getRecipientId() != transaction.getSenderId()) {
+        historyBatch.bind(transaction.getRecipientId(), transaction.getBlockTimestamp(), transaction.getId(), transaction.getHeight(), false);
+      }
+    }
+    historyBatch.execute();
+  }
+
+  @Override
+  public void loadTransactionIds() {
+    if (transactionIds == null || transactionIdsLoaded) {
+      return;
+    }
+    long count = Db.useDSLContext(ctx -> {
+      long loaded = 0;
+      try (Cursor<Record1<Long>> cursor = ctx.select(TRANSACTION.ID).from(TRANSACTION).fetchSize(LOAD_FETCH_SIZE).fetchLazy()) {
+        for (Record1<Long> record : cursor) {
+          transactionIds.add(record.value1());
+          loaded++;
+        }
+      }
+      return loaded;
+    });
+    transactionIdsLoaded = true;
+    logger.info("Loaded {} transaction ids", count);
+  }
+
   @Override
   public void optimize() {
     Db.optimizeTable(TRANSACTION.getName());
@@ -1,10 +1,12 @@
 package brs.db.sql;
 
+import brs.BPC;
 import brs.db.BurstKey;
 import brs.db.VersionedBatchEntityTable;
 import brs.db.cache.DBCacheManagerImpl;
+import brs.db.cache.EntityCache;
+import brs.db.cache.EntityCodec;
 import brs.db.store.DerivedTableManager;
-import org.ehcache.Cache;
 import org.jooq.*;
 import org.jooq.impl.TableImpl;
 
@@ -12,13 +14,8 @@ import java.util.*;
 
 public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySqlTable<T> implements VersionedBatchEntityTable<T> {
 
-  private final DBCacheManagerImpl dbCacheManager;
-  private final Class<T> tClass;
-
-  VersionedBatchEntitySqlTable(String table, TableImpl<?> tableClass, DbKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager, Class<T> tClass) {
-    super(table, tableClass, dbKeyFactory, derivedTableManager);
-    this.dbCacheManager = dbCacheManager;
-    this.tClass = tClass;
+  VersionedBatchEntitySqlTable(String table, TableImpl<?> tableClass, DbKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager, EntityCodec<T> codec) {
+    super(table, tableClass, dbKeyFactory, derivedTableManager, dbCacheManager.getCache(table, codec));
   }
   
   private void assertInTransaction() {
@@ -46,17 +43,29 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
 
   @Override
   public T get(BurstKey dbKey) {
-    if (getCache().containsKey(dbKey)) {
-      return getCache().get(dbKey);
-    }
-    else if (Db.isInTransaction() && getBatch().containsKey(dbKey)) {
-      return getBatch().get(dbKey);
-    }
-    T item = super.get(dbKey);
-    if (item != null) {
-      getCache().put(dbKey, item);
+    if (Db.isInTransaction()) {
+      if (getBatch().containsKey(dbKey)) {
+        return getBatch().get(dbKey);
+      }
+      // the cache may hand out copies, keep returning the same instance within a transaction
+      T item = Db.<T>getCache(table).get(dbKey);
+      if (item != null) {
+        return item;
+      }
+      item = cache.get(dbKey);
+      if (item != null) {
+        Db.<T>getCache(table).put(dbKey, item);
+        return item;
+      }
+      // read before the load, the row is at most as high as the chain then, also if blocks get popped meanwhile
+      int height = BPC.getBlockchain().getHeight();
+      item = super.get(dbKey);
+      if (item != null) {
+        cache.put(dbKey, item, height);
+      }
+      return item;
     }
-    return item;
+    return super.get(dbKey);
   }
 
   @Override
@@ -64,7 +73,6 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
     assertNotInTransaction();
     BurstKey key = dbKeyFactory.newKey(t);
     getBatch().put(key, t);
-    getCache().put(key, t);
   }
 
   @Override
@@ -95,6 +103,12 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
       updateBatch.execute();
 
       bulkInsert(ctx, getBatch().values());
+
+      // cache what just got written, a failing transaction flushes the cache again
+      int height = BPC.getBlockchain().getHeight();
+      for (Map.Entry<BurstKey, T> entry : getBatch().entrySet()) {
+        cache.put(entry.getKey(), entry.getValue(), height);
+      }
       getBatch().clear();
     });
   }
@@ -201,8 +215,8 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
   }
 
   @Override
-  public Cache<BurstKey, T> getCache() {
-    return dbCacheManager.getCache(table, tClass);
+  public EntityCache<T> getCache() {
+    return cache;
   }
 
   @Override
@@ -3,12 +3,15 @@ package brs.db.sql;
 import brs.BPC;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
+import brs.db.cache.EntityCache;
 import brs.db.store.DerivedTableManager;
 import org.jooq.*;
 import org.jooq.impl.DSL;
 import org.jooq.impl.TableImpl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> implements VersionedEntityTable<T> {
@@ -17,9 +20,19 @@ public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> imple
     super(table, tableClass, dbKeyFactory, true, derivedTableManager);
   }
 
+  VersionedEntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager) {
+    super(table, tableClass, dbKeyFactory, true, derivedTableManager, dbCacheManager.<T>getCache(table, null));
+  }
+
+  VersionedEntitySqlTable(String table, TableImpl<?> tableClass, BurstKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, EntityCache<T> cache) {
+    super(table, tableClass, dbKeyFactory, true, derivedTableManager, cache);
+  }
+
   @Override
   public void rollback(int height) {
+    flushInserts();
     rollback(table, tableClass, heightField, latestField, height, dbKeyFactory);
+    rollbackCache(height);
   }
 
   static void rollback(final String table, final TableImpl<?> tableClass, Field<Integer> heightField, Field<Boolean> latestField, final int height, final DbKey.Factory<?> dbKeyFactory) {
@@ -28,47 +41,211 @@ public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> imple
     }
 
     Db.useDSLContext(ctx -> {
-      // get dbKey's for entries whose stuff newer than height would be deleted, to allow fixing
-      // their latest flag of the "potential" remaining newest entry
-      SelectQuery<Record> selectForDeleteQuery = ctx.selectQuery();
-      selectForDeleteQuery.addFrom(tableClass);
-      selectForDeleteQuery.addConditions(heightField.gt(height));
-      for (String column : dbKeyFactory.getPKColumns()) {
-        selectForDeleteQuery.addSelect(tableClass.field(column, Long.class));
+      // fix the latest flags of the entries that remain, for all keys at once, before the newer entries get deleted
+      switch (ctx.dialect()) {
+        case MYSQL:
+        case MARIADB:
+          setLatestByJoin(ctx, tableClass, heightField, latestField, height, dbKeyFactory);
+          break;
+        default:
+          setLatestByExists(ctx, tableClass, heightField, latestField, height, dbKeyFactory);
+          break;
       }
-      selectForDeleteQuery.setDistinct(true);
-      List<DbKey> dbKeys = selectForDeleteQuery.fetch(r -> (DbKey) dbKeyFactory.newKey(r));
 
       // delete all entries > height
       DeleteQuery deleteQuery = ctx.deleteQuery(tableClass);
       deleteQuery.addConditions(heightField.gt(height));
       deleteQuery.execute();
-
-      // update latest flags for remaining entries, if there any remaining (per deleted dbKey)
-      for (DbKey dbKey : dbKeys) {
-        SelectQuery<Record> selectMaxHeightQuery = ctx.selectQuery();
-        selectMaxHeightQuery.addFrom(tableClass);
-        selectMaxHeightQuery.addConditions(dbKey.getPKConditions(tableClass));
-        selectMaxHeightQuery.addSelect(DSL.max(heightField));
-        Integer maxHeight = selectMaxHeightQuery.fetchOne().get(DSL.max(heightField));
-
-        if (maxHeight != null) {
-          UpdateQuery setLatestQuery = ctx.updateQuery(tableClass);
-          setLatestQuery.addConditions(dbKey.getPKConditions(tableClass));
-          setLatestQuery.addConditions(heightField.eq(maxHeight));
-          setLatestQuery.addValue(latestField, true);
-          setLatestQuery.execute();
-        }
-      }
     });
     Db.getCache(table).clear();
   }
 
+  /**
+   * Joins the table with the newest height at or below the rollback height of every key with newer entries, MariaDB
+   * doesn't allow subqueries on the table that gets updated.
+   */
+  private static void setLatestByJoin(DSLContext ctx, TableImpl<?> tableClass, Field<Integer> heightField, Field<Boolean> latestField, int height, DbKey.Factory<?> dbKeyFactory) {
+    Table<Record> remaining = remainingLatest(ctx, tableClass, heightField, height, dbKeyFactory).asTable("remaining");
+
+    ctx.update(tableClass.join(remaining)
+            .on(samePK(tableClass, remaining, dbKeyFactory))
+            .and(heightField.eq(remaining.field("max_height", Integer.class))))
+        .set(latestField, true)
+        .execute();
+  }
+
+  /**
+   * The key columns and the newest height at or below the rollback height, as max_height, of every key with newer
+   * entries
+   */
+  static SelectQuery<Record> remainingLatest(DSLContext ctx, TableImpl<?> tableClass, Field<Integer> heightField, int height, DbKey.Factory<?> dbKeyFactory) {
+    Table<?> older = tableClass.as("older");
+    Field<Integer> olderHeight = older.field(heightField);
+
+    SelectQuery<Record> newerQuery = ctx.selectQuery();
+    newerQuery.addFrom(tableClass);
+    newerQuery.addConditions(heightField.gt(height));
+    newerQuery.setDistinct(true);
+    for (String column : dbKeyFactory.getPKColumns()) {
+      newerQuery.addSelect(tableClass.field(column, Long.class));
+    }
+    Table<Record> newer = newerQuery.asTable("newer");
+
+    SelectQuery<Record> remainingQuery = ctx.selectQuery();
+    remainingQuery.addFrom(older.join(newer).on(samePK(older, newer, dbKeyFactory)));
+    remainingQuery.addConditions(olderHeight.le(height));
+    for (String column : dbKeyFactory.getPKColumns()) {
+      Field<Long> pkField = older.field(column, Long.class);
+      remainingQuery.addSelect(pkField);
+      remainingQuery.addGroupBy(pkField);
+    }
+    remainingQuery.addSelect(DSL.max(olderHeight).as("max_height"));
+    return remainingQuery;
+  }
+
+  /**
+   * Flags every entry at or below the rollback height of a key with newer entries that has no newer entry at or below
+   * the rollback height itself.
+   */
+  private static void setLatestByExists(DSLContext ctx, TableImpl<?> tableClass, Field<Integer> heightField, Field<Boolean> latestField, int height, DbKey.Factory<?> dbKeyFactory) {
+    Table<?> newer = tableClass.as("newer");
+    Field<Integer> newerHeight = newer.field(heightField);
+    Field<Long> firstPKField = tableClass.field(dbKeyFactory.getPKColumns()[0], Long.class);
+
+    UpdateQuery updateQuery = ctx.updateQuery(tableClass);
+    updateQuery.addValue(latestField, true);
+    updateQuery.addConditions(heightField.le(height));
+    // lets the index on the key find the candidates
+    updateQuery.addConditions(firstPKField.in(ctx.selectDistinct(firstPKField).from(tableClass).where(heightField.gt(height))));
+    updateQuery.addConditions(DSL.exists(ctx.selectOne().from(newer)
+            .where(samePK(newer, tableClass, dbKeyFactory))
+            .and(newerHeight.gt(height))));
+    updateQuery.addConditions(DSL.notExists(ctx.selectOne().from(newer)
+            .where(samePK(newer, tableClass, dbKeyFactory))
+            .and(newerHeight.gt(heightField))
+            .and(newerHeight.le(height))));
+    updateQuery.execute();
+  }
+
+  private static Condition samePK(Table<?> table, Table<?> other, DbKey.Factory<?> dbKeyFactory) {
+    Condition condition = DSL.trueCondition();
+    for (String column : dbKeyFactory.getPKColumns()) {
+      condition = condition.and(table.field(column, Long.class).eq(other.field(column, Long.class)));
+    }
+    return condition;
+  }
+
   @Override
   public final void trim(int height) {
+    flushInserts();
     trim(tableClass, heightField, height, dbKeyFactory);
   }
 
+  @Override
+  public final long[] trim(int height, long[] after, int maxRows) {
+    flushInserts();
+    return trim(tableClass, heightField, height, dbKeyFactory, after, maxRows);
+  }
+
+  /**
+   * Trims the keys following the given one, reading at most maxRows rows below the height. The last key read may
+   * have more rows than fit, it is left for the next chunk unless it is the only one. Then all of its versions below
+   * the height are trimmed, not just the ones read.
+   */
+  static long[] trim(final TableImpl<?> tableClass, Field<Integer> heightField, final int height, final DbKey.Factory dbKeyFactory, long[] after, int maxRows) {
+    if (!Db.isInTransaction()) {
+      throw new IllegalStateException("Not in transaction");
+    }
+
+    String[] pkColumns = dbKeyFactory.getPKColumns();
+    List<Field<Long>> pkFields = new ArrayList<>();
+    for (String column : pkColumns) {
+      pkFields.add(tableClass.field(column, Long.class));
+    }
+
+    return Db.useDSLContext(ctx -> {
+      SelectQuery<Record> selectQuery = ctx.selectQuery();
+      selectQuery.addFrom(tableClass);
+      selectQuery.addSelect(pkFields);
+      selectQuery.addSelect(heightField);
+      selectQuery.addConditions(heightField.lt(height));
+      if (after != null) {
+        selectQuery.addConditions(keyAfter(pkFields, after));
+      }
+      for (Field<Long> pkField : pkFields) {
+        selectQuery.addOrderBy(pkField.asc());
+      }
+      selectQuery.addOrderBy(heightField.asc());
+      selectQuery.addLimit(maxRows);
+      Result<Record> rows = selectQuery.fetch();
+      if (rows.isEmpty()) {
+        return null;
+      }
+      boolean lastChunk = rows.size() < maxRows;
+
+      // keys in order with the highest height read for them and their number of versions
+      List<long[]> keys = new ArrayList<>();
+      List<Integer> maxHeights = new ArrayList<>();
+      List<Integer> versions = new ArrayList<>();
+      for (Record row : rows) {
+        long[] key = new long[pkFields.size()];
+        for (int i = 0; i < key.length; i++) {
+          key[i] = row.get(pkFields.get(i));
+        }
+        int last = keys.size() - 1;
+        if (last >= 0 && Arrays.equals(keys.get(last), key)) {
+          maxHeights.set(last, row.get(heightField));
+          versions.set(last, versions.get(last) + 1);
+        } else {
+          keys.add(key);
+          maxHeights.add(row.get(heightField));
+          versions.add(1);
+        }
+      }
+      if (!lastChunk && keys.size() > 1) {
+        keys.remove(keys.size() - 1);
+      } else if (!lastChunk) {
+        SelectQuery<Record> maxHeightQuery = ctx.selectQuery();
+        maxHeightQuery.addFrom(tableClass);
+        maxHeightQuery.addSelect(DSL.max(heightField));
+        maxHeightQuery.addConditions(heightField.lt(height));
+        for (int i = 0; i < pkFields.size(); i++) {
+          maxHeightQuery.addConditions(pkFields.get(i).eq(keys.get(0)[i]));
+        }
+        maxHeights.set(0, maxHeightQuery.fetchOne().get(0, Integer.class));
+      }
+
+      DeleteQuery deleteLowerHeightQuery = ctx.deleteQuery(tableClass);
+      deleteLowerHeightQuery.addConditions(heightField.lt((Integer) null));
+      for (Field<Long> pkField : pkFields) {
+        deleteLowerHeightQuery.addConditions(pkField.eq((Long) null));
+      }
+      BatchBindStep deleteBatch = ctx.batch(deleteLowerHeightQuery);
+      for (int i = 0; i < keys.size(); i++) {
+        if (versions.get(i) > 1) {
+          List<Long> bindValues = new ArrayList<>();
+          bindValues.add((long) maxHeights.get(i));
+          for (long pkValue : keys.get(i)) {
+            bindValues.add(pkValue);
+          }
+          deleteBatch.bind(bindValues.toArray());
+        }
+      }
+      if (deleteBatch.size() > 0) {
+        deleteBatch.execute();
+      }
+      return lastChunk ? null : keys.get(keys.size() - 1);
+    });
+  }
+
+  private static Condition keyAfter(List<Field<Long>> pkFields, long[] after) {
+    Condition condition = pkFields.get(pkFields.size() - 1).gt(after[pkFields.size() - 1]);
+    for (int i = pkFields.size() - 2; i >= 0; i--) {
+      condition = pkFields.get(i).gt(after[i]).or(pkFields.get(i).eq(after[i]).and(condition));
+    }
+    return condition;
+  }
+
   static void trim(final TableImpl<?> tableClass, Field<Integer> heightField, final int height, final DbKey.Factory dbKeyFactory) {
     if (!Db.isInTransaction()) {
       throw new IllegalStateException("Not in transaction");
@@ -122,6 +299,7 @@ public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> imple
       throw new IllegalStateException("Not in transaction");
     }
     DbKey dbKey = (DbKey) dbKeyFactory.newKey(t);
+    flushInserts();
     return Db.useDSLContext(ctx -> {
       try {
         SelectQuery<Record> countQuery = ctx.selectQuery();
@@ -150,6 +328,9 @@ public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> imple
         }
       } finally {
         Db.getCache(table).remove(dbKey);
+        if (cache != null) {
+          Db.invalidateOnCommit(table, dbKey);
+        }
       }
     });
   }
@@ -18,4 +18,9 @@ public abstract class VersionedValuesSqlTable<T, V> extends ValuesSqlTable<T, V>
   public final void trim(int height) {
     VersionedEntitySqlTable.trim(tableClass, heightField, height, dbKeyFactory);
   }
+
+  @Override
+  public final long[] trim(int height, long[] after, int maxRows) {
+    return VersionedEntitySqlTable.trim(tableClass, heightField, height, dbKeyFactory, after, maxRows);
+  }
 }
@@ -1,6 +1,8 @@
 package brs.db.store;
 
 import brs.at.AT;
+import brs.at.AtSchedule;
+import brs.at.AtTransactionIndex;
 import brs.db.BurstKey;
 import brs.db.VersionedEntityTable;
 
@@ -13,6 +15,8 @@ public interface ATStore {
 
   List<Long> getOrderedATs();
 
+  List<AtSchedule.Entry> getScheduleEntries();
+
   AT getAT(Long id);
 
   List<Long> getATsIssuedBy(Long accountId);
@@ -30,4 +34,6 @@ public interface ATStore {
   Long findTransaction(int startHeight, int endHeight, Long atID, int numOfTx, long minAmount);
 
   int findTransactionHeight(Long transactionId, int height, Long atID, long minAmount);
+
+  AtTransactionIndex.IncomingTransactions getIncomingTransactions(int height);
 }
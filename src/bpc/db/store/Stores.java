@@ -4,6 +4,7 @@ import brs.db.TransactionDb;
 import brs.db.cache.DBCacheManagerImpl;
 import brs.db.sql.*;
 import brs.props.PropertyService;
+import brs.props.Props;
 import brs.services.TimeService;
 import brs.unconfirmedtransactions.UnconfirmedTransactionStore;
 import brs.unconfirmedtransactions.UnconfirmedTransactionStoreImpl;
@@ -25,18 +26,18 @@ public class Stores {
 
   public Stores(DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager, TimeService timeService, PropertyService propertyService, TransactionDb transactionDb) {
     this.accountStore                = new SqlAccountStore(derivedTableManager, dbCacheManager);
-    this.aliasStore                  = new SqlAliasStore(derivedTableManager);
-    this.assetStore                  = new SqlAssetStore(derivedTableManager);
+    this.aliasStore                  = new SqlAliasStore(derivedTableManager, dbCacheManager);
+    this.assetStore                  = new SqlAssetStore(derivedTableManager, dbCacheManager);
     this.assetTransferStore          = new SqlAssetTransferStore(derivedTableManager);
-    this.atStore                     = new SqlATStore(derivedTableManager);
-    this.digitalGoodsStoreStore      = new SqlDigitalGoodsStoreStore(derivedTableManager);
-    this.escrowStore                 = new SqlEscrowStore(derivedTableManager);
-    this.orderStore                  = new SqlOrderStore(derivedTableManager);
+    this.atStore                     = new SqlATStore(derivedTableManager, dbCacheManager);
+    this.digitalGoodsStoreStore      = new SqlDigitalGoodsStoreStore(derivedTableManager, dbCacheManager);
+    this.escrowStore                 = new SqlEscrowStore(derivedTableManager, dbCacheManager);
+    this.orderStore                  = new SqlOrderStore(derivedTableManager, dbCacheManager);
     this.tradeStore                  = new SqlTradeStore(derivedTableManager);
-    this.subscriptionStore           = new SqlSubscriptionStore(derivedTableManager);
+    this.subscriptionStore           = new SqlSubscriptionStore(derivedTableManager, dbCacheManager);
     this.unconfirmedTransactionStore = new UnconfirmedTransactionStoreImpl(timeService, propertyService, accountStore, transactionDb);
-    this.indirectIncomingStore       = new SqlIndirectIncomingStore(derivedTableManager);
-    this.blockchainStore             = new SqlBlockchainStore(indirectIncomingStore);
+    this.indirectIncomingStore       = new SqlIndirectIncomingStore(derivedTableManager, propertyService.getBoolean(Props.DB_ACCOUNT_TRANSACTIONS));
+    this.blockchainStore             = new SqlBlockchainStore(indirectIncomingStore, propertyService.getBoolean(Props.DB_ACCOUNT_TRANSACTIONS));
   }
 
   public AccountStore getAccountStore() {
@@ -4,6 +4,7 @@ import brs.Block;
 import brs.BlockchainProcessor;
 import brs.BlockchainProcessor.Event;
 import brs.db.store.BlockchainStore;
+import brs.util.AsyncListener;
 
 import java.util.Arrays;
 
@@ -19,9 +20,21 @@ public class FeeSuggestionCalculator {
   private FeeSuggestion feeSuggestion = new FeeSuggestion(FEE_QUANT, FEE_QUANT, FEE_QUANT);
 
   public FeeSuggestionCalculator(BlockchainProcessor blockchainProcessor, BlockchainStore blockchainStore, int historyLength) {
+    this(blockchainProcessor, blockchainStore, historyLength, 0);
+  }
+
+  /**
+   * @param queueSize blocks waiting to be added to the history, they are added on the block processing thread if 0
+   */
+  public FeeSuggestionCalculator(BlockchainProcessor blockchainProcessor, BlockchainStore blockchainStore, int historyLength, int queueSize) {
     latestBlocks = new Block[historyLength];
     this.blockchainStore = blockchainStore;
-    blockchainProcessor.addListener(this::newBlockApplied, Event.AFTER_BLOCK_APPLY);
+    if (queueSize > 0) {
+      // missing a block under load only skews the suggestion, the newest blocks matter most
+      blockchainProcessor.addListener(new AsyncListener<>("FeeSuggestion", this::newBlockApplied, queueSize, AsyncListener.Overflow.DROP_OLDEST), Event.AFTER_BLOCK_APPLY);
+    } else {
+      blockchainProcessor.addListener(this::newBlockApplied, Event.AFTER_BLOCK_APPLY);
+    }
   }
 
   public FeeSuggestion giveFeeSuggestion() {
@@ -3,5 +3,12 @@ package brs.fluxcapacitor;
 public interface FluxCapacitor {
   <T> T getValue(FluxValue<T> fluxValue);
   <T> T getValue(FluxValue<T> fluxValue, int height);
+
+  /**
+   * @return the values at the given height, for code that looks up several of them or the same one repeatedly
+   */
+  default FluxSnapshot getSnapshot(int height) {
+    return new FluxSnapshot(this, height);
+  }
   Integer getStartingHeight(FluxEnable fluxEnable);
 }
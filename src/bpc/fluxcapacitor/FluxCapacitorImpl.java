@@ -4,16 +4,17 @@ import brs.Blockchain;
 import brs.props.PropertyService;
 import brs.props.Props;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Comparator;
 
 public class FluxCapacitorImpl implements FluxCapacitor {
 
     private final PropertyService propertyService;
     private final Blockchain blockchain;
 
-    // Map of Flux Value -> Change Height -> Index of ValueChange in FluxValue. Used as a cache.
-    private final Map<FluxValue<?>, Map<Integer, Integer>> valueChangesPerFluxValue = new HashMap<>();
+    // Compiled change tables indexed by FluxValue.getIndex(), copied on write so lookups don't lock.
+    private volatile FluxTable[] fluxTables = new FluxTable[0];
+    private volatile FluxSnapshot lastSnapshot;
 
     public FluxCapacitorImpl(Blockchain blockchain, PropertyService propertyService) {
         this.propertyService = propertyService;
@@ -30,6 +31,16 @@ public class FluxCapacitorImpl implements FluxCapacitor {
         return getValueAt(fluxValue, height);
     }
 
+    @Override
+    public FluxSnapshot getSnapshot(int height) {
+        FluxSnapshot snapshot = lastSnapshot;
+        if (snapshot == null || snapshot.getHeight() != height) {
+            snapshot = new FluxSnapshot(this, height);
+            lastSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
     private int getHistoricalMomentHeight(HistoricalMoments historicalMoment) {
         if (propertyService.getBoolean(Props.DEV_TESTNET)) {
             int overridingHeight = propertyService.getInt(historicalMoment.getOverridingProperty());
@@ -39,28 +50,75 @@ public class FluxCapacitorImpl implements FluxCapacitor {
         }
     }
 
-    private <T> Map<Integer, Integer> computeValuesAtHeights(FluxValue<T> fluxValue) {
-        return valueChangesPerFluxValue.computeIfAbsent(fluxValue, fv -> {
-            Map<Integer, Integer> valueChangeIndexAtHeight = new HashMap<>();
-            FluxValue.ValueChange<T>[] valueChanges = fluxValue.getValueChanges();
-            for (int i = 0; i < valueChanges.length; i++) {
-                valueChangeIndexAtHeight.put(getHistoricalMomentHeight(valueChanges[i].getHistoricalMoment()), i);
-            }
-            return valueChangeIndexAtHeight;
-        });
+    private FluxTable getFluxTable(FluxValue<?> fluxValue) {
+        FluxTable[] tables = fluxTables;
+        int index = fluxValue.getIndex();
+        if (index < tables.length && tables[index] != null) {
+            return tables[index];
+        }
+        return compileFluxTable(fluxValue);
+    }
+
+    private synchronized FluxTable compileFluxTable(FluxValue<?> fluxValue) {
+        int index = fluxValue.getIndex();
+        FluxTable[] tables = fluxTables;
+        if (index < tables.length && tables[index] != null) {
+            return tables[index];
+        }
+        FluxTable table = new FluxTable(fluxValue);
+        tables = Arrays.copyOf(tables, Math.max(tables.length, index + 1));
+        tables[index] = table;
+        fluxTables = tables;
+        return table;
     }
 
+    @SuppressWarnings("unchecked")
     private <T> T getValueAt(FluxValue<T> fluxValue, int height) {
-        T mostRecentValue = fluxValue.getDefaultValue();
-        int mostRecentChangeHeight = 0;
-        for (Map.Entry<Integer, Integer> entry : computeValuesAtHeights(fluxValue).entrySet()) {
-            int entryHeight = entry.getKey();
-            if (entryHeight <= height && entryHeight >= mostRecentChangeHeight) {
-                mostRecentValue = fluxValue.getValueChanges()[entry.getValue()].getNewValue();
-                mostRecentChangeHeight = entryHeight;
+        return (T) getFluxTable(fluxValue).getValueAt(height);
+    }
+
+    /**
+     * The change heights of one flux value in ascending order, with the value each of them switches to. Changes at
+     * the same height keep their declared order, so the last one declared wins.
+     */
+    private final class FluxTable {
+        private final Object defaultValue;
+        private final int[] heights;
+        private final Object[] values;
+
+        private FluxTable(FluxValue<?> fluxValue) {
+            FluxValue.ValueChange<?>[] valueChanges = fluxValue.getValueChanges();
+            Integer[] order = new Integer[valueChanges.length];
+            int[] changeHeights = new int[valueChanges.length];
+            for (int i = 0; i < valueChanges.length; i++) {
+                order[i] = i;
+                changeHeights[i] = getHistoricalMomentHeight(valueChanges[i].getHistoricalMoment());
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> changeHeights[i]));
+
+            this.defaultValue = fluxValue.getDefaultValue();
+            this.heights = new int[order.length];
+            this.values = new Object[order.length];
+            for (int i = 0; i < order.length; i++) {
+                heights[i] = changeHeights[order[i]];
+                values[i] = valueChanges[order[i]].getNewValue();
+            }
+        }
+
+        private Object getValueAt(int height) {
+            // last change at or below the height
+            int low = 0;
+            int high = heights.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (heights[middle] <= height) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
             }
+            return high >= 0 ? values[high] : defaultValue;
         }
-        return mostRecentValue;
     }
 
     @Override
@@ -0,0 +1,22 @@
+package brs.fluxcapacitor;
+
+/**
+ * The flux values at one height, so a block can be processed without looking the height up again for every value.
+ */
+public final class FluxSnapshot {
+    private final FluxCapacitor fluxCapacitor;
+    private final int height;
+
+    FluxSnapshot(FluxCapacitor fluxCapacitor, int height) {
+        this.fluxCapacitor = fluxCapacitor;
+        this.height = height;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public <T> T getValue(FluxValue<T> fluxValue) {
+        return fluxCapacitor.getValue(fluxValue, height);
+    }
+}
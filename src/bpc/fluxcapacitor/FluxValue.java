@@ -1,6 +1,12 @@
 package brs.fluxcapacitor;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class FluxValue<T> {
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+
+    // position of this value in the tables compiled by the flux capacitor
+    private final int index = nextIndex.getAndIncrement();
     private final T defaultValue;
     private final ValueChange<T>[] valueChanges;
 
@@ -18,6 +24,10 @@ public class FluxValue<T> {
         return valueChanges;
     }
 
+    int getIndex() {
+        return index;
+    }
+
     public static class ValueChange<T> {
         private final HistoricalMoments historicalMoment;
         private final T newValue;
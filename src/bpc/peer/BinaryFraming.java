@@ -0,0 +1,139 @@
+package brs.peer;
+
+import brs.Block;
+import brs.BurstException;
+import brs.Transaction;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary framing of blocks and transactions between peers, sending the bytes they are signed and hashed over instead
+ * of their JSON form.
+ * A peer asks for a binary response by setting {@link #BINARY_FLAG} on its JSON request. Older nodes ignore the flag
+ * and answer in JSON, which the requester tells apart by the content type of the response. Requests that carry a
+ * block are only sent in binary to peers known to answer that way, they start with the protocol and request type.
+ * Every frame is an int length followed by that many bytes. A block is the frame of its header followed by the number
+ * of its transactions and their frames, lists of blocks or transactions start with their size.
+ */
+public final class BinaryFraming {
+
+  public static final String CONTENT_TYPE = "application/octet-stream";
+
+  public static final String BINARY_FLAG = "binary";
+
+  private static final int MAX_FRAME_LENGTH = 1 << 20;
+  private static final int MAX_LIST_SIZE = 10000;
+
+  private BinaryFraming() {
+  }
+
+  public static boolean isBinary(String contentType) {
+    return contentType != null && contentType.startsWith(CONTENT_TYPE);
+  }
+
+  /**
+   * Asks the peer to answer the request in binary, peers that don't know {@link #BINARY_FLAG} answer in JSON instead.
+   */
+  public static JsonObject requestBinary(JsonObject request) {
+    request.addProperty(BINARY_FLAG, true);
+    return request;
+  }
+
+  /**
+   * Reads the blocks of a getNextBlocks or getBlocksFromHeight response, or returns null if the peer answered in JSON.
+   */
+  public static List<Block> readBlocksResponse(String contentType, InputStream response, int height) throws IOException, BurstException.ValidationException {
+    if (!isBinary(contentType)) {
+      return null;
+    }
+    return readBlocks(new DataInputStream(new BufferedInputStream(response)), height);
+  }
+
+  /**
+   * Reads the transactions of a getUnconfirmedTransactions response, or returns null if the peer answered in JSON.
+   */
+  public static List<Transaction> readTransactionsResponse(String contentType, InputStream response, int height) throws IOException, BurstException.ValidationException {
+    if (!isBinary(contentType)) {
+      return null;
+    }
+    return readTransactions(new DataInputStream(new BufferedInputStream(response)), height);
+  }
+
+  public static void writeRequestType(DataOutputStream out, String protocol, String requestType) throws IOException {
+    out.writeUTF(protocol);
+    out.writeUTF(requestType);
+  }
+
+  public static void writeBlocks(DataOutputStream out, Collection<? extends Block> blocks) throws IOException {
+    out.writeInt(blocks.size());
+    for (Block block : blocks) {
+      writeBlock(out, block);
+    }
+  }
+
+  public static void writeBlock(DataOutputStream out, Block block) throws IOException {
+    writeFrame(out, block.getBytes());
+    writeTransactions(out, block.getTransactions());
+  }
+
+  public static void writeTransactions(DataOutputStream out, Collection<Transaction> transactions) throws IOException {
+    out.writeInt(transactions.size());
+    for (Transaction transaction : transactions) {
+      writeFrame(out, transaction.getBytes());
+    }
+  }
+
+  public static List<Block> readBlocks(DataInputStream in, int height) throws IOException, BurstException.ValidationException {
+    int count = readListSize(in);
+    List<Block> blocks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      blocks.add(readBlock(in, height));
+    }
+    return blocks;
+  }
+
+  public static Block readBlock(DataInputStream in, int height) throws IOException, BurstException.ValidationException {
+    byte[] blockBytes = readFrame(in);
+    return Block.parseBlock(blockBytes, readTransactions(in, height), height);
+  }
+
+  public static List<Transaction> readTransactions(DataInputStream in, int height) throws IOException, BurstException.ValidationException {
+    int count = readListSize(in);
+    List<Transaction> transactions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      transactions.add(Transaction.parseTransaction(readFrame(in), height));
+    }
+    return transactions;
+  }
+
+  private static void writeFrame(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readFrame(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > MAX_FRAME_LENGTH) {
+      throw new IOException("Invalid frame length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static int readListSize(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0 || size > MAX_LIST_SIZE) {
+      throw new IOException("Invalid list size " + size);
+    }
+    return size;
+  }
+}
@@ -2,6 +2,7 @@ package brs.peer;
 
 import brs.Block;
 import brs.Blockchain;
+import brs.peer.PeerServlet.ExtendedProcessRequest;
 import brs.util.JSON;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -9,7 +10,7 @@ import com.google.gson.JsonObject;
 
 import java.util.Collection;
 
-final class GetBlocksFromHeight implements PeerServlet.PeerRequestHandler {
+final class GetBlocksFromHeight implements PeerServlet.PeerRequestHandler, PeerServlet.BinaryResponseHandler, PeerServlet.StreamingResponseHandler {
 
   private final Blockchain blockchain;
 
@@ -21,6 +22,26 @@ final class GetBlocksFromHeight implements PeerServlet.PeerRequestHandler {
   @Override
   public JsonElement processRequest(JsonObject request, Peer peer) {
     JsonObject response = new JsonObject();
+    JsonArray nextBlocksArray = new JsonArray();
+    for (Block nextBlock : getBlocks(request)) {
+      nextBlocksArray.add(nextBlock.getJsonObject());
+    }
+    response.add("nextBlocks", nextBlocksArray);
+    return response;
+  }
+
+  @Override
+  public ExtendedProcessRequest processStreamingRequest(JsonObject request, Peer peer) {
+    return ExtendedProcessRequest.streaming(PeerServlet.nextBlocksResponse(getBlocks(request)), null);
+  }
+
+  @Override
+  public ExtendedProcessRequest processBinaryRequest(JsonObject request, Peer peer) {
+    final Collection<? extends Block> blocks = getBlocks(request);
+    return ExtendedProcessRequest.binary(out -> BinaryFraming.writeBlocks(out, blocks), null);
+  }
+
+  private Collection<? extends Block> getBlocks(JsonObject request) {
     int blockHeight = JSON.getAsInt(request.get("height"));
     int numBlocks = 100;
 
@@ -38,13 +59,7 @@ final class GetBlocksFromHeight implements PeerServlet.PeerRequestHandler {
     }
     	    
     long blockId =  blockchain.getBlockIdAtHeight(blockHeight);
-    Collection<? extends Block> blocks = blockchain.getBlocksAfter(blockId, numBlocks);
-    JsonArray nextBlocksArray = new JsonArray();
-    for (Block nextBlock : blocks) {
-      nextBlocksArray.add(nextBlock.getJsonObject());
-    }
-    response.add("nextBlocks", nextBlocksArray);
-    return response;
+    return blockchain.getBlocksAfter(blockId, numBlocks);
   }
 
 }
@@ -3,6 +3,7 @@ package brs.peer;
 import brs.Block;
 import brs.Blockchain;
 import brs.Constants;
+import brs.peer.PeerServlet.ExtendedProcessRequest;
 import brs.util.Convert;
 import brs.util.JSON;
 import com.google.gson.JsonArray;
@@ -13,7 +14,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-final class GetNextBlocks implements PeerServlet.PeerRequestHandler {
+final class GetNextBlocks implements PeerServlet.PeerRequestHandler, PeerServlet.BinaryResponseHandler, PeerServlet.StreamingResponseHandler {
 
   private final Blockchain blockchain;
 
@@ -27,6 +28,27 @@ final class GetNextBlocks implements PeerServlet.PeerRequestHandler {
 
     JsonObject response = new JsonObject();
 
+    JsonArray nextBlocksArray = new JsonArray();
+    for (Block nextBlock : getNextBlocks(request)) {
+      nextBlocksArray.add(nextBlock.getJsonObject());
+    }
+    response.add("nextBlocks", nextBlocksArray);
+
+    return response;
+  }
+
+  @Override
+  public ExtendedProcessRequest processStreamingRequest(JsonObject request, Peer peer) {
+    return ExtendedProcessRequest.streaming(PeerServlet.nextBlocksResponse(getNextBlocks(request)), null);
+  }
+
+  @Override
+  public ExtendedProcessRequest processBinaryRequest(JsonObject request, Peer peer) {
+    final List<Block> nextBlocks = getNextBlocks(request);
+    return ExtendedProcessRequest.binary(out -> BinaryFraming.writeBlocks(out, nextBlocks), null);
+  }
+
+  private List<Block> getNextBlocks(JsonObject request) {
     List<Block> nextBlocks = new ArrayList<>();
     int totalLength = 0;
     long blockId = Convert.parseUnsignedLong(JSON.getAsString(request.get("blockId")));
@@ -40,14 +62,7 @@ final class GetNextBlocks implements PeerServlet.PeerRequestHandler {
       nextBlocks.add(block);
       totalLength += length;
     }
-
-    JsonArray nextBlocksArray = new JsonArray();
-    for (Block nextBlock : nextBlocks) {
-      nextBlocksArray.add(nextBlock.getJsonObject());
-    }
-    response.add("nextBlocks", nextBlocksArray);
-
-    return response;
+    return nextBlocks;
   }
 
 }
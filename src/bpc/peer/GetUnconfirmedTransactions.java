@@ -3,14 +3,14 @@ package brs.peer;
 import brs.Transaction;
 import brs.TransactionProcessor;
 import brs.peer.PeerServlet.ExtendedProcessRequest;
-import com.google.gson.JsonArray;
+import brs.util.JSON;
 import com.google.gson.JsonObject;
 
 import java.util.List;
 
 import static brs.http.common.ResultFields.UNCONFIRMED_TRANSACTIONS_RESPONSE;
 
-final class GetUnconfirmedTransactions extends PeerServlet.ExtendedPeerRequestHandler {
+final class GetUnconfirmedTransactions implements PeerServlet.BinaryResponseHandler, PeerServlet.StreamingResponseHandler {
 
   private final TransactionProcessor transactionProcessor;
 
@@ -19,19 +19,25 @@ final class GetUnconfirmedTransactions extends PeerServlet.ExtendedPeerRequestHa
   }
 
   @Override
-  ExtendedProcessRequest extendedProcessRequest(JsonObject request, Peer peer) {
-    JsonObject response = new JsonObject();
-
+  public ExtendedProcessRequest processStreamingRequest(JsonObject request, Peer peer) {
     final List<Transaction> unconfirmedTransactions = transactionProcessor.getAllUnconfirmedTransactionsFor(peer);
 
-    JsonArray transactionsData = new JsonArray();
-    for (Transaction transaction : unconfirmedTransactions) {
-      transactionsData.add(transaction.getJsonObject());
-    }
+    return ExtendedProcessRequest.streaming(writer -> {
+      writer.beginObject();
+      writer.name(UNCONFIRMED_TRANSACTIONS_RESPONSE).beginArray();
+      for (Transaction transaction : unconfirmedTransactions) {
+        JSON.writeTo(transaction.getJsonObject(), writer);
+      }
+      writer.endArray();
+      writer.endObject();
+    }, () -> transactionProcessor.markFingerPrintsOf(peer, unconfirmedTransactions));
+  }
 
-    response.add(UNCONFIRMED_TRANSACTIONS_RESPONSE, transactionsData);
+  @Override
+  public ExtendedProcessRequest processBinaryRequest(JsonObject request, Peer peer) {
+    final List<Transaction> unconfirmedTransactions = transactionProcessor.getAllUnconfirmedTransactionsFor(peer);
 
-    return new ExtendedProcessRequest(response, () -> transactionProcessor.markFingerPrintsOf(peer, unconfirmedTransactions));
+    return ExtendedProcessRequest.binary(out -> BinaryFraming.writeTransactions(out, unconfirmedTransactions), () -> transactionProcessor.markFingerPrintsOf(peer, unconfirmedTransactions));
   }
 
 }
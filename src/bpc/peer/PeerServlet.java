@@ -1,5 +1,6 @@
 package brs.peer;
 
+import brs.Block;
 import brs.Blockchain;
 import brs.BlockchainProcessor;
 import brs.TransactionProcessor;
@@ -10,6 +11,7 @@ import brs.util.CountingOutputStream;
 import brs.util.JSON;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,9 +22,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 
 import static brs.Constants.PROTOCOL;
 
@@ -30,37 +35,94 @@ public final class PeerServlet extends HttpServlet {
 
   private static final Logger logger = LoggerFactory.getLogger(PeerServlet.class);
 
-  interface PeerRequestHandler {
+  /**
+   * Handles a request type, in the ways given by the interfaces it implements.
+   */
+  interface RequestHandler {
+  }
+
+  interface PeerRequestHandler extends RequestHandler {
     JsonElement processRequest(JsonObject request, Peer peer);
   }
 
-  abstract static class ExtendedPeerRequestHandler implements PeerRequestHandler {
-    @Override
-    public JsonElement processRequest(JsonObject request, Peer peer) { return null; }
-    abstract ExtendedProcessRequest extendedProcessRequest(JsonObject request, Peer peer);
+  /**
+   * Handlers that can answer with {@link BinaryFraming} when the requesting peer asks for it.
+   */
+  interface BinaryResponseHandler extends RequestHandler {
+    ExtendedProcessRequest processBinaryRequest(JsonObject request, Peer peer);
+  }
+
+  /**
+   * Handlers for requests sent with {@link BinaryFraming}, they still answer in JSON.
+   */
+  interface BinaryRequestHandler extends PeerRequestHandler {
+    JsonElement processRequest(DataInputStream request, Peer peer) throws IOException;
+  }
+
+  /**
+   * Handlers that write their JSON response while it is being sent, so that large responses never exist in memory
+   * as a whole.
+   */
+  interface StreamingResponseHandler extends RequestHandler {
+    ExtendedProcessRequest processStreamingRequest(JsonObject request, Peer peer);
   }
 
   static class ExtendedProcessRequest {
-    final JsonElement response;
+    final BinaryResponse binaryResponse;
+    final StreamingResponse streamingResponse;
     final RequestLifecycleHook afterRequestHook;
 
-    public ExtendedProcessRequest(JsonElement response, RequestLifecycleHook afterRequestHook) {
-      this.response = response;
+    private ExtendedProcessRequest(BinaryResponse binaryResponse, StreamingResponse streamingResponse, RequestLifecycleHook afterRequestHook) {
+      this.binaryResponse = binaryResponse;
+      this.streamingResponse = streamingResponse;
       this.afterRequestHook = afterRequestHook;
     }
+
+    static ExtendedProcessRequest binary(BinaryResponse binaryResponse, RequestLifecycleHook afterRequestHook) {
+      return new ExtendedProcessRequest(binaryResponse, null, afterRequestHook);
+    }
+
+    static ExtendedProcessRequest streaming(StreamingResponse streamingResponse, RequestLifecycleHook afterRequestHook) {
+      return new ExtendedProcessRequest(null, streamingResponse, afterRequestHook);
+    }
+  }
+
+  interface BinaryResponse {
+    void writeTo(DataOutputStream out) throws IOException;
+  }
+
+  interface StreamingResponse {
+    void writeTo(JsonWriter writer) throws IOException;
+  }
+
+  /**
+   * Writes {@code {"nextBlocks": [...]}}, dropping each block once it has been written.
+   */
+  static StreamingResponse nextBlocksResponse(Collection<? extends Block> blocks) {
+    final Queue<Block> pending = new ArrayDeque<>(blocks);
+    return writer -> {
+      writer.beginObject();
+      writer.name("nextBlocks").beginArray();
+      Block block;
+      while ((block = pending.poll()) != null) {
+        block.writeJsonTo(writer);
+      }
+      writer.endArray();
+      writer.endObject();
+    };
   }
 
   interface RequestLifecycleHook {
     void run();
   }
 
-  private final Map<String,PeerRequestHandler> peerRequestHandlers;
+  private final Map<String,RequestHandler> peerRequestHandlers;
 
   public PeerServlet(TimeService timeService, AccountService accountService,
                      Blockchain blockchain,
                      TransactionProcessor transactionProcessor,
                      BlockchainProcessor blockchainProcessor) {
-    final Map<String,PeerRequestHandler> map = new HashMap<>();
+    final Map<String,RequestHandler> map = new HashMap<>();
     map.put("addPeers", AddPeers.instance);
     map.put("getCumulativeDifficulty", new GetCumulativeDifficulty(blockchain));
     map.put("getInfo", new GetInfo(timeService));
@@ -97,21 +159,25 @@ public final class PeerServlet extends HttpServlet {
   }
 
   @Override
-  protected void doPost(HttpServletRequest req, HttpServletResponse resp) {
+  protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
     try {
       if (!Peers.isSupportedUserAgent(req.getHeader("User-Agent"))) {
         return;
       }
       process(req, resp);
+    } catch (AbortedResponseException e) {
+      throw e;
     } catch (Exception e) { // We don't want to send exception information to client...
       resp.setStatus(500);
       logger.warn("Error handling peer request", e);
     }
   }
 
-  private void process(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+  private void process(HttpServletRequest req, HttpServletResponse resp) throws IOException, AbortedResponseException {
     Peer peer = null;
-    JsonElement response;
+    JsonElement response = null;
+    BinaryResponse binaryResponse = null;
+    StreamingResponse streamingResponse = null;
 
     ExtendedProcessRequest extendedProcessRequest = null;
 
@@ -122,8 +188,28 @@ public final class PeerServlet extends HttpServlet {
         return;
       }
 
-      JsonObject request;
       CountingInputStream cis = new CountingInputStream(req.getInputStream());
+      if (BinaryFraming.isBinary(req.getContentType())) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(cis))) {
+          final String protocol = in.readUTF();
+          requestType = in.readUTF();
+          connected(peer);
+          RequestHandler peerRequestHandler = peerRequestHandlers.get(requestType);
+          if (!protocol.equals("B1")) {
+            response = UNSUPPORTED_PROTOCOL;
+          } else if (peerRequestHandler instanceof BinaryRequestHandler) {
+            response = ((BinaryRequestHandler) peerRequestHandler).processRequest(in, peer);
+          } else {
+            response = UNSUPPORTED_REQUEST_TYPE;
+          }
+        }
+        peer.updateDownloadedVolume(cis.getCount());
+        final JsonElement jsonResponse = response;
+        writeResponse(resp, peer, writer -> JSON.writeTo(jsonResponse, writer), null, requestType);
+        return;
+      }
+
+      JsonObject request;
       try (Reader reader = new InputStreamReader(cis, StandardCharsets.UTF_8)) {
         request = JSON.getAsJsonObject(JSON.parse(reader));
       }
@@ -131,23 +217,23 @@ public final class PeerServlet extends HttpServlet {
         return;
       }
 
-      if (peer.isState(Peer.State.DISCONNECTED)) {
-        peer.setState(Peer.State.CONNECTED);
-        if (peer.getAnnouncedAddress() != null) {
-          Peers.updateAddress(peer);
-        }
-      }
+      connected(peer);
       peer.updateDownloadedVolume(cis.getCount());
 
       if (request.get(PROTOCOL) != null && JSON.getAsString(request.get(PROTOCOL)).equals("B1")) {
         requestType = "" + JSON.getAsString(request.get("requestType"));
-        PeerRequestHandler peerRequestHandler = peerRequestHandlers.get(JSON.getAsString(request.get("requestType")));
+        RequestHandler peerRequestHandler = peerRequestHandlers.get(JSON.getAsString(request.get("requestType")));
         if (peerRequestHandler != null) {
-          if(peerRequestHandler instanceof ExtendedPeerRequestHandler) {
-            extendedProcessRequest = ((ExtendedPeerRequestHandler) peerRequestHandler).extendedProcessRequest(request, peer);
-            response = extendedProcessRequest.response;
+          if (peerRequestHandler instanceof BinaryResponseHandler && wantsBinary(request)) {
+            extendedProcessRequest = ((BinaryResponseHandler) peerRequestHandler).processBinaryRequest(request, peer);
+            binaryResponse = extendedProcessRequest.binaryResponse;
+          } else if (peerRequestHandler instanceof StreamingResponseHandler) {
+            extendedProcessRequest = ((StreamingResponseHandler) peerRequestHandler).processStreamingRequest(request, peer);
+            streamingResponse = extendedProcessRequest.streamingResponse;
+          } else if (peerRequestHandler instanceof PeerRequestHandler) {
+            response = ((PeerRequestHandler) peerRequestHandler).processRequest(request, peer);
           } else {
-            response = peerRequestHandler.processRequest(request, peer);
+            response = UNSUPPORTED_REQUEST_TYPE;
           }
         }
         else {
@@ -166,29 +252,101 @@ public final class PeerServlet extends HttpServlet {
       JsonObject json = new JsonObject();
       json.addProperty("error", e.toString());
       response = json;
+      binaryResponse = null;
+      streamingResponse = null;
     }
 
-    resp.setContentType("text/plain; charset=UTF-8");
+    if (streamingResponse == null) {
+      final JsonElement jsonResponse = response;
+      streamingResponse = writer -> JSON.writeTo(jsonResponse, writer);
+    }
+    if (!writeResponse(resp, peer, streamingResponse, binaryResponse, requestType)) {
+      return;
+    }
+
+    if(extendedProcessRequest != null && extendedProcessRequest.afterRequestHook != null) {
+      extendedProcessRequest.afterRequestHook.run();
+    }
+  }
+
+  private static void connected(Peer peer) {
+    if (peer.isState(Peer.State.DISCONNECTED)) {
+      peer.setState(Peer.State.CONNECTED);
+      if (peer.getAnnouncedAddress() != null) {
+        Peers.updateAddress(peer);
+      }
+    }
+  }
+
+  private static boolean wantsBinary(JsonObject request) {
+    final JsonElement binary = request.get(BinaryFraming.BINARY_FLAG);
+    return binary != null && binary.isJsonPrimitive() && binary.getAsBoolean();
+  }
+
+  static boolean writeResponse(HttpServletResponse resp, Peer peer, StreamingResponse response, BinaryResponse binaryResponse, String requestType) throws AbortedResponseException {
+    resp.setContentType(binaryResponse != null ? BinaryFraming.CONTENT_TYPE : "text/plain; charset=UTF-8");
     try {
       long byteCount;
 
       CountingOutputStream cos = new CountingOutputStream(resp.getOutputStream());
-      try (Writer writer = new OutputStreamWriter(cos, StandardCharsets.UTF_8)) {
-        JSON.writeTo(response, writer);
+      // neither stream is closed when writing fails, closing it would end the body as if it was complete
+      try {
+        if (binaryResponse != null) {
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(cos));
+          binaryResponse.writeTo(out);
+          out.close();
+        } else {
+          JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(cos, StandardCharsets.UTF_8)));
+          writer.setLenient(true);
+          // like toJsonString, fields without a value are left out
+          writer.setSerializeNulls(false);
+          response.writeTo(writer);
+          writer.close();
+        }
+      } catch (RuntimeException e) {
+        // the response is streamed while it is loaded, failing to load it is not the fault of the peer
+        logger.warn("Error writing response to requestType={}", requestType, e);
+        abort(resp, e);
+        return false;
       }
       byteCount = cos.getCount();
       if (peer != null) {
         peer.updateUploadedVolume(byteCount);
       }
+      return true;
+    } catch (AbortedResponseException e) {
+      throw e;
     } catch (Exception e) {
       if (peer != null) {
         peer.blacklist(e, "can't respond to requestType=" + requestType);
       }
-      return;
+      return false;
+    }
+  }
+
+  /**
+   * Replaces the partly written response with an error, or drops the connection if part of it has been sent already,
+   * so that the peer never gets a truncated body that looks complete.
+   */
+  private static void abort(HttpServletResponse resp, RuntimeException e) throws IOException, AbortedResponseException {
+    if (resp.isCommitted()) {
+      throw new AbortedResponseException(e);
+    }
+    resp.resetBuffer();
+    resp.setContentType("text/plain; charset=UTF-8");
+    JsonObject json = new JsonObject();
+    json.addProperty("error", e.toString());
+    try (Writer writer = new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8)) {
+      JSON.writeTo(json, writer);
     }
+  }
 
-    if(extendedProcessRequest != null) {
-      extendedProcessRequest.afterRequestHook.run();
+  /**
+   * Thrown out of the servlet so that the container closes the connection instead of ending the response normally.
+   */
+  static final class AbortedResponseException extends ServletException {
+    AbortedResponseException(Throwable cause) {
+      super("Response was committed before it failed", cause);
     }
   }
 
@@ -1,5 +1,6 @@
 package brs.peer;
 
+import brs.Block;
 import brs.Blockchain;
 import brs.BlockchainProcessor;
 import brs.BurstException;
@@ -7,7 +8,10 @@ import brs.util.JSON;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
-public final class ProcessBlock implements PeerServlet.PeerRequestHandler {
+import java.io.DataInputStream;
+import java.io.IOException;
+
+public final class ProcessBlock implements PeerServlet.BinaryRequestHandler {
 
   private final Blockchain blockchain;
   private final BlockchainProcessor blockchainProcessor;
@@ -53,4 +57,25 @@ public final class ProcessBlock implements PeerServlet.PeerRequestHandler {
 
   }
 
+  @Override
+  public JsonElement processRequest(DataInputStream request, Peer peer) throws IOException {
+
+    try {
+
+      Block block = BinaryFraming.readBlock(request, blockchain.getHeight());
+      if (blockchain.getLastBlock().getId() != block.getPreviousBlockId()) {
+        return NOT_ACCEPTED;
+      }
+      blockchainProcessor.processPeerBlock(block, peer);
+      return ACCEPTED;
+
+    } catch (BurstException|RuntimeException e) {
+      if (peer != null) {
+        peer.blacklist(e, "received invalid data via requestType=processBlock");
+      }
+      return NOT_ACCEPTED;
+    }
+
+  }
+
 }
@@ -41,6 +41,8 @@ public class Props {
   public static final Prop<Integer> BRS_COMMUNICATION_LOGGING_MASK = new Prop<>("brs.communicationLoggingMask", 0);
 
   public static final Prop<Integer> BRS_SHUTDOWN_TIMEOUT = new Prop<>("brs.ShutdownTimeout", 180);
+  // events queued for listeners that only report, like the fee suggestions, 0 calls them on the notifying thread
+  public static final Prop<Integer> BRS_ASYNC_LISTENER_QUEUE_SIZE = new Prop<>("brs.asyncListenerQueueSize", 100);
 
   // GPU options
   public static final Prop<Boolean> GPU_ACCELERATION     = new Prop<>("GPU.Acceleration", false);
@@ -61,10 +63,36 @@ public class Props {
   public static final Prop<String> DB_PASSWORD     = new Prop<>("DB.Password", "");
   public static final Prop<Integer> DB_CONNECTIONS  = new Prop<>("DB.Connections", 30);
   public static final Prop<Integer> DB_LOCK_TIMEOUT = new Prop<>("DB.LockTimeout", 60);
+  // prepared statements cached per connection, by the driver for MariaDB and as parsed queries for H2
+  public static final Prop<Integer> DB_STATEMENT_CACHE_SIZE = new Prop<>("DB.statementCacheSize", 512);
+  // commits of applied blocks get grouped, up to this many blocks or for this many milliseconds, 1 commits every block.
+  // Blocks waiting for their commit are served to peers from the block cache, which has to hold at least this many
+  // blocks. Other reads, like account balances asked for through the API, lag behind by up to a group meanwhile.
+  // A failed group commit stops the node, it starts again from the last committed block.
+  public static final Prop<Integer> DB_GROUP_COMMIT_BLOCKS = new Prop<>("DB.groupCommit.blocks", 1);
+  public static final Prop<Integer> DB_GROUP_COMMIT_DELAY  = new Prop<>("DB.groupCommit.maxDelay", 1000);
+  // recently pushed blocks kept in memory with their transactions, 0 disables
+  public static final Prop<Integer> DB_BLOCK_CACHE_SIZE = new Prop<>("DB.blockCacheSize", 720);
+  // expected number of confirmed transactions for the id filter that spares lookups of unknown ids, 0 disables
+  public static final Prop<Integer> DB_TRANSACTION_FILTER_ENTRIES = new Prop<>("DB.transactionFilter.entries", 8388608);
+  // account history from the account_transaction table, needs the table created and backfilled by its migration
+  public static final Prop<Boolean> DB_ACCOUNT_TRANSACTIONS = new Prop<>("DB.accountTransactions", false);
 
   public static final Prop<Boolean> DB_TRIM_DERIVED_TABLES = new Prop<>("DB.trimDerivedTables", true);
+  // old versions are trimmed in the background, this many rows per transaction with a pause in milliseconds between them
+  public static final Prop<Integer> DB_TRIM_CHUNK_ROWS     = new Prop<>("DB.trimDerivedTables.chunkRows", 1000);
+  public static final Prop<Integer> DB_TRIM_DELAY          = new Prop<>("DB.trimDerivedTables.delay", 100);
   public static final Prop<Integer> DB_MAX_ROLLBACK        = new Prop<>("DB.maxRollback", 1440);
 
+  public static final Prop<Boolean> DB_ACCOUNT_CACHE_OFF_HEAP = new Prop<>("DB.accountCache.offHeap", true);
+  public static final Prop<Integer> DB_ACCOUNT_CACHE_ENTRIES  = new Prop<>("DB.accountCache.entries", 262144);
+  // memory mapped file backing the off heap account cache, direct memory is used when empty
+  public static final Prop<String>  DB_ACCOUNT_CACHE_FILE     = new Prop<>("DB.accountCache.file", "");
+
+  // read caches of the other entity tables, sized per table through DB.cache.<table name>.entries
+  public static final Prop<Boolean> DB_CACHE_ENABLED         = new Prop<>("DB.cache.enabled", true);
+  public static final Prop<Integer> DB_CACHE_DEFAULT_ENTRIES = new Prop<>("DB.cache.defaultEntries", 4096);
+
   public static final Prop<Boolean> BRS_TEST_UNCONFIRMED_TRANSACTIONS = new Prop<>("brs.testUnconfirmedTransactions", false);
 
   public static final Prop<Boolean> DB_H2_DEFRAG_ON_SHUTDOWN = new Prop<>("Db.H2.DefragOnShutdown", false);
@@ -168,6 +196,16 @@ public class Props {
   public static final Prop<Boolean> AUTO_POP_OFF_ENABLED = new Prop<>("AutoPopOff.Enable", true);
 
   public static final Prop<Boolean> ENABLE_AT_DEBUG_LOG = new Prop<>("ATDebugLog.Enable", false);
+  // ATs decoded once and shared by all running the same code, 0 disassembles the code before every run
+  public static final Prop<Integer> AT_CODE_CACHE_SIZE = new Prop<>("ATCodeCache.Size", 256);
+  // runs decoded ATs with the switch based processor, gives the same results as the original one
+  public static final Prop<Boolean> AT_DECODED_PROCESSOR = new Prop<>("ATDecodedProcessor.Enable", false);
+  // runs the ATs of a block on this many threads, 0 runs them one after the other
+  public static final Prop<Integer> AT_PARALLEL_THREADS = new Prop<>("ATParallel.Threads", 0);
+  // keeps the order the ATs run in and the balances deciding whether they run in memory
+  public static final Prop<Boolean> AT_SCHEDULE = new Prop<>("ATSchedule.Enable", true);
+  // keeps the incoming transactions of the last blocks in memory for the transaction lookups of ATs
+  public static final Prop<Boolean> AT_TRANSACTION_INDEX = new Prop<>("ATTransactionIndex.Enable", true);
 
   public static final Prop<String> SOLO_MINING_PASSPHRASES = new Prop<>("SoloMiningPassphrases", "");
   public static final Prop<Boolean> ALLOW_OTHER_SOLO_MINERS = new Prop<>("AllowOtherSoloMiners", true);
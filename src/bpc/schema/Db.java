@@ -45,6 +45,11 @@ public class Db extends SchemaImpl {
      */
     public final AccountAsset ACCOUNT_ASSET = brs.schema.tables.AccountAsset.ACCOUNT_ASSET;
 
+    /**
+     * The table <code>DB.account_transaction</code>.
+     */
+    public final AccountTransaction ACCOUNT_TRANSACTION = brs.schema.tables.AccountTransaction.ACCOUNT_TRANSACTION;
+
     /**
      * The table <code>DB.alias</code>.
      */
@@ -187,6 +192,7 @@ public class Db extends SchemaImpl {
         return Arrays.<Table<?>>asList(
             Account.ACCOUNT,
             AccountAsset.ACCOUNT_ASSET,
+            AccountTransaction.ACCOUNT_TRANSACTION,
             Alias.ALIAS,
             AliasOffer.ALIAS_OFFER,
             AskOrder.ASK_ORDER,
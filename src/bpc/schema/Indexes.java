@@ -36,6 +36,10 @@ public class Indexes {
     public static final Index ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX = Indexes0.ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX;
     public static final Index ACCOUNT_ASSET_ACCOUNT_ASSET_QUANTITY_IDX = Indexes0.ACCOUNT_ASSET_ACCOUNT_ASSET_QUANTITY_IDX;
     public static final Index ACCOUNT_ASSET_PRIMARY = Indexes0.ACCOUNT_ASSET_PRIMARY;
+    public static final Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_BLOCK_TIMESTAMP_IDX = Indexes0.ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_BLOCK_TIMESTAMP_IDX;
+    public static final Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX = Indexes0.ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX;
+    public static final Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_HEIGHT_IDX = Indexes0.ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_HEIGHT_IDX;
+    public static final Index ACCOUNT_TRANSACTION_PRIMARY = Indexes0.ACCOUNT_TRANSACTION_PRIMARY;
     public static final Index ALIAS_ALIAS_ACCOUNT_ID_IDX = Indexes0.ALIAS_ALIAS_ACCOUNT_ID_IDX;
     public static final Index ALIAS_ALIAS_ID_HEIGHT_IDX = Indexes0.ALIAS_ALIAS_ID_HEIGHT_IDX;
     public static final Index ALIAS_ALIAS_NAME_LOWER_IDX = Indexes0.ALIAS_ALIAS_NAME_LOWER_IDX;
@@ -137,6 +141,10 @@ public class Indexes {
         public static Index ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX = Internal.createIndex("account_asset_id_height_idx", AccountAsset.ACCOUNT_ASSET, new OrderField[] { AccountAsset.ACCOUNT_ASSET.ACCOUNT_ID, AccountAsset.ACCOUNT_ASSET.ASSET_ID, AccountAsset.ACCOUNT_ASSET.HEIGHT }, true);
         public static Index ACCOUNT_ASSET_ACCOUNT_ASSET_QUANTITY_IDX = Internal.createIndex("account_asset_quantity_idx", AccountAsset.ACCOUNT_ASSET, new OrderField[] { AccountAsset.ACCOUNT_ASSET.QUANTITY }, false);
         public static Index ACCOUNT_ASSET_PRIMARY = Internal.createIndex("PRIMARY", AccountAsset.ACCOUNT_ASSET, new OrderField[] { AccountAsset.ACCOUNT_ASSET.DB_ID }, true);
+        public static Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_BLOCK_TIMESTAMP_IDX = Internal.createIndex("account_transaction_account_id_block_timestamp_idx", AccountTransaction.ACCOUNT_TRANSACTION, new OrderField[] { AccountTransaction.ACCOUNT_TRANSACTION.ACCOUNT_ID, AccountTransaction.ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP, AccountTransaction.ACCOUNT_TRANSACTION.TRANSACTION_ID }, false);
+        public static Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX = Internal.createIndex("account_transaction_account_id_transaction_id_uindex", AccountTransaction.ACCOUNT_TRANSACTION, new OrderField[] { AccountTransaction.ACCOUNT_TRANSACTION.ACCOUNT_ID, AccountTransaction.ACCOUNT_TRANSACTION.TRANSACTION_ID }, true);
+        public static Index ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_HEIGHT_IDX = Internal.createIndex("account_transaction_height_idx", AccountTransaction.ACCOUNT_TRANSACTION, new OrderField[] { AccountTransaction.ACCOUNT_TRANSACTION.HEIGHT }, false);
+        public static Index ACCOUNT_TRANSACTION_PRIMARY = Internal.createIndex("PRIMARY", AccountTransaction.ACCOUNT_TRANSACTION, new OrderField[] { AccountTransaction.ACCOUNT_TRANSACTION.DB_ID }, true);
         public static Index ALIAS_ALIAS_ACCOUNT_ID_IDX = Internal.createIndex("alias_account_id_idx", Alias.ALIAS, new OrderField[] { Alias.ALIAS.ACCOUNT_ID, Alias.ALIAS.HEIGHT }, false);
         public static Index ALIAS_ALIAS_ID_HEIGHT_IDX = Internal.createIndex("alias_id_height_idx", Alias.ALIAS, new OrderField[] { Alias.ALIAS.ID, Alias.ALIAS.HEIGHT }, true);
         public static Index ALIAS_ALIAS_NAME_LOWER_IDX = Internal.createIndex("alias_name_lower_idx", Alias.ALIAS, new OrderField[] { Alias.ALIAS.ALIAS_NAME_LOWER }, false);
@@ -34,6 +34,7 @@ public class Keys {
 
     public static final Identity<AccountRecord, Long> IDENTITY_ACCOUNT = Identities0.IDENTITY_ACCOUNT;
     public static final Identity<AccountAssetRecord, Long> IDENTITY_ACCOUNT_ASSET = Identities0.IDENTITY_ACCOUNT_ASSET;
+    public static final Identity<AccountTransactionRecord, Long> IDENTITY_ACCOUNT_TRANSACTION = Identities0.IDENTITY_ACCOUNT_TRANSACTION;
     public static final Identity<AliasRecord, Long> IDENTITY_ALIAS = Identities0.IDENTITY_ALIAS;
     public static final Identity<AliasOfferRecord, Long> IDENTITY_ALIAS_OFFER = Identities0.IDENTITY_ALIAS_OFFER;
     public static final Identity<AskOrderRecord, Long> IDENTITY_ASK_ORDER = Identities0.IDENTITY_ASK_ORDER;
@@ -64,6 +65,8 @@ public class Keys {
     public static final UniqueKey<AccountRecord> KEY_ACCOUNT_ACCOUNT_ID_HEIGHT_IDX = UniqueKeys0.KEY_ACCOUNT_ACCOUNT_ID_HEIGHT_IDX;
     public static final UniqueKey<AccountAssetRecord> KEY_ACCOUNT_ASSET_PRIMARY = UniqueKeys0.KEY_ACCOUNT_ASSET_PRIMARY;
     public static final UniqueKey<AccountAssetRecord> KEY_ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX = UniqueKeys0.KEY_ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX;
+    public static final UniqueKey<AccountTransactionRecord> KEY_ACCOUNT_TRANSACTION_PRIMARY = UniqueKeys0.KEY_ACCOUNT_TRANSACTION_PRIMARY;
+    public static final UniqueKey<AccountTransactionRecord> KEY_ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX = UniqueKeys0.KEY_ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX;
     public static final UniqueKey<AliasRecord> KEY_ALIAS_PRIMARY = UniqueKeys0.KEY_ALIAS_PRIMARY;
     public static final UniqueKey<AliasRecord> KEY_ALIAS_ALIAS_ID_HEIGHT_IDX = UniqueKeys0.KEY_ALIAS_ALIAS_ID_HEIGHT_IDX;
     public static final UniqueKey<AliasOfferRecord> KEY_ALIAS_OFFER_PRIMARY = UniqueKeys0.KEY_ALIAS_OFFER_PRIMARY;
@@ -125,6 +128,7 @@ public class Keys {
     private static class Identities0 {
         public static Identity<AccountRecord, Long> IDENTITY_ACCOUNT = Internal.createIdentity(Account.ACCOUNT, Account.ACCOUNT.DB_ID);
         public static Identity<AccountAssetRecord, Long> IDENTITY_ACCOUNT_ASSET = Internal.createIdentity(AccountAsset.ACCOUNT_ASSET, AccountAsset.ACCOUNT_ASSET.DB_ID);
+        public static Identity<AccountTransactionRecord, Long> IDENTITY_ACCOUNT_TRANSACTION = Internal.createIdentity(AccountTransaction.ACCOUNT_TRANSACTION, AccountTransaction.ACCOUNT_TRANSACTION.DB_ID);
         public static Identity<AliasRecord, Long> IDENTITY_ALIAS = Internal.createIdentity(Alias.ALIAS, Alias.ALIAS.DB_ID);
         public static Identity<AliasOfferRecord, Long> IDENTITY_ALIAS_OFFER = Internal.createIdentity(AliasOffer.ALIAS_OFFER, AliasOffer.ALIAS_OFFER.DB_ID);
         public static Identity<AskOrderRecord, Long> IDENTITY_ASK_ORDER = Internal.createIdentity(AskOrder.ASK_ORDER, AskOrder.ASK_ORDER.DB_ID);
@@ -153,6 +157,8 @@ public class Keys {
         public static final UniqueKey<AccountRecord> KEY_ACCOUNT_ACCOUNT_ID_HEIGHT_IDX = Internal.createUniqueKey(Account.ACCOUNT, "KEY_account_account_id_height_idx", Account.ACCOUNT.ID, Account.ACCOUNT.HEIGHT);
         public static final UniqueKey<AccountAssetRecord> KEY_ACCOUNT_ASSET_PRIMARY = Internal.createUniqueKey(AccountAsset.ACCOUNT_ASSET, "KEY_account_asset_PRIMARY", AccountAsset.ACCOUNT_ASSET.DB_ID);
         public static final UniqueKey<AccountAssetRecord> KEY_ACCOUNT_ASSET_ACCOUNT_ASSET_ID_HEIGHT_IDX = Internal.createUniqueKey(AccountAsset.ACCOUNT_ASSET, "KEY_account_asset_account_asset_id_height_idx", AccountAsset.ACCOUNT_ASSET.ACCOUNT_ID, AccountAsset.ACCOUNT_ASSET.ASSET_ID, AccountAsset.ACCOUNT_ASSET.HEIGHT);
+        public static final UniqueKey<AccountTransactionRecord> KEY_ACCOUNT_TRANSACTION_PRIMARY = Internal.createUniqueKey(AccountTransaction.ACCOUNT_TRANSACTION, "KEY_account_transaction_PRIMARY", AccountTransaction.ACCOUNT_TRANSACTION.DB_ID);
+        public static final UniqueKey<AccountTransactionRecord> KEY_ACCOUNT_TRANSACTION_ACCOUNT_TRANSACTION_ACCOUNT_ID_TRANSACTION_ID_UINDEX = Internal.createUniqueKey(AccountTransaction.ACCOUNT_TRANSACTION, "KEY_account_transaction_account_transaction_account_id_transaction_id_uindex", AccountTransaction.ACCOUNT_TRANSACTION.ACCOUNT_ID, AccountTransaction.ACCOUNT_TRANSACTION.TRANSACTION_ID);
         public static final UniqueKey<AliasRecord> KEY_ALIAS_PRIMARY = Internal.createUniqueKey(Alias.ALIAS, "KEY_alias_PRIMARY", Alias.ALIAS.DB_ID);
         public static final UniqueKey<AliasRecord> KEY_ALIAS_ALIAS_ID_HEIGHT_IDX = Internal.createUniqueKey(Alias.ALIAS, "KEY_alias_alias_id_height_idx", Alias.ALIAS.ID, Alias.ALIAS.HEIGHT);
         public static final UniqueKey<AliasOfferRecord> KEY_ALIAS_OFFER_PRIMARY = Internal.createUniqueKey(AliasOffer.ALIAS_OFFER, "KEY_alias_offer_PRIMARY", AliasOffer.ALIAS_OFFER.DB_ID);
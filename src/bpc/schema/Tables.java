@@ -32,6 +32,11 @@ public class Tables {
      */
     public static final AccountAsset ACCOUNT_ASSET = brs.schema.tables.AccountAsset.ACCOUNT_ASSET;
 
+    /**
+     * The table <code>DB.account_transaction</code>.
+     */
+    public static final AccountTransaction ACCOUNT_TRANSACTION = brs.schema.tables.AccountTransaction.ACCOUNT_TRANSACTION;
+
     /**
      * The table <code>DB.alias</code>.
      */
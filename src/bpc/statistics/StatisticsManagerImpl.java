@@ -4,8 +4,8 @@ import brs.services.TimeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class StatisticsManagerImpl {
@@ -17,7 +17,8 @@ public class StatisticsManagerImpl {
   private int addedBlockCount;
   private int firstBlockAdded;
 
-  private final Map<String, CacheStatisticsOverview> cacheStatistics = new HashMap<>();
+  // every table cache reports here, from the API threads as well
+  private final Map<String, CacheStatisticsOverview> cacheStatistics = new ConcurrentHashMap<>();
 
   public StatisticsManagerImpl(TimeService timeService) {
     this.timeService = timeService;
@@ -32,11 +33,7 @@ public class StatisticsManagerImpl {
   }
 
   private CacheStatisticsOverview getCacheStatisticsOverview(String cacheName) {
-    if(! this.cacheStatistics.containsKey(cacheName)) {
-      this.cacheStatistics.put(cacheName, new CacheStatisticsOverview(cacheName));
-    }
-
-    return cacheStatistics.get(cacheName);
+    return cacheStatistics.computeIfAbsent(cacheName, CacheStatisticsOverview::new);
   }
 
   public void blockAdded() {
@@ -68,13 +65,15 @@ public class StatisticsManagerImpl {
     }
 
     private String getCacheInfoAndReset() {
-      final Float hitRatio = (cacheHits + cacheMisses) > 0 ? (float) cacheHits / (cacheHits + cacheMisses) : null;
-      final Float totalHitRatio = (totalCacheHits + totalCacheMisses) > 0 ? (float) totalCacheHits / (totalCacheHits + totalCacheMisses) : null;
+      final float hitRatio = (cacheHits + cacheMisses) > 0 ? (float) cacheHits / (cacheHits + cacheMisses) : 0;
+      final float totalHitRatio = (totalCacheHits + totalCacheMisses) > 0 ? (float) totalCacheHits / (totalCacheHits + totalCacheMisses) : 0;
+
+      final String info = String.format("%s cache hits/misses now:%d/%d hit ratio now/total:%.2f%%/%.2f%%", cacheName, cacheHits, cacheMisses, hitRatio * 100, totalHitRatio * 100);
 
       cacheHits = 0;
       cacheMisses = 0;
 
-      return String.format("%s cache hit ratio now/total:%.2f%%/%.2f%%", cacheName, hitRatio * 100, totalHitRatio * 100);
+      return info;
     }
 
     private void cacheHit() {
@@ -0,0 +1,122 @@
+package brs.unconfirmedtransactions;
+
+import brs.Transaction;
+import brs.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel over {@link Transaction#getExpiration()}, one tick per epoch second.
+ * Three levels of 64 slots cover about three days, which is far beyond the maximum deadline, so advancing the wheel
+ * only touches the transactions that actually expire plus the occasional cascade of a coarser slot.
+ * Guarded by the lock of the owning store.
+ */
+class ExpiryWheel {
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 3;
+
+  private final List<Set<Transaction>[]> levels = new ArrayList<>();
+  private final LongObjectMap<Set<Transaction>> slotById;
+
+  private long currentTick;
+
+  @SuppressWarnings("unchecked")
+  ExpiryWheel(int currentEpochTime, int expectedSize) {
+    for (int level = 0; level < LEVELS; level++) {
+      final Set<Transaction>[] slots = new Set[SLOTS];
+      for (int i = 0; i < SLOTS; i++) {
+        slots[i] = new LinkedHashSet<>();
+      }
+      levels.add(slots);
+    }
+    this.slotById = new LongObjectMap<>(expectedSize);
+    this.currentTick = currentEpochTime;
+  }
+
+  void add(Transaction transaction) {
+    // a transaction is expired once the epoch time is past its expiration
+    place(transaction, Math.max(transaction.getExpiration() + 1L, currentTick + 1));
+  }
+
+  void remove(Transaction transaction) {
+    final Set<Transaction> slot = slotById.remove(transaction.getId());
+    if (slot != null) {
+      slot.remove(transaction);
+    }
+  }
+
+  /**
+   * Moves the wheel forward to the given epoch time
+   * @return The transactions that expired on the way
+   */
+  List<Transaction> advanceTo(int epochTime) {
+    final List<Transaction> expired = new ArrayList<>();
+
+    while (currentTick < epochTime) {
+      currentTick++;
+
+      for (int level = LEVELS - 1; level > 0; level--) {
+        final int shift = level * SLOT_BITS;
+        if ((currentTick & ((1L << shift) - 1)) == 0) {
+          cascade(levels.get(level)[slotIndex(currentTick, shift)]);
+        }
+      }
+
+      final Set<Transaction> dueSlot = levels.get(0)[slotIndex(currentTick, 0)];
+      for (Transaction transaction : dueSlot) {
+        slotById.remove(transaction.getId());
+        expired.add(transaction);
+      }
+      dueSlot.clear();
+    }
+
+    return expired;
+  }
+
+  void clear() {
+    for (Set<Transaction>[] slots : levels) {
+      for (Set<Transaction> slot : slots) {
+        slot.clear();
+      }
+    }
+    slotById.clear();
+  }
+
+  private void cascade(Set<Transaction> slot) {
+    final List<Transaction> transactions = new ArrayList<>(slot);
+    slot.clear();
+    for (Transaction transaction : transactions) {
+      place(transaction, Math.max(transaction.getExpiration() + 1L, currentTick));
+    }
+  }
+
+  private void place(Transaction transaction, long expiryTick) {
+    final long delta = expiryTick - currentTick;
+
+    Set<Transaction> slot = null;
+    for (int level = 0; level < LEVELS && slot == null; level++) {
+      final int shift = level * SLOT_BITS;
+      if (delta < (1L << (shift + SLOT_BITS))) {
+        slot = levels.get(level)[slotIndex(expiryTick, shift)];
+      }
+    }
+    if (slot == null) {
+      // beyond the wheel, park it in the farthest slot and look at it again when that one cascades
+      final int shift = (LEVELS - 1) * SLOT_BITS;
+      slot = levels.get(LEVELS - 1)[slotIndex(currentTick + ((long) SLOT_MASK << shift), shift)];
+    }
+
+    slot.add(transaction);
+    slotById.put(transaction.getId(), slot);
+  }
+
+  private static int slotIndex(long tick, int shift) {
+    return (int) (tick >>> shift) & SLOT_MASK;
+  }
+}
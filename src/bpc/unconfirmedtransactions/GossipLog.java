@@ -0,0 +1,116 @@
+package brs.unconfirmedtransactions;
+
+import brs.Transaction;
+import brs.peer.Peer;
+import brs.util.LongObjectMap;
+
+import java.util.*;
+
+/**
+ * Append-only log of the unconfirmed transactions in the order they entered the pool. Every peer has a cursor into
+ * the log, so feeding a peer only looks at what got added since its last sync instead of the whole pool.
+ * Guarded by the lock of the owning store.
+ */
+class GossipLog {
+
+  private final TreeMap<Long, Transaction> log = new TreeMap<>();
+  private final LongObjectMap<Long> sequenceById;
+
+  // peers that already know an entry above their cursor, mostly the ones that sent it to us
+  private final LongObjectMap<Set<Peer>> knownBy;
+
+  private final Map<Peer, Long> cursors = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private long lastSequence;
+
+  GossipLog(int expectedSize) {
+    this.sequenceById = new LongObjectMap<>(expectedSize);
+    this.knownBy = new LongObjectMap<>(expectedSize);
+  }
+
+  void add(Transaction transaction, Peer peer) {
+    final long sequence = ++lastSequence;
+    log.put(sequence, transaction);
+    sequenceById.put(transaction.getId(), sequence);
+
+    if (peer != null) {
+      markKnown(peer, transaction);
+    }
+  }
+
+  void remove(Transaction transaction) {
+    final Long sequence = sequenceById.remove(transaction.getId());
+    if (sequence != null) {
+      log.remove(sequence);
+      knownBy.remove(transaction.getId());
+    }
+  }
+
+  void markKnown(Peer peer, Transaction transaction) {
+    final Long sequence = sequenceById.get(transaction.getId());
+    if (sequence != null && sequence > cursorOf(peer)) {
+      Set<Peer> peers = knownBy.get(transaction.getId());
+      if (peers == null) {
+        peers = new HashSet<>();
+        knownBy.put(transaction.getId(), peers);
+      }
+      peers.add(peer);
+    }
+  }
+
+  /**
+   * Marks the given transactions as known by the peer and moves its cursor over every entry it now knows about.
+   */
+  void markSynced(Peer peer, List<Transaction> transactions) {
+    for (Transaction transaction : transactions) {
+      markKnown(peer, transaction);
+    }
+
+    long cursor = cursorOf(peer);
+    for (Map.Entry<Long, Transaction> entry : log.tailMap(cursor, false).entrySet()) {
+      final Set<Peer> peers = knownBy.get(entry.getValue().getId());
+      if (peers == null || !peers.remove(peer)) {
+        break;
+      }
+      if (peers.isEmpty()) {
+        knownBy.remove(entry.getValue().getId());
+      }
+      cursor = entry.getKey();
+    }
+    cursors.put(peer, cursor);
+  }
+
+  List<Transaction> getNewFor(Peer peer, long maxBytes) {
+    final ArrayList<Transaction> resultList = new ArrayList<>();
+
+    long roomLeft = maxBytes;
+
+    for (Transaction t : log.tailMap(cursorOf(peer), false).values()) {
+      final Set<Peer> peers = knownBy.get(t.getId());
+      if (peers != null && peers.contains(peer)) {
+        continue;
+      }
+
+      roomLeft -= t.getSize();
+
+      if (roomLeft > 0) {
+        resultList.add(t);
+      } else {
+        break;
+      }
+    }
+
+    return resultList;
+  }
+
+  void clear() {
+    log.clear();
+    sequenceById.clear();
+    knownBy.clear();
+    // sequence numbers keep growing, so the cursors stay valid for whatever gets added next
+  }
+
+  private long cursorOf(Peer peer) {
+    return cursors.getOrDefault(peer, 0L);
+  }
+}
@@ -10,32 +10,70 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 class ReservedBalanceCache {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ReservedBalanceCache.class);
 
+  private static final int STRIPES = 64;
+
   private final AccountStore accountStore;
 
-  private final HashMap<Long, Long> reservedBalanceCache;
+  private final ConcurrentHashMap<Long, Reservation> reservedBalanceCache;
+
+  // reservations of one sender are serialized on its stripe, different senders don't contend
+  private final Object[] senderStripes = new Object[STRIPES];
+
+  // bumped by every clear and rebuild, which run under the write lock of the pool, reservations of older epochs count
+  // as released
+  private volatile long epoch;
 
   public ReservedBalanceCache(AccountStore accountStore) {
     this.accountStore = accountStore;
 
-    this.reservedBalanceCache = new HashMap<>();
+    this.reservedBalanceCache = new ConcurrentHashMap<>();
+
+    for (int i = 0; i < STRIPES; i++) {
+      senderStripes[i] = new Object();
+    }
   }
 
-  void reserveBalanceAndPut(Transaction transaction) throws BurstException.ValidationException {
+  private Object stripeFor(long senderId) {
+    return senderStripes[(int) (senderId ^ (senderId >>> 32)) & (STRIPES - 1)];
+  }
+
+  /**
+   * Reserves the balance the transaction needs and returns the epoch of the reservation. The caller has to check it
+   * with {@link #isCurrent} under the write lock of the pool before adding the transaction, and reserve again if a
+   * rebuild released it in between.
+   */
+  long reserveBalance(Transaction transaction) throws BurstException.ValidationException {
     Account senderAccount = null;
 
     if (transaction.getSenderId() != 0) {
       senderAccount = accountStore.getAccountTable().get(accountStore.getAccountKeyFactory().newKey(transaction.getSenderId()));
     }
 
+    synchronized (stripeFor(transaction.getSenderId())) {
+      return reserveBalance(transaction, senderAccount);
+    }
+  }
+
+  boolean isCurrent(long reservationEpoch) {
+    return reservationEpoch == epoch;
+  }
+
+  private long reservedNQT(long senderId, long currentEpoch) {
+    final Reservation reservation = reservedBalanceCache.get(senderId);
+    return reservation != null && reservation.epoch == currentEpoch ? reservation.amountNQT : 0L;
+  }
+
+  private long reserveBalance(Transaction transaction, Account senderAccount) throws BurstException.ValidationException {
+    final long currentEpoch = epoch;
     final Long amountNQT = Convert.safeAdd(
-        reservedBalanceCache.getOrDefault(transaction.getSenderId(), 0L),
+        reservedNQT(transaction.getSenderId(), currentEpoch),
         transaction.getType().calculateTotalAmountNQT(transaction)
     );
 
@@ -53,19 +91,23 @@ class ReservedBalanceCache {
       throw new BurstException.NotCurrentlyValidException("Insufficient funds");
     }
 
-    reservedBalanceCache.put(transaction.getSenderId(), amountNQT);
+    reservedBalanceCache.put(transaction.getSenderId(), new Reservation(currentEpoch, amountNQT));
+    return currentEpoch;
   }
 
   void refundBalance(Transaction transaction) {
-    Long amountNQT = Convert.safeSubtract(
-        reservedBalanceCache.getOrDefault(transaction.getSenderId(), 0L),
-        transaction.getType().calculateTotalAmountNQT(transaction)
-    );
-
-    if (amountNQT > 0) {
-      reservedBalanceCache.put(transaction.getSenderId(), amountNQT);
-    } else {
-      reservedBalanceCache.remove(transaction.getSenderId());
+    synchronized (stripeFor(transaction.getSenderId())) {
+      final long currentEpoch = epoch;
+      Long amountNQT = Convert.safeSubtract(
+          reservedNQT(transaction.getSenderId(), currentEpoch),
+          transaction.getType().calculateTotalAmountNQT(transaction)
+      );
+
+      if (amountNQT > 0) {
+        reservedBalanceCache.put(transaction.getSenderId(), new Reservation(currentEpoch, amountNQT));
+      } else {
+        reservedBalanceCache.remove(transaction.getSenderId());
+      }
     }
   }
 
@@ -76,7 +118,7 @@ class ReservedBalanceCache {
 
     for(Transaction t : transactions) {
       try {
-        this.reserveBalanceAndPut(t);
+        this.reserveBalance(t);
       } catch (ValidationException e) {
         insufficientFundsTransactions.add(t);
       }
@@ -87,6 +129,18 @@ class ReservedBalanceCache {
 
   public void clear() {
     reservedBalanceCache.clear();
+    // after the clear, so that a reservation made during it belongs to the released epoch
+    epoch++;
+  }
+
+  private static final class Reservation {
+    private final long epoch;
+    private final long amountNQT;
+
+    private Reservation(long epoch, long amountNQT) {
+      this.epoch = epoch;
+      this.amountNQT = amountNQT;
+    }
   }
 
 }
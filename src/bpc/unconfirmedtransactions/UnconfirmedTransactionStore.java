@@ -16,6 +16,10 @@ public interface UnconfirmedTransactionStore {
 
   List<Transaction> getAll();
 
+  /**
+   * Transactions the peer doesn't know about yet, in the order they entered the pool
+   * @return Only what got added since the peer was last marked with {@link #markFingerPrintsOf(Peer, List)}
+   */
   List<Transaction> getAllFor(Peer peer);
 
   void remove(Transaction transaction);
@@ -32,5 +36,11 @@ public interface UnconfirmedTransactionStore {
 
   void removeForgedTransactions(List<Transaction> transactions);
 
+  /**
+   * Puts the transactions removed by the last {@link #removeForgedTransactions(List)} of this thread back, for when
+   * the block they were forged in got rolled back
+   */
+  void restoreForgedTransactions();
+
   int getAmount();
 }
@@ -11,6 +11,8 @@ import brs.props.Props;
 import brs.services.TimeService;
 import brs.transactionduplicates.TransactionDuplicatesCheckerImpl;
 import brs.transactionduplicates.TransactionDuplicationResult;
+import brs.util.LongObjectMap;
+import brs.util.StampedLockUtils;
 import brs.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,19 +21,32 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionStore {
 
   private static final Logger logger = LoggerFactory.getLogger(UnconfirmedTransactionStoreImpl.class);
 
+  // cheapest first, then first to expire, so eviction always takes the head
+  private static final Comparator<Transaction> FEE_PRIORITY = Comparator.comparingLong(Transaction::getFeeNQT)
+      .thenComparingInt(Transaction::getExpiration)
+      .thenComparingLong(Transaction::getId);
+
   private final TimeService timeService;
+  private final TransactionDb transactionDb;
   private final ReservedBalanceCache reservedBalanceCache;
   private final TransactionDuplicatesCheckerImpl transactionDuplicatesChecker = new TransactionDuplicatesCheckerImpl();
 
-  private final HashMap<Transaction, HashSet<Peer>> fingerPrintsOverview = new HashMap<>();
+  private final StampedLock poolLock = new StampedLock();
 
-  private final SortedMap<Long, List<Transaction>> internalStore;
+  private final LongObjectMap<Transaction> transactionsById;
+  private final TreeSet<Transaction> feePriority = new TreeSet<>(FEE_PRIORITY);
+  private final TreeMap<Long, Integer> amountSlotSizes = new TreeMap<>();
+  private final GossipLog gossipLog;
+  private final ExpiryWheel expiryWheel;
+  // the confirmed transactions the last block applied on the thread removed, until the next one
+  private final ThreadLocal<List<Transaction>> forgedTransactions = new ThreadLocal<>();
 
   private int totalSize;
   private final int maxSize;
@@ -43,6 +58,7 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
 
   public UnconfirmedTransactionStoreImpl(TimeService timeService, PropertyService propertyService, AccountStore accountStore, TransactionDb transactionDb) {
     this.timeService = timeService;
+    this.transactionDb = transactionDb;
 
     this.reservedBalanceCache = new ReservedBalanceCache(accountStore);
 
@@ -54,189 +70,239 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
     this.maxPercentageUnconfirmedTransactionsFullHash = propertyService.getInt(Props.P2P_MAX_PERCENTAGE_UNCONFIRMED_TRANSACTIONS_FULL_HASH_REFERENCE);
     this.numberUnconfirmedTransactionsFullHash = 0;
 
-    internalStore = new TreeMap<>();
-
-      ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    Runnable cleanupExpiredTransactions = () -> {
-      synchronized (internalStore) {
-        final List<Transaction> expiredTransactions = getAll()
-                .stream()
-                .filter(t -> timeService.getEpochTime() > t.getExpiration() || transactionDb.hasTransaction(t.getId()))
-                .collect(Collectors.toList());
+    this.transactionsById = new LongObjectMap<>(maxSize);
+    this.gossipLog = new GossipLog(maxSize);
+    this.expiryWheel = new ExpiryWheel(timeService.getEpochTime(), maxSize);
+
+    // confirmed transactions leave through removeForgedTransactions when their block gets applied and can't come
+    // back through put, so only the ones running out of time are left to clean up here
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    Runnable cleanupExpiredTransactions = () -> write(() -> {
+      final List<Transaction> expiredTransactions = expiryWheel.advanceTo(timeService.getEpochTime());
+      if (!expiredTransactions.isEmpty()) {
+        logger.debug("Removing {} expired transactions", expiredTransactions.size());
         expiredTransactions.forEach(this::removeTransaction);
       }
-    };
+    });
     scheduler.scheduleWithFixedDelay(cleanupExpiredTransactions, 1, 1, TimeUnit.MINUTES);
   }
 
+  private <T> T read(Supplier<T> supplier) {
+    long stamp = poolLock.readLock();
+    try {
+      return supplier.get();
+    } finally {
+      poolLock.unlockRead(stamp);
+    }
+  }
+
+  private void write(Runnable runnable) {
+    long stamp = poolLock.writeLock();
+    try {
+      runnable.run();
+    } finally {
+      poolLock.unlockWrite(stamp);
+    }
+  }
+
   @Override
   public boolean put(Transaction transaction, Peer peer) throws ValidationException {
-    synchronized (internalStore) {
+    if (read(() -> transactionIsCurrentlyInCache(transaction))) {
+      addFingerPrint(transaction, peer);
+      return false;
+    }
+
+    if (!read(() -> transactionCanBeAddedToCache(transaction))) {
+      return false;
+    }
+
+    // answered by the id filter of the transaction table unless the transaction might be confirmed
+    if (transactionDb.hasTransaction(transaction.getId())) {
+      logger.debug("Transaction {}: Not added because it is already confirmed", transaction.getId());
+      return false;
+    }
+
+    // the account lookup behind the reservation only holds the sender's stripe, not the pool
+    long reservationEpoch = this.reservedBalanceCache.reserveBalance(transaction);
+
+    long stamp = poolLock.writeLock();
+    try {
+      // a rebuild of the reservations in between released this one, reserve again outside of the pool lock
+      while (!this.reservedBalanceCache.isCurrent(reservationEpoch)) {
+        poolLock.unlockWrite(stamp);
+        stamp = 0;
+        reservationEpoch = this.reservedBalanceCache.reserveBalance(transaction);
+        stamp = poolLock.writeLock();
+      }
+
+      // the pool may have changed since the checks above
       if (transactionIsCurrentlyInCache(transaction)) {
-        if (peer != null) {
-          logger.info("Transaction {}: Added fingerprint of {}", transaction.getId(), peer.getPeerAddress());
-          fingerPrintsOverview.get(transaction).add(peer);
-        }
-      } else if (transactionCanBeAddedToCache(transaction)) {
-        this.reservedBalanceCache.reserveBalanceAndPut(transaction);
+        this.reservedBalanceCache.refundBalance(transaction);
+        addFingerPrintUnlocked(transaction, peer);
+        return false;
+      }
+      if (!transactionCanBeAddedToCache(transaction)) {
+        this.reservedBalanceCache.refundBalance(transaction);
+        return false;
+      }
 
-        final TransactionDuplicationResult duplicationInformation = transactionDuplicatesChecker.removeCheaperDuplicate(transaction);
+      final TransactionDuplicationResult duplicationInformation = transactionDuplicatesChecker.removeCheaperDuplicate(transaction);
 
-        if (duplicationInformation.isDuplicate()) {
-          final Transaction duplicatedTransaction = duplicationInformation.getTransaction();
+      if (duplicationInformation.isDuplicate()) {
+        final Transaction duplicatedTransaction = duplicationInformation.getTransaction();
 
-          if (duplicatedTransaction != null && duplicatedTransaction != transaction) {
-            logger.info("Transaction {}: Adding more expensive duplicate transaction", transaction.getId());
-            removeTransaction(duplicationInformation.getTransaction());
-            this.reservedBalanceCache.refundBalance(duplicationInformation.getTransaction());
+        if (duplicatedTransaction != null && duplicatedTransaction != transaction) {
+          logger.info("Transaction {}: Adding more expensive duplicate transaction", transaction.getId());
+          removeTransaction(duplicationInformation.getTransaction());
+          this.reservedBalanceCache.refundBalance(duplicationInformation.getTransaction());
 
-            addTransaction(transaction, peer);
+          addTransaction(transaction, peer);
 
-            if (totalSize > maxSize) {
-              removeCheapestFirstToExpireTransaction();
-            }
-          } else {
-            logger.info("Transaction {}: Will not add a cheaper duplicate UT", transaction.getId());
+          if (totalSize > maxSize) {
+            removeCheapestFirstToExpireTransaction();
           }
         } else {
-          addTransaction(transaction, peer);
-          if (totalSize % 128 == 0) {
-            logger.info("Cache size: {}/{} added {} from sender {}", totalSize, maxSize, transaction.getId(), transaction.getSenderId());
-          } else {
-            logger.debug("Cache size: {}/{} added {} from sender {}", totalSize, maxSize, transaction.getId(), transaction.getSenderId());
-          }
+          logger.info("Transaction {}: Will not add a cheaper duplicate UT", transaction.getId());
         }
-
-        if (totalSize > maxSize) {
-          removeCheapestFirstToExpireTransaction();
+      } else {
+        addTransaction(transaction, peer);
+        if (totalSize % 128 == 0) {
+          logger.info("Cache size: {}/{} added {} from sender {}", totalSize, maxSize, transaction.getId(), transaction.getSenderId());
+        } else {
+          logger.debug("Cache size: {}/{} added {} from sender {}", totalSize, maxSize, transaction.getId(), transaction.getSenderId());
         }
+      }
 
-        return true;
+      if (totalSize > maxSize) {
+        removeCheapestFirstToExpireTransaction();
       }
 
-      return false;
+      return true;
+    } finally {
+      if (stamp != 0) {
+        poolLock.unlockWrite(stamp);
+      }
     }
   }
 
   @Override
   public Transaction get(Long transactionId) {
-    synchronized (internalStore) {
-      for (List<Transaction> amountSlot : internalStore.values()) {
-        for (Transaction t : amountSlot) {
-          if (t.getId() == transactionId) {
-            return t;
-          }
-        }
-      }
-      return null;
-    }
+    return read(() -> transactionsById.get(transactionId));
   }
 
   @Override
   public boolean exists(Long transactionId) {
-    synchronized (internalStore) {
-      return get(transactionId) != null;
-    }
+    return read(() -> transactionsById.containsKey(transactionId));
   }
 
   @Override
   public List<Transaction> getAll() {
-    synchronized (internalStore) {
-      final ArrayList<Transaction> flatTransactionList = new ArrayList<>();
-
-      for (List<Transaction> amountSlot : internalStore.values()) {
-        flatTransactionList.addAll(amountSlot);
-      }
-
-      return flatTransactionList;
-    }
+    return read(() -> new ArrayList<>(feePriority));
   }
 
   @Override
   public List<Transaction> getAllFor(Peer peer) {
-    synchronized (internalStore) {
-      final List<Transaction> untouchedTransactions = fingerPrintsOverview.entrySet().stream()
-          .filter(e -> !e.getValue().contains(peer))
-          .map(Map.Entry::getKey).collect(Collectors.toList());
-
-      final ArrayList<Transaction> resultList = new ArrayList<>();
-
-      long roomLeft = this.maxRawUTBytesToSend;
-
-      for (Transaction t : untouchedTransactions) {
-        roomLeft -= t.getSize();
-
-        if (roomLeft > 0) {
-          resultList.add(t);
-        } else {
-          break;
-        }
-      }
-
-      return resultList;
-    }
+    return read(() -> gossipLog.getNewFor(peer, this.maxRawUTBytesToSend));
   }
 
   @Override
   public void remove(Transaction transaction) {
-    synchronized (internalStore) {
-      // Make sure that we are acting on our own copy of the transaction, as this is the one we want to remove.
-      Transaction internalTransaction = get(transaction.getId());
-      if (internalTransaction != null) {
-        logger.debug("Removing {}", transaction.getId());
-        removeTransaction(internalTransaction);
-      }
-    }
+    write(() -> removeById(transaction));
   }
 
   @Override
   public void clear() {
-    synchronized (internalStore) {
+    write(() -> {
       logger.info("Clearing UTStore");
       totalSize = 0;
-      internalStore.clear();
+      numberUnconfirmedTransactionsFullHash = 0;
+      transactionsById.clear();
+      feePriority.clear();
+      amountSlotSizes.clear();
+      gossipLog.clear();
+      expiryWheel.clear();
       reservedBalanceCache.clear();
       transactionDuplicatesChecker.clear();
-    }
+    });
   }
 
   @Override
   public void resetAccountBalances() {
-    synchronized (internalStore) {
-      for(Transaction insufficientFundsTransactions: reservedBalanceCache.rebuild(getAll())) {
+    write(() -> {
+      for(Transaction insufficientFundsTransactions: reservedBalanceCache.rebuild(new ArrayList<>(feePriority))) {
         this.removeTransaction(insufficientFundsTransactions);
       }
-    }
+    });
   }
 
   @Override
   public void markFingerPrintsOf(Peer peer, List<Transaction> transactions) {
-    synchronized (internalStore) {
-      for (Transaction transaction : transactions) {
-        if (fingerPrintsOverview.containsKey(transaction)) {
-          fingerPrintsOverview.get(transaction).add(peer);
-        }
-      }
+    if (peer != null) {
+      write(() -> gossipLog.markSynced(peer, transactions));
     }
   }
 
   @Override
   public void removeForgedTransactions(List<Transaction> transactions) {
-    synchronized (internalStore) {
+    final List<Transaction> removed = new ArrayList<>();
+    write(() -> {
       for (Transaction t : transactions) {
-        remove(t);
+        Transaction internalTransaction = transactionsById.get(t.getId());
+        if (internalTransaction != null) {
+          removeById(t);
+          removed.add(internalTransaction);
+        }
+      }
+    });
+    forgedTransactions.set(removed);
+  }
+
+  @Override
+  public void restoreForgedTransactions() {
+    final List<Transaction> removed = forgedTransactions.get();
+    forgedTransactions.remove();
+    if (removed == null) {
+      return;
+    }
+    for (Transaction transaction : removed) {
+      try {
+        put(transaction, null);
+      } catch (ValidationException e) {
+        logger.debug("Transaction {}: Not restored: {}", transaction.getId(), e.getMessage());
       }
     }
   }
 
   @Override
   public int getAmount() {
-    return totalSize;
+    return StampedLockUtils.stampedLockRead(poolLock, () -> totalSize);
+  }
+
+  private void addFingerPrint(Transaction transaction, Peer peer) {
+    if (peer != null) {
+      write(() -> addFingerPrintUnlocked(transaction, peer));
+    }
+  }
+
+  private void addFingerPrintUnlocked(Transaction transaction, Peer peer) {
+    final Transaction internalTransaction = transactionsById.get(transaction.getId());
+    if (peer != null && internalTransaction != null) {
+      logger.info("Transaction {}: Added fingerprint of {}", transaction.getId(), peer.getPeerAddress());
+      gossipLog.markKnown(peer, internalTransaction);
+    }
+  }
+
+  private void removeById(Transaction transaction) {
+    // Make sure that we are acting on our own copy of the transaction, as this is the one we want to remove.
+    Transaction internalTransaction = transactionsById.get(transaction.getId());
+    if (internalTransaction != null) {
+      logger.debug("Removing {}", transaction.getId());
+      removeTransaction(internalTransaction);
+    }
   }
 
   private boolean transactionIsCurrentlyInCache(Transaction transaction) {
-    final List<Transaction> amountSlot = internalStore.get(amountSlotForTransaction(transaction));
-    return amountSlot != null && amountSlot.stream().anyMatch(t -> t.getId() == transaction.getId());
+    return transactionsById.containsKey(transaction.getId());
   }
 
   private boolean transactionCanBeAddedToCache(Transaction transaction) {
@@ -249,7 +315,7 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
   private boolean tooManyTransactionsForSlotSize(Transaction transaction) {
     final long slotHeight = this.amountSlotForTransaction(transaction);
 
-    if (this.internalStore.containsKey(slotHeight) && this.internalStore.get(slotHeight).size() == slotHeight * 360) {
+    if (this.amountSlotSizes.getOrDefault(slotHeight, 0) == slotHeight * 360) {
       logger.info("Transaction {}: Not added because slot {} is full", transaction.getId(), slotHeight);
       return true;
     }
@@ -267,7 +333,7 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
   }
 
   private boolean cacheFullAndTransactionCheaperThanAllTheRest(Transaction transaction) {
-    if (totalSize == maxSize && internalStore.firstKey() > amountSlotForTransaction(transaction)) {
+    if (totalSize == maxSize && amountSlotSizes.firstKey() > amountSlotForTransaction(transaction)) {
       logger.info("Transaction {}: Not added because cache is full and transaction is cheaper than all the rest", transaction.getId());
       return true;
     }
@@ -285,15 +351,13 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
   }
 
   private void addTransaction(Transaction transaction, Peer peer) {
-    final List<Transaction> slot = getOrCreateAmountSlotForTransaction(transaction);
-    slot.add(transaction);
+    transactionsById.put(transaction.getId(), transaction);
+    feePriority.add(transaction);
+    amountSlotSizes.merge(amountSlotForTransaction(transaction), 1, Integer::sum);
     totalSize++;
 
-    fingerPrintsOverview.put(transaction, new HashSet<>());
-
-    if (peer != null) {
-      fingerPrintsOverview.get(transaction).add(peer);
-    }
+    gossipLog.add(transaction, peer);
+    expiryWheel.add(transaction);
 
     if (logger.isDebugEnabled()) {
       if (peer == null) {
@@ -308,50 +372,35 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
     }
   }
 
-  private List<Transaction> getOrCreateAmountSlotForTransaction(Transaction transaction) {
-    final long amountSlotNumber = amountSlotForTransaction(transaction);
-
-    if (!this.internalStore.containsKey(amountSlotNumber)) {
-      this.internalStore.put(amountSlotNumber, new ArrayList<>());
-    }
-
-    return this.internalStore.get(amountSlotNumber);
-  }
-
-
   private long amountSlotForTransaction(Transaction transaction) {
     return transaction.getFeeNQT() / Constants.FEE_QUANT;
   }
 
   private void removeCheapestFirstToExpireTransaction() {
-    final Optional<Transaction> cheapestFirstToExpireTransaction = this.internalStore.get(this.internalStore.firstKey()).stream()
-        .sorted(Comparator.comparingLong(Transaction::getFeeNQT).thenComparing(Transaction::getExpiration).thenComparing(Transaction::getId))
-        .findFirst();
+    final Transaction cheapestFirstToExpireTransaction = feePriority.isEmpty() ? null : feePriority.first();
 
-    if (cheapestFirstToExpireTransaction.isPresent()) {
-      reservedBalanceCache.refundBalance(cheapestFirstToExpireTransaction.get());
-      removeTransaction(cheapestFirstToExpireTransaction.get());
+    if (cheapestFirstToExpireTransaction != null) {
+      reservedBalanceCache.refundBalance(cheapestFirstToExpireTransaction);
+      removeTransaction(cheapestFirstToExpireTransaction);
     }
   }
 
-  private void removeTransaction(Transaction transaction) {
+  private void removeTransaction(Transaction candidate) {
+    if (candidate == null) return;
+    final Transaction transaction = transactionsById.remove(candidate.getId());
     if (transaction == null) return;
-    final long amountSlotNumber = amountSlotForTransaction(transaction);
 
-    final List<Transaction> amountSlot = internalStore.get(amountSlotNumber);
+    feePriority.remove(transaction);
+    amountSlotSizes.computeIfPresent(amountSlotForTransaction(transaction), (slot, size) -> size > 1 ? size - 1 : null);
 
-    fingerPrintsOverview.remove(transaction);
-    amountSlot.remove(transaction);
+    gossipLog.remove(transaction);
+    expiryWheel.remove(transaction);
     totalSize--;
     transactionDuplicatesChecker.removeTransaction(transaction);
 
     if (!StringUtils.isEmpty(transaction.getReferencedTransactionFullHash())) {
       numberUnconfirmedTransactionsFullHash--;
     }
-
-    if (amountSlot.isEmpty()) {
-      this.internalStore.remove(amountSlotNumber);
-    }
   }
 
 }
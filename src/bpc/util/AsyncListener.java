@@ -0,0 +1,109 @@
+package brs.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands events to a listener on its own thread through a bounded queue, so a slow listener doesn't hold up the thread
+ * that notifies it. Only meant for listeners nothing else waits on, like statistics and reporting, since events reach
+ * them later and may be dropped when the queue is full.
+ */
+public final class AsyncListener<T> implements Listener<T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncListener.class);
+
+  public enum Overflow {
+    /** The new event is dropped when the queue is full. */
+    DROP_NEWEST,
+    /** The oldest queued event makes room for the new one. */
+    DROP_OLDEST,
+    /** Only the latest event is kept, for listeners that just need to know something changed. */
+    COALESCE
+  }
+
+  private final String name;
+  private final Listener<T> listener;
+  private final Overflow overflow;
+  private final BlockingQueue<T> queue;
+  private final Thread thread;
+
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile int maxQueueDepth;
+
+  public AsyncListener(String name, Listener<T> listener, int capacity, Overflow overflow) {
+    this.name = name;
+    this.listener = listener;
+    this.overflow = overflow;
+    this.queue = new LinkedBlockingQueue<>(overflow == Overflow.COALESCE ? 1 : capacity);
+    this.thread = new Thread(this::dispatch, name + " listener");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  @Override
+  public void notify(T t) {
+    switch (overflow) {
+      case DROP_NEWEST:
+        if (!queue.offer(t)) {
+          dropped();
+        }
+        break;
+      case DROP_OLDEST:
+      case COALESCE:
+        while (!queue.offer(t)) {
+          if (queue.poll() != null) {
+            dropped();
+          }
+        }
+        break;
+    }
+    int depth = queue.size();
+    if (depth > maxQueueDepth) {
+      maxQueueDepth = depth;
+    }
+  }
+
+  private void dropped() {
+    long total = dropped.incrementAndGet();
+    if (overflow != Overflow.COALESCE && (total & (total - 1)) == 0) {
+      logger.warn("{} listener is falling behind, dropped {} events so far", name, total);
+    }
+  }
+
+  private void dispatch() {
+    while (!Thread.currentThread().isInterrupted()) {
+      T t;
+      try {
+        t = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      try {
+        listener.notify(t);
+      } catch (RuntimeException e) {
+        logger.warn("{} listener failed", name, e);
+      }
+    }
+  }
+
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  public void shutdown() {
+    thread.interrupt();
+  }
+}
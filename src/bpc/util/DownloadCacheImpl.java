@@ -211,6 +211,27 @@ public final class DownloadCacheImpl {
     }
   }
 
+  /**
+   * Takes up to max blocks off the front of the unverified queue, in chain order
+   */
+  public List<Block> pollUnverifiedBlocks(int max) {
+    long stamp = dcsl.writeLock();
+    try {
+      List<Block> blocks = new ArrayList<>(Math.min(max, unverified.size()));
+      Iterator<Long> it = unverified.iterator();
+      while (it.hasNext() && blocks.size() < max) {
+        Block block = blockCache.get(it.next());
+        it.remove();
+        if (block != null) {
+          blocks.add(block);
+        }
+      }
+      return blocks;
+    } finally {
+      dcsl.unlockWrite(stamp);
+    }
+  }
+
   public void removeUnverified(long blockId) {
     long stamp = dcsl.writeLock();
     try {
@@ -1,6 +1,7 @@
 package brs.util;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -17,6 +18,8 @@ public final class JSON {
 
     public static final JsonElement emptyJSON = new JsonObject();
 
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
     public static JsonElement prepareRequest(final JsonObject json) {
         json.addProperty(PROTOCOL, "B1");
         return json;
@@ -45,8 +48,14 @@ public final class JSON {
     }
 
     public static void writeTo(JsonElement jsonElement, Writer writer) throws IOException {
-        writer.write(toJsonString(jsonElement));
-        writer.flush();
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        writeTo(jsonElement, jsonWriter);
+        jsonWriter.flush();
+    }
+
+    public static void writeTo(JsonElement jsonElement, JsonWriter writer) throws IOException {
+        JSON_ELEMENT_ADAPTER.write(writer, jsonElement != null ? jsonElement : JsonNull.INSTANCE);
     }
 
     public static String toJsonString(JsonElement jsonElement) {
@@ -0,0 +1,61 @@
+package brs.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over primitive longs, sized for about one false positive in a hundred at the expected number of
+ * entries. Entries can't be removed, a filter that is filled past its expected size only answers "maybe" more often.
+ * Thread safe, adding and testing don't lock.
+ */
+public class LongBloomFilter {
+
+  private static final int BITS_PER_ENTRY = 10;
+  private static final int HASHES = 7;
+
+  private final AtomicLongArray words;
+  private final long mask;
+
+  public LongBloomFilter(int expectedEntries) {
+    long bits = 64;
+    while (bits < (long) expectedEntries * BITS_PER_ENTRY && bits < (1L << 36)) {
+      bits <<= 1;
+    }
+    this.words = new AtomicLongArray((int) (bits >>> 6));
+    this.mask = bits - 1;
+  }
+
+  public void add(long key) {
+    long hash1 = mix(key);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      long bit = (hash1 + i * hash2) & mask;
+      int word = (int) (bit >>> 6);
+      long flag = 1L << bit;
+      long current = words.get(word);
+      while ((current & flag) == 0 && !words.compareAndSet(word, current, current | flag)) {
+        current = words.get(word);
+      }
+    }
+  }
+
+  /**
+   * @return false if the key was never added, true if it probably was
+   */
+  public boolean mightContain(long key) {
+    long hash1 = mix(key);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      long bit = (hash1 + i * hash2) & mask;
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long mix(long key) {
+    long hash = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+}
@@ -0,0 +1,161 @@
+package brs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map keyed by primitive longs, so lookups by id don't box the key or allocate entries.
+ * Null values are not supported. Not thread safe, callers have to guard it themselves.
+ */
+public class LongObjectMap<V> {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  private final OpenAddressing.Buckets buckets = new OpenAddressing.Buckets() {
+    @Override
+    public boolean occupied(int bucket) {
+      return values[bucket] != null;
+    }
+
+    @Override
+    public long keyAt(int bucket) {
+      return keys[bucket];
+    }
+
+    @Override
+    public void move(int from, int to) {
+      keys[to] = keys[from];
+      values[to] = values[from];
+    }
+
+    @Override
+    public void free(int bucket) {
+      keys[bucket] = 0;
+      values[bucket] = null;
+    }
+  };
+
+  public LongObjectMap() {
+    this(MIN_CAPACITY);
+  }
+
+  public LongObjectMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    resizeThreshold = capacity / 2;
+  }
+
+  private int slot(long key) {
+    return OpenAddressing.home(key, mask);
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return (V) values[i];
+      }
+    }
+    return null;
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null values are not supported");
+    }
+    int i = slot(key);
+    for (; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        V previous = (V) values[i];
+        values[i] = value;
+        return previous;
+      }
+    }
+    keys[i] = key;
+    values[i] = value;
+    if (++size > resizeThreshold) {
+      rehash(keys.length << 1);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        V previous = (V) values[i];
+        OpenAddressing.closeGap(buckets, i, mask);
+        size--;
+        return previous;
+      }
+    }
+    return null;
+  }
+
+  private void rehash(int capacity) {
+    final long[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int j = slot(oldKeys[i]);
+        while (values[j] != null) {
+          j = (j + 1) & mask;
+        }
+        keys[j] = oldKeys[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0L);
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<? super V> consumer) {
+    for (Object value : values) {
+      if (value != null) {
+        consumer.accept((V) value);
+      }
+    }
+  }
+
+  public List<V> values() {
+    final List<V> result = new ArrayList<>(size);
+    forEachValue(result::add);
+    return result;
+  }
+}
@@ -5,6 +5,7 @@ import brs.fluxcapacitor.FluxCapacitor;
 import brs.fluxcapacitor.FluxValues;
 
 import java.nio.ByteBuffer;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.util.Arrays;
 
@@ -17,31 +18,30 @@ public class MiningPlot {
 
   private static final int HASH_CAP = 4096;
 
+  private static final ThreadLocal<PlotHasher> hashers = ThreadLocal.withInitial(PlotHasher::new);
+
   private final byte[] data = new byte[PLOT_SIZE];
+  private final byte[] hashBuffer = new byte[HASH_SIZE];
+  private final PlotHasher hasher = new PlotHasher();
 
-    public MiningPlot(long addr, long nonce, int blockHeight, FluxCapacitor fluxCapacitor) {
-      ByteBuffer baseBuffer = ByteBuffer.allocate(16);
-    baseBuffer.putLong(addr);
-    baseBuffer.putLong(nonce);
-    byte[] base = baseBuffer.array();
-    MessageDigest shabal256 = Crypto.shabal256();
-    byte[] gendata = new byte[PLOT_SIZE + base.length];
-    System.arraycopy(base, 0, gendata, PLOT_SIZE, base.length);
-    for (int i = PLOT_SIZE; i > 0; i -= HASH_SIZE) {
-      int len = PLOT_SIZE + base.length - i;
-      if (len > HASH_CAP) {
-        len = HASH_CAP;
-      }
-      shabal256.update(gendata, i, len);
-      System.arraycopy(shabal256.digest(), 0, gendata, i - HASH_SIZE, HASH_SIZE);
-    }
-    byte[] finalhash = shabal256.digest(gendata);
+  /**
+   * Empty plot to {@link #generate} into, lets a worker reuse the same 512 KiB of buffers for every nonce it checks.
+   */
+  public MiningPlot() {
+  }
+
+  public MiningPlot(long addr, long nonce, int blockHeight, FluxCapacitor fluxCapacitor) {
+    generate(addr, nonce, blockHeight, fluxCapacitor);
+  }
+
+  public void generate(long addr, long nonce, int blockHeight, FluxCapacitor fluxCapacitor) {
+    byte[] gendata = hasher.gendata;
+    byte[] finalhash = hasher.hash(addr, nonce);
     for (int i = 0; i < PLOT_SIZE; i++) {
       data[i] = (byte) (gendata[i] ^ finalhash[i % HASH_SIZE]);
     }
     //PoC2 Rearrangement
     if (fluxCapacitor.getValue(FluxValues.POC2, blockHeight)) {
-      byte[] hashBuffer = new byte[HASH_SIZE];
       int revPos = PLOT_SIZE - HASH_SIZE; //Start at second hash in last scoop
       for (int pos = 32; pos < (PLOT_SIZE / 2); pos += 64) { //Start at second hash in first scoop
         System.arraycopy(data, pos, hashBuffer, 0, HASH_SIZE); //Copy low scoop second hash to buffer
@@ -59,4 +59,62 @@ public class MiningPlot {
   public void hashScoop(MessageDigest shabal256, int pos) {
     shabal256.update(data, pos * SCOOP_SIZE, SCOOP_SIZE);
   }
+
+  public static byte[] generateScoop(long addr, long nonce, int scoop, int blockHeight, FluxCapacitor fluxCapacitor) {
+    byte[] scoopData = new byte[SCOOP_SIZE];
+    generateScoop(addr, nonce, scoop, blockHeight, fluxCapacitor, scoopData);
+    return scoopData;
+  }
+
+  /**
+   * Generates just the one scoop a deadline is based on, without laying out a plot. The whole nonce still has to be
+   * hashed, but that happens in buffers held by the calling thread, so checking a nonce doesn't produce any garbage.
+   */
+  public static void generateScoop(long addr, long nonce, int scoop, int blockHeight, FluxCapacitor fluxCapacitor, byte[] scoopData) {
+    PlotHasher plotHasher = hashers.get();
+    byte[] gendata = plotHasher.gendata;
+    byte[] finalhash = plotHasher.hash(addr, nonce);
+
+    int firstHash = scoop * SCOOP_SIZE;
+    int secondHash = fluxCapacitor.getValue(FluxValues.POC2, blockHeight)
+        ? (SCOOPS_PER_PLOT - 1 - scoop) * SCOOP_SIZE + HASH_SIZE // PoC2 takes the second hash from the mirrored scoop
+        : firstHash + HASH_SIZE;
+    for (int i = 0; i < HASH_SIZE; i++) {
+      scoopData[i] = (byte) (gendata[firstHash + i] ^ finalhash[i]);
+      scoopData[HASH_SIZE + i] = (byte) (gendata[secondHash + i] ^ finalhash[i]);
+    }
+  }
+
+  private static final class PlotHasher {
+    private final byte[] gendata = new byte[PLOT_SIZE + 16];
+    private final ByteBuffer base = ByteBuffer.wrap(gendata, PLOT_SIZE, 16).slice();
+    private final byte[] finalhash = new byte[HASH_SIZE];
+    private final MessageDigest shabal256 = Crypto.shabal256();
+
+    /**
+     * Fills gendata with the hash chain of the nonce
+     * @return The hash over all of gendata, the plot is gendata xor this
+     */
+    private byte[] hash(long addr, long nonce) {
+      base.clear();
+      base.putLong(addr);
+      base.putLong(nonce);
+      shabal256.reset();
+      try {
+        for (int i = PLOT_SIZE; i > 0; i -= HASH_SIZE) {
+          int len = PLOT_SIZE + 16 - i;
+          if (len > HASH_CAP) {
+            len = HASH_CAP;
+          }
+          shabal256.update(gendata, i, len);
+          shabal256.digest(gendata, i - HASH_SIZE, HASH_SIZE);
+        }
+        shabal256.update(gendata);
+        shabal256.digest(finalhash, 0, HASH_SIZE);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      return finalhash;
+    }
+  }
 }
@@ -0,0 +1,51 @@
+package brs.util;
+
+/**
+ * Linear probing over a power of two number of buckets keyed by longs, shared by the open addressing tables so they
+ * all place and remove keys the same way.
+ */
+public final class OpenAddressing {
+
+  private OpenAddressing() {
+  }
+
+  /**
+   * The buckets of a table, as far as removing keys goes.
+   */
+  public interface Buckets {
+    boolean occupied(int bucket);
+
+    long keyAt(int bucket);
+
+    void move(int from, int to);
+
+    void free(int bucket);
+  }
+
+  /**
+   * The bucket the probe sequence of the key starts at.
+   */
+  public static int home(long key, int mask) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  /**
+   * Empties the bucket with backward shift deletion, which keeps probe sequences intact without tombstones.
+   */
+  public static void closeGap(Buckets buckets, int gap, int mask) {
+    int bucket = gap;
+    while (true) {
+      bucket = (bucket + 1) & mask;
+      if (!buckets.occupied(bucket)) {
+        break;
+      }
+      int home = home(buckets.keyAt(bucket), mask);
+      if (((bucket - home) & mask) >= ((bucket - gap) & mask)) {
+        buckets.move(bucket, gap);
+        gap = bucket;
+      }
+    }
+    buckets.free(gap);
+  }
+}
@@ -0,0 +1,73 @@
+package brs;
+
+import brs.db.BlockDb;
+import brs.db.TransactionDb;
+import brs.db.store.BlockchainStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class BlockchainImplTest {
+
+  private BlockchainStore mockBlockchainStore;
+  private BlockchainImpl t;
+  private final List<Block> blocks = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    mockBlockchainStore = mock(BlockchainStore.class);
+    t = new BlockchainImpl(mock(TransactionDb.class), mock(BlockDb.class), mockBlockchainStore, 10);
+    for (int height = 0; height <= 5; height++) {
+      Block block = mock(Block.class);
+      when(block.getHeight()).thenReturn(height);
+      when(block.getId()).thenReturn(100L + height);
+      when(block.getPreviousBlockId()).thenReturn(height > 0 ? 100L + height - 1 : 0L);
+      when(block.getTransactions()).thenReturn(Collections.emptyList());
+      blocks.add(block);
+      t.setLastBlock(block);
+    }
+  }
+
+  @Test
+  public void blocksAfterIncludeBlocksWaitingForTheirCommit() {
+    // the database has the blocks up to height 3
+    when(mockBlockchainStore.getBlocksAfter(102L, 100)).thenReturn(Collections.singletonList(blocks.get(3)));
+    when(mockBlockchainStore.getBlocksAfter(103L, 100)).thenReturn(Collections.emptyList());
+
+    assertEquals(Arrays.asList(blocks.get(3), blocks.get(4), blocks.get(5)), t.getBlocksAfter(102L, 100));
+    assertEquals(Arrays.asList(blocks.get(4), blocks.get(5)), t.getBlocksAfter(103L, 100));
+    assertEquals(Collections.singletonList(blocks.get(3)), new ArrayList<>(t.getBlocksAfter(102L, 1)));
+  }
+
+  @Test
+  public void blockIdsAfterIncludeBlocksWaitingForTheirCommit() {
+    when(mockBlockchainStore.getBlockIdsAfter(102L, 100)).thenReturn(Collections.singletonList(103L));
+
+    assertEquals(Arrays.asList(103L, 104L, 105L), t.getBlockIdsAfter(102L, 100));
+  }
+
+  @Test
+  public void blocksOfUnknownBlockStayEmpty() {
+    when(mockBlockchainStore.getBlocksAfter(999L, 100)).thenReturn(Collections.emptyList());
+
+    assertEquals(Collections.emptyList(), t.getBlocksAfter(999L, 100));
+  }
+
+  @Test
+  public void blocksByIndexIncludeBlocksWaitingForTheirCommit() {
+    when(mockBlockchainStore.getBlocks(0, 3)).thenReturn(Arrays.asList(blocks.get(3), blocks.get(2)));
+
+    assertEquals(Arrays.asList(blocks.get(5), blocks.get(4), blocks.get(3), blocks.get(2)), t.getBlocks(0, 3));
+  }
+}
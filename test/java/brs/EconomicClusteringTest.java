@@ -0,0 +1,56 @@
+package brs;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@RunWith(JUnit4.class)
+public class EconomicClusteringTest {
+
+  private static final int HEIGHT = 1000;
+
+  private final int[] timestamps = new int[HEIGHT + 1];
+  private EconomicClustering economicClustering;
+
+  @Before
+  public void setUp() {
+    Block[] blocks = new Block[HEIGHT + 1];
+    for (int height = 0; height <= HEIGHT; height++) {
+      timestamps[height] = height * 240 + (height % 7) * 30;
+      blocks[height] = mock(Block.class);
+      doReturn(height).when(blocks[height]).getHeight();
+      doReturn(timestamps[height]).when(blocks[height]).getTimestamp();
+    }
+
+    Blockchain blockchain = mock(Blockchain.class);
+    doReturn(blocks[HEIGHT]).when(blockchain).getLastBlock();
+    doAnswer(invocation -> timestamps[(int) invocation.getArgument(0)]).when(blockchain).getBlockTimestampAtHeight(anyInt());
+    doAnswer(invocation -> blocks[(int) invocation.getArgument(0)]).when(blockchain).getBlockAtHeight(anyInt());
+
+    economicClustering = new EconomicClustering(blockchain);
+  }
+
+  @Test
+  public void ecBlockMatchesWalkingBack() {
+    for (int timestamp = timestamps[HEIGHT] - 15; timestamp < timestamps[HEIGHT] + 30000; timestamp += 97) {
+      assertEquals("timestamp " + timestamp, walkBack(timestamp), economicClustering.getECBlock(timestamp).getHeight());
+    }
+  }
+
+  private int walkBack(int timestamp) {
+    int height = HEIGHT;
+    int distance = 0;
+    while (timestamps[height] > timestamp - Constants.EC_RULE_TERMINATOR && distance < Constants.EC_BLOCK_DISTANCE_LIMIT) {
+      height--;
+      distance++;
+    }
+    return height;
+  }
+}
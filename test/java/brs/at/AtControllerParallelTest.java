@@ -0,0 +1,65 @@
+package brs.at;
+
+import brs.Account;
+import brs.BPC;
+import brs.props.Props;
+import brs.util.Convert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Same blocks as {@link AtControllerTest}, with the ATs run in parallel.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({BPC.class, Account.class})
+public class AtControllerParallelTest {
+    @Before
+    public void setUp() {
+        AtTestHelper.setupMocks();
+        when(BPC.getPropertyService().getInt(Props.AT_PARALLEL_THREADS)).thenReturn(4);
+    }
+
+    @Test
+    public void testRunSteps() {
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AtTestHelper.addEchoAT();
+        AtTestHelper.addTipThanksAT();
+        assertEquals(3, AT.getOrderedATs().size());
+        AtBlock atBlock = AtController.getCurrentBlockATs(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertNotNull(atBlock);
+        assertNotNull(atBlock.getBytesForBlock());
+        assertEquals("010000000000000097c1d1e5b25c1d109f2ba522d1dda248020000000000000014ea12712c274caebc49ccd7fff0b0b703000000000000009f1af5443c8d1e7b492f848e91fccb1f", Convert.toHexString(atBlock.getBytesForBlock()));
+    }
+
+    @Test
+    public void testRunStepsWithLimitedPayload() {
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AtTestHelper.addEchoAT();
+        AtTestHelper.addTipThanksAT();
+        AtBlock atBlock = AtController.getCurrentBlockATs(2 * (AtConstants.AT_ID_SIZE + 16), Integer.MAX_VALUE);
+        assertNotNull(atBlock);
+        assertEquals("010000000000000097c1d1e5b25c1d109f2ba522d1dda248020000000000000014ea12712c274caebc49ccd7fff0b0b7", Convert.toHexString(atBlock.getBytesForBlock()));
+    }
+
+    @Test
+    public void testValidateAts() throws AtException {
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AtTestHelper.addEchoAT();
+        AtTestHelper.addTipThanksAT();
+        assertEquals(3, AT.getOrderedATs().size());
+        AtBlock atBlock = AtController.validateATs(Convert.parseHexString("010000000000000097c1d1e5b25c1d109f2ba522d1dda248020000000000000014ea12712c274caebc49ccd7fff0b0b703000000000000009f1af5443c8d1e7b492f848e91fccb1f"), Integer.MAX_VALUE);
+        assertNotNull(atBlock);
+        assertEquals(0, atBlock.getTotalAmount());
+        assertEquals(5439000, atBlock.getTotalFees());
+    }
+}
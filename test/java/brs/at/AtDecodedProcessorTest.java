@@ -0,0 +1,296 @@
+package brs.at;
+
+import brs.Account;
+import brs.BPC;
+import brs.util.Convert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the same machines with {@link AtMachineProcessor} on their code buffer, with {@link AtMachineProcessor} on their
+ * decoded code and with {@link AtDecodedProcessor}, and expects the same results down to the last byte.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({BPC.class, Account.class})
+public class AtDecodedProcessorTest {
+
+    private static final byte[] OPS = {
+            OpCode.E_OP_CODE_NOP, OpCode.E_OP_CODE_SET_VAL, OpCode.E_OP_CODE_SET_DAT, OpCode.E_OP_CODE_CLR_DAT,
+            OpCode.E_OP_CODE_INC_DAT, OpCode.E_OP_CODE_DEC_DAT, OpCode.E_OP_CODE_ADD_DAT, OpCode.E_OP_CODE_SUB_DAT,
+            OpCode.E_OP_CODE_MUL_DAT, OpCode.E_OP_CODE_DIV_DAT, OpCode.E_OP_CODE_BOR_DAT, OpCode.E_OP_CODE_AND_DAT,
+            OpCode.E_OP_CODE_XOR_DAT, OpCode.E_OP_CODE_NOT_DAT, OpCode.E_OP_CODE_SET_IND, OpCode.E_OP_CODE_SET_IDX,
+            OpCode.E_OP_CODE_PSH_DAT, OpCode.E_OP_CODE_POP_DAT, OpCode.E_OP_CODE_JMP_SUB, OpCode.E_OP_CODE_RET_SUB,
+            OpCode.E_OP_CODE_IND_DAT, OpCode.E_OP_CODE_IDX_DAT, OpCode.E_OP_CODE_MOD_DAT, OpCode.E_OP_CODE_SHL_DAT,
+            OpCode.E_OP_CODE_SHR_DAT, OpCode.E_OP_CODE_JMP_ADR, OpCode.E_OP_CODE_BZR_DAT, OpCode.E_OP_CODE_BNZ_DAT,
+            OpCode.E_OP_CODE_BGT_DAT, OpCode.E_OP_CODE_BLT_DAT, OpCode.E_OP_CODE_BGE_DAT, OpCode.E_OP_CODE_BLE_DAT,
+            OpCode.E_OP_CODE_BEQ_DAT, OpCode.E_OP_CODE_BNE_DAT, OpCode.E_OP_CODE_SLP_DAT, OpCode.E_OP_CODE_FIZ_DAT,
+            OpCode.E_OP_CODE_STZ_DAT, OpCode.E_OP_CODE_FIN_IMD, OpCode.E_OP_CODE_STP_IMD, OpCode.E_OP_CODE_SLP_IMD,
+            OpCode.E_OP_CODE_ERR_ADR, OpCode.E_OP_CODE_SET_PCS, OpCode.E_OP_CODE_EXT_FUN, OpCode.E_OP_CODE_EXT_FUN_DAT,
+            OpCode.E_OP_CODE_EXT_FUN_DAT_2, OpCode.E_OP_CODE_EXT_FUN_RET, OpCode.E_OP_CODE_EXT_FUN_RET_DAT,
+            OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2
+    };
+
+    // API functions that only work on the A and B registers, so no chain is needed
+    private static final short[] FUNCTIONS = {256, 257, 258, 259, 260, 261, 262, 263, 272, 273, 274, 275, 276, 277,
+            278, 279, 280, 281, 282, 283, 288, 289, 290, 291, 292, 293, 294, 295, 296, 297, 298, 299};
+
+    private Random random;
+    private boolean withSetIdx;
+
+    @Before
+    public void setUp() {
+        AtTestHelper.setupMocks();
+    }
+
+    @Test
+    public void examplesRunTheSame() {
+        assertSameRun(AtTestHelper.HELLO_WORLD_CREATION_BYTES, 0, 0);
+        assertSameRun(AtTestHelper.ECHO_CREATION_BYTES, 0, 0);
+        assertSameRun(AtTestHelper.TIP_THANKS_CREATION_BYTES, 0, 0);
+    }
+
+    @Test
+    public void randomProgramsRunTheSame() {
+        int decoded = 0;
+        for (int seed = 0; seed < 2000; seed++) {
+            random = new Random(seed);
+            // disassembling SET_IDX depends on the data, code reaching it is run from the code buffer
+            withSetIdx = random.nextInt(4) == 0;
+            int codePages = 1 + random.nextInt(2);
+            if (assertSameRun(AtTestHelper.getCreationBytes(codePages, program(codePages * 256)), seed, 0) != null) {
+                decoded++;
+            }
+        }
+        assertTrue("decoded programs: " + decoded, decoded > 1500);
+    }
+
+    @Test
+    public void furtherAddressPastTheCodeRunsTheSame() {
+        byte[] ops = {OpCode.E_OP_CODE_IDX_DAT, OpCode.E_OP_CODE_SET_IDX, OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2};
+        int decoded = 0;
+        int faults = 0;
+        for (byte op : ops) {
+            for (int tail = 1; tail <= length(op) + 4; tail++) {
+                byte[] program = tailProgram(op, tail);
+                int pc = program.length - tail;
+                // reached by disassembling the code, which then only decodes if the instruction fits
+                if (assertSameRun(AtTestHelper.getCreationBytes(1, program), tail, 0) != null) {
+                    decoded++;
+                }
+                // disassembling stops at the unknown op code first, the machine is started at the instruction
+                program[0] = 0;
+                String expected = assertSameRun(AtTestHelper.getCreationBytes(1, program), tail, pc);
+                assertNotNull(expected);
+                if (expected.startsWith(IndexOutOfBoundsException.class.getName())) {
+                    faults++;
+                }
+            }
+        }
+        assertTrue("decoded programs: " + decoded, decoded > 0);
+        assertTrue("programs faulting on the further address: " + faults, faults > 0);
+    }
+
+    /**
+     * No operations up to the instruction, which is cut off by the end of the code unless the tail is long enough.
+     */
+    private static byte[] tailProgram(byte op, int tail) {
+        byte[] program = new byte[256];
+        Arrays.fill(program, OpCode.E_OP_CODE_NOP);
+        ByteBuffer code = ByteBuffer.wrap(program);
+        code.order(ByteOrder.LITTLE_ENDIAN);
+        code.position(program.length - tail);
+        code.put(op);
+        if (op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2 && code.remaining() >= 2) {
+            code.putShort(FUNCTIONS[0]);
+        }
+        for (int addr = 1; code.remaining() >= 4; addr++) {
+            code.putInt(addr);
+        }
+        return program;
+    }
+
+    /**
+     * Runs the machine from the given pc with each interpreter, returning the result of the run, or null if its code
+     * can't be decoded and every node runs it from the code buffer.
+     */
+    private String assertSameRun(byte[] creationBytes, long dataSeed, int pc) {
+        AtMachineState original = newState(creationBytes, dataSeed);
+        AtMachineState predecoded = newState(creationBytes, dataSeed);
+        AtMachineState decoded = newState(creationBytes, dataSeed);
+        AtCode code = AtCode.decode(decoded.getApCodeBytes(), decoded.getcSize(), decoded.getdSize());
+        if (code == null) {
+            return null;
+        }
+        AtInterpreter decodedProcessor = AtDecodedProcessor.of(decoded, code);
+        assertNotNull(decodedProcessor);
+
+        AtController.resetMachine(original);
+        original.getMachineState().pc = pc;
+        predecoded.getMachineState().pc = pc;
+        decoded.getMachineState().pc = pc;
+        String expected = run(original, new AtMachineProcessor(original, false));
+        // as AtController prepares it, the jumps come from the decoded code instead of disassembling it
+        assertEquals(Convert.toHexString(creationBytes), expected, run(predecoded, new AtMachineProcessor(predecoded, false, code)));
+        assertEquals(Convert.toHexString(creationBytes), expected, run(decoded, decodedProcessor));
+        return expected;
+    }
+
+    private static AtMachineState newState(byte[] creationBytes, long dataSeed) {
+        AtMachineState state = new AtMachineState(new byte[AtConstants.AT_ID_SIZE], new byte[AtConstants.AT_ID_SIZE], creationBytes, Integer.MAX_VALUE);
+        Random data = new Random(dataSeed);
+        for (int i = 0; i + 8 <= state.getdSize(); i += 8) {
+            state.getApData().putLong(i, data.nextInt(8) == 0 ? data.nextLong() : data.nextInt(40) - 8);
+        }
+        state.setgBalance(Long.MAX_VALUE / 2);
+        return state;
+    }
+
+    private static String run(AtMachineState state, AtInterpreter interpreter) {
+        String result;
+        try {
+            result = String.valueOf(AtController.runSteps(state, interpreter));
+        } catch (RuntimeException e) {
+            result = e.getClass().getName();
+        }
+        AtMachineState.MachineState machineState = state.getMachineState();
+        return result + " pc=" + machineState.pc + " pcs=" + machineState.pcs + " cs=" + machineState.cs
+                + " us=" + machineState.us + " err=" + machineState.err + " steps=" + machineState.steps
+                + " stopped=" + machineState.stopped + " finished=" + machineState.finished + " dead=" + machineState.dead
+                + " wait=" + state.getWaitForNumberOfBlocks() + " freeze=" + state.freezeOnSameBalance()
+                + " balance=" + state.getgBalance()
+                + " state=" + Convert.toHexString(machineState.getMachineStateBytes())
+                + " data=" + Convert.toHexString(state.getApDataBytes());
+    }
+
+    /**
+     * Random instructions with mostly valid operands, some of them jumping to instruction starts, some of them broken.
+     */
+    private byte[] program(int cSize) {
+        ByteBuffer code = ByteBuffer.allocate(cSize);
+        code.order(ByteOrder.LITTLE_ENDIAN);
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> jumps = new ArrayList<>();
+        while (true) {
+            byte op = random.nextInt(40) == 0 ? (byte) random.nextInt(256) : OPS[random.nextInt(OPS.length)];
+            if (op == OpCode.E_OP_CODE_SET_IDX && !withSetIdx) {
+                op = OpCode.E_OP_CODE_IDX_DAT;
+            }
+            int length = length(op);
+            if (code.position() + length > cSize - 4) {
+                break;
+            }
+            starts.add(code.position());
+            code.put(op);
+            if (op == OpCode.E_OP_CODE_EXT_FUN || op == OpCode.E_OP_CODE_EXT_FUN_DAT || op == OpCode.E_OP_CODE_EXT_FUN_DAT_2
+                    || op == OpCode.E_OP_CODE_EXT_FUN_RET || op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT
+                    || op == OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2) {
+                code.putShort(FUNCTIONS[random.nextInt(FUNCTIONS.length)]);
+                length -= 2;
+            }
+            if (op == OpCode.E_OP_CODE_SET_VAL) {
+                code.putInt(address(false));
+                code.putLong(random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(70) - 5);
+                continue;
+            }
+            boolean codeAddress = op == OpCode.E_OP_CODE_JMP_SUB || op == OpCode.E_OP_CODE_JMP_ADR
+                    || op == OpCode.E_OP_CODE_SLP_DAT || op == OpCode.E_OP_CODE_ERR_ADR;
+            if (codeAddress) {
+                jumps.add(code.position());
+            }
+            for (length--; length >= 4; length -= 4) {
+                code.putInt(address(codeAddress));
+            }
+            for (; length > 0; length--) {
+                code.put((byte) (random.nextInt(40) - 20));
+            }
+        }
+        for (int jump : jumps) {
+            if (random.nextBoolean()) {
+                code.putInt(jump, starts.get(random.nextInt(starts.size())));
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            code.put(random.nextInt(cSize), (byte) random.nextInt(256));
+        }
+        return code.array();
+    }
+
+    private int address(boolean codeAddress) {
+        switch (random.nextInt(20)) {
+            case 0:
+                return -1 - random.nextInt(4);
+            case 1:
+                return random.nextInt();
+            case 2:
+                return 32 + random.nextInt(4);
+            default:
+                return codeAddress ? random.nextInt(256) : random.nextInt(32);
+        }
+    }
+
+    private static int length(byte op) {
+        switch (op) {
+            case OpCode.E_OP_CODE_NOP:
+            case OpCode.E_OP_CODE_RET_SUB:
+            case OpCode.E_OP_CODE_FIN_IMD:
+            case OpCode.E_OP_CODE_STP_IMD:
+            case OpCode.E_OP_CODE_SLP_IMD:
+            case OpCode.E_OP_CODE_SET_PCS:
+                return 1;
+            case OpCode.E_OP_CODE_EXT_FUN:
+                return 3;
+            case OpCode.E_OP_CODE_BZR_DAT:
+            case OpCode.E_OP_CODE_BNZ_DAT:
+                return 6;
+            case OpCode.E_OP_CODE_EXT_FUN_DAT:
+            case OpCode.E_OP_CODE_EXT_FUN_RET:
+                return 7;
+            case OpCode.E_OP_CODE_SET_DAT:
+            case OpCode.E_OP_CODE_ADD_DAT:
+            case OpCode.E_OP_CODE_SUB_DAT:
+            case OpCode.E_OP_CODE_MUL_DAT:
+            case OpCode.E_OP_CODE_DIV_DAT:
+            case OpCode.E_OP_CODE_BOR_DAT:
+            case OpCode.E_OP_CODE_AND_DAT:
+            case OpCode.E_OP_CODE_XOR_DAT:
+            case OpCode.E_OP_CODE_SET_IND:
+            case OpCode.E_OP_CODE_IND_DAT:
+            case OpCode.E_OP_CODE_MOD_DAT:
+            case OpCode.E_OP_CODE_SHL_DAT:
+            case OpCode.E_OP_CODE_SHR_DAT:
+                return 9;
+            case OpCode.E_OP_CODE_BGT_DAT:
+            case OpCode.E_OP_CODE_BLT_DAT:
+            case OpCode.E_OP_CODE_BGE_DAT:
+            case OpCode.E_OP_CODE_BLE_DAT:
+            case OpCode.E_OP_CODE_BEQ_DAT:
+            case OpCode.E_OP_CODE_BNE_DAT:
+                return 10;
+            case OpCode.E_OP_CODE_EXT_FUN_DAT_2:
+            case OpCode.E_OP_CODE_EXT_FUN_RET_DAT:
+                return 11;
+            case OpCode.E_OP_CODE_SET_VAL:
+            case OpCode.E_OP_CODE_SET_IDX:
+            case OpCode.E_OP_CODE_IDX_DAT:
+                return 13;
+            case OpCode.E_OP_CODE_EXT_FUN_RET_DAT_2:
+                return 15;
+            default:
+                return 5;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package brs.at;
+
+import brs.Account;
+import brs.BPC;
+import brs.db.store.ATStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({BPC.class, Account.class})
+public class AtScheduleTest {
+
+    private static final int HEIGHT = 100;
+
+    private ATStore mockAtStore;
+    private long minBalance;
+    private AtSchedule t;
+
+    @Before
+    public void setUp() {
+        AtTestHelper.setupMocks();
+        when(BPC.getBlockchain().getHeight()).thenReturn(HEIGHT);
+        minBalance = AtConstants.getInstance().stepFee(HEIGHT) * AtConstants.getInstance().apiStepMultiplier(HEIGHT);
+
+        mockAtStore = mock(ATStore.class);
+        when(mockAtStore.getScheduleEntries()).thenReturn(Arrays.asList(
+                new AtSchedule.Entry(1L, 90, 101, 0, false, 0, minBalance),
+                new AtSchedule.Entry(2L, 80, 95, 0, false, 0, minBalance),
+                new AtSchedule.Entry(3L, 80, 95, 0, false, 0, minBalance - 1),
+                new AtSchedule.Entry(4L, 80, 90, 0, false, 0, minBalance),
+                new AtSchedule.Entry(5L, 70, 102, 0, false, 0, minBalance),
+                new AtSchedule.Entry(6L, 60, 90, minBalance, true, 10, minBalance + 9),
+                new AtSchedule.Entry(-7L, 90, 101, minBalance, true, 10, minBalance + 10)));
+        t = new AtSchedule(mockAtStore, BPC.getBlockchain());
+    }
+
+    @Test
+    public void getOrderedATs() {
+        assertEquals(Arrays.asList(4L, 2L, -7L, 1L), t.getOrderedATs());
+    }
+
+    @Test
+    public void balanceChanged() {
+        t.getOrderedATs();
+        t.balanceChanged(account(3L, minBalance));
+        t.balanceChanged(account(6L, minBalance + 10));
+        t.balanceChanged(account(1L, minBalance - 1));
+        assertEquals(Arrays.asList(6L, 4L, 2L, 3L, -7L), t.getOrderedATs());
+    }
+
+    @Test
+    public void stateSaved() {
+        t.getOrderedATs();
+        AT.ATState state = new AT.ATState(2L, new byte[0], HEIGHT + 4, 4, minBalance, false, 0);
+        state.setPrevHeight(HEIGHT);
+        t.stateSaved(state);
+        AT.ATState newState = new AT.ATState(8L, new byte[0], HEIGHT, 0, 0, false, 0);
+        t.stateSaved(newState);
+        // the account of the new AT has ten burst
+        assertEquals(Arrays.asList(8L, 4L, -7L, 1L), t.getOrderedATs());
+    }
+
+    @Test
+    public void invalidate() {
+        t.getOrderedATs();
+        t.getOrderedATs();
+        verify(mockAtStore, times(1)).getScheduleEntries();
+
+        t.invalidate();
+        t.balanceChanged(account(3L, minBalance));
+        when(mockAtStore.getScheduleEntries()).thenReturn(Collections.singletonList(new AtSchedule.Entry(3L, 80, 95, 0, false, 0, minBalance)));
+        assertEquals(Collections.singletonList(3L), t.getOrderedATs());
+    }
+
+    private static Account account(long id, long balance) {
+        Account account = mock(Account.class);
+        when(account.getId()).thenReturn(id);
+        when(account.getBalanceNQT()).thenReturn(balance);
+        return account;
+    }
+}
@@ -0,0 +1,94 @@
+package brs.at;
+
+import brs.Block;
+import brs.Blockchain;
+import brs.db.store.ATStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(JUnit4.class)
+public class AtTransactionIndexTest {
+
+    private static final long AT_ID = 5L;
+
+    private ATStore mockAtStore;
+    private Blockchain mockBlockchain;
+    private AtTransactionIndex t;
+
+    @Before
+    public void setUp() {
+        mockAtStore = mock(ATStore.class);
+        mockBlockchain = mock(Blockchain.class);
+        // two transactions to the AT at every height, ids 10 * height + 1 and 10 * height + 2, the first one too small
+        when(mockAtStore.getIncomingTransactions(anyInt())).thenAnswer(invoke -> {
+            int height = invoke.getArgument(0);
+            return new AtTransactionIndex.IncomingTransactions(
+                    new long[]{AT_ID - 1, AT_ID, AT_ID, AT_ID + 1},
+                    new long[]{10L * height, 10L * height + 1, 10L * height + 2, 10L * height + 3},
+                    new long[]{100, 5, 100, 100});
+        });
+        when(mockBlockchain.getHeight()).thenReturn(100);
+        t = new AtTransactionIndex(mockAtStore, mockBlockchain, 10);
+    }
+
+    @Test
+    public void findTransaction() {
+        assertEquals((Long) 951L, t.findTransaction(95, 100, AT_ID, 0, 0));
+        assertEquals((Long) 952L, t.findTransaction(95, 100, AT_ID, 1, 0));
+        assertEquals((Long) 962L, t.findTransaction(95, 100, AT_ID, 1, 10));
+        assertEquals((Long) 951L, t.findTransaction(95, 100, AT_ID, -1, 0));
+        assertEquals((Long) 0L, t.findTransaction(95, 100, AT_ID, 10, 0));
+        assertEquals((Long) 0L, t.findTransaction(95, 100, AT_ID + 2, 0, 0));
+        assertEquals((Long) 0L, t.findTransaction(100, 100, AT_ID, 0, 0));
+
+        assertEquals((Integer) 2, t.findTransactionHeight(962L, 96, AT_ID, 0));
+        assertEquals((Integer) 1, t.findTransactionHeight(962L, 96, AT_ID, 10));
+        assertEquals((Integer) 2, t.findTransactionHeight(1L, 96, AT_ID, 0));
+    }
+
+    @Test
+    public void leavesHeightsOutsideTheWindowToTheStore() {
+        assertNull(t.findTransaction(80, 100, AT_ID, 0, 0));
+        assertNull(t.findTransaction(95, 102, AT_ID, 0, 0));
+        assertNull(t.findTransactionHeight(1L, 85, AT_ID, 0));
+    }
+
+    @Test
+    public void loadsEveryHeightOnce() {
+        t.findTransaction(95, 100, AT_ID, 0, 0);
+        t.findTransaction(91, 100, AT_ID, 0, 0);
+        t.findTransactionHeight(1L, 93, AT_ID, 0);
+        verify(mockAtStore, times(9)).getIncomingTransactions(anyInt());
+    }
+
+    @Test
+    public void followsAppliedAndPoppedBlocks() {
+        t.findTransaction(95, 100, AT_ID, 0, 0);
+        when(mockBlockchain.getHeight()).thenReturn(101);
+        t.blockApplied(block(100));
+        assertEquals((Long) 1002L, t.findTransaction(100, 101, AT_ID, 1, 0));
+        verify(mockAtStore, times(6)).getIncomingTransactions(anyInt());
+
+        when(mockAtStore.getIncomingTransactions(99)).thenReturn(new AtTransactionIndex.IncomingTransactions(new long[0], new long[0], new long[0]));
+        when(mockBlockchain.getHeight()).thenReturn(98);
+        t.blockPopped(block(100));
+        t.blockPopped(block(99));
+        when(mockBlockchain.getHeight()).thenReturn(99);
+        t.blockApplied(block(99));
+        assertEquals((Long) 0L, t.findTransaction(99, 100, AT_ID, 0, 0));
+        assertEquals((Long) 982L, t.findTransaction(95, 100, AT_ID, 7, 0));
+    }
+
+    private static Block block(int height) {
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(height);
+        return block;
+    }
+}
@@ -0,0 +1,120 @@
+package brs.db.cache;
+
+import brs.db.BurstKey;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class OffHeapEntityCacheTest {
+
+  private static final EntityCodec<String> stringCodec = new EntityCodec<String>() {
+    @Override
+    public int recordSize() {
+      return 16;
+    }
+
+    @Override
+    public void encode(String value, ByteBuffer buffer) {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+
+    @Override
+    public String decode(long id, ByteBuffer buffer) {
+      final byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  };
+
+  private OffHeapEntityCache<String> t;
+
+  @Before
+  public void setUp() {
+    t = new OffHeapEntityCache<>(stringCodec, 100, "");
+  }
+
+  private static BurstKey key(long id) {
+    return () -> new long[] { id };
+  }
+
+  @Test
+  public void putGetAndRemove() {
+    t.put(key(1), "one", 10);
+    t.put(key(-1), "a value too long for a bucket", 10);
+
+    assertEquals("one", t.get(key(1)));
+    assertEquals("a value too long for a bucket", t.get(key(-1)));
+    assertNull(t.get(key(2)));
+    assertEquals(2, t.size());
+
+    t.put(key(1), "uno", 11);
+    assertEquals("uno", t.get(key(1)));
+    assertEquals(2, t.size());
+
+    t.remove(key(-1));
+    assertNull(t.get(key(-1)));
+    assertEquals(1, t.size());
+  }
+
+  @Test
+  public void rollbackDropsEntriesWrittenAboveTheHeight() {
+    for (int i = 0; i < 50; i++) {
+      t.put(key(i), "value " + i, i);
+    }
+
+    t.rollback(24);
+
+    assertEquals(25, t.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i <= 24 ? "value " + i : null, t.get(key(i)));
+    }
+  }
+
+  @Test
+  public void clearForgetsEverything() {
+    t.put(key(1), "one", 1);
+    t.clear();
+
+    assertNull(t.get(key(1)));
+    assertEquals(0, t.size());
+
+    t.put(key(1), "one again", 2);
+    assertEquals("one again", t.get(key(1)));
+  }
+
+  @Test
+  public void loadedValuesOnlyGoInWhileNothingChanged() {
+    long generation = t.generation();
+    t.put(key(1), "written", 1);
+    t.putLoaded(key(2), "loaded before the write", 1, generation);
+    assertNull(t.get(key(2)));
+
+    generation = t.generation();
+    t.putLoaded(key(2), "loaded before the commit", 1, generation);
+    assertNull(t.get(key(2)));
+
+    t.committed();
+    generation = t.generation();
+    t.putLoaded(key(2), "loaded", 1, generation);
+    assertEquals("loaded", t.get(key(2)));
+  }
+
+  @Test
+  public void evictsWhenFull() {
+    for (int i = 0; i < 1000; i++) {
+      t.put(key(i), "value " + i, 1);
+    }
+
+    assertEquals(100, t.size());
+    assertEquals("value 999", t.get(key(999)));
+  }
+}
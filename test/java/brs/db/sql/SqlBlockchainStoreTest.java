@@ -0,0 +1,89 @@
+package brs.db.sql;
+
+import org.jooq.DSLContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
+import static brs.schema.Tables.TRANSACTION;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class SqlBlockchainStoreTest {
+
+  private static final long ACCOUNT_ID = 1L;
+
+  private Connection connection;
+  private DSLContext ctx;
+
+  @Before
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    ctx = TestDb.using(connection);
+    TestDb.createTable(ctx, TRANSACTION);
+    TestDb.createTable(ctx, ACCOUNT_TRANSACTION);
+
+    addTransaction(ACCOUNT_ID, 10L, (byte) 0, (byte) 0, 100, 1, false);
+    addTransaction(ACCOUNT_ID, 11L, (byte) 2, (byte) 1, 200, 2, false);
+    addTransaction(ACCOUNT_ID, 12L, (byte) 0, (byte) 0, 300, 3, true);
+    addTransaction(2L, 13L, (byte) 0, (byte) 0, 400, 4, false);
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  public void accountTransactionsAreNewestFirst() {
+    assertEquals(Arrays.asList(12L, 11L, 10L), accountTransactions(Integer.MAX_VALUE, (byte) -1, (byte) -1, 0, 0, -1, true));
+  }
+
+  @Test
+  public void accountTransactionsWithoutIndirectIncomings() {
+    assertEquals(Arrays.asList(11L, 10L), accountTransactions(Integer.MAX_VALUE, (byte) -1, (byte) -1, 0, 0, -1, false));
+  }
+
+  @Test
+  public void accountTransactionsOfType() {
+    assertEquals(Arrays.asList(12L, 10L), accountTransactions(Integer.MAX_VALUE, (byte) 0, (byte) -1, 0, 0, -1, true));
+    assertEquals(Collections.singletonList(11L), accountTransactions(Integer.MAX_VALUE, (byte) 2, (byte) 1, 0, 0, -1, true));
+    assertEquals(Collections.emptyList(), accountTransactions(Integer.MAX_VALUE, (byte) 2, (byte) 0, 0, 0, -1, true));
+  }
+
+  @Test
+  public void accountTransactionsUpToHeightAndFromTimestamp() {
+    assertEquals(Arrays.asList(11L, 10L), accountTransactions(2, (byte) -1, (byte) -1, 0, 0, -1, true));
+    assertEquals(Arrays.asList(12L, 11L), accountTransactions(Integer.MAX_VALUE, (byte) -1, (byte) -1, 200, 0, -1, true));
+  }
+
+  @Test
+  public void accountTransactionsPage() {
+    assertEquals(Collections.singletonList(11L), accountTransactions(Integer.MAX_VALUE, (byte) -1, (byte) -1, 0, 1, 1, true));
+  }
+
+  private List<Long> accountTransactions(int height, byte type, byte subtype, int blockTimestamp, int from, int to, boolean includeIndirectIncoming) {
+    return SqlBlockchainStore.accountTransactionsQuery(ctx, ACCOUNT_ID, height, type, subtype, blockTimestamp, from, to, includeIndirectIncoming)
+        .fetchInto(TRANSACTION)
+        .getValues(TRANSACTION.ID);
+  }
+
+  private void addTransaction(long accountId, long id, byte type, byte subtype, int blockTimestamp, int height, boolean indirect) {
+    ctx.insertInto(TRANSACTION, TRANSACTION.ID, TRANSACTION.TYPE, TRANSACTION.SUBTYPE, TRANSACTION.BLOCK_TIMESTAMP, TRANSACTION.HEIGHT)
+        .values(id, type, subtype, blockTimestamp, height)
+        .execute();
+    ctx.insertInto(ACCOUNT_TRANSACTION, ACCOUNT_TRANSACTION.ACCOUNT_ID, ACCOUNT_TRANSACTION.TRANSACTION_ID, ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP, ACCOUNT_TRANSACTION.HEIGHT, ACCOUNT_TRANSACTION.INDIRECT)
+        .values(accountId, id, blockTimestamp, height, indirect)
+        .execute();
+  }
+}
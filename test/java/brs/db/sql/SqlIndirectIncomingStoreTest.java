@@ -0,0 +1,129 @@
+package brs.db.sql;
+
+import brs.Attachment;
+import brs.Constants;
+import brs.Transaction;
+import brs.TransactionType;
+import brs.db.store.IndirectIncomingStore;
+import brs.props.PropertyService;
+import brs.props.Props;
+import brs.services.impl.IndirectIncomingServiceImpl;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static brs.schema.Tables.ACCOUNT_TRANSACTION;
+import static brs.schema.Tables.TRANSACTION;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(JUnit4.class)
+public class SqlIndirectIncomingStoreTest {
+
+    @Test
+    public void testSaveAccountTransactionsOfMultiOutTransaction() {
+        List<IndirectIncomingStore.IndirectIncoming> indirectIncomings = new ArrayList<>();
+        IndirectIncomingStore mockIndirectIncomingStore = mock(IndirectIncomingStore.class);
+        doAnswer(invocation -> indirectIncomings.addAll(invocation.getArgument(0)))
+                .when(mockIndirectIncomingStore).addIndirectIncomings(any());
+        PropertyService mockPropertyService = mock(PropertyService.class);
+        when(mockPropertyService.getBoolean(Props.INDIRECT_INCOMING_SERVICE_ENABLE)).thenReturn(true);
+
+        List<List<Long>> recipients = new ArrayList<>();
+        recipients.add(Arrays.asList(1L, Constants.ONE_BURST));
+        recipients.add(Arrays.asList(2L, Constants.ONE_BURST));
+        recipients.add(Arrays.asList(3L, Constants.ONE_BURST));
+        Attachment.PaymentMultiOutCreation attachment = mock(Attachment.PaymentMultiOutCreation.class);
+        when(attachment.getRecipients()).thenReturn(recipients);
+        Transaction multiOut = mock(Transaction.class);
+        when(multiOut.getId()).thenReturn(10L);
+        when(multiOut.getHeight()).thenReturn(5);
+        when(multiOut.getType()).thenReturn(TransactionType.Payment.MULTI_OUT);
+        when(multiOut.getAttachment()).thenReturn(attachment);
+        new IndirectIncomingServiceImpl(mockIndirectIncomingStore, mockPropertyService).processTransaction(multiOut);
+
+        List<String> sqls = new ArrayList<>();
+        List<Object[]> bindings = new ArrayList<>();
+        MockConnection connection = new MockConnection(ctx -> {
+            sqls.add(ctx.sql());
+            bindings.addAll(Arrays.asList(ctx.batchBindings()));
+            MockResult[] results = new MockResult[ctx.batchBindings().length];
+            Arrays.fill(results, new MockResult(1, null));
+            return results;
+        });
+        SqlIndirectIncomingStore.saveAccountTransactions(DSL.using(connection, SQLDialect.H2), indirectIncomings);
+
+        assertEquals(1, sqls.size());
+        // a bare parameter in the select list has no type H2 accepts
+        assertTrue(sqls.get(0), sqls.get(0).contains("cast(? as bigint)"));
+        int placeholders = countPlaceholders(sqls.get(0));
+        assertEquals(3, bindings.size());
+        for (int i = 0; i < bindings.size(); i++) {
+            long accountId = recipients.get(i).get(0);
+            assertEquals(placeholders, bindings.get(i).length);
+            // the recipient, the transaction, and the recipient again to skip the row if it sent the transaction
+            assertArrayEquals(new Object[] { accountId, 10L, accountId }, bindings.get(i));
+        }
+    }
+
+    @Test
+    public void testSaveAccountTransactionsOfNoIndirectIncomings() {
+        MockConnection connection = new MockConnection(ctx -> {
+            throw new AssertionError("Nothing to save");
+        });
+        Collection<IndirectIncomingStore.IndirectIncoming> indirectIncomings = new ArrayList<>();
+        SqlIndirectIncomingStore.saveAccountTransactions(DSL.using(connection, SQLDialect.H2), indirectIncomings);
+    }
+
+    @Test
+    public void testSaveAccountTransactionsOnH2() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+            DSLContext ctx = TestDb.using(connection);
+            TestDb.createTable(ctx, TRANSACTION);
+            TestDb.createTable(ctx, ACCOUNT_TRANSACTION);
+            ctx.insertInto(TRANSACTION, TRANSACTION.ID, TRANSACTION.SENDER_ID, TRANSACTION.BLOCK_TIMESTAMP, TRANSACTION.HEIGHT)
+                    .values(10L, 1L, 1000, 5)
+                    .execute();
+
+            // the sender keeps the transaction as a direct one
+            SqlIndirectIncomingStore.saveAccountTransactions(ctx, Arrays.asList(
+                    new IndirectIncomingStore.IndirectIncoming(1L, 10L, 5),
+                    new IndirectIncomingStore.IndirectIncoming(2L, 10L, 5),
+                    new IndirectIncomingStore.IndirectIncoming(3L, 10L, 5)));
+
+            assertEquals(Arrays.asList("2/10/1000/5/true", "3/10/1000/5/true"),
+                    ctx.select(ACCOUNT_TRANSACTION.ACCOUNT_ID, ACCOUNT_TRANSACTION.TRANSACTION_ID, ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP, ACCOUNT_TRANSACTION.HEIGHT, ACCOUNT_TRANSACTION.INDIRECT)
+                            .from(ACCOUNT_TRANSACTION)
+                            .orderBy(ACCOUNT_TRANSACTION.ACCOUNT_ID)
+                            .fetch(record -> record.get(ACCOUNT_TRANSACTION.ACCOUNT_ID) + "/" + record.get(ACCOUNT_TRANSACTION.TRANSACTION_ID) + "/"
+                                    + record.get(ACCOUNT_TRANSACTION.BLOCK_TIMESTAMP) + "/" + record.get(ACCOUNT_TRANSACTION.HEIGHT) + "/"
+                                    + record.get(ACCOUNT_TRANSACTION.INDIRECT)));
+        }
+    }
+
+    private static int countPlaceholders(String sql) {
+        int placeholders = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                placeholders++;
+            }
+        }
+        return placeholders;
+    }
+}
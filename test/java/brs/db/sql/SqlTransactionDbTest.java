@@ -0,0 +1,75 @@
+package brs.db.sql;
+
+import brs.Transaction;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class SqlTransactionDbTest {
+
+  private List<Object[]> bindings;
+  private MockConnection connection;
+
+  @Before
+  public void setUp() {
+    bindings = new ArrayList<>();
+    connection = new MockConnection(ctx -> {
+      bindings.addAll(Arrays.asList(ctx.batchBindings()));
+      MockResult[] results = new MockResult[ctx.batchBindings().length];
+      Arrays.fill(results, new MockResult(1, null));
+      return results;
+    });
+  }
+
+  @Test
+  public void testSaveAccountTransactionsOfSenderAndRecipient() {
+    saveAccountTransactions(transaction(1L, 2L, 3L));
+    assertEquals(2, bindings.size());
+    assertArrayEquals(new Object[] { 2L, 1000, 1L, 10, false }, bindings.get(0));
+    assertArrayEquals(new Object[] { 3L, 1000, 1L, 10, false }, bindings.get(1));
+  }
+
+  @Test
+  public void testSaveAccountTransactionsOfSenderOnly() {
+    saveAccountTransactions(transaction(1L, 2L, 0L));
+    assertEquals(1, bindings.size());
+    assertArrayEquals(new Object[] { 2L, 1000, 1L, 10, false }, bindings.get(0));
+  }
+
+  @Test
+  public void testSaveAccountTransactionsOfSenderEqualsRecipient() {
+    saveAccountTransactions(transaction(1L, 2L, 2L));
+    assertEquals(1, bindings.size());
+    assertArrayEquals(new Object[] { 2L, 1000, 1L, 10, false }, bindings.get(0));
+  }
+
+  private void saveAccountTransactions(Transaction transaction) {
+    SqlTransactionDb.saveAccountTransactions(DSL.using(connection, SQLDialect.H2), Collections.singletonList(transaction));
+  }
+
+  private static Transaction transaction(long id, long senderId, long recipientId) {
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getId()).thenReturn(id);
+    when(transaction.getSenderId()).thenReturn(senderId);
+    when(transaction.getRecipientId()).thenReturn(recipientId);
+    when(transaction.getBlockTimestamp()).thenReturn(1000);
+    when(transaction.getHeight()).thenReturn(10);
+    return transaction;
+  }
+}
@@ -0,0 +1,39 @@
+package brs.db.sql;
+
+import org.jooq.CreateTableColumnStep;
+import org.jooq.DSLContext;
+import org.jooq.DataType;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+
+import java.sql.Connection;
+
+/**
+ * In-memory H2 databases for the queries that have to run against the real dialect
+ */
+final class TestDb {
+
+  private TestDb() {
+  }
+
+  static DSLContext using(Connection connection) {
+    return DSL.using(connection, SQLDialect.H2, new Settings().withRenderSchema(Boolean.FALSE));
+  }
+
+  /**
+   * Creates the columns of the generated table, all nullable, so that tests only fill in the ones they need
+   */
+  static void createTable(DSLContext ctx, Table<?> table) {
+    CreateTableColumnStep create = null;
+    for (Field<?> field : table.fields()) {
+      DataType<?> type = field.getDataType().identity(false).nullable(true);
+      create = create == null
+          ? ctx.createTable(table).column(field.getUnqualifiedName(), type)
+          : create.column(field.getUnqualifiedName(), type);
+    }
+    create.execute();
+  }
+}
@@ -0,0 +1,208 @@
+package brs.db.sql;
+
+import brs.db.BurstKey;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static brs.schema.Tables.ACCOUNT;
+import static brs.schema.Tables.ACCOUNT_ASSET;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@SuppressStaticInitializationFor("brs.db.sql.Db")
+@PrepareForTest(Db.class)
+@RunWith(PowerMockRunner.class)
+public class VersionedEntitySqlTableRollbackTest {
+
+  private static final int HEIGHT = 10;
+
+  private final DbKey.Factory<Object> accountDbKeyFactory = new DbKey.LongKeyFactory<Object>(ACCOUNT.ID) {
+    @Override
+    public BurstKey newKey(Object o) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private final DbKey.Factory<Object> accountAssetDbKeyFactory = new DbKey.LinkKeyFactory<Object>("account_id", "asset_id") {
+    @Override
+    public BurstKey newKey(Object o) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private Connection connection;
+  private DSLContext ctx;
+
+  @Before
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    ctx = DSL.using(connection, SQLDialect.H2, new Settings().withRenderSchema(Boolean.FALSE));
+
+    ctx.createTable(ACCOUNT)
+        .column(ACCOUNT.ID, SQLDataType.BIGINT)
+        .column(ACCOUNT.HEIGHT, SQLDataType.INTEGER)
+        .column(ACCOUNT.LATEST, SQLDataType.BOOLEAN)
+        .execute();
+    ctx.createTable(ACCOUNT_ASSET)
+        .column(ACCOUNT_ASSET.ACCOUNT_ID, SQLDataType.BIGINT)
+        .column(ACCOUNT_ASSET.ASSET_ID, SQLDataType.BIGINT)
+        .column(ACCOUNT_ASSET.HEIGHT, SQLDataType.INTEGER)
+        .column(ACCOUNT_ASSET.LATEST, SQLDataType.BOOLEAN)
+        .execute();
+
+    // all versions above the height
+    addAccount(1L, 12, 15);
+    // one version remains
+    addAccount(2L, 5, 12);
+    // several versions remain
+    addAccount(3L, 3, 7, 9, 11);
+    // nothing to roll back
+    addAccount(4L, 4);
+
+    addAccountAsset(1L, 1L, 5, 12);
+    // shares the account with a key that gets rolled back, but has no newer versions itself
+    addAccountAsset(1L, 2L, 8, 9);
+    addAccountAsset(2L, 1L, 3, 7, 11, 14);
+    addAccountAsset(2L, 2L, 12);
+
+    mockStatic(Db.class);
+    when(Db.isInTransaction()).thenReturn(true);
+    when(Db.getCache(anyString())).thenReturn(new HashMap<>());
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  public void rollbackByExistsSetsTheRemainingLatestVersions() {
+    useDSLContext(ctx);
+
+    VersionedEntitySqlTable.rollback("account", ACCOUNT, ACCOUNT.HEIGHT, ACCOUNT.LATEST, HEIGHT, accountDbKeyFactory);
+
+    assertEquals(Arrays.asList(
+        "2/5/true",
+        "3/3/false", "3/7/false", "3/9/true",
+        "4/4/true"), accountVersions());
+  }
+
+  @Test
+  public void rollbackByExistsSetsTheRemainingLatestVersionsOfCompositeKeys() {
+    useDSLContext(ctx);
+
+    VersionedEntitySqlTable.rollback("account_asset", ACCOUNT_ASSET, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST, HEIGHT, accountAssetDbKeyFactory);
+
+    assertEquals(Arrays.asList(
+        "1/1/5/true",
+        "1/2/8/false", "1/2/9/true",
+        "2/1/3/false", "2/1/7/true"), accountAssetVersions());
+  }
+
+  @Test
+  public void joinFindsTheRemainingLatestVersions() {
+    List<String> remaining = new ArrayList<>();
+    for (Record record : VersionedEntitySqlTable.remainingLatest(ctx, ACCOUNT, ACCOUNT.HEIGHT, HEIGHT, accountDbKeyFactory).fetch()) {
+      remaining.add(record.get(0) + "/" + record.get("max_height"));
+    }
+    remaining.sort(null);
+
+    // the key without versions left doesn't get joined
+    assertEquals(Arrays.asList("2/5", "3/9"), remaining);
+  }
+
+  @Test
+  public void joinFindsTheRemainingLatestVersionsOfCompositeKeys() {
+    List<String> remaining = new ArrayList<>();
+    for (Record record : VersionedEntitySqlTable.remainingLatest(ctx, ACCOUNT_ASSET, ACCOUNT_ASSET.HEIGHT, HEIGHT, accountAssetDbKeyFactory).fetch()) {
+      remaining.add(record.get(0) + "/" + record.get(1) + "/" + record.get("max_height"));
+    }
+    remaining.sort(null);
+
+    assertEquals(Arrays.asList("1/1/5", "2/1/7"), remaining);
+  }
+
+  @Test
+  public void rollbackOnMariaDbUpdatesByJoin() {
+    List<String> sqls = new ArrayList<>();
+    useDSLContext(DSL.using(new MockConnection(context -> {
+      sqls.add(context.sql().toLowerCase());
+      return new MockResult[] { new MockResult(0, null) };
+    }), SQLDialect.MARIADB, new Settings().withRenderSchema(Boolean.FALSE)));
+
+    VersionedEntitySqlTable.rollback("account_asset", ACCOUNT_ASSET, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST, HEIGHT, accountAssetDbKeyFactory);
+
+    assertEquals(2, sqls.size());
+    String update = sqls.get(0);
+    assertTrue(update, update.startsWith("update `account_asset` join (select"));
+    assertTrue(update, update.contains("group by `older`.`account_id`, `older`.`asset_id`"));
+    assertTrue(update, update.contains("max(`older`.`height`) as `max_height`"));
+    // MariaDB can't select from the table it updates within a subquery
+    assertFalse(update, update.contains("exists"));
+    assertTrue(sqls.get(1), sqls.get(1).startsWith("delete from `account_asset`"));
+  }
+
+  private void useDSLContext(DSLContext context) {
+    PowerMockito.doAnswer(invocation -> {
+      ((Consumer<DSLContext>) invocation.getArgument(0)).accept(context);
+      return null;
+    }).when(Db.class);
+    Db.useDSLContext(any(Consumer.class));
+  }
+
+  private void addAccount(long id, int... heights) {
+    for (int i = 0; i < heights.length; i++) {
+      ctx.insertInto(ACCOUNT, ACCOUNT.ID, ACCOUNT.HEIGHT, ACCOUNT.LATEST)
+          .values(id, heights[i], i == heights.length - 1)
+          .execute();
+    }
+  }
+
+  private void addAccountAsset(long accountId, long assetId, int... heights) {
+    for (int i = 0; i < heights.length; i++) {
+      ctx.insertInto(ACCOUNT_ASSET, ACCOUNT_ASSET.ACCOUNT_ID, ACCOUNT_ASSET.ASSET_ID, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST)
+          .values(accountId, assetId, heights[i], i == heights.length - 1)
+          .execute();
+    }
+  }
+
+  private List<String> accountVersions() {
+    return ctx.select(ACCOUNT.ID, ACCOUNT.HEIGHT, ACCOUNT.LATEST).from(ACCOUNT)
+        .orderBy(ACCOUNT.ID, ACCOUNT.HEIGHT)
+        .fetch(record -> record.get(ACCOUNT.ID) + "/" + record.get(ACCOUNT.HEIGHT) + "/" + record.get(ACCOUNT.LATEST));
+  }
+
+  private List<String> accountAssetVersions() {
+    return ctx.select(ACCOUNT_ASSET.ACCOUNT_ID, ACCOUNT_ASSET.ASSET_ID, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST).from(ACCOUNT_ASSET)
+        .orderBy(ACCOUNT_ASSET.ACCOUNT_ID, ACCOUNT_ASSET.ASSET_ID, ACCOUNT_ASSET.HEIGHT)
+        .fetch(record -> record.get(ACCOUNT_ASSET.ACCOUNT_ID) + "/" + record.get(ACCOUNT_ASSET.ASSET_ID) + "/" + record.get(ACCOUNT_ASSET.HEIGHT) + "/" + record.get(ACCOUNT_ASSET.LATEST));
+  }
+}
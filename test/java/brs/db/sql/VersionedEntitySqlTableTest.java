@@ -0,0 +1,117 @@
+package brs.db.sql;
+
+import brs.db.BurstKey;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Record2;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static brs.schema.Tables.ACCOUNT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@SuppressStaticInitializationFor("brs.db.sql.Db")
+@PrepareForTest(Db.class)
+@RunWith(PowerMockRunner.class)
+public class VersionedEntitySqlTableTest {
+
+  private static final int HEIGHT = 100;
+  private static final int MAX_ROWS = 10;
+
+  private final DbKey.Factory<Object> dbKeyFactory = new DbKey.LongKeyFactory<Object>(ACCOUNT.ID) {
+    @Override
+    public BurstKey newKey(Object o) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private final DSLContext create = DSL.using(SQLDialect.H2);
+  private Result<Record2<Long, Integer>> rows;
+  private List<Object[]> deleted;
+
+  @Before
+  public void setUp() {
+    rows = create.newResult(ACCOUNT.ID, ACCOUNT.HEIGHT);
+    deleted = new ArrayList<>();
+    DSLContext ctx = DSL.using(new MockConnection(context -> {
+      String sql = context.sql().toLowerCase();
+      if (sql.startsWith("delete")) {
+        deleted.addAll(Arrays.asList(context.batchBindings()));
+        MockResult[] results = new MockResult[context.batchBindings().length];
+        Arrays.fill(results, new MockResult(1, null));
+        return results;
+      } else if (sql.contains("max(")) {
+        // the highest version of the key below the height
+        Result<Record1<Integer>> maxHeight = create.newResult(ACCOUNT.HEIGHT);
+        maxHeight.add(create.newRecord(ACCOUNT.HEIGHT).values(HEIGHT - 1));
+        return new MockResult[] { new MockResult(1, maxHeight) };
+      }
+      return new MockResult[] { new MockResult(rows.size(), rows) };
+    }), SQLDialect.H2);
+
+    mockStatic(Db.class);
+    when(Db.isInTransaction()).thenReturn(true);
+    when(Db.useDSLContext(any(Function.class))).thenAnswer(invocation -> ((Function<DSLContext, ?>) invocation.getArgument(0)).apply(ctx));
+  }
+
+  @Test
+  public void trimChunkLeavesLastKeyForNextChunk() {
+    addRows(1L, 1, 3);
+    addRows(2L, 1, 7);
+
+    long[] after = VersionedEntitySqlTable.trim(ACCOUNT, ACCOUNT.HEIGHT, HEIGHT, dbKeyFactory, null, MAX_ROWS);
+
+    assertArrayEquals(new long[] { 1L }, after);
+    assertEquals(1, deleted.size());
+    assertArrayEquals(new Object[] { 3L, 1L }, deleted.get(0));
+  }
+
+  @Test
+  public void trimChunkOfSingleKeyWithMoreVersionsThanFit() {
+    addRows(1L, 1, MAX_ROWS);
+
+    long[] after = VersionedEntitySqlTable.trim(ACCOUNT, ACCOUNT.HEIGHT, HEIGHT, dbKeyFactory, null, MAX_ROWS);
+
+    assertArrayEquals(new long[] { 1L }, after);
+    assertEquals(1, deleted.size());
+    // everything below the highest version under the height goes, not just the versions read
+    assertArrayEquals(new Object[] { (long) HEIGHT - 1, 1L }, deleted.get(0));
+  }
+
+  @Test
+  public void trimLastChunk() {
+    addRows(1L, 1, 2);
+    addRows(2L, 5, 1);
+
+    long[] after = VersionedEntitySqlTable.trim(ACCOUNT, ACCOUNT.HEIGHT, HEIGHT, dbKeyFactory, new long[] { 0L }, MAX_ROWS);
+
+    assertNull(after);
+    assertEquals(1, deleted.size());
+    assertArrayEquals(new Object[] { 2L, 1L }, deleted.get(0));
+  }
+
+  private void addRows(long id, int firstHeight, int versions) {
+    for (int i = 0; i < versions; i++) {
+      rows.add(create.newRecord(ACCOUNT.ID, ACCOUNT.HEIGHT).values(id, firstHeight + i));
+    }
+  }
+}
@@ -123,4 +123,23 @@ public class FluxCapacitorImplTest {
     assertEquals((Integer) 255, t.getValue(FluxValues.MAX_NUMBER_TRANSACTIONS, 12344));
     assertEquals((Integer) 1020, t.getValue(FluxValues.MAX_NUMBER_TRANSACTIONS, 12345));
   }
+
+  @DisplayName("Snapshot gives the values at its height without asking the blockchain")
+  @Test
+  public void snapshotGivesValuesAtItsHeight() {
+    when(propertyServiceMock.getBoolean(eq(Props.DEV_TESTNET))).thenReturn(true);
+    when(propertyServiceMock.getInt(eq(Props.DEV_PRE_DYMAXION_BLOCK_HEIGHT))).thenReturn(12345);
+
+    t = new FluxCapacitorImpl(blockchainMock, propertyServiceMock);
+
+    FluxSnapshot before = t.getSnapshot(12344);
+    FluxSnapshot after = t.getSnapshot(12345);
+
+    assertEquals((Integer) 255, before.getValue(FluxValues.MAX_NUMBER_TRANSACTIONS));
+    assertFalse(before.getValue(FluxValues.PRE_DYMAXION));
+    assertEquals((Integer) 1020, after.getValue(FluxValues.MAX_NUMBER_TRANSACTIONS));
+    assertTrue(after.getValue(FluxValues.PRE_DYMAXION));
+    assertSame(after, t.getSnapshot(12345));
+    verify(blockchainMock, never()).getHeight();
+  }
 }
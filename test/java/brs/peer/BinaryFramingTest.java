@@ -0,0 +1,105 @@
+package brs.peer;
+
+import brs.BPC;
+import brs.Block;
+import brs.Blockchain;
+import brs.BurstException;
+import brs.common.QuickMocker;
+import com.google.gson.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(BPC.class)
+public class BinaryFramingTest {
+    private static final int HEIGHT = 10;
+
+    private Blockchain mockBlockchain;
+
+    @Before
+    public void setUpBinaryFramingTest() {
+        mockStatic(BPC.class);
+        when(BPC.getFluxCapacitor()).thenReturn(QuickMocker.latestValueFluxCapacitor());
+        mockBlockchain = mock(Blockchain.class);
+    }
+
+    @Test
+    public void testGetNextBlocksRoundTrip() throws IOException, BurstException.ValidationException {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(block(1, null));
+        blocks.add(block(2, new byte[]{4, 5, 6}));
+        when(mockBlockchain.getBlocksAfter(ArgumentMatchers.eq(1L), ArgumentMatchers.anyInt())).thenReturn(blocks);
+
+        JsonObject request = new JsonObject();
+        request.addProperty("blockId", "1");
+        BinaryFraming.requestBinary(request);
+        assertTrue(request.get(BinaryFraming.BINARY_FLAG).getAsBoolean());
+
+        PeerServlet.ExtendedProcessRequest response = new GetNextBlocks(mockBlockchain).processBinaryRequest(request, mock(Peer.class));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            response.binaryResponse.writeTo(out);
+        }
+
+        List<Block> received = BinaryFraming.readBlocksResponse(BinaryFraming.CONTENT_TYPE, new ByteArrayInputStream(bytes.toByteArray()), HEIGHT);
+        assertNotNull(received);
+        assertEquals(blocks.size(), received.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            assertArrayEquals(blocks.get(i).getBytes(), received.get(i).getBytes());
+        }
+    }
+
+    @Test
+    public void testJsonResponseIsLeftToTheCaller() throws IOException, BurstException.ValidationException {
+        assertNull(BinaryFraming.readBlocksResponse("text/plain; charset=UTF-8", new ByteArrayInputStream(new byte[0]), HEIGHT));
+        assertNull(BinaryFraming.readTransactionsResponse(null, new ByteArrayInputStream(new byte[0]), HEIGHT));
+    }
+
+    private static Block block(int timestamp, byte[] blockATs) throws BurstException.ValidationException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + 4 + 8 + 8 + 4 + 32 + 32 + 32 + 32 + 8 + (blockATs != null ? blockATs.length : 0) + 64);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(3);
+        buffer.putInt(timestamp);
+        buffer.putLong(1L);
+        buffer.putInt(0);
+        buffer.putLong(0L);
+        buffer.putLong(0L);
+        buffer.putInt(0);
+        buffer.put(filled(32, 1));
+        buffer.put(filled(32, 2));
+        buffer.put(filled(32, 3));
+        buffer.put(filled(32, 4));
+        buffer.putLong(timestamp * 100L);
+        if (blockATs != null) {
+            buffer.put(blockATs);
+        }
+        buffer.put(filled(64, 5));
+        return Block.parseBlock(buffer.array(), Collections.emptyList(), HEIGHT);
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
@@ -3,19 +3,29 @@ package brs.peer;
 import brs.Block;
 import brs.Blockchain;
 import brs.Genesis;
+import brs.util.JSON;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.mockito.ArgumentMatchers;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +41,9 @@ public class GetNextBlocksTest {
         mockPeer = mock(Peer.class);
         Block mockBlock = mock(Block.class);
         when(mockBlock.getJsonObject()).thenReturn(new JsonObject());
+        when(mockBlock.getBytes()).thenReturn(new byte[]{1, 2, 3});
+        doAnswer(invocation -> invocation.<JsonWriter>getArgument(0).beginObject().endObject()).when(mockBlock).writeJsonTo(ArgumentMatchers.any());
+        when(mockBlock.getTransactions()).thenReturn(Collections.emptyList());
         List<Block> blocks = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
             blocks.add(mockBlock);
@@ -73,4 +86,42 @@ public class GetNextBlocksTest {
         JsonArray nextBlocks = nextBlocksElement.getAsJsonArray();
         assertEquals(0, nextBlocks.size());
     }
+
+    @Test
+    public void testGetNextBlocks_binary() throws IOException {
+        JsonObject request = new JsonObject();
+        request.addProperty("blockId", Long.toUnsignedString(Genesis.GENESIS_BLOCK_ID));
+        request.addProperty(BinaryFraming.BINARY_FLAG, true);
+        PeerServlet.ExtendedProcessRequest response = getNextBlocks.processBinaryRequest(request, mockPeer);
+        assertNotNull(response.binaryResponse);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            response.binaryResponse.writeTo(out);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(100, in.readInt());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3, in.readInt());
+            byte[] blockBytes = new byte[3];
+            in.readFully(blockBytes);
+            assertArrayEquals(new byte[]{1, 2, 3}, blockBytes);
+            assertEquals(0, in.readInt());
+        }
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testGetNextBlocks_streaming() throws IOException {
+        JsonObject request = new JsonObject();
+        request.addProperty("blockId", Long.toUnsignedString(Genesis.GENESIS_BLOCK_ID));
+        PeerServlet.ExtendedProcessRequest response = getNextBlocks.processStreamingRequest(request, mockPeer);
+        assertNotNull(response.streamingResponse);
+
+        StringWriter json = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(json)) {
+            response.streamingResponse.writeTo(writer);
+        }
+        assertEquals(getNextBlocks.processRequest(request, mockPeer), JSON.parse(json.toString()));
+    }
 }
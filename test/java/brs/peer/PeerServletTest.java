@@ -0,0 +1,91 @@
+package brs.peer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(JUnit4.class)
+public class PeerServletTest {
+    private ByteArrayOutputStream body;
+    private HttpServletResponse mockResponse;
+
+    @Before
+    public void setUpPeerServletTest() throws IOException {
+        body = new ByteArrayOutputStream();
+        mockResponse = mock(HttpServletResponse.class);
+        when(mockResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+        });
+        doAnswer(invocation -> {
+            body.reset();
+            return null;
+        }).when(mockResponse).resetBuffer();
+    }
+
+    @Test
+    public void testWriteResponseSkipsNulls() throws ServletException {
+        assertTrue(PeerServlet.writeResponse(mockResponse, null, writer -> {
+            writer.beginObject();
+            writer.name("nonce").value("1");
+            writer.name("blockATs").value((String) null);
+            writer.endObject();
+        }, null, "getNextBlocks"));
+
+        assertEquals("{\"nonce\":\"1\"}", body());
+    }
+
+    @Test
+    public void testWriteResponseReplacesUncommittedResponseOnError() throws ServletException {
+        when(mockResponse.isCommitted()).thenReturn(false);
+
+        assertFalse(PeerServlet.writeResponse(mockResponse, null, writer -> {
+            writer.beginObject();
+            writer.name("nextBlocks").beginArray();
+            throw new IllegalStateException("failed to load");
+        }, null, "getNextBlocks"));
+
+        assertEquals("{\"error\":\"java.lang.IllegalStateException: failed to load\"}", body());
+    }
+
+    @Test
+    public void testWriteResponseAbortsCommittedResponseOnError() {
+        when(mockResponse.isCommitted()).thenReturn(true);
+
+        try {
+            PeerServlet.writeResponse(mockResponse, null, writer -> {
+                throw new IllegalStateException("failed to load");
+            }, null, "getNextBlocks");
+            fail("A committed response has to be aborted");
+        } catch (ServletException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private String body() {
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
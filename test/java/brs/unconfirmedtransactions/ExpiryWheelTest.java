@@ -0,0 +1,104 @@
+package brs.unconfirmedtransactions;
+
+import brs.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class ExpiryWheelTest {
+
+  private static final int NOW = 1000;
+
+  private ExpiryWheel t;
+
+  @Before
+  public void setUp() {
+    t = new ExpiryWheel(NOW, 16);
+  }
+
+  @Test
+  public void transactionExpiresOncePastItsExpiration() {
+    Transaction transaction = transaction(1L, NOW + 10);
+    t.add(transaction);
+
+    assertTrue(t.advanceTo(NOW + 10).isEmpty());
+    assertEquals(Collections.singletonList(transaction), t.advanceTo(NOW + 11));
+    assertTrue(t.advanceTo(NOW + 100).isEmpty());
+  }
+
+  @Test
+  public void transactionsOnCoarserLevelsCascadeDown() {
+    Transaction secondLevel = transaction(1L, NOW + 1000);
+    Transaction thirdLevel = transaction(2L, NOW + 100000);
+    t.add(secondLevel);
+    t.add(thirdLevel);
+
+    assertTrue(t.advanceTo(NOW + 1000).isEmpty());
+    assertEquals(Collections.singletonList(secondLevel), t.advanceTo(NOW + 1001));
+    assertTrue(t.advanceTo(NOW + 100000).isEmpty());
+    assertEquals(Collections.singletonList(thirdLevel), t.advanceTo(NOW + 100001));
+  }
+
+  @Test
+  public void transactionBeyondTheWheelIsParkedUntilItExpires() {
+    Transaction transaction = transaction(1L, NOW + 300000);
+    t.add(transaction);
+
+    assertTrue(t.advanceTo(NOW + 300000).isEmpty());
+    assertEquals(Collections.singletonList(transaction), t.advanceTo(NOW + 300001));
+  }
+
+  @Test
+  public void expiredTransactionExpiresOnNextTick() {
+    Transaction transaction = transaction(1L, NOW - 10);
+    t.add(transaction);
+
+    assertEquals(Collections.singletonList(transaction), t.advanceTo(NOW + 1));
+  }
+
+  @Test
+  public void removedTransactionsNeverExpire() {
+    Transaction removed = transaction(1L, NOW + 10);
+    Transaction kept = transaction(2L, NOW + 10);
+    Transaction cleared = transaction(3L, NOW + 20);
+    t.add(removed);
+    t.add(kept);
+    t.remove(removed);
+
+    assertEquals(Collections.singletonList(kept), t.advanceTo(NOW + 11));
+
+    t.add(cleared);
+    t.clear();
+    assertTrue(t.advanceTo(NOW + 100).isEmpty());
+  }
+
+  @Test
+  public void advancingOverManyTicksReturnsEveryExpiredTransaction() {
+    Transaction first = transaction(1L, NOW + 5);
+    Transaction second = transaction(2L, NOW + 70);
+    Transaction third = transaction(3L, NOW + 5000);
+    t.add(first);
+    t.add(second);
+    t.add(third);
+
+    assertEquals(new HashSet<>(Arrays.asList(first, second, third)), new HashSet<>(t.advanceTo(NOW + 6000)));
+  }
+
+  private static Transaction transaction(long id, int expiration) {
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getId()).thenReturn(id);
+    when(transaction.getExpiration()).thenReturn(expiration);
+    return transaction;
+  }
+}
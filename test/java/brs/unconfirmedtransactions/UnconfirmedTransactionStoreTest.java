@@ -23,11 +23,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.runner.RunWith;
-import org.mockito.Answers;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static brs.Attachment.ORDINARY_PAYMENT;
 import static brs.Constants.FEE_QUANT;
@@ -47,6 +49,7 @@ public class UnconfirmedTransactionStoreTest {
   private AccountStore accountStoreMock;
   private VersionedBatchEntityTable<Account> accountTableMock;
   private LongKeyFactory<Account> accountBurstKeyFactoryMock;
+  private TransactionDb transactionDbMock;
 
   private TimeService timeService = new TimeServiceImpl();
   private UnconfirmedTransactionStore t;
@@ -68,7 +71,7 @@ public class UnconfirmedTransactionStoreTest {
     accountStoreMock = mock(AccountStore.class);
     accountTableMock = mock(VersionedBatchEntityTable.class);
     accountBurstKeyFactoryMock = mock(LongKeyFactory.class);
-    TransactionDb transactionDbMock = mock(TransactionDb.class, Answers.RETURNS_DEFAULTS);
+    transactionDbMock = mock(TransactionDb.class);
     when(accountStoreMock.getAccountTable()).thenReturn(accountTableMock);
     when(accountStoreMock.getAccountKeyFactory()).thenReturn(accountBurstKeyFactoryMock);
 
@@ -146,6 +149,34 @@ public class UnconfirmedTransactionStoreTest {
   }
 
 
+  @DisplayName("After a peer got synced, it only gets the transactions that were added since")
+  @Test
+  public void syncedPeerOnlyGetsTransactionsAddedSinceLastSync() throws ValidationException {
+    Peer mockPeer = mock(Peer.class);
+
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    for (int i = 1; i <= 100; i++) {
+      Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, i, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+          .id(i).senderId(123L).build();
+      transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+      t.put(transaction, null);
+    }
+
+    t.markFingerPrintsOf(mockPeer, t.getAllFor(mockPeer));
+
+    for (int i = 101; i <= 110; i++) {
+      Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, i, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+          .id(i).senderId(123L).build();
+      transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+      t.put(transaction, null);
+    }
+
+    final List<Transaction> newTransactions = t.getAllFor(mockPeer);
+    assertEquals(10, newTransactions.size());
+    assertEquals(101L, newTransactions.get(0).getId());
+  }
+
   @DisplayName("When The amount of unconfirmed transactions exceeds max size, and adding another then the cache size stays the same")
   @Test
   public void numberOfUnconfirmedTransactionsOfSameSlotExceedsMaxSizeAddAnotherThenCacheSizeStaysMaxSize() throws ValidationException {
@@ -338,4 +369,132 @@ public class UnconfirmedTransactionStoreTest {
     assertNotNull(t.get(expensive.getId()));
   }
 
+  @DisplayName("A transaction that is already confirmed doesn't get added")
+  @Test
+  public void confirmedTransactionDoesNotGetAdded() throws ValidationException {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+        .id(1).senderId(123L).build();
+    when(transactionDbMock.hasTransaction(eq(1L))).thenReturn(true);
+
+    assertFalse(t.put(transaction, null));
+    assertNull(t.get(1L));
+  }
+
+  @DisplayName("Forged transactions get removed, and put back if their block gets rolled back")
+  @Test
+  public void forgedTransactionsGetRemovedAndRestored() throws ValidationException {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    Transaction[] transactions = new Transaction[3];
+    for (int i = 0; i < transactions.length; i++) {
+      transactions[i] = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+          .id(i + 1).senderId(123L).build();
+      t.put(transactions[i], null);
+    }
+    Transaction unknown = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+        .id(4).senderId(123L).build();
+
+    t.removeForgedTransactions(Arrays.asList(transactions[0], transactions[1], unknown));
+    assertEquals(1, t.getAll().size());
+    assertNotNull(t.get(3L));
+
+    // the first one got confirmed by a block that stays
+    when(transactionDbMock.hasTransaction(eq(1L))).thenReturn(true);
+    t.restoreForgedTransactions();
+    assertEquals(2, t.getAll().size());
+    assertNull(t.get(1L));
+    assertNotNull(t.get(2L));
+    assertNull(t.get(4L));
+
+    // restored only once
+    t.restoreForgedTransactions();
+    assertEquals(2, t.getAll().size());
+
+    // and only on the thread that removed them
+    t.removeForgedTransactions(Collections.singletonList(transactions[1]));
+    assertEquals(1, t.getAll().size());
+    Thread otherThread = new Thread(t::restoreForgedTransactions);
+    otherThread.start();
+    try {
+      otherThread.join();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+    assertEquals(1, t.getAll().size());
+  }
+
+  @DisplayName("Rebuilding the reserved balances while transactions get added never lets a sender overspend")
+  @Test
+  public void concurrentPutAndResetAccountBalancesNeverOverspend() throws Exception {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    final long amountNQT = Constants.ONE_BURST;
+    final long feeNQT = FEE_QUANT * 100;
+    final int affordable = 10;
+    final Account mockAccount = mock(Account.class);
+    final BurstKey mockAccountKey = mock(BurstKey.class);
+    when(accountBurstKeyFactoryMock.newKey(eq(456L))).thenReturn(mockAccountKey);
+    when(accountTableMock.get(eq(mockAccountKey))).thenReturn(mockAccount);
+    when(mockAccount.getUnconfirmedBalanceNQT()).thenReturn(affordable * (amountNQT + feeNQT));
+
+    final AtomicBoolean putting = new AtomicBoolean(true);
+    Thread resetter = new Thread(() -> {
+      while (putting.get()) {
+        t.resetAccountBalances();
+      }
+    });
+    resetter.start();
+    try {
+      for (int i = 1; i <= 1000; i++) {
+        Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, amountNQT, feeNQT, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+            .id(i).senderId(456L).build();
+        try {
+          t.put(transaction, null);
+        } catch (NotCurrentlyValidException e) {
+          // insufficient funds once the balance is reserved
+        }
+      }
+    } finally {
+      putting.set(false);
+      resetter.join();
+    }
+
+    assertEquals(affordable, t.getAll().size());
+    t.resetAccountBalances();
+    assertEquals(affordable, t.getAll().size());
+  }
+
+  @DisplayName("A rebuild releases the reservations made before it, so they have to be made again")
+  @Test
+  public void rebuildReleasesEarlierReservations() throws Exception {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    final long amountNQT = Constants.ONE_BURST;
+    final long feeNQT = FEE_QUANT * 100;
+    final Account mockAccount = mock(Account.class);
+    final BurstKey mockAccountKey = mock(BurstKey.class);
+    when(accountBurstKeyFactoryMock.newKey(eq(456L))).thenReturn(mockAccountKey);
+    when(accountTableMock.get(eq(mockAccountKey))).thenReturn(mockAccount);
+    when(mockAccount.getUnconfirmedBalanceNQT()).thenReturn(amountNQT + feeNQT);
+
+    final Transaction first = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, amountNQT, feeNQT, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+        .id(1).senderId(456L).build();
+    final Transaction second = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, amountNQT, feeNQT, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+        .id(2).senderId(456L).build();
+
+    final ReservedBalanceCache reservedBalanceCache = new ReservedBalanceCache(accountStoreMock);
+    final long epoch = reservedBalanceCache.reserveBalance(first);
+    assertTrue(reservedBalanceCache.isCurrent(epoch));
+    assertThrows(NotCurrentlyValidException.class, () -> reservedBalanceCache.reserveBalance(second));
+
+    assertTrue(reservedBalanceCache.rebuild(Collections.emptyList()).isEmpty());
+    assertFalse(reservedBalanceCache.isCurrent(epoch));
+
+    final long rebuiltEpoch = reservedBalanceCache.reserveBalance(second);
+    assertTrue(reservedBalanceCache.isCurrent(rebuiltEpoch));
+    assertThrows(NotCurrentlyValidException.class, () -> reservedBalanceCache.reserveBalance(first));
+  }
+
 }
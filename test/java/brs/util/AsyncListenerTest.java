@@ -0,0 +1,74 @@
+package brs.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AsyncListenerTest {
+
+  @Test
+  public void deliversEventsInOrder() throws InterruptedException {
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(100);
+    AsyncListener<Integer> listener = new AsyncListener<>("test", i -> {
+      received.add(i);
+      done.countDown();
+    }, 1000, AsyncListener.Overflow.DROP_NEWEST);
+
+    for (int i = 0; i < 100; i++) {
+      listener.notify(i);
+    }
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 100; i++) {
+      assertEquals((Integer) i, received.get(i));
+    }
+    assertEquals(0, listener.getDroppedCount());
+    listener.shutdown();
+  }
+
+  @Test
+  public void overflowPolicies() throws InterruptedException {
+    assertReceived(AsyncListener.Overflow.DROP_NEWEST, 0, 1, 2);
+    assertReceived(AsyncListener.Overflow.DROP_OLDEST, 0, 3, 4);
+    assertReceived(AsyncListener.Overflow.COALESCE, 0, 4);
+  }
+
+  private void assertReceived(AsyncListener.Overflow overflow, Integer... expected) throws InterruptedException {
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(expected.length);
+    AsyncListener<Integer> listener = new AsyncListener<>("test", i -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      received.add(i);
+      done.countDown();
+    }, 2, overflow);
+
+    listener.notify(0);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    for (int i = 1; i <= 4; i++) {
+      listener.notify(i);
+    }
+    assertEquals(overflow == AsyncListener.Overflow.COALESCE ? 1 : 2, listener.getQueueDepth());
+    assertEquals(4 - listener.getQueueDepth(), listener.getDroppedCount());
+
+    release.countDown();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertArrayEquals(expected, received.toArray());
+    listener.shutdown();
+  }
+}
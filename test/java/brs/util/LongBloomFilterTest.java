@@ -0,0 +1,54 @@
+package brs.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class LongBloomFilterTest {
+
+  @Test
+  public void addedKeysAreAlwaysFound() {
+    LongBloomFilter filter = new LongBloomFilter(10000);
+    Random random = new Random(42);
+    long[] keys = new long[10000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+      filter.add(keys[i]);
+    }
+    filter.add(0L);
+
+    for (long key : keys) {
+      assertTrue(filter.mightContain(key));
+    }
+    assertTrue(filter.mightContain(0L));
+  }
+
+  @Test
+  public void fewFalsePositivesAtExpectedSize() {
+    LongBloomFilter filter = new LongBloomFilter(10000);
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      filter.add(random.nextLong());
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100000; i++) {
+      if (filter.mightContain(random.nextLong())) {
+        falsePositives++;
+      }
+    }
+    assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+  }
+
+  @Test
+  public void emptyFilterContainsNothing() {
+    LongBloomFilter filter = new LongBloomFilter(0);
+    assertFalse(filter.mightContain(1L));
+    assertFalse(filter.mightContain(-1L));
+  }
+}
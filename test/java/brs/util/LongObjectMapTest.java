@@ -0,0 +1,69 @@
+package brs.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class LongObjectMapTest {
+
+  @Test
+  public void putGetAndRemove() {
+    LongObjectMap<String> map = new LongObjectMap<>();
+
+    assertNull(map.put(1L, "one"));
+    assertNull(map.put(0L, "zero"));
+    assertNull(map.put(-1L, "minus one"));
+    assertEquals("one", map.put(1L, "uno"));
+
+    assertEquals(3, map.size());
+    assertEquals("uno", map.get(1L));
+    assertEquals("zero", map.get(0L));
+    assertTrue(map.containsKey(-1L));
+    assertFalse(map.containsKey(2L));
+
+    assertEquals("zero", map.remove(0L));
+    assertNull(map.remove(0L));
+    assertEquals(2, map.size());
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(1L));
+  }
+
+  @Test
+  public void behavesLikeHashMapUnderRandomOperations() {
+    final Random random = new Random(42);
+    final LongObjectMap<Long> map = new LongObjectMap<>();
+    final Map<Long, Long> reference = new HashMap<>();
+
+    for (int i = 0; i < 200000; i++) {
+      long key = random.nextInt(2000) - 1000;
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(reference.put(key, (long) i), map.put(key, (long) i));
+          break;
+        case 1:
+          assertEquals(reference.remove(key), map.remove(key));
+          break;
+        default:
+          assertEquals(reference.get(key), map.get(key));
+          break;
+      }
+      assertEquals(reference.size(), map.size());
+    }
+
+    assertEquals(reference.size(), map.values().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullValuesAreRejected() {
+    new LongObjectMap<String>().put(1L, null);
+  }
+}
@@ -0,0 +1,43 @@
+package brs.util;
+
+import brs.common.QuickMocker;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertArrayEquals;
+
+@RunWith(JUnit4.class)
+public class MiningPlotTest {
+
+  @Test
+  public void reusedPlotMatchesFreshPlot() {
+    final FluxCapacitor poc1 = QuickMocker.fluxCapacitorEnabledFunctionalities();
+    final FluxCapacitor poc2 = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2);
+
+    final MiningPlot reused = new MiningPlot();
+    for (int i = 0; i < 4; i++) {
+      final FluxCapacitor fluxCapacitor = i % 2 == 0 ? poc2 : poc1;
+      reused.generate(123L + i, 456L * i, 1, fluxCapacitor);
+      final MiningPlot fresh = new MiningPlot(123L + i, 456L * i, 1, fluxCapacitor);
+
+      for (int scoop = 0; scoop < MiningPlot.SCOOPS_PER_PLOT; scoop += 511) {
+        assertArrayEquals(fresh.getScoop(scoop), reused.getScoop(scoop));
+      }
+    }
+  }
+
+  @Test
+  public void generatedScoopMatchesPlotScoop() {
+    for (FluxCapacitor fluxCapacitor : new FluxCapacitor[]{QuickMocker.fluxCapacitorEnabledFunctionalities(), QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2)}) {
+      final MiningPlot plot = new MiningPlot(123L, 456L, 1, fluxCapacitor);
+
+      for (int scoop = 0; scoop < MiningPlot.SCOOPS_PER_PLOT; scoop += 511) {
+        assertArrayEquals(plot.getScoop(scoop), MiningPlot.generateScoop(123L, 456L, scoop, 1, fluxCapacitor));
+      }
+      assertArrayEquals(plot.getScoop(MiningPlot.SCOOPS_PER_PLOT - 1), MiningPlot.generateScoop(123L, 456L, MiningPlot.SCOOPS_PER_PLOT - 1, 1, fluxCapacitor));
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package brs;
+
+import brs.BurstException.ValidationException;
+import brs.common.BenchmarkEnvironment;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.fluxcapacitor.FluxCapacitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static brs.Attachment.ORDINARY_PAYMENT;
+import static brs.Constants.FEE_QUANT;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockBenchmark {
+
+  @Param({"0", "255"})
+  private int transactionCount;
+
+  private Block block;
+
+  @Setup
+  public void setUp() throws ValidationException {
+    final BlockchainImpl blockchain = BenchmarkEnvironment.blockchainAt(() -> Integer.MAX_VALUE);
+    final FluxCapacitor fluxCapacitor = BenchmarkEnvironment.fluxCapacitor(QuickMocker.latestValueFluxCapacitor());
+    TransactionType.init(blockchain, fluxCapacitor, null, null, null, null, null, null);
+
+    final List<Transaction> transactions = new ArrayList<>();
+    for (int i = 1; i <= transactionCount; i++) {
+      transactions.add(new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, i, FEE_QUANT * 100, 0, (short) 1440, ORDINARY_PAYMENT)
+          .id(i).senderId(123L).recipientId(456L).build());
+    }
+
+    block = new Block(3, 1000, 1L, 0L, 0L, transactionCount * 176, new byte[32], TestConstants.TEST_PUBLIC_KEY_BYTES, new byte[32], new byte[64], new byte[32],
+        transactions, 0L, null, 1000);
+  }
+
+  @Benchmark
+  public byte[] getBytes() {
+    return block.getBytes();
+  }
+}
@@ -0,0 +1,48 @@
+package brs;
+
+import brs.BurstException.ValidationException;
+import brs.common.BenchmarkEnvironment;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.services.impl.TimeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static brs.Attachment.ORDINARY_PAYMENT;
+import static brs.Constants.FEE_QUANT;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionBenchmark {
+
+  private Transaction transaction;
+  private byte[] transactionBytes;
+
+  @Setup
+  public void setUp() throws ValidationException {
+    final BlockchainImpl blockchain = BenchmarkEnvironment.blockchainAt(() -> Integer.MAX_VALUE);
+    final FluxCapacitor fluxCapacitor = BenchmarkEnvironment.fluxCapacitor(QuickMocker.latestValueFluxCapacitor());
+    TransactionType.init(blockchain, fluxCapacitor, null, null, null, null, null, null);
+
+    transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, new TimeServiceImpl().getEpochTime(), (short) 1440, ORDINARY_PAYMENT)
+        .recipientId(123L).ecBlockHeight(1).ecBlockId(1L).build();
+    transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+    transactionBytes = transaction.getBytes();
+  }
+
+  @Benchmark
+  public Transaction parseTransaction() throws ValidationException {
+    return Transaction.parseTransaction(transactionBytes);
+  }
+
+  @Benchmark
+  public byte[] getBytes() {
+    return transaction.getBytes();
+  }
+}
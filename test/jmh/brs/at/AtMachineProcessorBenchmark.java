@@ -0,0 +1,49 @@
+package brs.at;
+
+import brs.common.BenchmarkEnvironment;
+import brs.common.QuickMocker;
+import brs.util.Convert;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps the interpreter through a tight arithmetic loop, so the numbers show the dispatch cost per instruction
+ * without any API calls into the chain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AtMachineProcessorBenchmark {
+
+  private static final int STEPS = 1000;
+
+  // SET @1 #3; loop: INC @0; ADD @1 $0; JMP loop
+  private static final byte[] LOOP_CODE = Convert.parseHexString("010100000003000000000000000400000000060100000000000000" + "1a0d000000");
+
+  private AtMachineProcessor processor;
+
+  @Setup
+  public void setUp() {
+    BenchmarkEnvironment.properties(new Properties());
+    BenchmarkEnvironment.fluxCapacitor(QuickMocker.latestValueFluxCapacitor());
+
+    final AtMachineState state = new AtMachineState(new byte[AtConstants.AT_ID_SIZE], new byte[AtConstants.AT_ID_SIZE], AtTestHelper.getCreationBytes(1, LOOP_CODE), Integer.MAX_VALUE);
+    AtController.resetMachine(state);
+    processor = new AtMachineProcessor(state, false);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(STEPS)
+  public int step() {
+    int rc = 0;
+    for (int i = 0; i < STEPS; i++) {
+      rc = processor.processOp(false, false);
+    }
+    return rc;
+  }
+}
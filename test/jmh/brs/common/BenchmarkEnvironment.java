@@ -0,0 +1,52 @@
+package brs.common;
+
+import brs.BPC;
+import brs.BlockchainImpl;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.props.PropertyService;
+import brs.props.PropertyServiceImpl;
+
+import java.lang.reflect.Field;
+import java.util.Properties;
+import java.util.function.IntSupplier;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Wires the {@link BPC} singletons the code under benchmark reaches for. JMH runs the benchmarks in a forked JVM
+ * without PowerMock, so the static fields get set directly instead of mocking their getters.
+ */
+public final class BenchmarkEnvironment {
+
+  private BenchmarkEnvironment() {
+  }
+
+  public static BlockchainImpl blockchainAt(IntSupplier height) {
+    final BlockchainImpl blockchain = mock(BlockchainImpl.class);
+    when(blockchain.getHeight()).thenAnswer(invocation -> height.getAsInt());
+    set("blockchain", blockchain);
+    return blockchain;
+  }
+
+  public static PropertyService properties(Properties properties) {
+    final PropertyService propertyService = new PropertyServiceImpl(properties);
+    set("propertyService", propertyService);
+    return propertyService;
+  }
+
+  public static FluxCapacitor fluxCapacitor(FluxCapacitor fluxCapacitor) {
+    set("fluxCapacitor", fluxCapacitor);
+    return fluxCapacitor;
+  }
+
+  private static void set(String field, Object value) {
+    try {
+      final Field bpcField = BPC.class.getDeclaredField(field);
+      bpcField.setAccessible(true);
+      bpcField.set(null, value);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not set BPC." + field, e);
+    }
+  }
+}
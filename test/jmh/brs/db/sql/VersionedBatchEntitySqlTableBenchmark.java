@@ -0,0 +1,79 @@
+package brs.db.sql;
+
+import brs.Account;
+import brs.common.BenchmarkEnvironment;
+import brs.common.TestInfrastructure;
+import brs.db.VersionedBatchEntityTable;
+import brs.db.cache.DBCacheManagerImpl;
+import brs.db.store.DerivedTableManager;
+import brs.props.PropertyService;
+import brs.props.Props;
+import brs.services.impl.TimeServiceImpl;
+import brs.statistics.StatisticsManagerImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes a block worth of account changes into an in-process H2 database. Every block touches the same accounts
+ * again, so the latest flag of the previous rows has to be cleared as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionedBatchEntitySqlTableBenchmark {
+
+  @Param({"100", "1000"})
+  private int accountsPerBlock;
+
+  private int height;
+
+  private DBCacheManagerImpl dbCacheManager;
+  private VersionedBatchEntityTable<Account> accountTable;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    final Properties properties = new Properties();
+    properties.setProperty(Props.DB_URL.getName(), TestInfrastructure.IN_MEMORY_DB_URL);
+    properties.setProperty(Props.DB_CONNECTIONS.getName(), "1");
+    final PropertyService propertyService = BenchmarkEnvironment.properties(properties);
+    BenchmarkEnvironment.blockchainAt(() -> height);
+
+    dbCacheManager = new DBCacheManagerImpl(propertyService, new StatisticsManagerImpl(new TimeServiceImpl()));
+    Db.init(propertyService, dbCacheManager);
+    accountTable = new SqlAccountStore(new DerivedTableManager(), dbCacheManager).getAccountTable();
+  }
+
+  @Setup(Level.Invocation)
+  public void fillBatch() {
+    Db.beginTransaction();
+    height++;
+    for (long id = 1; id <= accountsPerBlock; id++) {
+      final Account account = new SqlAccountStore.CachedAccount(id, 1);
+      account.setBalanceNQT(height * id);
+      account.setUnconfirmedBalanceNQT(height * id);
+      accountTable.insert(account);
+    }
+  }
+
+  @Benchmark
+  public void finish() {
+    accountTable.finish();
+  }
+
+  @TearDown(Level.Invocation)
+  public void commit() {
+    Db.commitTransaction();
+    Db.endTransaction();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() {
+    Db.shutdown();
+    dbCacheManager.close();
+  }
+}
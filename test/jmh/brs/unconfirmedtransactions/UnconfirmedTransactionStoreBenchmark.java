@@ -0,0 +1,120 @@
+package brs.unconfirmedtransactions;
+
+import brs.Account;
+import brs.BlockchainImpl;
+import brs.BurstException.ValidationException;
+import brs.Constants;
+import brs.Transaction;
+import brs.TransactionType;
+import brs.common.BenchmarkEnvironment;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.db.BurstKey;
+import brs.db.BurstKey.LongKeyFactory;
+import brs.db.TransactionDb;
+import brs.db.VersionedBatchEntityTable;
+import brs.db.store.AccountStore;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import brs.props.PropertyService;
+import brs.services.TimeService;
+import brs.services.impl.TimeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static brs.Attachment.ORDINARY_PAYMENT;
+import static brs.Constants.FEE_QUANT;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrent {@link UnconfirmedTransactionStoreImpl#put} from several peers. Every thread feeds its own pre-signed
+ * transactions, more of them than the pool holds, so the eviction of the cheapest transactions is part of the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class UnconfirmedTransactionStoreBenchmark {
+
+  private static final int THREADS = 4;
+  private static final int TRANSACTIONS_PER_THREAD = 16384;
+
+  private final TimeService timeService = new TimeServiceImpl();
+
+  private final AtomicInteger nextThread = new AtomicInteger();
+
+  private PropertyService propertyService;
+  private AccountStore accountStore;
+  private TransactionDb transactionDb;
+  private Transaction[][] transactions;
+
+  private UnconfirmedTransactionStoreImpl store;
+
+  @State(Scope.Thread)
+  public static class Feeder {
+    private Transaction[] transactions;
+    private int next;
+
+    @Setup
+    public void setUp(UnconfirmedTransactionStoreBenchmark benchmark) {
+      transactions = benchmark.transactions[benchmark.nextThread.getAndIncrement() % THREADS];
+    }
+
+    Transaction next() {
+      final Transaction transaction = transactions[next];
+      next = (next + 1) % transactions.length;
+      return transaction;
+    }
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUpTrial() throws ValidationException {
+    final BlockchainImpl blockchain = BenchmarkEnvironment.blockchainAt(() -> 20);
+    final FluxCapacitor fluxCapacitor = BenchmarkEnvironment.fluxCapacitor(QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.PRE_DYMAXION, FluxValues.DIGITAL_GOODS_STORE));
+    propertyService = BenchmarkEnvironment.properties(new Properties());
+    TransactionType.init(blockchain, fluxCapacitor, null, null, null, null, null, null);
+
+    accountStore = mock(AccountStore.class);
+    final VersionedBatchEntityTable<Account> accountTable = mock(VersionedBatchEntityTable.class);
+    final LongKeyFactory<Account> accountKeyFactory = mock(LongKeyFactory.class);
+    final BurstKey accountKey = mock(BurstKey.class);
+    final Account account = mock(Account.class);
+    when(accountStore.getAccountTable()).thenReturn(accountTable);
+    when(accountStore.getAccountKeyFactory()).thenReturn(accountKeyFactory);
+    when(accountKeyFactory.newKey(anyLong())).thenReturn(accountKey);
+    when(accountTable.get(any())).thenReturn(account);
+    when(account.getUnconfirmedBalanceNQT()).thenReturn(Constants.MAX_BALANCE_NQT);
+    transactionDb = mock(TransactionDb.class);
+
+    transactions = new Transaction[THREADS][TRANSACTIONS_PER_THREAD];
+    long id = 1;
+    for (int thread = 0; thread < THREADS; thread++) {
+      for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++, id++) {
+        final Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * (1 + id % 100), timeService.getEpochTime(), (short) 1440, ORDINARY_PAYMENT)
+            .id(id).senderId(100L + thread).build();
+        transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+        transactions[thread][i] = transaction;
+      }
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUpIteration() {
+    store = new UnconfirmedTransactionStoreImpl(timeService, propertyService, accountStore, transactionDb);
+  }
+
+  @Benchmark
+  public boolean put(Feeder feeder) throws ValidationException {
+    return store.put(feeder.next(), null);
+  }
+}
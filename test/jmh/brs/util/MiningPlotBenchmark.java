@@ -0,0 +1,56 @@
+package brs.util;
+
+import brs.common.QuickMocker;
+import brs.crypto.Crypto;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating the plot of a nonce is what verifying a deadline costs, next to hashing the one scoop it asks for.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiningPlotBenchmark {
+
+  @Param({"true", "false"})
+  private boolean poc2;
+
+  private FluxCapacitor fluxCapacitor;
+  private MiningPlot plot;
+  private MessageDigest shabal256;
+  private final byte[] scoop = new byte[MiningPlot.SCOOP_SIZE];
+  private long nonce;
+
+  @Setup
+  public void setUp() {
+    fluxCapacitor = poc2 ? QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2) : QuickMocker.fluxCapacitorEnabledFunctionalities();
+    plot = new MiningPlot(123L, 456L, 1, fluxCapacitor);
+    shabal256 = Crypto.shabal256();
+  }
+
+  @Benchmark
+  public MiningPlot generatePlot() {
+    return new MiningPlot(123L, nonce++, 1, fluxCapacitor);
+  }
+
+  @Benchmark
+  public byte[] generateScoop() {
+    MiningPlot.generateScoop(123L, nonce++, 7, 1, fluxCapacitor, scoop);
+    return scoop;
+  }
+
+  @Benchmark
+  public byte[] hashScoop() {
+    shabal256.update(new byte[32]);
+    plot.hashScoop(shabal256, (int) (nonce++ % MiningPlot.SCOOPS_PER_PLOT));
+    return shabal256.digest();
+  }
+}